@@ -1,14 +1,17 @@
 package com.yoursp.uaepass.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
- * Async configuration for background signature completion tasks.
+ * Async configuration for background signature completion, bulk eSeal tasks
+ * and bulk hash-signing fan-out (initiation and completion have separate pools).
  */
 @Configuration
 @EnableAsync
@@ -24,4 +27,57 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Workers for queued bulk eSeal jobs. The queue is kept short on purpose:
+     * jobs wait in eseal_jobs, and ESealBatchWorker only claims what fits here.
+     */
+    @Bean(name = "esealExecutor")
+    public ThreadPoolTaskExecutor esealExecutor(@Value("${eseal.bulk.workers:8}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(workers);
+        executor.setThreadNamePrefix("eseal-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Hash SDK /start calls for bulk initiation. The pool size is the number of
+     * /start calls in flight across all users; when the queue is full the
+     * request thread runs the task itself rather than failing the bulk request.
+     */
+    @Bean(name = "hashSignExecutor")
+    public ThreadPoolTaskExecutor hashSignExecutor(
+            @Value("${hashsign.bulk.start-concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("hashsign-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Per-document SDK /sign, LTV and uploads for bulk hash-sign completion,
+     * fanned out from {@code signatureExecutor}. Kept apart from
+     * {@code hashSignExecutor} so completions neither compete with initiation
+     * for /start slots nor spill onto the signatureExecutor thread: the queue
+     * is unbounded, and its depth is already limited by signatureExecutor.
+     */
+    @Bean(name = "hashSignCompleteExecutor")
+    public ThreadPoolTaskExecutor hashSignCompleteExecutor(
+            @Value("${hashsign.bulk.complete-concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("hashsign-complete-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -0,0 +1,43 @@
+package com.yoursp.uaepass.config;
+
+import com.yoursp.uaepass.modules.auth.AesGcmCrypto;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * AES-GCM key rings for stored access tokens ({@code token.*}) and Emirates
+ * IDs ({@code idn.*}).
+ * <p>
+ * {@code <prefix>.encryption-key} is the original key and keeps decrypting
+ * existing data. To rotate, add {@code <prefix>.encryption-keys.<id>} and set
+ * {@code <prefix>.active-key-id} to it.
+ * </p>
+ */
+@Configuration
+public class CryptoConfig {
+
+    @Bean
+    public AesGcmCrypto tokenCrypto(Environment environment) {
+        return keyRing(environment, "token");
+    }
+
+    @Bean
+    public AesGcmCrypto idnCrypto(Environment environment) {
+        return keyRing(environment, "idn");
+    }
+
+    private static AesGcmCrypto keyRing(Environment environment, String prefix) {
+        Map<String, String> secrets = Binder.get(environment)
+                .bind(prefix + ".encryption-keys", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        return new AesGcmCrypto(
+                environment.getRequiredProperty(prefix + ".encryption-key"),
+                secrets,
+                environment.getProperty(prefix + ".active-key-id", ""));
+    }
+}
@@ -0,0 +1,29 @@
+package com.yoursp.uaepass.config;
+
+import com.yoursp.uaepass.modules.eseal.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Concurrency limiter shared by every call through ESealSoapClient (PAdES,
+ * CAdES, verification and bulk workers). Registered as a MeterBinder, so its
+ * limit / in-flight / queued / rejected meters are exported automatically.
+ */
+@Configuration
+public class ESealConcurrencyConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter esealConcurrencyLimiter(
+            @Value("${eseal.limiter.initial-limit:8}") int initialLimit,
+            @Value("${eseal.limiter.min-limit:2}") int minLimit,
+            @Value("${eseal.limiter.max-limit:64}") int maxLimit,
+            @Value("${eseal.limiter.max-queue:32}") int maxQueue,
+            @Value("${eseal.limiter.max-wait-ms:2000}") long maxWaitMs,
+            @Value("${eseal.limiter.latency-tolerance:2.0}") double latencyTolerance) {
+        return new AdaptiveConcurrencyLimiter("eseal.soap", initialLimit, minLimit, maxLimit,
+                maxQueue, Duration.ofMillis(maxWaitMs), latencyTolerance);
+    }
+}
@@ -0,0 +1,26 @@
+package com.yoursp.uaepass.config;
+
+import com.yoursp.uaepass.modules.hashsigning.HashSignSdkPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+
+/**
+ * Hash Signing SDK sidecar pool. {@code hashsign.sdk-urls} is a comma-separated
+ * list; when unset the single {@code hashsign.sdk-url} is used.
+ * {@code hashsign.retired-sdk-urls} lists instances taken out of the pool whose
+ * pending transactions may still be signed. Registered as a MeterBinder, so
+ * per-instance meters are exported automatically.
+ */
+@Configuration
+public class HashSignSdkConfig {
+
+    @Bean
+    public HashSignSdkPool hashSignSdkPool(
+            @Value("${hashsign.sdk-urls:${hashsign.sdk-url:http://localhost:8081}}") String[] urls,
+            @Value("${hashsign.retired-sdk-urls:}") String[] retiredUrls) {
+        return new HashSignSdkPool(Arrays.asList(urls), Arrays.asList(retiredUrls));
+    }
+}
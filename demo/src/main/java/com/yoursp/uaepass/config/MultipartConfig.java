@@ -0,0 +1,33 @@
+package com.yoursp.uaepass.config;
+
+import com.yoursp.uaepass.filter.UploadSizeLimitFilter;
+import jakarta.servlet.MultipartConfigElement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Servlet container multipart limits.
+ * <ul>
+ * <li>{@code spring.servlet.multipart.*} stays the limit for every endpoint</li>
+ * <li>The container accepts up to {@code eseal.bulk.max-request-size} so that
+ * {@code POST /eseal/bulk} can carry a whole batch; {@link UploadSizeLimitFilter}
+ * holds every other endpoint to the global limit</li>
+ * </ul>
+ */
+@Configuration
+public class MultipartConfig {
+
+    @Bean
+    public MultipartConfigElement multipartConfigElement(MultipartProperties properties,
+            @Value("${eseal.bulk.max-request-size:200MB}") DataSize bulkMaxRequestSize) {
+        MultipartConfigElement global = properties.createMultipartConfig();
+        long maxRequestSize = global.getMaxRequestSize() < 0
+                ? global.getMaxRequestSize()
+                : Math.max(global.getMaxRequestSize(), bulkMaxRequestSize.toBytes());
+        return new MultipartConfigElement(global.getLocation(), global.getMaxFileSize(), maxRequestSize,
+                global.getFileSizeThreshold());
+    }
+}
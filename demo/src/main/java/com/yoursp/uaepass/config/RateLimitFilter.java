@@ -7,20 +7,33 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Instant;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Sliding window rate limiter using Redis ZADD + ZREMRANGEBYSCORE.
- * <p>
- * Budget: ~500 extra Redis commands/day — within Upstash free tier.
- * </p>
+ * Redis-backed rate limiter. Each check is one Lua script call — a single
+ * round trip, atomic, so concurrent requests cannot overshoot the limit.
+ * <ul>
+ * <li>{@link Algorithm#SLIDING_LOG}: exact sliding window, one sorted-set
+ * member per request — for small limits</li>
+ * <li>{@link Algorithm#SLIDING_WINDOW}: sliding window counter, one small
+ * hash per key</li>
+ * <li>{@link Algorithm#GCRA}: evenly spaced requests with a burst of
+ * {@code maxRequests}, one string per key</li>
+ * </ul>
+ * The algorithm is chosen per endpoint in {@link #resolveConfig(String)}.
+ * Redis failures let the request through.
  */
 @SuppressWarnings("null")
 @Slf4j
@@ -56,65 +69,69 @@ public class RateLimitFilter extends OncePerRequestFilter {
         }
 
         String identifier = resolveIdentifier(request, config);
-        String key = "ratelimit:" + config.endpointKey + ":" + identifier;
+        // Algorithm in the key: each one stores a different Redis type
+        String key = "ratelimit:" + config.algorithm.keyTag + ":" + config.endpointKey + ":" + identifier;
 
-        if (isRateLimited(key, config.maxRequests, config.windowSeconds)) {
+        long retryAfterSeconds = checkRateLimit(key, config);
+        if (retryAfterSeconds > 0) {
             log.warn("Rate limited: key={}, path={}", key, path);
             response.setStatus(429);
-            response.setHeader("Retry-After", String.valueOf(config.windowSeconds));
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
             response.setContentType("application/json");
             response.getWriter().write(objectMapper.writeValueAsString(Map.of(
                     "error", "RATE_LIMITED",
                     "message", "Too many requests. Try again later.",
-                    "retryAfterSeconds", config.windowSeconds)));
+                    "retryAfterSeconds", retryAfterSeconds)));
             return;
         }
 
         chain.doFilter(request, response);
     }
 
-    private boolean isRateLimited(String key, int maxRequests, int windowSeconds) {
+    /**
+     * @return seconds until the request would be allowed, or 0 if it is
+     */
+    long checkRateLimit(String key, RateLimitConfig config) {
         try {
-            double now = Instant.now().toEpochMilli();
-            double windowStart = now - (windowSeconds * 1000.0);
-
-            // Remove expired entries
-            redisTemplate.opsForZSet().removeRangeByScore(key, 0, windowStart);
-
-            // Count current entries
-            Long count = redisTemplate.opsForZSet().zCard(key);
-
-            if (count != null && count >= maxRequests) {
-                return true;
+            long now = System.currentTimeMillis();
+            String window = String.valueOf(config.windowSeconds * 1000L);
+            String limit = String.valueOf(config.maxRequests);
+            List<?> result = config.algorithm == Algorithm.SLIDING_LOG
+                    ? redisTemplate.execute(config.algorithm.script, List.of(key), String.valueOf(now), window,
+                            limit, now + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong()))
+                    : redisTemplate.execute(config.algorithm.script, List.of(key), String.valueOf(now), window,
+                            limit);
+            if (result == null || ((Number) result.get(0)).longValue() == 1) {
+                return 0;
             }
-
-            // Add current request
-            redisTemplate.opsForZSet().add(key, String.valueOf(now), now);
-
-            // Set key expiry (auto-cleanup)
-            redisTemplate.expire(key, java.time.Duration.ofSeconds(windowSeconds + 10));
-
-            return false;
+            long retryAfterMs = ((Number) result.get(1)).longValue();
+            return Math.max(1, (retryAfterMs + 999) / 1000);
         } catch (Exception e) {
             // On Redis failure, allow the request (fail-open)
             log.warn("Rate limit check failed (allowing request): {}", e.getMessage());
-            return false;
+            return 0;
         }
     }
 
-    private RateLimitConfig resolveConfig(String path) {
+    RateLimitConfig resolveConfig(String path) {
         if (path.equals("/auth/login")) {
-            return new RateLimitConfig("auth_login", 10, 60, true);
+            return new RateLimitConfig("auth_login", 10, 60, true, Algorithm.SLIDING_WINDOW);
         } else if (path.equals("/auth/callback")) {
-            return new RateLimitConfig("auth_callback", 5, 60, true);
+            return new RateLimitConfig("auth_callback", 5, 60, true, Algorithm.SLIDING_WINDOW);
         } else if (path.equals("/auth/register")) {
-            return new RateLimitConfig("auth_register", 3, 300, true);
+            return new RateLimitConfig("auth_register", 3, 300, true, Algorithm.SLIDING_LOG);
         } else if (path.equals("/signature/initiate")) {
-            return new RateLimitConfig("sig_initiate", 20, 3600, false);
+            return new RateLimitConfig("sig_initiate", 20, 3600, false, Algorithm.GCRA);
+        } else if (path.equals("/eseal/bulk")) {
+            // Batch submission — each request carries up to eseal.bulk.max-files documents
+            return new RateLimitConfig("eseal_bulk", 5, 3600, false, Algorithm.GCRA);
+        } else if (path.startsWith("/eseal/bulk/")) {
+            // Batch status polling / ZIP download — kept out of the sealing budget
+            return new RateLimitConfig("eseal_bulk_status", 600, 3600, false, Algorithm.GCRA);
         } else if (path.startsWith("/eseal/")) {
-            return new RateLimitConfig("eseal", 50, 3600, false);
+            return new RateLimitConfig("eseal", 50, 3600, false, Algorithm.GCRA);
         } else if (path.equals("/face/verify/initiate")) {
-            return new RateLimitConfig("face_verify", 10, 300, true);
+            return new RateLimitConfig("face_verify", 10, 300, true, Algorithm.SLIDING_WINDOW);
         }
         return null;
     }
@@ -139,6 +156,31 @@ public class RateLimitFilter extends OncePerRequestFilter {
         return request.getRemoteAddr();
     }
 
-    private record RateLimitConfig(String endpointKey, int maxRequests, int windowSeconds, boolean useIp) {
+    record RateLimitConfig(String endpointKey, int maxRequests, int windowSeconds, boolean useIp,
+            Algorithm algorithm) {
+    }
+
+    /**
+     * Scripts return {@code {allowed (1/0), retryAfterMillis}}.
+     */
+    enum Algorithm {
+        SLIDING_LOG("log", "scripts/ratelimit/sliding_log.lua"),
+        SLIDING_WINDOW("sw", "scripts/ratelimit/sliding_window.lua"),
+        GCRA("gcra", "scripts/ratelimit/gcra.lua");
+
+        final String keyTag;
+        @SuppressWarnings("rawtypes")
+        final RedisScript<List> script;
+
+        Algorithm(String keyTag, String scriptPath) {
+            this.keyTag = keyTag;
+            // Read once: a Resource-backed script re-checks the file on every call
+            try {
+                this.script = RedisScript.of(StreamUtils.copyToString(
+                        new ClassPathResource(scriptPath).getInputStream(), StandardCharsets.UTF_8), List.class);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load rate limit script " + scriptPath, e);
+            }
+        }
     }
 }
@@ -21,6 +21,10 @@ public class UaePassProperties {
     private String scope;
     private String acrValues;
     private String uiLocales;
+    /** Optional; defaults to {@code baseUrl + /idshub/jwks} */
+    private String jwksUrl;
+    /** Expected id_token {@code iss}; not checked when blank */
+    private String issuer;
 
     /** Convenience: authorization endpoint */
     public String getAuthorizeUrl() {
@@ -37,6 +41,11 @@ public class UaePassProperties {
         return baseUrl + "/idshub/userinfo";
     }
 
+    /** JWKS endpoint for id_token signature keys */
+    public String getJwksUrl() {
+        return jwksUrl != null && !jwksUrl.isBlank() ? jwksUrl : baseUrl + "/idshub/jwks";
+    }
+
     /** Convenience: logout endpoint */
     public String getLogoutUrl() {
         return baseUrl + "/idshub/logout";
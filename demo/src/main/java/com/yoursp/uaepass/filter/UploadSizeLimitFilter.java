@@ -0,0 +1,112 @@
+package com.yoursp.uaepass.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies the global multipart request limit to every endpoint except
+ * {@code POST /eseal/bulk}.
+ * <ul>
+ * <li>The servlet container is configured with the larger bulk limit
+ * ({@code eseal.bulk.max-request-size}) — see {@code MultipartConfig}</li>
+ * <li>Requests declaring a larger {@code Content-Length} get 413 before any
+ * part is read</li>
+ * <li>Chunked requests are checked once their parts are parsed; Spring turns
+ * the failure into {@code MaxUploadSizeExceededException} (413)</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class UploadSizeLimitFilter extends OncePerRequestFilter {
+
+    static final String BULK_PATH = "/eseal/bulk";
+
+    private final long maxRequestSize;
+    private final ObjectMapper objectMapper;
+
+    public UploadSizeLimitFilter(MultipartProperties multipartProperties, ObjectMapper objectMapper) {
+        DataSize limit = multipartProperties.getMaxRequestSize();
+        this.maxRequestSize = limit == null ? -1 : limit.toBytes();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return maxRequestSize < 0
+                || contentType == null
+                || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")
+                || ("POST".equals(request.getMethod()) && isBulkPath(request));
+    }
+
+    /** Path within the application (no context path), ignoring one trailing slash. */
+    static boolean isBulkPath(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+        if (path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return BULK_PATH.equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain chain) throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        if (length > maxRequestSize) {
+            log.warn("Upload rejected: {} bytes to {} exceeds {} bytes", length, request.getRequestURI(),
+                    maxRequestSize);
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            response.setContentType("application/json");
+            response.getWriter().write(objectMapper.writeValueAsString(Map.of(
+                    "error", "PAYLOAD_TOO_LARGE",
+                    "message", "Request exceeds the maximum upload size of " + maxRequestSize + " bytes")));
+            return;
+        }
+        chain.doFilter(length < 0 ? new PartSizeCheckingRequest(request, maxRequestSize) : request, response);
+    }
+
+    /** Enforces the limit on parsed parts when the request length was not declared. */
+    static final class PartSizeCheckingRequest extends HttpServletRequestWrapper {
+
+        private final long maxRequestSize;
+
+        PartSizeCheckingRequest(HttpServletRequest request, long maxRequestSize) {
+            super(request);
+            this.maxRequestSize = maxRequestSize;
+        }
+
+        @Override
+        public Collection<Part> getParts() throws IOException, ServletException {
+            Collection<Part> parts = super.getParts();
+            long total = 0;
+            for (Part part : parts) {
+                total += part.getSize();
+            }
+            if (total > maxRequestSize) {
+                // Part files are removed by the container when the request ends. Wording
+                // matters: Spring maps "exceed" + "size" to MaxUploadSizeExceededException
+                throw new IllegalStateException("Multipart request size " + total
+                        + " exceeds the configured maximum (" + maxRequestSize + ")");
+            }
+            return parts;
+        }
+    }
+}
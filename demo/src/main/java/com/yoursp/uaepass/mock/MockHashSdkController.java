@@ -1,19 +1,58 @@
 package com.yoursp.uaepass.mock;
 
+import com.yoursp.uaepass.util.Digests;
+import com.yoursp.uaepass.util.Hex;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Mock Hash Signing SDK controller for local development.
+ * Mock Hash Signing SDK controller for local development and load testing.
  * <p>
  * Active only when the "mock" Spring profile is enabled.
  * </p>
  * <p>
- * Simulates the Hash Signing Docker sidecar (normally on port 8081).
+ * Simulates the Hash Signing Docker sidecar (normally on port 8081) with the
+ * contract {@code HashSignSdkClient} relies on:
+ * </p>
+ * <ul>
+ * <li>POST /start — multipart ({@code document} PDF part + {@code signProp});
+ * prepares the PDF with a signature reservation and returns
+ * {@code txId}, {@code sign_identity_id} and the SHA-256 {@code digest} of the
+ * prepared document</li>
+ * <li>GET /health — liveness, probed by {@code HashSignSdkClient}</li>
+ * <li>POST /sign — requires {@code X-SIGN-ACCESSTOKEN}; returns the signed PDF
+ * (same size as the prepared one). A txId can be signed once — reuse answers
+ * HTTP 412 like the real SDK</li>
+ * </ul>
+ * <p>
+ * Prepared documents live in temp files, not on the heap; at most
+ * {@code mock.hashsdk.max-transactions} are kept and the oldest is deleted
+ * when the cap is reached.
+ * </p>
+ * <p>
+ * Latency and error rate are configurable per endpoint ({@code mock.hashsdk.*});
+ * injected errors are HTTP 503.
  * </p>
  *
  * <pre>
@@ -26,53 +65,175 @@ import java.util.*;
 @Profile("mock")
 public class MockHashSdkController {
 
+    /** Size of the /Contents placeholder the SDK reserves for the PKCS#7. */
+    static final int SIGNATURE_RESERVATION_BYTES = 8192;
+
+    private final SimulatedBackend start;
+    private final SimulatedBackend sign;
+    private final Map<String, Transaction> transactions;
+
+    private record Transaction(Path prepared, String signIdentityId, AtomicBoolean signed) {
+    }
+
+    public MockHashSdkController(
+            @Value("${mock.hashsdk.start.latency-median-ms:150}") long startMedianMs,
+            @Value("${mock.hashsdk.start.latency-p99-ms:800}") long startP99Ms,
+            @Value("${mock.hashsdk.start.error-rate:0}") double startErrorRate,
+            @Value("${mock.hashsdk.sign.latency-median-ms:400}") long signMedianMs,
+            @Value("${mock.hashsdk.sign.latency-p99-ms:2500}") long signP99Ms,
+            @Value("${mock.hashsdk.sign.error-rate:0}") double signErrorRate,
+            @Value("${mock.hashsdk.max-transactions:200}") int maxTransactions) {
+        this.start = new SimulatedBackend("hashsdk-start", startMedianMs, startP99Ms, startErrorRate);
+        this.sign = new SimulatedBackend("hashsdk-sign", signMedianMs, signP99Ms, signErrorRate);
+        // Oldest transactions are dropped so long load tests do not fill the disk
+        this.transactions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Transaction> eldest) {
+                if (size() <= maxTransactions) {
+                    return false;
+                }
+                deleteQuietly(eldest.getValue().prepared());
+                return true;
+            }
+        });
+    }
+
+    /** Delete every prepared document still on disk. */
+    @PreDestroy
+    public void deleteAll() {
+        synchronized (transactions) {
+            transactions.values().forEach(tx -> deleteQuietly(tx.prepared()));
+            transactions.clear();
+        }
+    }
+
+    @GetMapping("/health")
+    public Map<String, String> health() {
+        return Map.of("status", "UP");
+    }
+
     // ================================================================
-    // POST /start — Start hash signing process
+    // POST /start — Prepare the document and return its digest
     // ================================================================
 
-    @PostMapping("/start")
-    public ResponseEntity<?> start(@RequestBody Map<String, Object> request) {
-        log.info("[MOCK] Hash SDK /start called: txId={}", request.get("txId"));
+    @PostMapping(value = "/start", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> start(@RequestPart(value = "document", required = false) MultipartFile document,
+            @RequestParam(value = "signProp", required = false) String signProp) throws IOException {
+        log.info("[MOCK] Hash SDK /start called: signProp={}", signProp);
 
-        String txId = (String) request.getOrDefault("txId", UUID.randomUUID().toString());
+        start.delay();
+        if (start.shouldFail()) {
+            return unavailable();
+        }
+        if (document == null || document.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "document is required"));
+        }
+
+        String txId = UUID.randomUUID().toString();
+        String signIdentityId = "mock-sign-identity-" + UUID.randomUUID();
+        Path prepared = Files.createTempFile("mock-hashsdk-", ".pdf");
+        byte[] digest;
+        try {
+            prepare(document, prepared);
+            try (InputStream in = Files.newInputStream(prepared)) {
+                digest = Digests.sha256(in);
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(prepared);
+            throw e;
+        }
+        transactions.put(txId, new Transaction(prepared, signIdentityId, new AtomicBoolean()));
 
         return ResponseEntity.ok(Map.of(
                 "status", "success",
                 "txId", txId,
-                "authorizeUrl", "https://stg-id.uaepass.ae/idshub/authorize?mock=true&txId=" + txId,
+                "sign_identity_id", signIdentityId,
+                "digest", Hex.encode(digest),
                 "message", "MOCK: Hash signing process started"));
     }
 
     // ================================================================
-    // POST /finalize — Finalize hash signing (after user approval)
+    // POST /sign — Sign the prepared document (once per txId)
     // ================================================================
 
-    @PostMapping("/finalize")
-    public ResponseEntity<?> finalize(@RequestBody Map<String, Object> request) {
-        log.info("[MOCK] Hash SDK /finalize called: txId={}", request.get("txId"));
+    @PostMapping("/sign")
+    public ResponseEntity<?> sign(@RequestBody Map<String, Object> request,
+            @RequestHeader(value = "X-SIGN-ACCESSTOKEN", required = false) String accessToken) throws IOException {
+        String txId = (String) request.get("txId");
+        log.info("[MOCK] Hash SDK /sign called: txId={}", txId);
 
-        // Return mock PKCS#7 signed hash (base64-encoded random bytes)
-        byte[] mockSignature = new byte[256];
-        new Random().nextBytes(mockSignature);
+        sign.delay();
+        if (sign.shouldFail()) {
+            return unavailable();
+        }
+        if (accessToken == null || accessToken.isBlank()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("status", "error", "message", "X-SIGN-ACCESSTOKEN is required"));
+        }
 
-        return ResponseEntity.ok(Map.of(
-                "status", "success",
-                "txId", request.getOrDefault("txId", "mock-tx"),
-                "signedHash", Base64.getEncoder().encodeToString(mockSignature),
-                "message", "MOCK: Hash signed successfully"));
+        Transaction tx = txId == null ? null : transactions.get(txId);
+        if (tx == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("status", "error", "message", "Unknown txId"));
+        }
+        if (!tx.signIdentityId().equals(request.get("sign_identity_id"))) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("status", "error", "message", "sign_identity_id does not match txId"));
+        }
+        if (!tx.signed().compareAndSet(false, true)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(Map.of("status", "error", "message", "txId has already been used"));
+        }
+
+        // Signed once, so the prepared file can be overwritten in place and served as is
+        fillReservation(tx.prepared());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(new FileSystemResource(tx.prepared()));
     }
 
     // ================================================================
-    // GET /status — Check signing status
+    // Document model
     // ================================================================
 
-    @GetMapping("/status/{txId}")
-    public ResponseEntity<?> status(@PathVariable String txId) {
-        log.info("[MOCK] Hash SDK /status called: txId={}", txId);
+    /** Bytes the SDK appends to the input: an empty signature reservation. */
+    static byte[] reservation() {
+        return ("\n%MOCK /Contents <" + "0".repeat(SIGNATURE_RESERVATION_BYTES) + ">\n%%EOF\n")
+                .getBytes(StandardCharsets.US_ASCII);
+    }
 
-        return ResponseEntity.ok(Map.of(
-                "status", "COMPLETED",
-                "txId", txId,
-                "message", "MOCK: Signing completed"));
+    /** Write the input PDF followed by the reservation to {@code target}, as the SDK produces. */
+    static void prepare(MultipartFile pdf, Path target) throws IOException {
+        try (InputStream in = pdf.getInputStream()) {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.write(target, reservation(), StandardOpenOption.APPEND);
+    }
+
+    /** Overwrite the reservation with signature bytes in place — the size does not change. */
+    static void fillReservation(Path prepared) throws IOException {
+        byte[] signature = new byte[SIGNATURE_RESERVATION_BYTES];
+        String hex = "0123456789abcdef";
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = (byte) hex.charAt(random.nextInt(16));
+        }
+        try (FileChannel channel = FileChannel.open(prepared, StandardOpenOption.WRITE)) {
+            long begin = channel.size() - ">\n%%EOF\n".length() - SIGNATURE_RESERVATION_BYTES;
+            channel.write(ByteBuffer.wrap(signature), begin);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("[MOCK] Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<?> unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", "error", "message", "MOCK: SDK temporarily unavailable"));
     }
 }
@@ -1,20 +1,40 @@
 package com.yoursp.uaepass.mock;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Mock SOAP endpoints for local development.
+ * Mock SOAP endpoints for local development and load testing.
  * <p>
  * Active only when the "mock" Spring profile is enabled.
  * </p>
  * <p>
- * Simulates: eSeal, LTV, Signature Verification SOAP responses.
+ * Simulates: eSeal, LTV, Signature Verification SOAP responses. Responses
+ * have the shape the real DSS returns for each request type, and their size
+ * follows the input:
+ * </p>
+ * <ul>
+ * <li>PAdES sign — the input PDF plus a seal trailer, in
+ * DocumentWithSignature/XMLData/Base64Data</li>
+ * <li>CAdES sign — a PKCS#7-sized blob enveloping the input, in
+ * SignatureObject/Base64Signature</li>
+ * <li>CAdES DocumentHash — a detached, constant-size signature</li>
+ * <li>VerifyRequest — a Success result</li>
+ * </ul>
+ * <p>
+ * Each endpoint has its own latency distribution and error rate
+ * ({@code mock.soap.*}); injected errors are HTTP 503 SOAP faults.
  * </p>
  *
  * <pre>
@@ -27,33 +47,67 @@ import java.util.UUID;
 @Profile("mock")
 public class MockSoapController {
 
+    /** Typical size of a CMS SignedData with the eSeal certificate chain. */
+    static final int CMS_OVERHEAD_BYTES = 1800;
+
+    private static final Pattern REQUEST_ID = Pattern.compile("RequestID=\"([^\"]*)\"");
+
+    private final SimulatedBackend eseal;
+    private final SimulatedBackend ltv;
+    private final SimulatedBackend verify;
+
+    public MockSoapController(
+            @Value("${mock.soap.eseal.latency-median-ms:300}") long esealMedianMs,
+            @Value("${mock.soap.eseal.latency-p99-ms:2000}") long esealP99Ms,
+            @Value("${mock.soap.eseal.error-rate:0}") double esealErrorRate,
+            @Value("${mock.soap.ltv.latency-median-ms:500}") long ltvMedianMs,
+            @Value("${mock.soap.ltv.latency-p99-ms:3000}") long ltvP99Ms,
+            @Value("${mock.soap.ltv.error-rate:0}") double ltvErrorRate,
+            @Value("${mock.soap.verify.latency-median-ms:200}") long verifyMedianMs,
+            @Value("${mock.soap.verify.latency-p99-ms:1000}") long verifyP99Ms,
+            @Value("${mock.soap.verify.error-rate:0}") double verifyErrorRate) {
+        this.eseal = new SimulatedBackend("eseal", esealMedianMs, esealP99Ms, esealErrorRate);
+        this.ltv = new SimulatedBackend("ltv", ltvMedianMs, ltvP99Ms, ltvErrorRate);
+        this.verify = new SimulatedBackend("verify", verifyMedianMs, verifyP99Ms, verifyErrorRate);
+    }
+
     // ================================================================
-    // eSeal — Mock PAdES/CAdES SOAP response
+    // eSeal — Mock PAdES/CAdES sign and verify
     // ================================================================
 
     @PostMapping(value = "/eseal", consumes = MediaType.TEXT_XML_VALUE, produces = MediaType.TEXT_XML_VALUE)
-    public String mockEseal(@RequestBody String soapRequest) {
+    public ResponseEntity<String> mockEseal(@RequestBody String soapRequest) {
         log.info("[MOCK] eSeal SOAP request received ({} bytes)", soapRequest.length());
 
-        // Return a mock signed PDF (just base64 of "MOCK_SEALED_PDF" bytes)
-        String mockBase64 = Base64.getEncoder().encodeToString(
-                ("%PDF-1.4 MOCK SEALED DOCUMENT " + UUID.randomUUID()).getBytes());
+        eseal.delay();
+        if (eseal.shouldFail()) {
+            return soapFault();
+        }
 
-        return """
-                <?xml version="1.0" encoding="UTF-8"?>
-                <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
-                  <soap:Body>
-                    <dss:SignResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema">
-                      <dss:Result>
-                        <dss:ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</dss:ResultMajor>
-                      </dss:Result>
-                      <dss:SignatureObject>
-                        <dss:Base64Data MimeType="application/pdf">%s</dss:Base64Data>
-                      </dss:SignatureObject>
-                    </dss:SignResponse>
-                  </soap:Body>
-                </soap:Envelope>
-                """.formatted(mockBase64);
+        String requestId = match(REQUEST_ID, soapRequest);
+
+        if (soapRequest.contains("VerifyRequest")) {
+            return ResponseEntity.ok(verifyResponse(requestId, "eSeal is valid (MOCK)"));
+        }
+
+        if (soapRequest.contains("DocumentHash")) {
+            // Detached CAdES — signature size does not depend on the document
+            return ResponseEntity.ok(signatureResponse(requestId, mockSignature(new byte[0])));
+        }
+
+        byte[] document = decodeElement(soapRequest, "Base64Data");
+        if (document == null) {
+            return ResponseEntity.ok(errorResponse(requestId,
+                    "urn:oasis:names:tc:dss:1.0:resultmajor:RequesterError",
+                    "urn:oasis:names:tc:dss:1.0:resultminor:NotParseableXMLDocument"));
+        }
+
+        if (soapRequest.contains("cmspkcs7sig")) {
+            // Enveloping CAdES — the PKCS#7 carries the document
+            return ResponseEntity.ok(signatureResponse(requestId, mockSignature(document)));
+        }
+
+        return ResponseEntity.ok(documentResponse("SignResponse", requestId, sealed(document, "eSeal")));
     }
 
     // ================================================================
@@ -61,51 +115,165 @@ public class MockSoapController {
     // ================================================================
 
     @PostMapping(value = "/ltv", consumes = MediaType.TEXT_XML_VALUE, produces = MediaType.TEXT_XML_VALUE)
-    public String mockLtv(@RequestBody String soapRequest) {
+    public ResponseEntity<String> mockLtv(@RequestBody String soapRequest) {
         log.info("[MOCK] LTV SOAP request received ({} bytes)", soapRequest.length());
 
-        String mockBase64 = Base64.getEncoder().encodeToString(
-                ("%PDF-1.4 MOCK LTV DOCUMENT " + UUID.randomUUID()).getBytes());
+        ltv.delay();
+        if (ltv.shouldFail()) {
+            return soapFault();
+        }
+
+        byte[] document = decodeElement(soapRequest, "Document");
+        if (document == null) {
+            document = new byte[0];
+        }
+        // LTV adds revocation data (OCSP responses, CRLs) to the signed PDF
+        return ResponseEntity.ok(documentResponse("VerifyResponse", null, sealed(document, "LTV")));
+    }
+
+    // ================================================================
+    // Signature Verification — Mock verify SOAP response
+    // ================================================================
+
+    @PostMapping(value = "/verify", consumes = MediaType.TEXT_XML_VALUE, produces = MediaType.TEXT_XML_VALUE)
+    public ResponseEntity<String> mockVerify(@RequestBody String soapRequest) {
+        log.info("[MOCK] Signature Verify SOAP request received ({} bytes)", soapRequest.length());
+
+        verify.delay();
+        if (verify.shouldFail()) {
+            return soapFault();
+        }
+        return ResponseEntity.ok(verifyResponse(match(REQUEST_ID, soapRequest), "Signature is valid (MOCK)"));
+    }
+
+    // ================================================================
+    // Response builders
+    // ================================================================
 
+    /** Input document followed by a PDF comment standing in for the added signature data. */
+    static byte[] sealed(byte[] document, String label) {
+        byte[] trailer = ("\n%MOCK " + label + " " + "0".repeat(CMS_OVERHEAD_BYTES) + "\n%%EOF\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[document.length + trailer.length];
+        System.arraycopy(document, 0, out, 0, document.length);
+        System.arraycopy(trailer, 0, out, document.length, trailer.length);
+        return out;
+    }
+
+    /** CMS-sized stand-in: signature bytes followed by the enveloped content, if any. */
+    static byte[] mockSignature(byte[] envelopedContent) {
+        byte[] out = new byte[CMS_OVERHEAD_BYTES + envelopedContent.length];
+        byte[] signature = new byte[CMS_OVERHEAD_BYTES];
+        ThreadLocalRandom.current().nextBytes(signature);
+        signature[0] = 0x30; // DER SEQUENCE
+        System.arraycopy(signature, 0, out, 0, signature.length);
+        System.arraycopy(envelopedContent, 0, out, signature.length, envelopedContent.length);
+        return out;
+    }
+
+    /** Decode the Base64 content of the first {@code localName} element, or null if absent. */
+    static byte[] decodeElement(String xml, String localName) {
+        Pattern element = Pattern.compile(
+                "<(?:\\w+:)?" + localName + "\\b[^>]*>([^<]*)</(?:\\w+:)?" + localName + ">");
+        String content = match(element, xml);
+        return content == null ? null : Base64.getMimeDecoder().decode(content);
+    }
+
+    private static String match(Pattern pattern, String input) {
+        Matcher m = pattern.matcher(input);
+        return m.find() ? m.group(1) : null;
+    }
+
+    private static String documentResponse(String responseElement, String requestId, byte[] document) {
         return """
                 <?xml version="1.0" encoding="UTF-8"?>
                 <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
                   <soap:Body>
-                    <dss:VerifyResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema">
+                    <dss:%1$s xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema"%2$s>
                       <dss:Result>
                         <dss:ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</dss:ResultMajor>
                       </dss:Result>
                       <dss:OptionalOutputs>
                         <dss:DocumentWithSignature>
-                          <dss:Base64Data MimeType="application/pdf">%s</dss:Base64Data>
+                          <dss:XMLData>
+                            <dss:Base64Data MimeType="application/pdf">%3$s</dss:Base64Data>
+                          </dss:XMLData>
                         </dss:DocumentWithSignature>
                       </dss:OptionalOutputs>
-                    </dss:VerifyResponse>
+                    </dss:%1$s>
                   </soap:Body>
                 </soap:Envelope>
-                """.formatted(mockBase64);
+                """.formatted(responseElement, requestIdAttribute(requestId),
+                Base64.getEncoder().encodeToString(document));
     }
 
-    // ================================================================
-    // Signature Verification — Mock verify SOAP response
-    // ================================================================
-
-    @PostMapping(value = "/verify", consumes = MediaType.TEXT_XML_VALUE, produces = MediaType.TEXT_XML_VALUE)
-    public String mockVerify(@RequestBody String soapRequest) {
-        log.info("[MOCK] Signature Verify SOAP request received ({} bytes)", soapRequest.length());
+    private static String signatureResponse(String requestId, byte[] signature) {
+        return """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+                  <soap:Body>
+                    <dss:SignResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema"%s>
+                      <dss:Result>
+                        <dss:ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</dss:ResultMajor>
+                      </dss:Result>
+                      <dss:SignatureObject>
+                        <dss:Base64Signature Type="urn:ietf:rfc:3369">%s</dss:Base64Signature>
+                      </dss:SignatureObject>
+                    </dss:SignResponse>
+                  </soap:Body>
+                </soap:Envelope>
+                """.formatted(requestIdAttribute(requestId), Base64.getEncoder().encodeToString(signature));
+    }
 
+    private static String verifyResponse(String requestId, String message) {
         return """
                 <?xml version="1.0" encoding="UTF-8"?>
                 <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
                   <soap:Body>
-                    <dss:VerifyResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema">
+                    <dss:VerifyResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema"%s>
                       <dss:Result>
                         <dss:ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</dss:ResultMajor>
-                        <dss:ResultMessage>Signature is valid (MOCK)</dss:ResultMessage>
+                        <dss:ResultMessage>%s</dss:ResultMessage>
                       </dss:Result>
                     </dss:VerifyResponse>
                   </soap:Body>
                 </soap:Envelope>
-                """;
+                """.formatted(requestIdAttribute(requestId), message);
+    }
+
+    private static String errorResponse(String requestId, String resultMajor, String resultMinor) {
+        return """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+                  <soap:Body>
+                    <dss:SignResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema"%s>
+                      <dss:Result>
+                        <dss:ResultMajor>%s</dss:ResultMajor>
+                        <dss:ResultMinor>%s</dss:ResultMinor>
+                      </dss:Result>
+                    </dss:SignResponse>
+                  </soap:Body>
+                </soap:Envelope>
+                """.formatted(requestIdAttribute(requestId), resultMajor, resultMinor);
+    }
+
+    private static String requestIdAttribute(String requestId) {
+        return requestId == null ? "" : " RequestID=\"" + requestId + "\"";
+    }
+
+    private static ResponseEntity<String> soapFault() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.TEXT_XML)
+                .body("""
+                        <?xml version="1.0" encoding="UTF-8"?>
+                        <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+                          <soap:Body>
+                            <soap:Fault>
+                              <faultcode>soap:Server</faultcode>
+                              <faultstring>Service temporarily unavailable (MOCK)</faultstring>
+                            </soap:Fault>
+                          </soap:Body>
+                        </soap:Envelope>
+                        """);
     }
 }
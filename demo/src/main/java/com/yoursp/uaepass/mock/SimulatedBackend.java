@@ -0,0 +1,65 @@
+package com.yoursp.uaepass.mock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and fault model for one mocked upstream.
+ * <p>
+ * Latency is log-normal, fitted to a median and a p99 — the long right tail
+ * is what real DSS / SDK calls look like, and what concurrency limits and
+ * timeouts must cope with. A median of 0 disables the delay.
+ * </p>
+ */
+@Slf4j
+final class SimulatedBackend {
+
+    /** z-score of the 99th percentile of the standard normal distribution. */
+    private static final double Z_99 = 2.326;
+
+    private final String name;
+    private final double mu;
+    private final double sigma;
+    private final boolean delayed;
+    private final double errorRate;
+
+    SimulatedBackend(String name, long medianMs, long p99Ms, double errorRate) {
+        this.name = name;
+        this.delayed = medianMs > 0;
+        this.mu = delayed ? Math.log(medianMs) : 0;
+        this.sigma = delayed ? Math.max(0, Math.log(Math.max(p99Ms, medianMs)) - mu) / Z_99 : 0;
+        this.errorRate = Math.min(1, Math.max(0, errorRate));
+    }
+
+    /** Draw one latency sample in milliseconds. */
+    long sampleLatencyMs() {
+        if (!delayed) {
+            return 0;
+        }
+        double z = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(Math.exp(mu + sigma * z));
+    }
+
+    /** Sleep for one latency sample. */
+    void delay() {
+        long ms = sampleLatencyMs();
+        if (ms <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** True if this call should fail with an injected error. */
+    boolean shouldFail() {
+        boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        if (fail) {
+            log.debug("[MOCK] {}: injecting failure", name);
+        }
+        return fail;
+    }
+}
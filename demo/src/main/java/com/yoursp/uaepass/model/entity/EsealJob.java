@@ -41,9 +41,29 @@ public class EsealJob {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    /** Set for jobs submitted through POST /eseal/bulk. */
+    @Column(name = "batch_id")
+    private UUID batchId;
+
+    /** Original upload name, used for entries in the batch ZIP. */
+    @Column(name = "file_name")
+    private String fileName;
+
+    /** Deduplication key for single-document seals — see ESealIdempotencyService. */
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
     @Column(name = "created_at", updatable = false)
     private OffsetDateTime createdAt;
 
+    /** Number of times a worker has claimed this job. */
+    @Column(name = "attempts")
+    private int attempts;
+
+    /** When a worker claimed the job (QUEUED → PROCESSING). */
+    @Column(name = "started_at")
+    private OffsetDateTime startedAt;
+
     @Column(name = "completed_at")
     private OffsetDateTime completedAt;
 
@@ -38,7 +38,11 @@ public class SigningJob {
     @Column(name = "sign_identity_id")
     private String signIdentityId;
 
-    /** JSONB column — stored as raw JSON string, parsed manually when needed. */
+    /**
+     * JSONB column — stored as raw JSON string, parsed manually when needed.
+     * Used by SINGLE jobs; MULTIPLE / HASH / HASH_BULK documents live in
+     * signing_job_documents (older jobs are imported from here on first read).
+     */
     @Column(name = "documents", columnDefinition = "TEXT")
     private String documents;
 
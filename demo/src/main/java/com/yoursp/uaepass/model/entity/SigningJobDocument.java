@@ -0,0 +1,85 @@
+package com.yoursp.uaepass.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * One document of a signing job (MULTIPLE, HASH, HASH_BULK). Each row is
+ * updated on its own as the document completes — see SigningJobDocumentService.
+ */
+@Entity
+@Table(name = "signing_job_documents", uniqueConstraints = @UniqueConstraint(columnNames = { "job_id", "doc_index" }))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SigningJobDocument {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    /** Position in the job — fixes the order of signProp and digests_summary. */
+    @Column(name = "doc_index", nullable = false)
+    private int docIndex;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "status", length = 20)
+    private String status;
+
+    // ---- Hash signing ----
+
+    @Column(name = "tx_id")
+    private String txId;
+
+    @Column(name = "sign_identity_id")
+    private String signIdentityId;
+
+    /** Hash SDK instance that issued the txId. */
+    @Column(name = "sdk_url")
+    private String sdkUrl;
+
+    @Column(name = "digest", length = 128)
+    private String digest;
+
+    @Column(name = "sign_prop", length = 100)
+    private String signProp;
+
+    // ---- Multi-document (eSign SP v2) ----
+
+    /** Document URL inside the UAE PASS signer process. */
+    @Column(name = "document_url", columnDefinition = "TEXT")
+    private String documentUrl;
+
+    // ---- Outcome ----
+
+    @Column(name = "signed_key", columnDefinition = "TEXT")
+    private String signedKey;
+
+    @Column(name = "ltv_key", columnDefinition = "TEXT")
+    private String ltvKey;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (status == null)
+            status = "PENDING";
+        if (updatedAt == null)
+            updatedAt = OffsetDateTime.now();
+    }
+}
@@ -29,6 +29,10 @@ public class User {
     @Column(name = "idn", columnDefinition = "TEXT")
     private String idn;
 
+    /** HMAC of the idn for lookups — see IdnBlindIndex. */
+    @Column(name = "idn_bidx", length = 64, unique = true)
+    private String idnBidx;
+
     @Column(name = "email")
     private String email;
 
@@ -0,0 +1,216 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.yoursp.uaepass.util.Digests;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AES-256-GCM over a key ring, for one purpose (access tokens, idn).
+ * <ul>
+ * <li>Keys are derived (SHA-256 of the secret) once, at construction</li>
+ * <li>Each thread reuses one {@link Cipher}, re-initialised per call with a
+ * fresh 12-byte IV</li>
+ * <li>New data is encrypted with the active key; any key in the ring can
+ * decrypt, so keys rotate by adding a new id and switching the active one</li>
+ * </ul>
+ * Formats:
+ * <ul>
+ * <li>String: {@code [keyId$]Base64(IV || ciphertext || tag)}. Without a key
+ * id prefix the legacy key is used — the format written by {@link CryptoUtil}</li>
+ * <li>Binary: {@code keyIdLength(1) || keyId || IV || ciphertext || tag}</li>
+ * </ul>
+ */
+public final class AesGcmCrypto {
+
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+    private static final char KEY_ID_SEPARATOR = '$';
+    /** Id of the key given as a plain secret; its strings carry no prefix. */
+    private static final String LEGACY_KEY_ID = "";
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final Map<String, SecretKey> keys = new HashMap<>();
+    private final String activeKeyId;
+    private final byte[] activeKeyIdBytes;
+    private final SecretKey activeKey;
+
+    private final ThreadLocal<Cipher> cipher = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    });
+
+    /**
+     * A ring holding only the legacy key.
+     */
+    public AesGcmCrypto(String legacySecret) {
+        this(legacySecret, Map.of(), LEGACY_KEY_ID);
+    }
+
+    /**
+     * @param legacySecret secret for unprefixed ciphertexts (may be null if none exist)
+     * @param secrets      additional secrets by key id
+     * @param activeKeyId  key id used to encrypt; blank selects the legacy key
+     */
+    public AesGcmCrypto(String legacySecret, Map<String, String> secrets, String activeKeyId) {
+        if (legacySecret != null && !legacySecret.isEmpty()) {
+            keys.put(LEGACY_KEY_ID, deriveKey(legacySecret));
+        }
+        secrets.forEach((id, secret) -> {
+            if (id.isEmpty() || id.length() > 255 || id.indexOf(KEY_ID_SEPARATOR) >= 0) {
+                throw new IllegalArgumentException("Invalid key id: '" + id + "'");
+            }
+            keys.put(id, deriveKey(secret));
+        });
+        this.activeKeyId = activeKeyId == null ? LEGACY_KEY_ID : activeKeyId;
+        this.activeKey = keys.get(this.activeKeyId);
+        if (activeKey == null) {
+            throw new IllegalArgumentException("No key for active key id '" + this.activeKeyId + "'");
+        }
+        this.activeKeyIdBytes = this.activeKeyId.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // ---------------------------------------------------------------- String
+
+    /**
+     * @return {@code [keyId$]Base64(IV || ciphertext || tag)}
+     */
+    public String encrypt(String plaintext) {
+        byte[] data = plaintext.getBytes(StandardCharsets.UTF_8);
+        byte[] out = new byte[IV_LENGTH + data.length + TAG_LENGTH];
+        seal(activeKey, ByteBuffer.wrap(data), ByteBuffer.wrap(out));
+        String encoded = Base64.getEncoder().encodeToString(out);
+        return activeKeyId.isEmpty() ? encoded : activeKeyId + KEY_ID_SEPARATOR + encoded;
+    }
+
+    public String decrypt(String ciphertext) {
+        int separator = ciphertext.indexOf(KEY_ID_SEPARATOR);
+        String keyId = separator < 0 ? LEGACY_KEY_ID : ciphertext.substring(0, separator);
+        byte[] data;
+        try {
+            data = Base64.getDecoder().decode(ciphertext.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("AES-256-GCM decryption failed", e);
+        }
+        ByteBuffer in = ByteBuffer.wrap(data);
+        byte[] out = new byte[Math.max(0, data.length - IV_LENGTH - TAG_LENGTH)];
+        open(key(keyId), in, ByteBuffer.wrap(out));
+        return new String(out, StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------------- byte[]
+
+    public byte[] encrypt(byte[] plaintext) {
+        byte[] out = new byte[encryptedLength(plaintext.length)];
+        encrypt(ByteBuffer.wrap(plaintext), ByteBuffer.wrap(out));
+        return out;
+    }
+
+    public byte[] decrypt(byte[] ciphertext) {
+        if (ciphertext.length == 0) {
+            throw new RuntimeException("AES-256-GCM decryption failed: empty input");
+        }
+        int header = 1 + (ciphertext[0] & 0xFF);
+        byte[] out = new byte[Math.max(0, ciphertext.length - header - IV_LENGTH - TAG_LENGTH)];
+        decrypt(ByteBuffer.wrap(ciphertext), ByteBuffer.wrap(out));
+        return out;
+    }
+
+    // ---------------------------------------------------------------- ByteBuffer
+
+    /**
+     * Bytes {@link #encrypt(ByteBuffer, ByteBuffer)} writes for a plaintext of
+     * this length.
+     */
+    public int encryptedLength(int plaintextLength) {
+        return 1 + activeKeyIdBytes.length + IV_LENGTH + plaintextLength + TAG_LENGTH;
+    }
+
+    /**
+     * Encrypt {@code src}'s remaining bytes into {@code dst} (binary format).
+     * Both buffers' positions advance.
+     *
+     * @return bytes written
+     */
+    public int encrypt(ByteBuffer src, ByteBuffer dst) {
+        int start = dst.position();
+        dst.put((byte) activeKeyIdBytes.length);
+        dst.put(activeKeyIdBytes);
+        seal(activeKey, src, dst);
+        return dst.position() - start;
+    }
+
+    /**
+     * Decrypt {@code src}'s remaining bytes (binary format) into {@code dst}.
+     *
+     * @return plaintext bytes written
+     */
+    public int decrypt(ByteBuffer src, ByteBuffer dst) {
+        String keyId;
+        try {
+            int keyIdLength = src.get() & 0xFF;
+            byte[] keyIdBytes = new byte[keyIdLength];
+            src.get(keyIdBytes);
+            keyId = new String(keyIdBytes, StandardCharsets.US_ASCII);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("AES-256-GCM decryption failed", e);
+        }
+        return open(key(keyId), src, dst);
+    }
+
+    // ---------------------------------------------------------------- internals
+
+    /** IV || ciphertext || tag */
+    private int seal(SecretKey key, ByteBuffer src, ByteBuffer dst) {
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            SECURE_RANDOM.nextBytes(iv);
+            Cipher c = cipher.get();
+            c.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+            dst.put(iv);
+            return IV_LENGTH + c.doFinal(src, dst);
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("AES-256-GCM encryption failed", e);
+        }
+    }
+
+    private int open(SecretKey key, ByteBuffer src, ByteBuffer dst) {
+        try {
+            if (src.remaining() < IV_LENGTH + TAG_LENGTH) {
+                throw new IllegalArgumentException("Ciphertext too short");
+            }
+            byte[] iv = new byte[IV_LENGTH];
+            src.get(iv);
+            Cipher c = cipher.get();
+            c.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+            return c.doFinal(src, dst);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new RuntimeException("AES-256-GCM decryption failed", e);
+        }
+    }
+
+    private SecretKey key(String keyId) {
+        SecretKey key = keys.get(keyId);
+        if (key == null) {
+            throw new RuntimeException("AES-256-GCM decryption failed: unknown key id '" + keyId + "'");
+        }
+        return key;
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        return new SecretKeySpec(Digests.sha256(secret.getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+}
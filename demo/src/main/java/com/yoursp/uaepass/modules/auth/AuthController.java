@@ -4,8 +4,10 @@ import com.yoursp.uaepass.config.UaePassProperties;
 import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.model.entity.UserSession;
 import com.yoursp.uaepass.modules.auth.dto.StatePayload;
+import com.yoursp.uaepass.modules.auth.dto.StatelessSession;
 import com.yoursp.uaepass.modules.auth.dto.TokenIntrospectResponse;
 import com.yoursp.uaepass.modules.auth.dto.UserProfileDto;
+import com.yoursp.uaepass.modules.auth.exception.InvalidIdTokenException;
 import com.yoursp.uaepass.modules.auth.exception.InvalidStateException;
 import com.yoursp.uaepass.repository.UserSessionRepository;
 import jakarta.servlet.http.Cookie;
@@ -13,6 +15,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.*;
@@ -53,14 +56,18 @@ public class AuthController {
     private final UserSyncService userSyncService;
     private final UserSessionRepository sessionRepository;
     private final StringRedisTemplate redisTemplate;
+    @Qualifier("tokenCrypto")
+    private final AesGcmCrypto tokenCrypto;
+    private final SessionCache sessionCache;
+    private final StatelessSessionCodec statelessSessions;
+    private final SessionRevocationList revocationList;
+    private final IdTokenValidator idTokenValidator;
+    private final TokenIntrospectionService tokenIntrospectionService;
     private final RestTemplate restTemplate;
 
     @Value("${app.frontend-url:http://localhost:4200}")
     private String frontendUrl;
 
-    @Value("${token.encryption-key}")
-    private String tokenEncryptionKey;
-
     // ================================================================
     // GET /auth/login — Redirect to UAE PASS authorization
     // ================================================================
@@ -119,8 +126,6 @@ public class AuthController {
         // 3. Exchange code for tokens
         Map<String, Object> tokenResponse = exchangeCodeForTokens(code);
         String accessToken = (String) tokenResponse.get("access_token");
-        // id_token validation would go here in production (JWKS check)
-        // For now we proceed with the access_token
 
         if (accessToken == null) {
             log.error("No access_token in token response");
@@ -128,14 +133,26 @@ public class AuthController {
             return;
         }
 
-        // 4. Fetch user info
-        Map<String, Object> userInfo = fetchUserInfo(accessToken);
+        // 4. User info — from the validated id_token when it carries the
+        // profile, otherwise from /userinfo
+        Map<String, Object> userInfo;
+        try {
+            userInfo = idTokenValidator.profileClaimsIfSufficient(
+                    (String) tokenResponse.get("id_token"));
+        } catch (InvalidIdTokenException ex) {
+            log.warn("Invalid id_token during callback: {}", ex.getMessage());
+            response.sendRedirect(frontendUrl + "/auth/error?error=invalid_id_token");
+            return;
+        }
+        if (userInfo == null) {
+            userInfo = fetchUserInfo(accessToken);
+        }
 
         // 5. Sync user to DB
         User user = userSyncService.syncUser(userInfo);
 
         // 6. Store encrypted access token in Redis
-        String encryptedToken = CryptoUtil.encryptAES256(accessToken, tokenEncryptionKey);
+        String encryptedToken = tokenCrypto.encrypt(accessToken);
         redisTemplate.opsForValue().set(
                 TOKEN_KEY_PREFIX + user.getId(),
                 encryptedToken,
@@ -152,10 +169,10 @@ public class AuthController {
                 .ipAddress(getClientIp(request))
                 .userAgent(request.getHeader("User-Agent"))
                 .build();
-        sessionRepository.save(session);
+        session = sessionRepository.save(session);
 
         // 8. Set httpOnly session cookie
-        Cookie cookie = new Cookie(SESSION_COOKIE_NAME, sessionToken);
+        Cookie cookie = new Cookie(SESSION_COOKIE_NAME, statelessSessions.cookieValue(session));
         cookie.setHttpOnly(true);
         cookie.setSecure(true);
         cookie.setPath("/");
@@ -188,12 +205,22 @@ public class AuthController {
     public void logout(HttpServletRequest request, HttpServletResponse response) throws Exception {
         String sessionToken = extractSessionCookie(request);
 
-        if (sessionToken != null) {
+        if (sessionToken != null && statelessSessions.isStatelessToken(sessionToken)) {
+            StatelessSession session = statelessSessions.decode(sessionToken);
+            if (session != null) {
+                redisTemplate.delete(TOKEN_KEY_PREFIX + session.userId());
+                sessionRepository.deleteById(session.sessionId());
+                // The token itself stays valid until expiry — revoke it everywhere
+                revocationList.revokeSession(session.sessionId(), session.expiresAt());
+                log.info("Logged out user {}", session.userId());
+            }
+        } else if (sessionToken != null) {
             sessionRepository.findBySessionToken(sessionToken).ifPresent(session -> {
                 // Delete token from Redis
                 redisTemplate.delete(TOKEN_KEY_PREFIX + session.getUserId());
                 // Delete session from DB
                 sessionRepository.delete(session);
+                sessionCache.revoke(sessionToken);
                 log.info("Logged out user {}", session.getUserId());
             });
         }
@@ -257,34 +284,10 @@ public class AuthController {
             return ResponseEntity.ok(inactive);
         }
 
-        String accessToken = CryptoUtil.decryptAES256(encryptedToken, tokenEncryptionKey);
-
-        // Call UAE PASS introspect endpoint
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        headers.setBasicAuth(uaePassProperties.getClientId(), uaePassProperties.getClientSecret());
-
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("token", accessToken);
-
-        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(body, headers);
-
-        ResponseEntity<TokenIntrospectResponse> introspectResponse = restTemplate.exchange(
-                uaePassProperties.getIntrospectUrl(),
-                HttpMethod.POST,
-                entity,
-                TokenIntrospectResponse.class);
-
-        TokenIntrospectResponse result = introspectResponse.getBody();
+        String accessToken = tokenCrypto.decrypt(encryptedToken);
 
-        // Verify client_id matches ours
-        if (result != null && result.isActive()) {
-            if (!uaePassProperties.getClientId().equals(result.getClientId())) {
-                log.warn("Token introspection client_id mismatch: expected={}, got={}",
-                        uaePassProperties.getClientId(), result.getClientId());
-                result.setActive(false);
-            }
-        }
+        // Cached per token until shortly before exp; misses call UAE PASS
+        TokenIntrospectResponse result = tokenIntrospectionService.introspect(accessToken);
 
         return ResponseEntity.ok(result);
     }
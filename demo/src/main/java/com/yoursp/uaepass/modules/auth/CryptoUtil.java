@@ -1,13 +1,7 @@
 package com.yoursp.uaepass.modules.auth;
 
-import javax.crypto.Cipher;
-import javax.crypto.SecretKey;
-import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.security.SecureRandom;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * AES-256-GCM encryption utility.
@@ -16,14 +10,16 @@ import java.util.Base64;
  * <li>128-bit GCM authentication tag</li>
  * <li>Output: Base64(IV || ciphertext || tag)</li>
  * </ul>
- * Used to encrypt access tokens stored in Redis and sensitive fields.
+ * <p>
+ * Application code injects the {@code tokenCrypto} / {@code idnCrypto}
+ * {@link AesGcmCrypto} beans instead — they support key rotation and byte[] /
+ * ByteBuffer data. This facade keeps one {@link AesGcmCrypto} per key, so keys
+ * are not re-derived per call.
+ * </p>
  */
 public final class CryptoUtil {
 
-    private static final String ALGORITHM = "AES/GCM/NoPadding";
-    private static final int IV_LENGTH = 12;
-    private static final int TAG_LENGTH_BITS = 128;
-    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+    private static final Map<String, AesGcmCrypto> BY_KEY = new ConcurrentHashMap<>();
 
     private CryptoUtil() {
         // utility class
@@ -37,25 +33,7 @@ public final class CryptoUtil {
      * @return Base64-encoded string containing IV + ciphertext + GCM tag
      */
     public static String encryptAES256(String plaintext, String key) {
-        try {
-            byte[] iv = new byte[IV_LENGTH];
-            SECURE_RANDOM.nextBytes(iv);
-
-            SecretKey secretKey = deriveKey(key);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
-
-            byte[] ciphertext = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
-
-            // Prepend IV to ciphertext
-            byte[] combined = new byte[IV_LENGTH + ciphertext.length];
-            System.arraycopy(iv, 0, combined, 0, IV_LENGTH);
-            System.arraycopy(ciphertext, 0, combined, IV_LENGTH, ciphertext.length);
-
-            return Base64.getEncoder().encodeToString(combined);
-        } catch (Exception e) {
-            throw new RuntimeException("AES-256-GCM encryption failed", e);
-        }
+        return crypto(key).encrypt(plaintext);
     }
 
     /**
@@ -66,34 +44,10 @@ public final class CryptoUtil {
      * @return decrypted plaintext
      */
     public static String decryptAES256(String ciphertext, String key) {
-        try {
-            byte[] combined = Base64.getDecoder().decode(ciphertext);
-
-            byte[] iv = Arrays.copyOfRange(combined, 0, IV_LENGTH);
-            byte[] encrypted = Arrays.copyOfRange(combined, IV_LENGTH, combined.length);
-
-            SecretKey secretKey = deriveKey(key);
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
-
-            byte[] decrypted = cipher.doFinal(encrypted);
-            return new String(decrypted, StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            throw new RuntimeException("AES-256-GCM decryption failed", e);
-        }
+        return crypto(key).decrypt(ciphertext);
     }
 
-    /**
-     * Derive a 256-bit AES key from the given string.
-     * Uses SHA-256 hash to ensure exactly 32 bytes.
-     */
-    private static SecretKey deriveKey(String key) {
-        try {
-            byte[] hash = java.security.MessageDigest.getInstance("SHA-256")
-                    .digest(key.getBytes(StandardCharsets.UTF_8));
-            return new SecretKeySpec(hash, "AES");
-        } catch (Exception e) {
-            throw new RuntimeException("Key derivation failed", e);
-        }
+    private static AesGcmCrypto crypto(String key) {
+        return BY_KEY.computeIfAbsent(key, AesGcmCrypto::new);
     }
 }
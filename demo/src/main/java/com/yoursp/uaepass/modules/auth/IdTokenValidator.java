@@ -0,0 +1,145 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.yoursp.uaepass.config.UaePassProperties;
+import com.yoursp.uaepass.modules.auth.exception.InvalidIdTokenException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates UAE PASS id_tokens locally against the provider's JWKS.
+ * <ul>
+ * <li>The key set is cached ({@code uaepass.id-token.jwks-ttl-seconds}) and
+ * refreshed ahead of expiry, so logins do not wait on the JWKS endpoint</li>
+ * <li>A token signed with an unknown {@code kid} triggers a rate-limited
+ * re-fetch, picking up rotated keys</li>
+ * <li>Signature, {@code aud} (our client id), {@code exp} and, when
+ * configured, {@code iss} are checked</li>
+ * </ul>
+ * Callers use the claims instead of calling /userinfo when the token carries
+ * everything they need. If the key set cannot be fetched the token is
+ * treated as absent and callers fall back to /userinfo.
+ */
+@Slf4j
+@Component
+public class IdTokenValidator {
+
+    /** Claims {@link UserSyncService} needs to build a full profile. */
+    public static final Set<String> PROFILE_CLAIMS = Set.of("uuid", "userType", "fullnameEN");
+
+    /** User types matched by idn during auto-linking — their token must carry it. */
+    private static final Set<String> IDN_USER_TYPES = Set.of("SOP2", "SOP3");
+
+    /** Claims needed to identify the UAE PASS account only. */
+    public static final Set<String> UUID_CLAIMS = Set.of("uuid");
+
+    private static final int HTTP_TIMEOUT_MS = 3000;
+    private static final int JWKS_SIZE_LIMIT = 64 * 1024;
+    /** Minimum gap between JWKS fetches caused by unknown kids. */
+    private static final long KID_MISS_MIN_INTERVAL_MS = 30_000;
+
+    private final boolean enabled;
+    private final DefaultJWTProcessor<SecurityContext> processor;
+
+    @Autowired
+    public IdTokenValidator(UaePassProperties properties,
+            @Value("${uaepass.id-token.enabled:true}") boolean enabled,
+            @Value("${uaepass.id-token.jwks-ttl-seconds:3600}") long jwksTtlSeconds,
+            @Value("${uaepass.id-token.jwks-refresh-ahead-seconds:300}") long refreshAheadSeconds) {
+        this(buildKeySource(properties.getJwksUrl(), jwksTtlSeconds, refreshAheadSeconds),
+                properties.getClientId(), properties.getIssuer(), enabled);
+    }
+
+    IdTokenValidator(JWKSource<SecurityContext> keySource, String clientId, String issuer, boolean enabled) {
+        this.enabled = enabled;
+        this.processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(
+                Set.of(JWSAlgorithm.RS256, JWSAlgorithm.ES256), keySource));
+        JWTClaimsSet exactMatch = issuer != null && !issuer.isBlank()
+                ? new JWTClaimsSet.Builder().issuer(issuer).build()
+                : new JWTClaimsSet.Builder().build();
+        processor.setJWTClaimsSetVerifier(new DefaultJWTClaimsVerifier<>(
+                clientId, exactMatch, Set.of("sub", "iat", "exp")));
+    }
+
+    /**
+     * Validate an id_token and return its claims if they include all of
+     * {@code requiredClaims}.
+     *
+     * @return the claims, or {@code null} if there is no token, validation is
+     *         disabled, the key set is unavailable or claims are missing
+     * @throws InvalidIdTokenException if the token is present but invalid
+     */
+    public Map<String, Object> claimsIfSufficient(String idToken, Set<String> requiredClaims) {
+        if (!enabled || idToken == null || idToken.isBlank()) {
+            return null;
+        }
+        JWTClaimsSet claims;
+        try {
+            claims = processor.process(idToken, null);
+        } catch (KeySourceException e) {
+            log.warn("UAE PASS JWKS unavailable, falling back to /userinfo: {}", e.getMessage());
+            return null;
+        } catch (ParseException | BadJOSEException | JOSEException e) {
+            throw new InvalidIdTokenException("id_token rejected: " + e.getMessage(), e);
+        }
+
+        Map<String, Object> values = claims.getClaims();
+        for (String name : requiredClaims) {
+            if (values.get(name) == null) {
+                log.debug("id_token lacks claim '{}', calling /userinfo", name);
+                return null;
+            }
+        }
+        return new HashMap<>(values);
+    }
+
+    /**
+     * {@link #claimsIfSufficient} for {@link UserSyncService}: the profile
+     * claims, plus {@code idn} for SOP2/SOP3 so idn auto-linking and the
+     * blind index keep working.
+     */
+    public Map<String, Object> profileClaimsIfSufficient(String idToken) {
+        Map<String, Object> claims = claimsIfSufficient(idToken, PROFILE_CLAIMS);
+        if (claims != null && IDN_USER_TYPES.contains(String.valueOf(claims.get("userType")))
+                && claims.get("idn") == null) {
+            log.debug("id_token of a {} user lacks 'idn', calling /userinfo", claims.get("userType"));
+            return null;
+        }
+        return claims;
+    }
+
+    private static JWKSource<SecurityContext> buildKeySource(String jwksUrl, long ttlSeconds,
+            long refreshAheadSeconds) {
+        try {
+            return JWKSourceBuilder.<SecurityContext>create(new URL(jwksUrl),
+                    new DefaultResourceRetriever(HTTP_TIMEOUT_MS, HTTP_TIMEOUT_MS, JWKS_SIZE_LIMIT))
+                    .cache(ttlSeconds * 1000, HTTP_TIMEOUT_MS)
+                    .refreshAheadCache(refreshAheadSeconds * 1000, false)
+                    .rateLimited(KID_MISS_MIN_INTERVAL_MS)
+                    .build();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid UAE PASS JWKS URL: " + jwksUrl, e);
+        }
+    }
+}
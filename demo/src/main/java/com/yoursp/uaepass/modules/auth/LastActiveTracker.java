@@ -0,0 +1,101 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coalesces {@code user_sessions.last_active} writes from {@link SessionAuthFilter}.
+ * <ul>
+ * <li>Requests only record the time in memory</li>
+ * <li>A session is recorded at most once per
+ * {@code session.last-active.min-interval-seconds} (default 60s)</li>
+ * <li>Pending times are flushed as one JDBC batch every
+ * {@code session.last-active.flush-interval-ms} (default 10s) and on shutdown</li>
+ * </ul>
+ * The UPDATE never moves {@code last_active} backwards, so flushes from
+ * several instances can interleave.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class LastActiveTracker {
+
+    private static final String UPDATE_SQL = "UPDATE user_sessions SET last_active = ? "
+            + "WHERE id = ? AND (last_active IS NULL OR last_active < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, OffsetDateTime> pending = new ConcurrentHashMap<>();
+    /** Sessions recorded within the min interval — their next touch is dropped. */
+    private final Cache<UUID, Boolean> recent;
+
+    public LastActiveTracker(JdbcTemplate jdbcTemplate,
+            @Value("${session.last-active.min-interval-seconds:60}") long minIntervalSeconds,
+            @Value("${session.last-active.max-tracked:100000}") long maxSessions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterWrite(Duration.ofSeconds(minIntervalSeconds))
+                .build();
+    }
+
+    /**
+     * Record activity for a session. Cheap enough to call on every request.
+     */
+    public void touch(UUID sessionId) {
+        if (recent.asMap().putIfAbsent(sessionId, Boolean.TRUE) != null) {
+            return;
+        }
+        pending.put(sessionId, OffsetDateTime.now());
+    }
+
+    /**
+     * Write all pending times in a single batch.
+     *
+     * @return number of sessions flushed
+     */
+    @Scheduled(fixedDelayString = "${session.last-active.flush-interval-ms:10000}")
+    public int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        Iterator<Map.Entry<UUID, OffsetDateTime>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, OffsetDateTime> entry = it.next();
+            // remove(key, value): keep a time recorded after we read this entry
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                Timestamp at = Timestamp.from(entry.getValue().toInstant());
+                batch.add(new Object[] { at, entry.getKey(), at });
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            log.debug("Flushed last_active for {} session(s)", batch.size());
+        } catch (Exception e) {
+            // Activity tracking is best-effort — drop the batch rather than pile it up
+            log.warn("last_active flush failed for {} session(s): {}", batch.size(), e.getMessage());
+        }
+        return batch.size();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
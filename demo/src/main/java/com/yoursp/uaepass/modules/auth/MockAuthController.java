@@ -9,6 +9,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -43,13 +44,13 @@ public class MockAuthController {
     private final UserRepository userRepository;
     private final UserSessionRepository sessionRepository;
     private final StringRedisTemplate redisTemplate;
+    @Qualifier("tokenCrypto")
+    private final AesGcmCrypto tokenCrypto;
+    private final StatelessSessionCodec statelessSessions;
 
     @Value("${app.frontend-url:http://localhost:4200}")
     private String frontendUrl;
 
-    @Value("${token.encryption-key}")
-    private String tokenEncryptionKey;
-
     @GetMapping("/dev-login")
     public void devLogin(HttpServletRequest request, HttpServletResponse response) throws Exception {
         log.warn("=== USING MOCK DEV LOGIN BYPASS ===");
@@ -76,7 +77,7 @@ public class MockAuthController {
 
         // 2. Create a fake access token and store in Redis (some flows require it)
         String fakeAccessToken = "mock.access.token." + SECURE_RANDOM.nextInt(100000);
-        String encryptedToken = CryptoUtil.encryptAES256(fakeAccessToken, tokenEncryptionKey);
+        String encryptedToken = tokenCrypto.encrypt(fakeAccessToken);
         redisTemplate.opsForValue().set(
                 TOKEN_KEY_PREFIX + user.getId(),
                 encryptedToken,
@@ -93,10 +94,10 @@ public class MockAuthController {
                 .ipAddress(getClientIp(request))
                 .userAgent(request.getHeader("User-Agent"))
                 .build();
-        sessionRepository.save(session);
+        session = sessionRepository.save(session);
 
         // 4. Set httpOnly session cookie
-        Cookie cookie = new Cookie(SESSION_COOKIE_NAME, sessionToken);
+        Cookie cookie = new Cookie(SESSION_COOKIE_NAME, statelessSessions.cookieValue(session));
         cookie.setHttpOnly(true);
         cookie.setPath("/");
         cookie.setMaxAge(SESSION_MAX_AGE);
@@ -2,6 +2,9 @@ package com.yoursp.uaepass.modules.auth;
 
 import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.model.entity.UserSession;
+import com.yoursp.uaepass.modules.auth.dto.CachedSession;
+import com.yoursp.uaepass.modules.auth.dto.SessionPrincipal;
+import com.yoursp.uaepass.modules.auth.dto.StatelessSession;
 import com.yoursp.uaepass.repository.UserRepository;
 import com.yoursp.uaepass.repository.UserSessionRepository;
 import jakarta.servlet.FilterChain;
@@ -29,8 +32,12 @@ import java.util.Optional;
  * Session authentication filter with security hardening.
  * <ul>
  * <li>Reads {@code UAEPASS_SESSION} cookie</li>
- * <li>Looks up session in DB, checks expiry (token + 24h absolute)</li>
+ * <li>Resolves the session and its user through {@link SessionCache}, falling
+ * back to the DB on a miss; checks expiry (token + 24h absolute)</li>
+ * <li>Stateless tokens ({@link StatelessSessionCodec}) are validated in memory
+ * against {@link SessionRevocationList}</li>
  * <li>IP mismatch warning (logs, doesn't block)</li>
+ * <li>Records activity via {@link LastActiveTracker} (batched last_active writes)</li>
  * <li>Sets SecurityContext with authenticated principal</li>
  * <li>Returns 401 JSON for Angular (no redirect)</li>
  * </ul>
@@ -59,12 +66,17 @@ public class SessionAuthFilter extends OncePerRequestFilter {
 
     private final UserSessionRepository sessionRepository;
     private final UserRepository userRepository;
+    private final SessionCache sessionCache;
+    private final LastActiveTracker lastActiveTracker;
+    private final StatelessSessionCodec statelessSessions;
+    private final SessionRevocationList revocationList;
 
     @Override
     protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
         String path = request.getRequestURI();
+        // /mock/** stands in for upstream services called server-to-server, without a session
         if (path.startsWith("/public/") || path.startsWith("/actuator/")
-                || path.startsWith("/internal/")) {
+                || path.startsWith("/internal/") || path.startsWith("/mock/")) {
             return true;
         }
         return SKIP_PATHS.stream().anyMatch(path::equals);
@@ -83,49 +95,65 @@ public class SessionAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        Optional<UserSession> sessionOpt = sessionRepository.findBySessionToken(sessionToken);
-
-        if (sessionOpt.isEmpty()) {
-            sendUnauthorized(response, "Invalid session");
-            return;
+        CachedSession session;
+        boolean loaded = false;
+        if (statelessSessions.isEnabled() && statelessSessions.isStatelessToken(sessionToken)) {
+            session = resolveStateless(sessionToken);
+            if (session == null) {
+                sendUnauthorized(response, "Invalid session");
+                return;
+            }
+        } else {
+            session = sessionCache.get(sessionToken);
+        }
+        if (session == null) {
+            Optional<UserSession> sessionOpt = sessionRepository.findBySessionToken(sessionToken);
+            if (sessionOpt.isEmpty()) {
+                sendUnauthorized(response, "Invalid session");
+                return;
+            }
+            Optional<User> userOpt = userRepository.findById(sessionOpt.get().getUserId());
+            if (userOpt.isEmpty()) {
+                sendUnauthorized(response, "User not found");
+                return;
+            }
+            session = CachedSession.of(sessionOpt.get(), userOpt.get());
+            loaded = true;
         }
-
-        UserSession session = sessionOpt.get();
 
         // Check token expiry
-        if (session.getTokenExpires() != null && session.getTokenExpires().isBefore(OffsetDateTime.now())) {
-            log.debug("Session expired for user {}", session.getUserId());
+        if (session.tokenExpires() != null && session.tokenExpires().isBefore(OffsetDateTime.now())) {
+            log.debug("Session expired for user {}", session.userId());
             sendUnauthorized(response, "Session expired");
             return;
         }
 
         // 24h absolute session expiry
-        if (session.getCreatedAt() != null
-                && session.getCreatedAt().plusHours(ABSOLUTE_SESSION_HOURS).isBefore(OffsetDateTime.now())) {
-            log.info("Absolute session expiry (24h) for user {}", session.getUserId());
-            sessionRepository.delete(session);
+        if (session.createdAt() != null
+                && session.createdAt().plusHours(ABSOLUTE_SESSION_HOURS).isBefore(OffsetDateTime.now())) {
+            log.info("Absolute session expiry (24h) for user {}", session.userId());
+            sessionRepository.deleteById(session.sessionId());
+            sessionCache.revoke(sessionToken);
             sendUnauthorized(response, "Session expired");
             return;
         }
 
+        if (loaded) {
+            sessionCache.put(sessionToken, session);
+        }
+
         // IP mismatch warning (warn only — do not block)
         String currentIp = getClientIp(request);
-        if (session.getIpAddress() != null && !session.getIpAddress().equals(currentIp)) {
+        if (session.ipAddress() != null && !session.ipAddress().equals(currentIp)) {
             log.warn("SESSION_IP_CHANGE: userId={}, originalIp={}, currentIp={}, sessionId={}",
-                    session.getUserId(), session.getIpAddress(), currentIp, session.getId());
+                    session.userId(), session.ipAddress(), currentIp, session.sessionId());
         }
 
-        // Update last_active
-        sessionRepository.updateLastActive(session.getId());
-
-        // Load user
-        Optional<User> userOpt = userRepository.findById(session.getUserId());
-        if (userOpt.isEmpty()) {
-            sendUnauthorized(response, "User not found");
-            return;
-        }
+        // Update last_active (coalesced, flushed in batches)
+        lastActiveTracker.touch(session.sessionId());
 
-        User user = userOpt.get();
+        // Detached copy — controllers may modify it
+        User user = session.principal().toUser();
 
         // Set Spring Security context
         UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
@@ -140,6 +168,32 @@ public class SessionAuthFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Validates a stateless token in memory. Only the principal may need a
+     * lookup, and only on a cache miss.
+     *
+     * @return the session, or {@code null} if the token is invalid, revoked or
+     *         its user is gone
+     */
+    private CachedSession resolveStateless(String token) {
+        StatelessSession claims = statelessSessions.decode(token);
+        if (claims == null
+                || revocationList.isRevoked(claims.sessionId(), claims.userId(), claims.issuedAt())) {
+            return null;
+        }
+        SessionPrincipal principal = sessionCache.getPrincipal(claims.userId());
+        if (principal == null) {
+            Optional<User> userOpt = userRepository.findById(claims.userId());
+            if (userOpt.isEmpty()) {
+                return null;
+            }
+            principal = SessionPrincipal.from(userOpt.get());
+            sessionCache.putPrincipal(principal);
+        }
+        return new CachedSession(claims.sessionId(), claims.expiresAt(), claims.issuedAt(),
+                claims.ipAddress(), principal);
+    }
+
     private String extractSessionCookie(HttpServletRequest request) {
         if (request.getCookies() == null)
             return null;
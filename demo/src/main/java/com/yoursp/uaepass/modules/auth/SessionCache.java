@@ -0,0 +1,233 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.yoursp.uaepass.modules.auth.dto.CachedSession;
+import com.yoursp.uaepass.modules.auth.dto.SessionPrincipal;
+import com.yoursp.uaepass.util.Digests;
+import com.yoursp.uaepass.util.Hex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Two-tier cache of authenticated sessions for {@link SessionAuthFilter}.
+ * <ul>
+ * <li>Local tier: bounded in-process cache with a short TTL
+ * ({@code session.cache.local-ttl-seconds}, default 10s)</li>
+ * <li>Redis tier: shared by all instances, TTL {@code session.cache.redis-ttl-seconds}
+ * (default 300s), never beyond the session's own expiry</li>
+ * <li>Keys are the SHA-256 of the session token — raw tokens are not stored</li>
+ * <li>Logout, unlink and data deletion revoke explicitly; another instance's
+ * local tier may serve a revoked session for at most the local TTL</li>
+ * <li>Stateless sessions only need the principal, cached per user id in
+ * the same two tiers</li>
+ * </ul>
+ * Redis failures are logged and treated as a miss, so requests fall back to
+ * the database.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class SessionCache {
+
+    private static final String KEY_PREFIX = "session_cache:";
+    private static final String USER_KEY_PREFIX = "session_cache_user:";
+    private static final String PRINCIPAL_PREFIX = "session_cache_principal:";
+    private static final String REVOKED_USER_PREFIX = "session_cache_revoked:";
+    private static final String TOMBSTONE = "REVOKED";
+
+    /** Mirrors SessionAuthFilter's absolute expiry — an entry never outlives it. */
+    private static final long ABSOLUTE_SESSION_HOURS = 24;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+    private final Cache<String, CachedSession> local;
+    private final Cache<UUID, SessionPrincipal> localPrincipals;
+
+    public SessionCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+            @Value("${session.cache.local-ttl-seconds:10}") long localTtlSeconds,
+            @Value("${session.cache.local-max-size:10000}") long localMaxSize,
+            @Value("${session.cache.redis-ttl-seconds:300}") long redisTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+        this.localPrincipals = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+                .build();
+    }
+
+    /**
+     * @return the cached session, or {@code null} if neither tier has it
+     */
+    public CachedSession get(String sessionToken) {
+        String key = key(sessionToken);
+        CachedSession cached = local.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (json == null || TOMBSTONE.equals(json)) {
+                return null;
+            }
+            cached = objectMapper.readValue(json, CachedSession.class);
+            local.put(key, cached);
+            return cached;
+        } catch (Exception e) {
+            log.warn("Session cache read failed, falling back to DB: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cache a session just loaded from the database. Skipped when the token or
+     * its user was revoked meanwhile, so a load racing a logout or unlink
+     * cannot put the deleted session back.
+     */
+    public void put(String sessionToken, CachedSession session) {
+        String key = key(sessionToken);
+        Duration ttl = ttlFor(session);
+        if (ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_USER_PREFIX + session.userId()))) {
+                return;
+            }
+            // NX: never overwrite a revocation tombstone
+            Boolean stored = redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key,
+                    objectMapper.writeValueAsString(session), ttl);
+            if (!Boolean.TRUE.equals(stored)) {
+                return;
+            }
+            // Index by user so unlink / data deletion can find every cached session
+            String userKey = USER_KEY_PREFIX + session.userId();
+            redisTemplate.opsForSet().add(userKey, key);
+            redisTemplate.expire(userKey, redisTtl);
+        } catch (Exception e) {
+            log.warn("Session cache write failed: {}", e.getMessage());
+        }
+        local.put(key, session);
+    }
+
+    /**
+     * @return the cached principal of a user, or {@code null} if neither tier has it
+     */
+    public SessionPrincipal getPrincipal(UUID userId) {
+        SessionPrincipal cached = localPrincipals.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(PRINCIPAL_PREFIX + userId);
+            if (json == null) {
+                return null;
+            }
+            cached = objectMapper.readValue(json, SessionPrincipal.class);
+            localPrincipals.put(userId, cached);
+            return cached;
+        } catch (Exception e) {
+            log.warn("Principal cache read failed, falling back to DB: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cache a principal just loaded from the database.
+     */
+    public void putPrincipal(SessionPrincipal principal) {
+        try {
+            redisTemplate.opsForValue().set(PRINCIPAL_PREFIX + principal.id(),
+                    objectMapper.writeValueAsString(principal), redisTtl);
+        } catch (Exception e) {
+            log.warn("Principal cache write failed: {}", e.getMessage());
+        }
+        localPrincipals.put(principal.id(), principal);
+    }
+
+    /**
+     * The session was deleted (logout, absolute expiry). Leaves a tombstone
+     * for the Redis TTL.
+     */
+    public void revoke(String sessionToken) {
+        String key = key(sessionToken);
+        local.invalidate(key);
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, TOMBSTONE, redisTtl);
+        } catch (Exception e) {
+            log.warn("Session cache revoke failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * All sessions of the user were deleted (unlink, data deletion). Their
+     * sessions are not re-cached for the Redis TTL.
+     */
+    public void revokeUser(UUID userId) {
+        try {
+            redisTemplate.opsForValue().set(REVOKED_USER_PREFIX + userId, "1", redisTtl);
+        } catch (Exception e) {
+            log.warn("Session cache revoke failed for user {}: {}", userId, e.getMessage());
+        }
+        evictUser(userId);
+    }
+
+    /**
+     * The user's row changed; cached principals are dropped and reloaded on
+     * the next request.
+     */
+    public void evictUser(UUID userId) {
+        local.asMap().values().removeIf(s -> userId.equals(s.userId()));
+        localPrincipals.invalidate(userId);
+        try {
+            String userKey = USER_KEY_PREFIX + userId;
+            Set<String> keys = redisTemplate.opsForSet().members(userKey);
+            List<String> toDelete = new ArrayList<>();
+            toDelete.add(userKey);
+            toDelete.add(PRINCIPAL_PREFIX + userId);
+            if (keys != null) {
+                keys.forEach(k -> toDelete.add(KEY_PREFIX + k));
+            }
+            redisTemplate.delete(toDelete);
+        } catch (Exception e) {
+            log.warn("Session cache evict failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private Duration ttlFor(CachedSession session) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Duration ttl = redisTtl;
+        if (session.tokenExpires() != null) {
+            ttl = min(ttl, Duration.between(now, session.tokenExpires()));
+        }
+        if (session.createdAt() != null) {
+            ttl = min(ttl, Duration.between(now, session.createdAt().plusHours(ABSOLUTE_SESSION_HOURS)));
+        }
+        return ttl;
+    }
+
+    private static Duration min(Duration a, Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+
+    private static String key(String sessionToken) {
+        return Hex.encode(Digests.sha256(sessionToken.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,139 @@
+package com.yoursp.uaepass.modules.auth;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired rows from {@code user_sessions}.
+ * <ul>
+ * <li>A row is expired once {@code token_expires} has passed or it is older
+ * than the 24h absolute limit {@link SessionAuthFilter} enforces</li>
+ * <li>Runs every {@code session.reaper.interval-ms} (default 5 min) on one
+ * instance at a time, elected through a Redis lock</li>
+ * <li>Deletes in chunks of {@code session.reaper.batch-size} rows by
+ * {@code ctid}, each its own short statement, up to
+ * {@code session.reaper.max-batches} chunks per run</li>
+ * <li>{@code ctid} is PostgreSQL-only: profiles on another database set
+ * {@code session.reaper.enabled=false} and the bean is not created</li>
+ * </ul>
+ * Meters: {@code session.reaper.deleted} (rows) and {@code session.reaper.runs}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "session.reaper.enabled", havingValue = "true", matchIfMissing = true)
+@SuppressWarnings("null")
+public class SessionReaper implements MeterBinder {
+
+    private static final String LOCK_KEY = "session_reaper_lock";
+
+    private static final String DELETE_SQL = "DELETE FROM user_sessions WHERE ctid = ANY(ARRAY("
+            + "SELECT ctid FROM user_sessions WHERE token_expires < ? OR created_at < ? LIMIT ?))";
+
+    /** Delete the lock only if this instance still holds it. */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
+
+    /** Same limit as {@link SessionAuthFilter}. */
+    private static final Duration ABSOLUTE_SESSION_LIFETIME = Duration.ofHours(24);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final int batchSize;
+    private final int maxBatches;
+    private final Duration lockTtl;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong runs = new AtomicLong();
+
+    public SessionReaper(JdbcTemplate jdbcTemplate, StringRedisTemplate redisTemplate,
+            @Value("${session.reaper.batch-size:1000}") int batchSize,
+            @Value("${session.reaper.max-batches:100}") int maxBatches,
+            @Value("${session.reaper.lock-ttl-seconds:240}") long lockTtlSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.redisTemplate = redisTemplate;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+        this.lockTtl = Duration.ofSeconds(lockTtlSeconds);
+    }
+
+    /**
+     * @return rows deleted, or -1 if another instance holds the lock
+     */
+    @Scheduled(initialDelayString = "${session.reaper.initial-delay-ms:60000}",
+            fixedDelayString = "${session.reaper.interval-ms:300000}")
+    public int reap() {
+        if (!acquireLock()) {
+            return -1;
+        }
+        int total = 0;
+        try {
+            Instant now = Instant.now();
+            Timestamp expiredBefore = Timestamp.from(now);
+            Timestamp createdBefore = Timestamp.from(now.minus(ABSOLUTE_SESSION_LIFETIME));
+            for (int batch = 0; batch < maxBatches; batch++) {
+                int rows = jdbcTemplate.update(DELETE_SQL, expiredBefore, createdBefore, batchSize);
+                total += rows;
+                deleted.addAndGet(rows);
+                if (rows < batchSize) {
+                    break;
+                }
+            }
+            runs.incrementAndGet();
+            if (total > 0) {
+                log.info("Reaped {} expired session(s)", total);
+            }
+        } catch (Exception e) {
+            log.warn("Session reaper failed after {} row(s): {}", total, e.getMessage());
+        } finally {
+            releaseLock();
+        }
+        return total;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("session.reaper.deleted", deleted, AtomicLong::get)
+                .description("Expired user_sessions rows deleted")
+                .register(registry);
+        FunctionCounter.builder("session.reaper.runs", runs, AtomicLong::get)
+                .description("Completed session reaper runs on this instance")
+                .register(registry);
+    }
+
+    private boolean acquireLock() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, instanceId, lockTtl));
+        } catch (Exception e) {
+            log.warn("Session reaper lock unavailable, skipping run: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_KEY), instanceId);
+        } catch (Exception e) {
+            // Lock expires on its own after lockTtl
+            log.debug("Session reaper lock release failed: {}", e.getMessage());
+        }
+    }
+}
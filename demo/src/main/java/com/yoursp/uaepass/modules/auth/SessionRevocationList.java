@@ -0,0 +1,131 @@
+package com.yoursp.uaepass.modules.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked stateless sessions, checked in memory by {@link SessionAuthFilter}.
+ * <ul>
+ * <li>Session entries ({@code s:<sessionId>@<expiryMillis>}) come from logout
+ * and live until the token's own expiry</li>
+ * <li>User entries ({@code u:<userId>@<revokedAtMillis>}) come from unlink and
+ * data deletion and reject every token of that user issued before then</li>
+ * <li>Entries are kept in the Redis sorted set {@code session_revocations}
+ * (score = expiry) and broadcast on the channel of the same name; each
+ * instance applies broadcasts to its local maps</li>
+ * <li>The sorted set is re-read every minute, covering broadcasts missed
+ * while an instance was disconnected</li>
+ * </ul>
+ * The set only ever holds revocations younger than the session lifetime, so
+ * it stays small.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class SessionRevocationList implements MessageListener {
+
+    private static final String KEY = "session_revocations";
+
+    private static final String SESSION_PREFIX = "s:";
+    private static final String USER_PREFIX = "u:";
+
+    /** Upper bound on a session's life — user revocations are kept this long. */
+    private static final long ABSOLUTE_SESSION_MILLIS = 24L * 60 * 60 * 1000;
+
+    private final StringRedisTemplate redisTemplate;
+
+    /** sessionId → expiry (epoch millis) */
+    private final Map<UUID, Long> revokedSessions = new ConcurrentHashMap<>();
+    /** userId → revocation time (epoch millis) */
+    private final Map<UUID, Long> revokedUsers = new ConcurrentHashMap<>();
+
+    public SessionRevocationList(StringRedisTemplate redisTemplate, RedisMessageListenerContainer container) {
+        this.redisTemplate = redisTemplate;
+        container.addMessageListener(this, new ChannelTopic(KEY));
+    }
+
+    /**
+     * @return true if the session itself, or all sessions of its user issued
+     *         at or before {@code issuedAt}, were revoked
+     */
+    public boolean isRevoked(UUID sessionId, UUID userId, OffsetDateTime issuedAt) {
+        if (revokedSessions.containsKey(sessionId)) {
+            return true;
+        }
+        Long revokedAt = revokedUsers.get(userId);
+        return revokedAt != null && issuedAt.toInstant().toEpochMilli() <= revokedAt;
+    }
+
+    public void revokeSession(UUID sessionId, OffsetDateTime expiresAt) {
+        long expiry = expiresAt.toInstant().toEpochMilli();
+        revokedSessions.put(sessionId, expiry);
+        publish(SESSION_PREFIX + sessionId + "@" + expiry, expiry);
+    }
+
+    public void revokeUser(UUID userId) {
+        long now = System.currentTimeMillis();
+        revokedUsers.merge(userId, now, Math::max);
+        publish(USER_PREFIX + userId + "@" + now, now + ABSOLUTE_SESSION_MILLIS);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        apply(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Drops expired local entries and reloads the shared set.
+     */
+    @Scheduled(fixedDelay = 60_000, initialDelay = 0)
+    public void sync() {
+        long now = System.currentTimeMillis();
+        revokedSessions.values().removeIf(expiry -> expiry < now);
+        revokedUsers.values().removeIf(revokedAt -> revokedAt + ABSOLUTE_SESSION_MILLIS < now);
+        try {
+            redisTemplate.opsForZSet().removeRangeByScore(KEY, 0, now);
+            Set<String> entries = redisTemplate.opsForZSet().rangeByScore(KEY, now, Double.MAX_VALUE);
+            if (entries != null) {
+                entries.forEach(this::apply);
+            }
+        } catch (Exception e) {
+            log.warn("Session revocation sync failed: {}", e.getMessage());
+        }
+    }
+
+    private void publish(String entry, long expiry) {
+        try {
+            redisTemplate.opsForZSet().add(KEY, entry, expiry);
+            redisTemplate.convertAndSend(KEY, entry);
+        } catch (Exception e) {
+            // Local instance is already updated; others catch up on their next sync
+            log.error("Failed to replicate session revocation {}: {}", entry, e.getMessage());
+        }
+    }
+
+    private void apply(String entry) {
+        try {
+            int at = entry.indexOf('@');
+            long millis = Long.parseLong(entry.substring(at + 1));
+            if (entry.startsWith(SESSION_PREFIX)) {
+                revokedSessions.put(UUID.fromString(entry.substring(SESSION_PREFIX.length(), at)), millis);
+            } else if (entry.startsWith(USER_PREFIX)) {
+                revokedUsers.merge(UUID.fromString(entry.substring(USER_PREFIX.length(), at)), millis, Math::max);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed session revocation entry: {}", entry);
+        }
+    }
+}
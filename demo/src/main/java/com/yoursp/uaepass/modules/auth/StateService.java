@@ -56,9 +56,19 @@ public class StateService {
      * @return the state string (a UUID)
      */
     public String generateState(String flowType, String redirectAfter, UUID userId) {
+        return generateState(flowType, redirectAfter, userId, null);
+    }
+
+    /**
+     * Generate a state bound to a specific job, so the callback can resolve the
+     * job by primary key instead of searching the user's history.
+     *
+     * @param jobId the job the callback completes
+     */
+    public String generateState(String flowType, String redirectAfter, UUID userId, UUID jobId) {
         String state = UUID.randomUUID().toString();
 
-        StatePayload payload = new StatePayload(flowType, redirectAfter, userId, Instant.now());
+        StatePayload payload = new StatePayload(flowType, redirectAfter, userId, jobId, Instant.now());
 
         try {
             String json = objectMapper.writeValueAsString(payload);
@@ -0,0 +1,139 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.crypto.DirectDecrypter;
+import com.nimbusds.jose.crypto.DirectEncrypter;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.yoursp.uaepass.model.entity.UserSession;
+import com.yoursp.uaepass.modules.auth.dto.StatelessSession;
+import com.yoursp.uaepass.util.Digests;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues and reads stateless {@code UAEPASS_SESSION} tokens.
+ * <p>
+ * With {@code session.stateless.enabled=true} the cookie is a compact JWE
+ * ({@code dir} + {@code A256GCM}) carrying user id, session id, issue time,
+ * expiry and client IP. GCM authenticates the token, so it is tamper-proof
+ * as well as opaque to the client. {@link SessionAuthFilter} validates it
+ * without I/O; revocation goes through {@link SessionRevocationList}.
+ * </p>
+ * <p>
+ * The {@code user_sessions} row is still written — logout, listing and
+ * data deletion work on it — but is not read per request. Opaque tokens
+ * issued before the switch keep working through the database path.
+ * </p>
+ */
+@Slf4j
+@Component
+public class StatelessSessionCodec {
+
+    private static final JWEHeader HEADER = new JWEHeader(JWEAlgorithm.DIR, EncryptionMethod.A256GCM);
+    private static final String KEY_LABEL = "uaepass-session-token:";
+
+    private final boolean enabled;
+    private final DirectEncrypter encrypter;
+    private final DirectDecrypter decrypter;
+
+    public StatelessSessionCodec(
+            @Value("${session.stateless.enabled:false}") boolean enabled,
+            @Value("${session.stateless.key:${token.encryption-key}}") String secret) {
+        this.enabled = enabled;
+        // Derive a dedicated 256-bit key so it never equals the token encryption key
+        byte[] key = Digests.sha256((KEY_LABEL + secret).getBytes(StandardCharsets.UTF_8));
+        try {
+            SecretKeySpec spec = new SecretKeySpec(key, "AES");
+            this.encrypter = new DirectEncrypter(spec);
+            this.decrypter = new DirectDecrypter(spec);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Invalid session token key", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Opaque tokens are unpadded Base64url and never contain a dot; a JWE
+     * compact serialization always does.
+     */
+    public boolean isStatelessToken(String token) {
+        return token.indexOf('.') >= 0;
+    }
+
+    /**
+     * Cookie value for a saved session: a stateless token when enabled,
+     * otherwise the opaque {@code session_token}.
+     */
+    public String cookieValue(UserSession session) {
+        if (!enabled) {
+            return session.getSessionToken();
+        }
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject(session.getUserId().toString())
+                .claim("sid", session.getId().toString())
+                .claim("ip", session.getIpAddress())
+                .issueTime(toDate(session.getCreatedAt() != null ? session.getCreatedAt() : OffsetDateTime.now()))
+                .expirationTime(toDate(session.getTokenExpires()))
+                .build();
+        EncryptedJWT jwt = new EncryptedJWT(HEADER, claims);
+        try {
+            jwt.encrypt(encrypter);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Failed to issue session token", e);
+        }
+        return jwt.serialize();
+    }
+
+    /**
+     * Decrypt and authenticate a stateless token. Expiry is not checked here.
+     *
+     * @return the claims, or {@code null} if the token is malformed or forged
+     */
+    public StatelessSession decode(String token) {
+        try {
+            EncryptedJWT jwt = EncryptedJWT.parse(token);
+            if (!JWEAlgorithm.DIR.equals(jwt.getHeader().getAlgorithm())
+                    || !EncryptionMethod.A256GCM.equals(jwt.getHeader().getEncryptionMethod())) {
+                return null;
+            }
+            jwt.decrypt(decrypter);
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            if (claims.getSubject() == null || claims.getStringClaim("sid") == null
+                    || claims.getIssueTime() == null || claims.getExpirationTime() == null) {
+                return null;
+            }
+            return new StatelessSession(
+                    UUID.fromString(claims.getStringClaim("sid")),
+                    UUID.fromString(claims.getSubject()),
+                    toOffsetDateTime(claims.getIssueTime()),
+                    toOffsetDateTime(claims.getExpirationTime()),
+                    claims.getStringClaim("ip"));
+        } catch (Exception e) {
+            log.debug("Rejected session token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static Date toDate(OffsetDateTime time) {
+        return Date.from(time.toInstant());
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Date date) {
+        return date.toInstant().atOffset(ZoneOffset.UTC);
+    }
+}
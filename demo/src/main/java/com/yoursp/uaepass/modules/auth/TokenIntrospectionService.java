@@ -0,0 +1,173 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.yoursp.uaepass.config.UaePassProperties;
+import com.yoursp.uaepass.modules.auth.dto.TokenIntrospectResponse;
+import com.yoursp.uaepass.util.Digests;
+import com.yoursp.uaepass.util.Hex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UAE PASS token introspection with a local result cache.
+ * <ul>
+ * <li>Keyed by SHA-256 of the access token — raw tokens are not kept</li>
+ * <li>Active results live until {@code expiry-skew-seconds} before the
+ * token's {@code exp}, capped at {@code max-ttl-seconds} so a revocation at
+ * UAE PASS is seen within that bound</li>
+ * <li>Inactive results are cached for {@code negative-ttl-seconds}</li>
+ * <li>Concurrent misses for the same token share one remote call
+ * (single-flight); failures are not cached</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@SuppressWarnings("null")
+public class TokenIntrospectionService {
+
+    private final UaePassProperties uaePassProperties;
+    private final RestTemplate restTemplate;
+    private final Cache<String, TokenIntrospectResponse> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<TokenIntrospectResponse>> inFlight =
+            new ConcurrentHashMap<>();
+
+    public TokenIntrospectionService(UaePassProperties uaePassProperties, RestTemplate restTemplate,
+            @Value("${uaepass.introspection.cache.max-ttl-seconds:300}") long maxTtlSeconds,
+            @Value("${uaepass.introspection.cache.negative-ttl-seconds:60}") long negativeTtlSeconds,
+            @Value("${uaepass.introspection.cache.expiry-skew-seconds:30}") long skewSeconds,
+            @Value("${uaepass.introspection.cache.max-size:10000}") long maxSize) {
+        this.uaePassProperties = uaePassProperties;
+        this.restTemplate = restTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ResultExpiry(maxTtlSeconds, negativeTtlSeconds, skewSeconds))
+                .build();
+    }
+
+    /**
+     * Introspect an access token, from cache when possible. A token issued
+     * to another client is reported inactive.
+     */
+    public TokenIntrospectResponse introspect(String accessToken) {
+        String key = Hex.encode(Digests.sha256(accessToken.getBytes(StandardCharsets.UTF_8)));
+        TokenIntrospectResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<TokenIntrospectResponse> mine = new CompletableFuture<>();
+        CompletableFuture<TokenIntrospectResponse> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            return await(leader);
+        }
+
+        try {
+            TokenIntrospectResponse result = callIntrospect(accessToken);
+            cache.put(key, result);
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!mine.isDone()) {
+                mine.completeExceptionally(new IllegalStateException("Introspection aborted"));
+            }
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private TokenIntrospectResponse callIntrospect(String accessToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setBasicAuth(uaePassProperties.getClientId(), uaePassProperties.getClientSecret());
+
+        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("token", accessToken);
+
+        TokenIntrospectResponse result = restTemplate.exchange(
+                uaePassProperties.getIntrospectUrl(),
+                HttpMethod.POST,
+                new HttpEntity<>(body, headers),
+                TokenIntrospectResponse.class).getBody();
+
+        if (result == null) {
+            result = new TokenIntrospectResponse();
+        }
+
+        // Verify client_id matches ours
+        if (result.isActive() && !uaePassProperties.getClientId().equals(result.getClientId())) {
+            log.warn("Token introspection client_id mismatch: expected={}, got={}",
+                    uaePassProperties.getClientId(), result.getClientId());
+            result.setActive(false);
+        }
+        return result;
+    }
+
+    private static TokenIntrospectResponse await(CompletableFuture<TokenIntrospectResponse> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Per-entry lifetime from the token's {@code exp}; reads do not extend it.
+     */
+    static final class ResultExpiry implements Expiry<String, TokenIntrospectResponse> {
+
+        private final long maxTtlNanos;
+        private final long negativeTtlNanos;
+        private final long skewSeconds;
+
+        ResultExpiry(long maxTtlSeconds, long negativeTtlSeconds, long skewSeconds) {
+            this.maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+            this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+            this.skewSeconds = skewSeconds;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, TokenIntrospectResponse value, long currentTime) {
+            if (!value.isActive()) {
+                return negativeTtlNanos;
+            }
+            if (value.getExp() <= 0) {
+                return maxTtlNanos;
+            }
+            long remaining = value.getExp() - skewSeconds - System.currentTimeMillis() / 1000;
+            return Math.max(0, Math.min(maxTtlNanos, TimeUnit.SECONDS.toNanos(remaining)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenIntrospectResponse value, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenIntrospectResponse value, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,16 +2,18 @@ package com.yoursp.uaepass.modules.auth;
 
 import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.modules.linking.AutoLinkingService;
+import com.yoursp.uaepass.modules.linking.IdnBlindIndex;
 import com.yoursp.uaepass.repository.UserRepository;
 import com.yoursp.uaepass.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Synchronizes user data from UAE PASS /userinfo response with local DB.
@@ -19,7 +21,7 @@ import java.util.Map;
  * <li>Delegates auto-linking to {@link AutoLinkingService}</li>
  * <li>Creates new user if auto-link finds no match</li>
  * <li>Updates profile fields on every login</li>
- * <li>Encrypts idn before storing</li>
+ * <li>Encrypts idn before storing, alongside its blind index</li>
  * <li>Logs to audit_log</li>
  * </ul>
  */
@@ -31,9 +33,10 @@ public class UserSyncService {
     private final UserRepository userRepository;
     private final AutoLinkingService autoLinkingService;
     private final AuditService auditService;
-
-    @Value("${idn.encryption-key}")
-    private String idnEncryptionKey;
+    @Qualifier("idnCrypto")
+    private final AesGcmCrypto idnCrypto;
+    private final IdnBlindIndex idnBlindIndex;
+    private final SessionCache sessionCache;
 
     /**
      * Sync user info from UAE PASS into local database.
@@ -69,6 +72,8 @@ public class UserSyncService {
         updateUserFields(user, userInfo, idn);
 
         User savedUser = userRepository.save(user);
+        // Other sessions of this user pick up the refreshed profile
+        sessionCache.evictUser(savedUser.getId());
 
         // Audit log
         auditService.log(
@@ -83,23 +88,50 @@ public class UserSyncService {
         return savedUser;
     }
 
+    /**
+     * Copies profile fields from {@code userInfo}. A field whose key is absent
+     * keeps its stored value — an id_token carries fewer claims than /userinfo.
+     */
     private void updateUserFields(User user, Map<String, Object> userInfo, String rawIdn) {
-        user.setFullNameEn(getStringValue(userInfo, "fullnameEN"));
-        user.setFullNameAr(getStringValue(userInfo, "fullnameAR"));
-        user.setFirstNameEn(getStringValue(userInfo, "firstnameEN"));
-        user.setLastNameEn(getStringValue(userInfo, "lastnameEN"));
-        user.setEmail(getStringValue(userInfo, "email"));
-        user.setMobile(getStringValue(userInfo, "mobile"));
-        user.setNationalityEn(getStringValue(userInfo, "nationalityEN"));
-        user.setGender(getStringValue(userInfo, "gender"));
-        user.setUserType(getStringValue(userInfo, "userType"));
-        user.setIdType(getStringValue(userInfo, "idType"));
-        user.setAcr(getStringValue(userInfo, "acr"));
-        user.setSpuuid(getStringValue(userInfo, "spuuid"));
+        setIfPresent(userInfo, "fullnameEN", user::setFullNameEn);
+        setIfPresent(userInfo, "fullnameAR", user::setFullNameAr);
+        setIfPresent(userInfo, "firstnameEN", user::setFirstNameEn);
+        setIfPresent(userInfo, "lastnameEN", user::setLastNameEn);
+        setIfPresent(userInfo, "email", user::setEmail);
+        setIfPresent(userInfo, "mobile", user::setMobile);
+        setIfPresent(userInfo, "nationalityEN", user::setNationalityEn);
+        setIfPresent(userInfo, "gender", user::setGender);
+        setIfPresent(userInfo, "userType", user::setUserType);
+        setIfPresent(userInfo, "idType", user::setIdType);
+        setIfPresent(userInfo, "acr", user::setAcr);
+        setIfPresent(userInfo, "spuuid", user::setSpuuid);
 
         // Encrypt idn before storing — NEVER store plaintext
         if (rawIdn != null && !rawIdn.isBlank()) {
-            user.setIdn(CryptoUtil.encryptAES256(rawIdn, idnEncryptionKey));
+            user.setIdn(idnCrypto.encrypt(rawIdn));
+            updateIdnBidx(user, idnBlindIndex.compute(rawIdn));
+        }
+    }
+
+    private void updateIdnBidx(User user, String idnBidx) {
+        if (idnBidx == null || idnBidx.equals(user.getIdnBidx())) {
+            return;
+        }
+        // The index is unique: a second account with the same idn keeps logging
+        // in, but only the first one is reachable by idn auto-linking
+        boolean takenByOther = userRepository.findByIdnBidx(idnBidx)
+                .filter(owner -> !owner.getId().equals(user.getId()))
+                .isPresent();
+        if (takenByOther) {
+            log.warn("idn of user {} is already indexed for another user; not indexing", user.getId());
+            return;
+        }
+        user.setIdnBidx(idnBidx);
+    }
+
+    private void setIfPresent(Map<String, Object> map, String key, Consumer<String> setter) {
+        if (map.containsKey(key)) {
+            setter.accept(getStringValue(map, key));
         }
     }
 
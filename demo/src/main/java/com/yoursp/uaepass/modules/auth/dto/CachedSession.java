@@ -0,0 +1,28 @@
+package com.yoursp.uaepass.modules.auth.dto;
+
+import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.model.entity.UserSession;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * What {@code SessionAuthFilter} needs from a session row and its user —
+ * the unit stored by {@code SessionCache}.
+ */
+public record CachedSession(
+        UUID sessionId,
+        OffsetDateTime tokenExpires,
+        OffsetDateTime createdAt,
+        String ipAddress,
+        SessionPrincipal principal) {
+
+    public static CachedSession of(UserSession session, User user) {
+        return new CachedSession(session.getId(), session.getTokenExpires(), session.getCreatedAt(),
+                session.getIpAddress(), SessionPrincipal.from(user));
+    }
+
+    public UUID userId() {
+        return principal.id();
+    }
+}
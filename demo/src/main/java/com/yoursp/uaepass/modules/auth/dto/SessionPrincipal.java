@@ -0,0 +1,71 @@
+package com.yoursp.uaepass.modules.auth.dto;
+
+import com.yoursp.uaepass.model.entity.User;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Flat copy of a {@link User} row, cached with the session so an
+ * authenticated request does not have to load the user.
+ * <p>
+ * Every column is kept: controllers receive {@link #toUser()} as
+ * {@code currentUser} and some of them save it back.
+ * </p>
+ */
+public record SessionPrincipal(
+        UUID id,
+        String uaepassUuid,
+        String spuuid,
+        String idn,
+        String idnBidx,
+        String email,
+        String mobile,
+        String fullNameEn,
+        String fullNameAr,
+        String firstNameEn,
+        String lastNameEn,
+        String nationalityEn,
+        String gender,
+        String userType,
+        String idType,
+        String acr,
+        OffsetDateTime linkedAt,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt) {
+
+    public static SessionPrincipal from(User user) {
+        return new SessionPrincipal(user.getId(), user.getUaepassUuid(), user.getSpuuid(), user.getIdn(),
+                user.getIdnBidx(), user.getEmail(), user.getMobile(), user.getFullNameEn(), user.getFullNameAr(),
+                user.getFirstNameEn(), user.getLastNameEn(), user.getNationalityEn(), user.getGender(),
+                user.getUserType(), user.getIdType(), user.getAcr(), user.getLinkedAt(),
+                user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    /**
+     * A fresh, detached User per call — callers may modify it.
+     */
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .uaepassUuid(uaepassUuid)
+                .spuuid(spuuid)
+                .idn(idn)
+                .idnBidx(idnBidx)
+                .email(email)
+                .mobile(mobile)
+                .fullNameEn(fullNameEn)
+                .fullNameAr(fullNameAr)
+                .firstNameEn(firstNameEn)
+                .lastNameEn(lastNameEn)
+                .nationalityEn(nationalityEn)
+                .gender(gender)
+                .userType(userType)
+                .idType(idType)
+                .acr(acr)
+                .linkedAt(linkedAt)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
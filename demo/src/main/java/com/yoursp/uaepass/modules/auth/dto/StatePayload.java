@@ -5,10 +5,16 @@ import java.util.UUID;
 
 /**
  * Payload stored in Redis alongside the OAuth2 state parameter.
+ * <p>
+ * {@code jobId} binds the state to the signing job it was issued for; it is
+ * null for flows that are not tied to a job (and for states issued before the
+ * field existed).
+ * </p>
  */
 public record StatePayload(
         String flowType,
         String redirectAfter,
         UUID userId,
+        UUID jobId,
         Instant createdAt) {
 }
@@ -0,0 +1,15 @@
+package com.yoursp.uaepass.modules.auth.dto;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Claims carried by a stateless {@code UAEPASS_SESSION} token.
+ */
+public record StatelessSession(
+        UUID sessionId,
+        UUID userId,
+        OffsetDateTime issuedAt,
+        OffsetDateTime expiresAt,
+        String ipAddress) {
+}
@@ -0,0 +1,15 @@
+package com.yoursp.uaepass.modules.auth.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an id_token fails signature, issuer, audience or expiry checks.
+ */
+@ResponseStatus(HttpStatus.UNAUTHORIZED)
+public class InvalidIdTokenException extends RuntimeException {
+
+    public InvalidIdTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
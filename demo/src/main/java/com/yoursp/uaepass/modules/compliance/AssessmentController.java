@@ -87,7 +87,7 @@ public class AssessmentController {
         long usersWithIdn = userRepository.countByIdnIsNotNull();
         checklist.put("idn_encrypted", Map.of(
                 "status", usersWithIdn > 0 ? "PASS" : "INFO",
-                "detail", usersWithIdn + " users have encrypted idn. Stored via AES-256 (CryptoUtil)"));
+                "detail", usersWithIdn + " users have encrypted idn. Stored via AES-256-GCM (AesGcmCrypto)"));
 
         // 8. Tokens not logged
         checklist.put("tokens_not_logged", Map.of(
@@ -1,6 +1,8 @@
 package com.yoursp.uaepass.modules.compliance;
 
 import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.modules.auth.SessionCache;
+import com.yoursp.uaepass.modules.auth.SessionRevocationList;
 import com.yoursp.uaepass.modules.face.FaceVerified;
 import com.yoursp.uaepass.repository.*;
 import com.yoursp.uaepass.service.AuditService;
@@ -28,6 +30,8 @@ public class UserDataController {
     private final FaceVerificationRepository faceVerificationRepository;
     private final SigningJobRepository signingJobRepository;
     private final AuditService auditService;
+    private final SessionCache sessionCache;
+    private final SessionRevocationList revocationList;
 
     // ================================================================
     // DELETE /users/me/data — Requires face verification + confirmation
@@ -55,6 +59,8 @@ public class UserDataController {
 
         // Delete user sessions
         int sessionCount = sessionRepository.deleteAllByUserId(userId);
+        sessionCache.revokeUser(userId);
+        revocationList.revokeUser(userId);
         deletionReport.put("sessionsDeleted", sessionCount);
 
         // Delete face verifications
@@ -73,6 +79,8 @@ public class UserDataController {
         user.setEmail(null);
         user.setMobile(null);
         user.setIdn(null);
+        // Keep a deleted account out of idn auto-linking
+        user.setIdnBidx(null);
         user.setNationalityEn(null);
         user.setGender(null);
         user.setUaepassUuid(null);
@@ -0,0 +1,240 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD concurrency limiter for calls to a remote service.
+ * <p>
+ * The number of calls allowed in flight adapts to what the remote side can
+ * take:
+ * <ul>
+ * <li>A call that answers no slower than {@code latencyTolerance} × the
+ * smoothed baseline latency, while the limit is actually in use, raises the
+ * limit by {@code 1/limit} (about +1 per round of calls)</li>
+ * <li>A slower answer, a timeout or a 5xx cuts the limit by 10%</li>
+ * </ul>
+ * Callers over the limit wait in a bounded queue for at most
+ * {@code maxWait}; when the queue is full or the wait expires the call fails
+ * fast with {@link ESealOverloadedException}.
+ * </p>
+ */
+public final class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double BASELINE_SMOOTHING = 0.05;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final double latencyTolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private double baselineNanos;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param name             meter name prefix, e.g. {@code eseal.soap}
+     * @param initialLimit     starting concurrency limit
+     * @param minLimit         the limit never drops below this
+     * @param maxLimit         the limit never grows above this
+     * @param maxQueue         callers allowed to wait for a slot; 0 = reject at once
+     * @param maxWait          how long a queued caller waits before being rejected
+     * @param latencyTolerance latency / baseline ratio treated as congestion
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+            int maxQueue, Duration maxWait, double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Require 1 <= minLimit <= maxLimit");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Take a slot, waiting in the queue if the limit is reached. The returned
+     * permit must be closed; record {@link Permit#success()} or
+     * {@link Permit#dropped()} first so the call feeds the limit.
+     *
+     * @throws ESealOverloadedException if the queue is full or the wait expired
+     */
+    public Permit acquire() {
+        lock.lock();
+        try {
+            if (inFlight < currentLimit()) {
+                inFlight++;
+                return new Permit();
+            }
+            if (queued >= maxQueue) {
+                throw reject("queue full");
+            }
+
+            queued++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= currentLimit()) {
+                    if (remaining <= 0) {
+                        throw reject("timed out waiting for a slot");
+                    }
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject("interrupted while waiting for a slot");
+            } finally {
+                queued--;
+            }
+            inFlight++;
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return currentLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(name + ".concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder(name + ".concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Calls currently in flight")
+                .register(registry);
+        Gauge.builder(name + ".concurrency.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+                .description("Callers waiting for a slot")
+                .register(registry);
+        FunctionCounter.builder(name + ".concurrency.rejected", this, AdaptiveConcurrencyLimiter::getRejected)
+                .description("Calls rejected because the queue was full or the wait expired")
+                .register(registry);
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private ESealOverloadedException reject(String reason) {
+        rejected.incrementAndGet();
+        return new ESealOverloadedException(
+                "eSeal service is at capacity (" + reason + "). Please try again shortly.");
+    }
+
+    private void release(long latencyNanos, boolean dropped, boolean sampled) {
+        lock.lock();
+        try {
+            int before = currentLimit();
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+
+            if (dropped) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            } else if (sampled) {
+                if (baselineNanos == 0) {
+                    baselineNanos = latencyNanos;
+                }
+                if (latencyNanos > baselineNanos * latencyTolerance) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                } else if (saturated) {
+                    // Only grow while the limit is the constraint, not idle headroom
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+                baselineNanos += (latencyNanos - baselineNanos) * BASELINE_SMOOTHING;
+            }
+
+            if (currentLimit() > before) {
+                slotFreed.signalAll();
+            } else {
+                slotFreed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One in-flight call. The first of {@link #success()}, {@link #dropped()}
+     * or {@link #close()} releases the slot; later calls are no-ops.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        private Permit() {
+        }
+
+        /** The remote service answered; its latency feeds the limit. */
+        public void success() {
+            finish(false, true);
+        }
+
+        /** The call timed out or the service signalled overload. */
+        public void dropped() {
+            finish(true, false);
+        }
+
+        /** Release without adjusting the limit (e.g. a client-side error). */
+        @Override
+        public void close() {
+            finish(false, false);
+        }
+
+        private void finish(boolean dropped, boolean sampled) {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(System.nanoTime() - startNanos, dropped, sampled);
+        }
+    }
+}
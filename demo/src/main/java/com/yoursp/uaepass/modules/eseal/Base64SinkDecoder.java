@@ -0,0 +1,105 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Incremental Base64 decoder fed with character chunks (as delivered by a
+ * StAX reader) and writing decoded bytes to an {@link OutputStream}.
+ * <p>
+ * Whitespace and line breaks inside the payload are skipped while decoding, so
+ * no whitespace-stripped copy of the text is ever built.
+ * </p>
+ */
+final class Base64SinkDecoder {
+
+    private static final int WHITESPACE = -2;
+    private static final int INVALID = -1;
+    private static final int[] DECODE_TABLE = new int[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, INVALID);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = i;
+        }
+        DECODE_TABLE[' '] = WHITESPACE;
+        DECODE_TABLE['\t'] = WHITESPACE;
+        DECODE_TABLE['\r'] = WHITESPACE;
+        DECODE_TABLE['\n'] = WHITESPACE;
+    }
+
+    private final OutputStream sink;
+    private final byte[] buffer = new byte[8192];
+    private int bufferPos;
+    private int quad;
+    private int quadLen;
+    private int padding;
+    private long decodedBytes;
+
+    Base64SinkDecoder(OutputStream sink) {
+        this.sink = sink;
+    }
+
+    void write(char[] chars, int offset, int length) throws IOException {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c == '=') {
+                padding++;
+                continue;
+            }
+            int value = c < 128 ? DECODE_TABLE[c] : INVALID;
+            if (value == WHITESPACE) {
+                continue;
+            }
+            if (value == INVALID || padding > 0) {
+                throw new IllegalArgumentException("Illegal Base64 character in payload: 0x"
+                        + Integer.toHexString(c));
+            }
+            quad = (quad << 6) | value;
+            if (++quadLen == 4) {
+                emit((byte) (quad >> 16));
+                emit((byte) (quad >> 8));
+                emit((byte) quad);
+                quad = 0;
+                quadLen = 0;
+            }
+        }
+    }
+
+    /**
+     * Flush the trailing partial quantum and any buffered bytes.
+     *
+     * @return total number of decoded bytes written to the sink
+     */
+    long finish() throws IOException {
+        switch (quadLen) {
+            case 0 -> {
+            }
+            case 2 -> emit((byte) (quad >> 4));
+            case 3 -> {
+                emit((byte) (quad >> 10));
+                emit((byte) (quad >> 2));
+            }
+            default -> throw new IllegalArgumentException("Truncated Base64 payload");
+        }
+        quad = 0;
+        quadLen = 0;
+        if (bufferPos > 0) {
+            sink.write(buffer, 0, bufferPos);
+            bufferPos = 0;
+        }
+        return decodedBytes;
+    }
+
+    private void emit(byte b) throws IOException {
+        if (bufferPos == buffer.length) {
+            sink.write(buffer, 0, bufferPos);
+            bufferPos = 0;
+        }
+        buffer[bufferPos++] = b;
+        decodedBytes++;
+    }
+}
@@ -1,27 +1,39 @@
 package com.yoursp.uaepass.modules.eseal;
 
 import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import com.yoursp.uaepass.modules.eseal.dto.ESealResult;
 import com.yoursp.uaepass.repository.EsealJobRepository;
 import com.yoursp.uaepass.service.AuditService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Digests;
+import com.yoursp.uaepass.util.Hex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.time.OffsetDateTime;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * CAdES eSeal service — seals non-PDF documents using UAE PASS SOAP API.
  * <p>
  * Profile: {@code urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:sign}
  * <br>
- * Returns a PKCS#7 CMS detached signature (not the document itself).
+ * Returns a PKCS#7 CMS signature (not the document itself) — enveloping by
+ * default, or detached over the document's SHA-256 in hash mode.
  * </p>
  */
 @Slf4j
@@ -44,166 +56,278 @@ public class CadesESealService {
     private static final SecureRandom RANDOM = new SecureRandom();
 
     /**
-     * Seal a document with a CAdES eSeal. Returns the PKCS#7 signature bytes
-     * (the original document is stored separately).
+     * Seal a document with a CAdES eSeal. Returns the PKCS#7 signature storage
+     * key (the original document is stored separately).
      *
-     * @param documentBytes the document to seal (any format)
-     * @param requestedBy   the user who requested the seal
-     * @return result containing PKCS#7 signature bytes and job ID
+     * @param document    the spooled document to seal (any format)
+     * @param requestedBy the user who requested the seal
+     * @return result containing the PKCS#7 signature storage key and job ID
      */
-    public ESealResult sealDocument(byte[] documentBytes, UUID requestedBy) {
+    public ESealResult sealDocument(SpooledUpload document, UUID requestedBy) throws IOException {
+        return sealDocument(document, requestedBy, null);
+    }
+
+    /**
+     * As {@link #sealDocument(SpooledUpload, UUID)}, recording
+     * {@code idempotencyKey} on the job so a repeated request can reuse the result.
+     */
+    public ESealResult sealDocument(SpooledUpload document, UUID requestedBy, String idempotencyKey)
+            throws IOException {
+        if (soapEndpoint == null || soapEndpoint.isBlank()) {
+            throw new ESealUnavailableException("ESEAL_SOAP_ENDPOINT is not configured");
+        }
+
+        SoapBody content = SoapBody.builder().base64(document.path()).build();
+        return seal(document, requestedBy, "CADES", idempotencyKey, Map.of(),
+                requestId -> buildCadesSignRequest(content, requestId));
+    }
+
+    /**
+     * Seal a document in detached-hash mode: only its SHA-256 digest is sent
+     * (DSS {@code DocumentHash}) and the service returns a detached PKCS#7
+     * signature over it. Request size and DSS processing no longer depend on
+     * the document size; the document itself stays with the SP.
+     *
+     * @param document    the spooled document to seal (any format)
+     * @param requestedBy the user who requested the seal
+     * @return result containing the detached signature storage key and job ID
+     */
+    public ESealResult sealDocumentHash(SpooledUpload document, UUID requestedBy) throws IOException {
+        return sealDocumentHash(document, requestedBy, null);
+    }
+
+    /**
+     * As {@link #sealDocumentHash(SpooledUpload, UUID)}, recording
+     * {@code idempotencyKey} on the job so a repeated request can reuse the result.
+     */
+    public ESealResult sealDocumentHash(SpooledUpload document, UUID requestedBy, String idempotencyKey)
+            throws IOException {
         if (soapEndpoint == null || soapEndpoint.isBlank()) {
             throw new ESealUnavailableException("ESEAL_SOAP_ENDPOINT is not configured");
         }
 
+        byte[] digest = document.sha256();
+        return seal(document, requestedBy, "CADES_HASH", idempotencyKey, Map.of("sha256", Hex.encode(digest)),
+                requestId -> buildCadesHashSignRequest(digest, requestId));
+    }
+
+    private ESealResult seal(SpooledUpload document, UUID requestedBy, String sealType, String idempotencyKey,
+            Map<String, Object> auditDetails, Function<String, SoapBody> signRequest) throws IOException {
         String requestId = generateRequestId();
-        String base64Doc = Base64.getEncoder().encodeToString(documentBytes);
 
-        log.info("Initiating CAdES eSeal: requestId={}, docSize={} bytes", requestId, documentBytes.length);
+        log.info("Initiating CAdES eSeal: requestId={}, sealType={}, docSize={} bytes",
+                requestId, sealType, document.size());
 
-        String signRequestBody = buildCadesSignRequest(base64Doc, requestId);
-        String responseXml = soapClient.executeSoapRequest(soapEndpoint, signRequestBody, requestId);
+        // The enveloping PKCS#7 embeds the document, so it is spooled to disk like the input
+        Path signatureFile = Files.createTempFile("eseal-", ".p7s");
+        try {
+            DssResponse response = executeSign(signRequest.apply(requestId), requestId, signatureFile);
 
-        // Parse response
-        String resultMajor = extractTag(responseXml, "ResultMajor");
-        if (resultMajor == null || !resultMajor.contains("Success")) {
-            String resultMinor = extractTag(responseXml, "ResultMinor");
-            String message = ESealErrorCodeMapper.toMessage(resultMinor);
-            log.error("CAdES eSeal failed: requestId={}, resultMajor={}, resultMinor={}",
-                    requestId, resultMajor, resultMinor);
+            if (!response.isSuccess()) {
+                String message = ESealErrorCodeMapper.toMessage(response.getResultMinor());
 
-            EsealJob failedJob = EsealJob.builder()
+                EsealJob failedJob = EsealJob.builder()
+                        .requestedBy(requestedBy)
+                        .sealType(sealType)
+                        .status("FAILED")
+                        .requestId(requestId)
+                        .idempotencyKey(idempotencyKey)
+                        .errorMessage(message)
+                        .completedAt(OffsetDateTime.now())
+                        .build();
+                jobRepository.save(failedJob);
+
+                throw new RuntimeException("CAdES eSeal failed: " + message);
+            }
+
+            // Persist
+            EsealJob job = EsealJob.builder()
                     .requestedBy(requestedBy)
-                    .sealType("CADES")
-                    .status("FAILED")
+                    .sealType(sealType)
+                    .status("SEALED")
                     .requestId(requestId)
-                    .errorMessage(message)
+                    .idempotencyKey(idempotencyKey)
                     .completedAt(OffsetDateTime.now())
                     .build();
-            jobRepository.save(failedJob);
+            EsealJob saved = jobRepository.save(job);
+
+            // Store original document + PKCS#7 signature
+            String inputKey = "eseal/" + saved.getId() + ".bin";
+            String outputKey = "eseal/" + saved.getId() + ".p7s";
+            storageService.upload(document.path(), inputKey, "application/octet-stream");
+            storageService.upload(signatureFile, outputKey, "application/pkcs7-signature");
 
-            throw new RuntimeException("CAdES eSeal failed: " + message);
+            saved.setInputKey(inputKey);
+            saved.setOutputKey(outputKey);
+            jobRepository.save(saved);
+
+            Map<String, Object> details = new HashMap<>(auditDetails);
+            details.put("requestId", requestId);
+            details.put("sealType", sealType);
+            auditService.log(requestedBy, "ESEAL_DOCUMENT", "ESEAL_JOB",
+                    saved.getId().toString(), null, details);
+
+            log.info("CAdES eSeal completed: jobId={}, requestId={}", saved.getId(), requestId);
+
+            return ESealResult.builder()
+                    .jobId(saved.getId())
+                    .outputKey(outputKey)
+                    .sealedSize(response.getPayloadBytes())
+                    .requestId(requestId)
+                    .build();
+        } finally {
+            Files.deleteIfExists(signatureFile);
         }
+    }
 
-        // Extract PKCS#7 signature from Base64Signature
-        byte[] signatureBytes = extractCadesSignature(responseXml);
+    /**
+     * Seal a queued bulk job whose input document is already in storage; the
+     * job row is updated in place with the outcome. {@code CADES_HASH} jobs
+     * stream the input through the digest instead of into the request.
+     *
+     * @param job a claimed job in PROCESSING state
+     */
+    public void sealQueuedJob(EsealJob job) throws IOException {
+        if (soapEndpoint == null || soapEndpoint.isBlank()) {
+            throw new ESealUnavailableException("ESEAL_SOAP_ENDPOINT is not configured");
+        }
 
-        // Persist
-        EsealJob job = EsealJob.builder()
-                .requestedBy(requestedBy)
-                .sealType("CADES")
-                .status("SEALED")
-                .requestId(requestId)
-                .completedAt(OffsetDateTime.now())
-                .build();
-        EsealJob saved = jobRepository.save(job);
+        String requestId = generateRequestId();
+        String inputKey = job.getInputKey();
 
-        // Store original document + PKCS#7 signature
-        storageService.upload(documentBytes, "eseal/" + saved.getId() + ".bin", "application/octet-stream");
-        storageService.upload(signatureBytes, "eseal/" + saved.getId() + ".p7s", "application/pkcs7-signature");
+        log.info("Initiating CAdES eSeal: jobId={}, batchId={}, requestId={}", job.getId(), job.getBatchId(), requestId);
 
-        saved.setInputKey("eseal/" + saved.getId() + ".bin");
-        saved.setOutputKey("eseal/" + saved.getId() + ".p7s");
-        jobRepository.save(saved);
+        SoapBody signRequest;
+        if ("CADES_HASH".equals(job.getSealType())) {
+            try (InputStream in = storageService.openStream(inputKey)) {
+                signRequest = buildCadesHashSignRequest(Digests.sha256(in), requestId);
+            }
+        } else {
+            signRequest = buildCadesSignRequest(
+                    SoapBody.builder().base64(() -> storageService.openStream(inputKey), -1).build(),
+                    requestId);
+        }
 
-        auditService.log(requestedBy, "ESEAL_DOCUMENT", "ESEAL_JOB",
-                saved.getId().toString(), null,
-                Map.of("requestId", requestId, "sealType", "CADES"));
+        Path signatureFile = Files.createTempFile("eseal-", ".p7s");
+        try {
+            DssResponse response = executeSign(signRequest, requestId, signatureFile);
 
-        log.info("CAdES eSeal completed: jobId={}, requestId={}", saved.getId(), requestId);
+            job.setRequestId(requestId);
+            job.setCompletedAt(OffsetDateTime.now());
+            if (!response.isSuccess()) {
+                job.setStatus("FAILED");
+                job.setErrorMessage(ESealErrorCodeMapper.toMessage(response.getResultMinor()));
+                jobRepository.save(job);
+                return;
+            }
 
-        return ESealResult.builder()
-                .jobId(saved.getId())
-                .sealedBytes(signatureBytes)
-                .requestId(requestId)
-                .build();
-    }
+            String outputKey = "eseal/" + job.getId() + ".p7s";
+            storageService.upload(signatureFile, outputKey, "application/pkcs7-signature");
+            job.setOutputKey(outputKey);
+            job.setStatus("SEALED");
+            jobRepository.save(job);
 
-    private String buildCadesSignRequest(String base64Doc, String requestId) {
-        return """
-                <SignRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
-                             xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
-                             xmlns:xsd="http://www.w3.org/2001/XMLSchema"
-                             Profile="urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:sign"
-                             RequestID="%s">
-                  <OptionalInputs>
-                    <KeySelector>
-                      <ns1:KeySelector xmlns:ns1="http://www.safelayer.com/TWS">
-                        <ns1:Name Format="urn:oasis:names:tc:SAML:1.1:nameid-format:X509SubjectName">%s</ns1:Name>
-                        <ns1:KeyUsage>nonRepudiation</ns1:KeyUsage>
-                      </ns1:KeySelector>
-                    </KeySelector>
-                    <SignatureType xsi:type="xsd:anyURI">urn:etsi:ts:101733</SignatureType>
-                    <EnvelopingSignature/>
-                  </OptionalInputs>
-                  <InputDocuments>
-                    <Document>
-                      <Base64Data>%s</Base64Data>
-                    </Document>
-                  </InputDocuments>
-                </SignRequest>
-                """.formatted(requestId, certSubjectName, base64Doc);
-    }
+            auditService.log(job.getRequestedBy(), "ESEAL_DOCUMENT", "ESEAL_JOB",
+                    job.getId().toString(), null,
+                    Map.of("requestId", requestId, "sealType", job.getSealType(),
+                            "batchId", job.getBatchId().toString()));
 
-    private byte[] extractCadesSignature(String xml) {
-        // CAdES response: SignatureObject/Base64Signature
-        String base64 = extractTag(xml, "Base64Signature");
-        if (base64 == null || base64.isBlank()) {
-            throw new RuntimeException("No Base64Signature found in CAdES eSeal response");
+            log.info("CAdES eSeal completed: jobId={}, requestId={}", job.getId(), requestId);
+        } finally {
+            Files.deleteIfExists(signatureFile);
         }
-        base64 = base64.replaceAll("\\s+", "");
-        return Base64.getDecoder().decode(base64);
     }
 
-    private String extractTag(String xml, String tagName) {
-        String open = "<" + tagName + ">";
-        int startIdx = xml.indexOf(open);
-        if (startIdx >= 0) {
-            startIdx += open.length();
-        } else {
-            String altOpen = "<" + tagName + " ";
-            startIdx = xml.indexOf(altOpen);
-            if (startIdx >= 0) {
-                startIdx = xml.indexOf(">", startIdx) + 1;
-            }
-        }
-        if (startIdx < 0) {
-            int nsIdx = xml.indexOf(":" + tagName + ">");
-            if (nsIdx >= 0) {
-                startIdx = nsIdx + tagName.length() + 2;
-            } else {
-                nsIdx = xml.indexOf(":" + tagName + " ");
-                if (nsIdx >= 0) {
-                    startIdx = xml.indexOf(">", nsIdx) + 1;
-                }
-            }
+    /**
+     * Send a CAdES SignRequest and decode the PKCS#7 signature
+     * (SignatureObject/Base64Signature) into {@code signatureFile} as the
+     * response streams in.
+     */
+    private DssResponse executeSign(SoapBody signRequestBody, String requestId, Path signatureFile)
+            throws IOException {
+        DssResponse response;
+        try (OutputStream signatureOut = Files.newOutputStream(signatureFile)) {
+            response = soapClient.executeSoapRequest(soapEndpoint, signRequestBody, requestId,
+                    DssResponseParser.BASE64_SIGNATURE, signatureOut);
         }
 
-        String close = "</" + tagName + ">";
-        int endIdx = xml.indexOf(close);
-        if (endIdx < 0) {
-            String pattern = ":" + tagName + ">";
-            int lastIdx = xml.lastIndexOf(pattern);
-            if (lastIdx > startIdx) {
-                int slashIdx = xml.lastIndexOf("</", lastIdx);
-                if (slashIdx >= 0)
-                    endIdx = slashIdx;
-            }
+        if (!response.isSuccess()) {
+            log.error("CAdES eSeal failed: requestId={}, resultMajor={}, resultMinor={}",
+                    requestId, response.getResultMajor(), response.getResultMinor());
+        } else if (!response.hasPayload()) {
+            throw new RuntimeException("No Base64Signature found in CAdES eSeal response");
         }
+        return response;
+    }
 
-        if (startIdx >= 0 && endIdx > startIdx) {
-            return xml.substring(startIdx, endIdx).trim();
-        }
-        return null;
+    private SoapBody buildCadesSignRequest(SoapBody document, String requestId) {
+        return SoapBody.builder()
+                .text("""
+                        <SignRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
+                                     xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                                     xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                                     Profile="urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:sign"
+                                     RequestID="%s">
+                          <OptionalInputs>
+                            <KeySelector>
+                              <ns1:KeySelector xmlns:ns1="http://www.safelayer.com/TWS">
+                                <ns1:Name Format="urn:oasis:names:tc:SAML:1.1:nameid-format:X509SubjectName">%s</ns1:Name>
+                                <ns1:KeyUsage>nonRepudiation</ns1:KeyUsage>
+                              </ns1:KeySelector>
+                            </KeySelector>
+                            <SignatureType xsi:type="xsd:anyURI">urn:etsi:ts:101733</SignatureType>
+                            <EnvelopingSignature/>
+                          </OptionalInputs>
+                          <InputDocuments>
+                            <Document>
+                              <Base64Data>\
+                        """.formatted(requestId, certSubjectName))
+                .append(document)
+                .text("""
+                        </Base64Data>
+                            </Document>
+                          </InputDocuments>
+                        </SignRequest>
+                        """)
+                .build();
+    }
+
+    /**
+     * Detached signature request: no EnvelopingSignature option, and the
+     * document is represented only by its SHA-256 digest.
+     */
+    private SoapBody buildCadesHashSignRequest(byte[] digest, String requestId) {
+        return SoapBody.builder()
+                .text("""
+                        <SignRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
+                                     xmlns:ds="http://www.w3.org/2000/09/xmldsig#"
+                                     xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance"
+                                     xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                                     Profile="urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:sign"
+                                     RequestID="%s">
+                          <OptionalInputs>
+                            <KeySelector>
+                              <ns1:KeySelector xmlns:ns1="http://www.safelayer.com/TWS">
+                                <ns1:Name Format="urn:oasis:names:tc:SAML:1.1:nameid-format:X509SubjectName">%s</ns1:Name>
+                                <ns1:KeyUsage>nonRepudiation</ns1:KeyUsage>
+                              </ns1:KeySelector>
+                            </KeySelector>
+                            <SignatureType xsi:type="xsd:anyURI">urn:etsi:ts:101733</SignatureType>
+                          </OptionalInputs>
+                          <InputDocuments>
+                            <DocumentHash>
+                              <ds:DigestMethod Algorithm="http://www.w3.org/2001/04/xmlenc#sha256"/>
+                              <ds:DigestValue>%s</ds:DigestValue>
+                            </DocumentHash>
+                          </InputDocuments>
+                        </SignRequest>
+                        """.formatted(requestId, certSubjectName, Base64.getEncoder().encodeToString(digest)))
+                .build();
     }
 
     private String generateRequestId() {
         byte[] bytes = new byte[10];
         RANDOM.nextBytes(bytes);
-        StringBuilder sb = new StringBuilder(20);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+        return Hex.encode(bytes);
     }
 }
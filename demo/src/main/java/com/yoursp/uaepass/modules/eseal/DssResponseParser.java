@@ -0,0 +1,157 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+
+/**
+ * Single-pass StAX parser for OASIS DSS SignResponse / VerifyResponse bodies.
+ * <p>
+ * Elements are matched by local name, so any namespace prefix (or none) works.
+ * The requested payload element ({@code Base64Data} for PAdES,
+ * {@code Base64Signature} for CAdES) is Base64-decoded chunk by chunk straight
+ * into the caller's sink — the encoded payload is never materialised as a
+ * String. DTDs and external entities are disabled.
+ * </p>
+ */
+public final class DssResponseParser {
+
+    public static final String BASE64_DATA = "Base64Data";
+    public static final String BASE64_SIGNATURE = "Base64Signature";
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private DssResponseParser() {
+    }
+
+    /**
+     * Parse a DSS response stream.
+     *
+     * @param xml            the response body; not closed by this method
+     * @param payloadElement local name of the Base64 element to decode, or
+     *                       {@code null} to skip payload decoding
+     * @param payloadSink    receives the decoded payload; ignored when
+     *                       {@code payloadElement} is {@code null}
+     */
+    public static DssResponse parse(InputStream xml, String payloadElement, OutputStream payloadSink) {
+        try {
+            return parse(FACTORY.createXMLStreamReader(xml), payloadElement, payloadSink);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Malformed DSS response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse a DSS response already held as a String.
+     */
+    public static DssResponse parse(String xml, String payloadElement, OutputStream payloadSink) {
+        try (Reader reader = new StringReader(xml)) {
+            return parse(FACTORY.createXMLStreamReader(reader), payloadElement, payloadSink);
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Malformed DSS response: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DssResponse parse(XMLStreamReader reader, String payloadElement, OutputStream payloadSink)
+            throws XMLStreamException {
+        DssResponse.DssResponseBuilder result = DssResponse.builder().payloadBytes(-1);
+        String resultMajor = null;
+        String resultMinor = null;
+        String resultMessage = null;
+        String signerIdentity = null;
+        String signingTime = null;
+        boolean payloadDone = payloadElement == null || payloadSink == null;
+
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                switch (reader.getLocalName()) {
+                    case "ResultMajor" -> resultMajor = resultMajor != null ? resultMajor : readText(reader);
+                    case "ResultMinor" -> resultMinor = resultMinor != null ? resultMinor : readText(reader);
+                    case "ResultMessage" -> resultMessage = resultMessage != null ? resultMessage : readText(reader);
+                    case "SignerIdentity" -> signerIdentity = signerIdentity != null ? signerIdentity : readText(reader);
+                    case "SigningTime" -> signingTime = signingTime != null ? signingTime : readText(reader);
+                    default -> {
+                        if (!payloadDone && payloadElement.equals(reader.getLocalName())) {
+                            result.payloadBytes(decodePayload(reader, payloadSink));
+                            payloadDone = true;
+                        }
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        return result
+                .resultMajor(resultMajor)
+                .resultMinor(resultMinor)
+                .resultMessage(resultMessage)
+                .signerIdentity(signerIdentity)
+                .signingTime(signingTime)
+                .build();
+    }
+
+    /**
+     * Concatenate all text below the current element (nested markup is
+     * flattened) and leave the reader on its end tag.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                    text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                default -> {
+                }
+            }
+        }
+        return text.toString().trim();
+    }
+
+    private static long decodePayload(XMLStreamReader reader, OutputStream sink) throws XMLStreamException {
+        Base64SinkDecoder decoder = new Base64SinkDecoder(sink);
+        try {
+            int depth = 1;
+            while (depth > 0) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> depth++;
+                    case XMLStreamConstants.END_ELEMENT -> depth--;
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        decoder.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    default -> {
+                    }
+                }
+            }
+            return decoder.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write decoded DSS payload", e);
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // Let large text nodes arrive in chunks instead of one coalesced String
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
@@ -0,0 +1,164 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.ESealBatchResponse;
+import com.yoursp.uaepass.modules.eseal.dto.ESealBatchStatus;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk eSeal batches — submission, progress and ZIP download.
+ * <p>
+ * Submitting a batch only stores the inputs and inserts one QUEUED
+ * {@link EsealJob} per document; {@link ESealBatchWorker} seals them in the
+ * background. Progress is derived from the job rows of the batch.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class ESealBatchService {
+
+    private final EsealJobRepository jobRepository;
+    private final StorageService storageService;
+    private final AuditService auditService;
+
+    /**
+     * Store the documents and queue one job per document.
+     *
+     * @param files       validated uploads
+     * @param sealType    PADES, CADES or CADES_HASH
+     * @param requestedBy the submitting user
+     */
+    public ESealBatchResponse submit(List<MultipartFile> files, String sealType, UUID requestedBy)
+            throws IOException {
+        UUID batchId = UUID.randomUUID();
+        boolean pades = "PADES".equals(sealType);
+        List<EsealJob> jobs = new ArrayList<>(files.size());
+
+        // Inputs are stored first so a job never becomes visible to workers without its input
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String inputKey = "eseal/input/" + batchId + "/" + i + (pades ? ".pdf" : ".bin");
+            try (SpooledUpload upload = SpooledUpload.spool(file)) {
+                storageService.upload(upload.path(), inputKey,
+                        pades ? "application/pdf" : "application/octet-stream");
+            }
+            jobs.add(EsealJob.builder()
+                    .requestedBy(requestedBy)
+                    .sealType(sealType)
+                    .status("QUEUED")
+                    .batchId(batchId)
+                    .fileName(safeFileName(file.getOriginalFilename(), i))
+                    .inputKey(inputKey)
+                    .build());
+        }
+        jobRepository.saveAll(jobs);
+
+        auditService.log(requestedBy, "ESEAL_BATCH_SUBMITTED", "ESEAL_BATCH",
+                batchId.toString(), null,
+                Map.of("sealType", sealType, "documents", files.size()));
+
+        log.info("eSeal batch queued: batchId={}, sealType={}, documents={}", batchId, sealType, files.size());
+
+        return new ESealBatchResponse(batchId, files.size(),
+                "/eseal/bulk/" + batchId,
+                "/eseal/bulk/" + batchId + "/download");
+    }
+
+    public boolean isOwner(UUID batchId, UUID userId) {
+        return jobRepository.existsByBatchIdAndRequestedBy(batchId, userId);
+    }
+
+    public ESealBatchStatus getStatus(UUID batchId) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : jobRepository.countStatusesByBatchId(batchId)) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        long queued = counts.getOrDefault("QUEUED", 0L);
+        long processing = counts.getOrDefault("PROCESSING", 0L);
+        long sealed = counts.getOrDefault("SEALED", 0L);
+        long failed = counts.getOrDefault("FAILED", 0L);
+
+        List<ESealBatchStatus.Failure> failures = failed == 0 ? List.of()
+                : jobRepository.findByBatchIdAndStatus(batchId, "FAILED").stream()
+                        .map(j -> new ESealBatchStatus.Failure(j.getId(), j.getFileName(), j.getErrorMessage()))
+                        .toList();
+
+        return ESealBatchStatus.builder()
+                .batchId(batchId)
+                .total(queued + processing + sealed + failed)
+                .queued(queued)
+                .processing(processing)
+                .sealed(sealed)
+                .failed(failed)
+                .complete(queued == 0 && processing == 0)
+                .downloadUrl("/eseal/bulk/" + batchId + "/download")
+                .failures(failures)
+                .build();
+    }
+
+    /**
+     * Write the sealed outputs of a batch as a ZIP. PAdES entries are the
+     * sealed PDFs; CAdES entries are the {@code .p7s} signatures (enveloping,
+     * or detached for CADES_HASH).
+     * Each output is streamed from storage into the archive.
+     */
+    public void writeZip(UUID batchId, OutputStream out) throws IOException {
+        List<EsealJob> sealed = jobRepository.findByBatchIdAndStatus(batchId, "SEALED");
+        Set<String> names = new HashSet<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Sealed PDFs / PKCS#7 are already compressed — favour throughput
+        zip.setLevel(Deflater.BEST_SPEED);
+        for (EsealJob job : sealed) {
+            String name = job.getSealType().startsWith("CADES") ? job.getFileName() + ".p7s" : job.getFileName();
+            if (!names.add(name)) {
+                name = job.getId() + "_" + name;
+                names.add(name);
+            }
+            zip.putNextEntry(new ZipEntry(name));
+            try (InputStream in = storageService.openStream(job.getOutputKey())) {
+                in.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+
+        log.info("eSeal batch ZIP streamed: batchId={}, entries={}", batchId, sealed.size());
+    }
+
+    /** Strip any client-supplied path so ZIP entries cannot escape the archive root. */
+    static String safeFileName(String originalFilename, int index) {
+        if (originalFilename == null || originalFilename.isBlank()) {
+            return "document-" + index;
+        }
+        String name = originalFilename.replace('\\', '/');
+        name = name.substring(name.lastIndexOf('/') + 1).trim();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            return "document-" + index;
+        }
+        return name.length() > 200 ? name.substring(name.length() - 200) : name;
+    }
+}
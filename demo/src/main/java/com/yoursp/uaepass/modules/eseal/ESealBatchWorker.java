@@ -0,0 +1,140 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Drains QUEUED bulk eSeal jobs onto the {@code esealExecutor} pool.
+ * <p>
+ * Each poll claims at most as many jobs as the pool can take, using a
+ * conditional QUEUED → PROCESSING update so several application instances can
+ * share the queue. While the eSeal service is unavailable, claimed jobs are
+ * handed back and dispatching pauses briefly; a job that keeps failing that
+ * way is marked FAILED after {@code eseal.bulk.max-attempts}. Calls shed by
+ * the SOAP concurrency limiter are handed back without using up an attempt.
+ * </p>
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class ESealBatchWorker {
+
+    private static final long UNAVAILABLE_BACKOFF_MS = 30_000;
+    private static final long OVERLOADED_BACKOFF_MS = 5_000;
+
+    private final EsealJobRepository jobRepository;
+    private final PadesESealService padesService;
+    private final CadesESealService cadesService;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${eseal.bulk.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${eseal.bulk.stuck-after-minutes:15}")
+    private long stuckAfterMinutes;
+
+    private volatile long pausedUntil;
+
+    public ESealBatchWorker(EsealJobRepository jobRepository,
+            PadesESealService padesService,
+            CadesESealService cadesService,
+            @Qualifier("esealExecutor") ThreadPoolTaskExecutor executor) {
+        this.jobRepository = jobRepository;
+        this.padesService = padesService;
+        this.cadesService = cadesService;
+        this.executor = executor;
+    }
+
+    @Scheduled(fixedDelayString = "${eseal.bulk.poll-interval-ms:2000}")
+    public void dispatch() {
+        if (System.currentTimeMillis() < pausedUntil) {
+            return;
+        }
+        int free = freeCapacity();
+        if (free <= 0) {
+            return;
+        }
+
+        List<UUID> queued = jobRepository.findQueuedIds(PageRequest.of(0, free));
+        int dispatched = 0;
+        for (UUID jobId : queued) {
+            if (jobRepository.claim(jobId, OffsetDateTime.now()) == 0) {
+                continue; // claimed by another instance
+            }
+            try {
+                executor.execute(() -> process(jobId));
+                dispatched++;
+            } catch (TaskRejectedException e) {
+                jobRepository.release(jobId);
+                break;
+            }
+        }
+        if (dispatched > 0) {
+            log.debug("Dispatched {} bulk eSeal job(s)", dispatched);
+        }
+    }
+
+    /**
+     * Runs every 5 minutes. Returns jobs stuck in PROCESSING (worker lost) to the queue.
+     */
+    @Scheduled(fixedRate = 300_000)
+    public void requeueStuckJobs() {
+        int count = jobRepository.requeueStuckJobs(OffsetDateTime.now().minusMinutes(stuckAfterMinutes));
+        if (count > 0) {
+            log.warn("Requeued {} stuck bulk eSeal job(s)", count);
+        }
+    }
+
+    void process(UUID jobId) {
+        EsealJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !"PROCESSING".equals(job.getStatus())) {
+            return;
+        }
+        try {
+            if (job.getSealType().startsWith("CADES")) {
+                cadesService.sealQueuedJob(job);
+            } else {
+                padesService.sealQueuedJob(job);
+            }
+        } catch (ESealOverloadedException e) {
+            log.debug("eSeal at capacity, deferring job: jobId={}", jobId);
+            jobRepository.unclaim(jobId);
+            pausedUntil = System.currentTimeMillis() + OVERLOADED_BACKOFF_MS;
+        } catch (ESealUnavailableException e) {
+            if (job.getAttempts() >= maxAttempts) {
+                markFailed(job, e.getMessage());
+            } else {
+                log.warn("eSeal unavailable, requeueing job: jobId={}, attempt={}", jobId, job.getAttempts());
+                jobRepository.release(jobId);
+                pausedUntil = System.currentTimeMillis() + UNAVAILABLE_BACKOFF_MS;
+            }
+        } catch (Exception e) {
+            log.error("Bulk eSeal job failed: jobId={}, error={}", jobId, e.getMessage());
+            markFailed(job, e.getMessage());
+        }
+    }
+
+    private void markFailed(EsealJob job, String message) {
+        job.setStatus("FAILED");
+        job.setErrorMessage(message);
+        job.setCompletedAt(OffsetDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private int freeCapacity() {
+        var pool = executor.getThreadPoolExecutor();
+        return pool.getMaximumPoolSize() - pool.getActiveCount() + pool.getQueue().remainingCapacity();
+    }
+}
@@ -6,13 +6,21 @@ import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.modules.eseal.dto.*;
 import com.yoursp.uaepass.repository.EsealJobRepository;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
@@ -22,10 +30,16 @@ import java.util.UUID;
  * <h3>Endpoints:</h3>
  * <ul>
  * <li>POST /eseal/pdf — Seal a PDF (PAdES)</li>
- * <li>POST /eseal/document — Seal any document (CAdES)</li>
+ * <li>POST /eseal/document — Seal any document (CAdES; {@code mode=hash} sends only its SHA-256)</li>
  * <li>POST /eseal/verify — Verify an eSeal</li>
  * <li>GET /eseal/download/{jobId} — Download sealed document</li>
+ * <li>POST /eseal/bulk — Queue a batch of documents for sealing</li>
+ * <li>GET /eseal/bulk/{batchId} — Batch progress</li>
+ * <li>GET /eseal/bulk/{batchId}/download — Sealed outputs as a ZIP</li>
  * </ul>
+ * The single-document seal endpoints are idempotent (see
+ * {@link ESealIdempotencyService}) and accept an optional {@code Idempotency-Key}
+ * header.
  */
 @Slf4j
 @RestController
@@ -35,13 +49,22 @@ import java.util.UUID;
 public class ESealController {
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    /** "true" when the response reuses an earlier seal of the same request. */
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int PDF_MAGIC_LENGTH = 5;
 
     private final PadesESealService padesService;
     private final CadesESealService cadesService;
     private final ESealVerificationService verificationService;
+    private final ESealBatchService batchService;
+    private final ESealIdempotencyService idempotencyService;
     private final EsealJobRepository jobRepository;
     private final StorageService storageService;
 
+    @Value("${eseal.bulk.max-files:500}")
+    private int bulkMaxFiles;
+
     // ================================================================
     // POST /eseal/pdf — PAdES seal
     // ================================================================
@@ -49,6 +72,7 @@ public class ESealController {
     @FaceVerified
     @PostMapping("/pdf")
     public ResponseEntity<?> sealPdf(@RequestParam("file") MultipartFile file,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             HttpServletRequest request) {
         User user = getCurrentUser(request);
         if (user == null) {
@@ -57,14 +81,18 @@ public class ESealController {
 
         // Validate file
         ResponseEntity<?> validation = validateFile(file, true);
+        if (validation == null)
+            validation = validateIdempotencyKey(idempotencyKey);
         if (validation != null)
             return validation;
 
-        try {
-            byte[] pdfBytes = file.getBytes();
-            ESealResult result = padesService.sealPdf(pdfBytes, user.getId());
+        try (SpooledUpload pdf = SpooledUpload.spool(file)) {
+            ESealResult result = idempotencyService.sealOnce(pdf, "PADES", user.getId(), idempotencyKey,
+                    key -> padesService.sealPdf(pdf, user.getId(), key));
 
-            return ResponseEntity.ok(new ESealResponse(
+            return ResponseEntity.ok()
+                    .header(REPLAYED_HEADER, String.valueOf(result.isReused()))
+                    .body(new ESealResponse(
                     result.getJobId(),
                     "/eseal/download/" + result.getJobId()));
         } catch (ESealUnavailableException e) {
@@ -78,27 +106,42 @@ public class ESealController {
     }
 
     // ================================================================
-    // POST /eseal/document — CAdES seal
+    // POST /eseal/document — CAdES seal (?mode=hash for a detached seal over the SHA-256)
     // ================================================================
 
     @PostMapping("/document")
     public ResponseEntity<?> sealDocument(@RequestParam("file") MultipartFile file,
+            @RequestParam(value = "mode", defaultValue = "enveloping") String mode,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             HttpServletRequest request) {
         User user = getCurrentUser(request);
         if (user == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
+        boolean hashMode = "hash".equalsIgnoreCase(mode);
+        if (!hashMode && !"enveloping".equalsIgnoreCase(mode)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "INVALID_MODE", "message", "mode must be enveloping or hash"));
+        }
+
         // Validate file (no PDF check for CAdES)
         ResponseEntity<?> validation = validateFile(file, false);
+        if (validation == null)
+            validation = validateIdempotencyKey(idempotencyKey);
         if (validation != null)
             return validation;
 
-        try {
-            byte[] docBytes = file.getBytes();
-            ESealResult result = cadesService.sealDocument(docBytes, user.getId());
+        try (SpooledUpload document = SpooledUpload.spool(file)) {
+            ESealResult result = idempotencyService.sealOnce(document, hashMode ? "CADES_HASH" : "CADES",
+                    user.getId(), idempotencyKey,
+                    key -> hashMode
+                            ? cadesService.sealDocumentHash(document, user.getId(), key)
+                            : cadesService.sealDocument(document, user.getId(), key));
 
-            return ResponseEntity.ok(new CadesESealResponse(
+            return ResponseEntity.ok()
+                    .header(REPLAYED_HEADER, String.valueOf(result.isReused()))
+                    .body(new CadesESealResponse(
                     result.getJobId(),
                     "/eseal/download/" + result.getJobId() + "?type=document",
                     "/eseal/download/" + result.getJobId() + "?type=signature"));
@@ -120,18 +163,17 @@ public class ESealController {
     public ResponseEntity<ESealVerifyResult> verify(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "signature", required = false) MultipartFile signatureFile) {
-        try {
-            byte[] docBytes = file.getBytes();
-
+        try (SpooledUpload document = SpooledUpload.spool(file)) {
             // Auto-detect: if no separate signature and file is PDF → PAdES, else → CAdES
-            boolean isPdf = isPdfFile(docBytes);
+            boolean isPdf = isPdfFile(document.head(PDF_MAGIC_LENGTH));
 
             ESealVerifyResult result;
             if (isPdf && signatureFile == null) {
-                result = verificationService.verifyPadesESeal(docBytes);
+                result = verificationService.verifyPadesESeal(document);
             } else if (signatureFile != null) {
-                byte[] sigBytes = signatureFile.getBytes();
-                result = verificationService.verifyCadesESeal(docBytes, sigBytes);
+                try (SpooledUpload signature = SpooledUpload.spool(signatureFile)) {
+                    result = verificationService.verifyCadesESeal(document, signature);
+                }
             } else {
                 return ResponseEntity.badRequest().body(ESealVerifyResult.builder()
                         .valid(false)
@@ -157,7 +199,7 @@ public class ESealController {
     // ================================================================
 
     @GetMapping("/download/{jobId}")
-    public ResponseEntity<byte[]> download(@PathVariable UUID jobId,
+    public ResponseEntity<Resource> download(@PathVariable UUID jobId,
             @RequestParam(value = "type", defaultValue = "output") String type,
             HttpServletRequest request) {
         User user = getCurrentUser(request);
@@ -178,12 +220,13 @@ public class ESealController {
         String contentType;
         String filename;
 
-        if ("document".equals(type) && "CADES".equals(job.getSealType())) {
+        boolean cades = job.getSealType() != null && job.getSealType().startsWith("CADES");
+        if ("document".equals(type) && cades) {
             // Download original document for CAdES
             key = job.getInputKey();
             contentType = "application/octet-stream";
             filename = "document_" + jobId + ".bin";
-        } else if ("signature".equals(type) && "CADES".equals(job.getSealType())) {
+        } else if ("signature".equals(type) && cades) {
             // Download PKCS#7 signature
             key = job.getOutputKey();
             contentType = "application/pkcs7-signature";
@@ -195,15 +238,108 @@ public class ESealController {
             filename = "sealed_" + jobId + ".pdf";
         }
 
-        byte[] bytes = storageService.download(key);
-
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.parseMediaType(contentType));
         headers.setContentDisposition(ContentDisposition.attachment()
                 .filename(filename)
                 .build());
 
-        return new ResponseEntity<>(bytes, headers, HttpStatus.OK);
+        // Streamed from storage — sealed outputs are never buffered whole in memory
+        return new ResponseEntity<>(new InputStreamResource(storageService.openStream(key)),
+                headers, HttpStatus.OK);
+    }
+
+    // ================================================================
+    // POST /eseal/bulk — queue a batch (sealed asynchronously)
+    // ================================================================
+
+    @FaceVerified
+    @PostMapping("/bulk")
+    public ResponseEntity<?> submitBatch(@RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "type", defaultValue = "PADES") String type,
+            HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        String sealType = type.toUpperCase(Locale.ROOT);
+        if (!"PADES".equals(sealType) && !"CADES".equals(sealType) && !"CADES_HASH".equals(sealType)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "INVALID_SEAL_TYPE",
+                            "message", "type must be PADES, CADES or CADES_HASH"));
+        }
+        if (files == null || files.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "FILE_REQUIRED", "message", "At least one file is required"));
+        }
+        if (files.size() > bulkMaxFiles) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "TOO_MANY_FILES",
+                            "message", "A batch may contain at most " + bulkMaxFiles + " files"));
+        }
+
+        // Reject the whole batch up front rather than queueing documents that cannot be sealed
+        for (MultipartFile file : files) {
+            ResponseEntity<?> validation = validateFile(file, "PADES".equals(sealType));
+            if (validation != null)
+                return validation;
+        }
+
+        try {
+            ESealBatchResponse response = batchService.submit(files, sealType, user.getId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (Exception e) {
+            log.error("eSeal batch submission failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "BATCH_SUBMIT_FAILED", "message", e.getMessage()));
+        }
+    }
+
+    // ================================================================
+    // GET /eseal/bulk/{batchId} — batch progress
+    // ================================================================
+
+    @GetMapping("/bulk/{batchId}")
+    public ResponseEntity<ESealBatchStatus> batchStatus(@PathVariable UUID batchId,
+            HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!batchService.isOwner(batchId, user.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(batchService.getStatus(batchId));
+    }
+
+    // ================================================================
+    // GET /eseal/bulk/{batchId}/download — ZIP of sealed outputs
+    // ================================================================
+
+    @GetMapping("/bulk/{batchId}/download")
+    public ResponseEntity<?> downloadBatch(@PathVariable UUID batchId,
+            HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!batchService.isOwner(batchId, user.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!batchService.getStatus(batchId).isComplete()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "BATCH_IN_PROGRESS", "message", "Batch is still being sealed"));
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename("eseal_batch_" + batchId + ".zip")
+                .build());
+
+        StreamingResponseBody body = out -> batchService.writeZip(batchId, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 
     // ================================================================
@@ -214,6 +350,15 @@ public class ESealController {
         return (User) request.getAttribute("currentUser");
     }
 
+    private ResponseEntity<?> validateIdempotencyKey(String idempotencyKey) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 255)) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "INVALID_IDEMPOTENCY_KEY",
+                            "message", "Idempotency-Key must be 1-255 characters"));
+        }
+        return null;
+    }
+
     private ResponseEntity<?> validateFile(MultipartFile file, boolean requirePdf) {
         if (file == null || file.isEmpty()) {
             return ResponseEntity.badRequest()
@@ -227,9 +372,10 @@ public class ESealController {
         }
 
         if (requirePdf) {
-            try {
-                byte[] bytes = file.getBytes();
-                if (!isPdfFile(bytes)) {
+            // Only the magic number is read — the upload stays on disk
+            try (InputStream in = file.getInputStream()) {
+                byte[] head = in.readNBytes(PDF_MAGIC_LENGTH);
+                if (!isPdfFile(head)) {
                     return ResponseEntity.badRequest()
                             .body(Map.of("error", "INVALID_PDF",
                                     "message", "File does not appear to be a valid PDF"));
@@ -244,7 +390,7 @@ public class ESealController {
     }
 
     private boolean isPdfFile(byte[] bytes) {
-        return bytes.length >= 5
+        return bytes.length >= PDF_MAGIC_LENGTH
                 && bytes[0] == '%' && bytes[1] == 'P'
                 && bytes[2] == 'D' && bytes[3] == 'F';
     }
@@ -0,0 +1,133 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.modules.eseal.dto.ESealResult;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Digests;
+import com.yoursp.uaepass.util.Hex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Idempotent single-document eSeal.
+ * <p>
+ * A request is identified by SHA-256(requester | seal type | document SHA-256
+ * | client {@code Idempotency-Key}). Without the header, re-submitting the
+ * same document is enough to match; with it, the client scopes reuse to its
+ * own key.
+ * </p>
+ * <ul>
+ * <li>A SEALED job with the same key inside {@code eseal.idempotency.window-minutes}
+ * is returned as-is — no SOAP call, no new files</li>
+ * <li>Concurrent duplicates on this instance wait for the first one and share
+ * its result (single-flight)</li>
+ * <li>Failed seals are never reused</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class ESealIdempotencyService {
+
+    private final EsealJobRepository jobRepository;
+
+    @Value("${eseal.idempotency.window-minutes:30}")
+    private long windowMinutes;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ESealResult>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The actual seal, given the idempotency key to record on the job.
+     */
+    @FunctionalInterface
+    public interface SealCall {
+        ESealResult seal(String idempotencyKey) throws IOException;
+    }
+
+    /**
+     * Run {@code call} unless an equivalent seal already exists or is in progress.
+     *
+     * @param clientKey optional {@code Idempotency-Key} header value
+     */
+    public ESealResult sealOnce(SpooledUpload document, String sealType, UUID requestedBy, String clientKey,
+            SealCall call) throws IOException {
+        String key = idempotencyKey(requestedBy, sealType, document.sha256(), clientKey);
+
+        Optional<ESealResult> previous = findReusable(key);
+        if (previous.isPresent()) {
+            log.info("eSeal request deduplicated: jobId={}, sealType={}", previous.get().getJobId(), sealType);
+            return previous.get();
+        }
+
+        CompletableFuture<ESealResult> mine = new CompletableFuture<>();
+        CompletableFuture<ESealResult> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            log.info("eSeal request joined an in-flight duplicate: sealType={}", sealType);
+            return await(leader).toBuilder().reused(true).build();
+        }
+
+        try {
+            // A duplicate may have finished between the lookup and taking the slot
+            ESealResult result = findReusable(key).orElse(null);
+            if (result == null) {
+                result = call.seal(key);
+            }
+            mine.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!mine.isDone()) {
+                mine.completeExceptionally(new IllegalStateException("eSeal aborted"));
+            }
+            inFlight.remove(key, mine);
+        }
+    }
+
+    static String idempotencyKey(UUID requestedBy, String sealType, byte[] documentSha256, String clientKey) {
+        String material = requestedBy + "|" + sealType + "|" + Hex.encode(documentSha256)
+                + "|" + (clientKey == null ? "" : clientKey);
+        return Hex.encode(Digests.sha256(material.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Optional<ESealResult> findReusable(String key) {
+        OffsetDateTime since = OffsetDateTime.now().minusMinutes(windowMinutes);
+        return jobRepository
+                .findFirstByIdempotencyKeyAndStatusAndCreatedAtAfterOrderByCreatedAtDesc(key, "SEALED", since)
+                .map(job -> ESealResult.builder()
+                        .jobId(job.getId())
+                        .outputKey(job.getOutputKey())
+                        .sealedSize(-1)
+                        .requestId(job.getRequestId())
+                        .reused(true)
+                        .build());
+    }
+
+    private static ESealResult await(CompletableFuture<ESealResult> leader) throws IOException {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+}
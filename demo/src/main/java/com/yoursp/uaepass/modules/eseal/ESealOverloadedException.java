@@ -0,0 +1,13 @@
+package com.yoursp.uaepass.modules.eseal;
+
+/**
+ * Thrown when a call to the eSeal SOAP endpoint is shed by the concurrency
+ * limiter — the wait queue is full or no slot freed up in time. The remote
+ * service was not contacted, so the circuit breaker does not count it.
+ */
+public class ESealOverloadedException extends ESealUnavailableException {
+
+    public ESealOverloadedException(String message) {
+        super(message);
+    }
+}
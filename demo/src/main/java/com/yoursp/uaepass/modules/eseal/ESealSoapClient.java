@@ -1,10 +1,15 @@
 package com.yoursp.uaepass.modules.eseal;
 
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -14,9 +19,14 @@ import java.time.Duration;
 /**
  * Low-level SOAP client for UAE PASS eSeal API.
  * <p>
- * Builds a full SOAP envelope with WS-Security UsernameToken header,
- * sends HTTP POST with Content-Type text/xml, and returns the raw XML response.
- * Protected by a Resilience4j circuit breaker.
+ * Wraps a {@link SoapBody} in a SOAP envelope with WS-Security UsernameToken
+ * header and streams it out as an HTTP POST with Content-Type text/xml; the
+ * envelope prefix/suffix are rendered once and reused as byte templates. The
+ * response is streamed through {@link DssResponseParser} so the Base64 payload
+ * is decoded as it arrives.
+ * Protected by a Resilience4j circuit breaker; concurrent calls are bounded by
+ * an {@link AdaptiveConcurrencyLimiter} fed with each call's latency and
+ * timeouts / 5xx responses.
  * </p>
  */
 @Slf4j
@@ -30,8 +40,16 @@ public class ESealSoapClient {
     private String clientSecret;
 
     private final HttpClient httpClient;
+    private final AdaptiveConcurrencyLimiter limiter;
 
-    public ESealSoapClient() {
+    /** Envelope bytes before / after the SOAP Body content, built on first use. */
+    private volatile EnvelopeTemplate envelopeTemplate;
+
+    private record EnvelopeTemplate(byte[] prefix, byte[] suffix) {
+    }
+
+    public ESealSoapClient(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(30))
                 .build();
@@ -40,40 +58,71 @@ public class ESealSoapClient {
     /**
      * Execute a SOAP request against the given endpoint.
      *
-     * @param soapEndpoint the SOAP endpoint URL
-     * @param soapBody     the SOAP Body content (SignRequest / VerifyRequest XML)
-     * @param requestId    the RequestID for logging correlation
-     * @return raw XML response string
+     * @param soapEndpoint   the SOAP endpoint URL
+     * @param soapBody       the SOAP Body content (SignRequest / VerifyRequest)
+     * @param requestId      the RequestID for logging correlation
+     * @param payloadElement DSS element whose Base64 content is decoded into
+     *                       {@code payloadSink} (e.g.
+     *                       {@link DssResponseParser#BASE64_DATA}), or
+     *                       {@code null} for verify calls
+     * @param payloadSink    receives the decoded payload bytes
+     * @return the parsed DSS result fields
      */
     @CircuitBreaker(name = "esealCircuitBreaker", fallbackMethod = "executeSoapFallback")
-    public String executeSoapRequest(String soapEndpoint, String soapBody, String requestId) {
-        String fullEnvelope = buildEnvelope(soapBody);
+    public DssResponse executeSoapRequest(String soapEndpoint, SoapBody soapBody, String requestId,
+            String payloadElement, OutputStream payloadSink) {
+        EnvelopeTemplate template = envelopeTemplate();
+        SoapBody envelope = SoapBody.builder()
+                .bytes(template.prefix())
+                .append(soapBody)
+                .bytes(template.suffix())
+                .build();
 
-        log.info("eSeal SOAP request: endpoint={}, requestId={}", soapEndpoint, requestId);
+        log.info("eSeal SOAP request: endpoint={}, requestId={}, contentLength={}",
+                soapEndpoint, requestId, envelope.contentLength());
 
-        try {
+        try (AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire()) {
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(soapEndpoint))
                     .header("Content-Type", "text/xml; charset=utf-8")
                     .header("SOAPAction", "\"\"")
                     .timeout(Duration.ofSeconds(60))
-                    .POST(HttpRequest.BodyPublishers.ofString(fullEnvelope))
+                    .POST(publisherFor(envelope))
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                log.error("eSeal SOAP error: requestId={}, httpStatus={}", requestId, response.statusCode());
-                throw new RuntimeException("eSeal SOAP call failed with HTTP " + response.statusCode());
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (IOException e) {
+                // Timeouts and connection failures are treated as congestion
+                permit.dropped();
+                throw e;
             }
 
-            // Log only ResultMajor — never log base64 document content
-            String resultMajor = extractResultMajor(response.body());
-            log.info("eSeal SOAP response: requestId={}, resultMajor={}", requestId, resultMajor);
+            try (InputStream body = response.body()) {
+                if (response.statusCode() != 200) {
+                    if (response.statusCode() >= 500 || response.statusCode() == 429) {
+                        permit.dropped();
+                    }
+                    log.error("eSeal SOAP error: requestId={}, httpStatus={}", requestId, response.statusCode());
+                    throw new RuntimeException("eSeal SOAP call failed with HTTP " + response.statusCode());
+                }
+                // Latency up to the response headers — excludes streaming the payload back
+                permit.success();
 
-            return response.body();
+                DssResponse dssResponse = DssResponseParser.parse(body, payloadElement, payloadSink);
 
+                // Log only ResultMajor — never log base64 document content
+                log.info("eSeal SOAP response: requestId={}, resultMajor={}, payloadBytes={}",
+                        requestId, dssResponse.getResultMajor(), dssResponse.getPayloadBytes());
+
+                return dssResponse;
+            }
+
+        } catch (ESealOverloadedException e) {
+            log.warn("eSeal SOAP call shed: requestId={}, limit={}, inFlight={}, queued={}",
+                    requestId, limiter.getLimit(), limiter.getInFlight(), limiter.getQueued());
+            throw e;
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("eSeal SOAP call interrupted", e);
@@ -83,50 +132,53 @@ public class ESealSoapClient {
         }
     }
 
-    private String buildEnvelope(String soapBody) {
-        return """
-                <?xml version="1.0" encoding="UTF-8"?>
-                <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
-                                  xmlns:xsd="http://www.w3.org/2001/XMLSchema"
-                                  xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance">
-                  <soapenv:Header>
-                    <wsse:Security soapenv:actor="http://schemas.xmlsoap.org/soap/actor/next"
-                                   soapenv:mustUnderstand="1"
-                                   xmlns:wsse="http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd">
-                      <wsse:UsernameToken>
-                        <wsse:Username>%s</wsse:Username>
-                        <wsse:Password Type="http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0#PasswordText">%s</wsse:Password>
-                      </wsse:UsernameToken>
-                    </wsse:Security>
-                  </soapenv:Header>
-                  <soapenv:Body>
-                    %s
-                  </soapenv:Body>
-                </soapenv:Envelope>
-                """
-                .formatted(clientId, clientSecret, soapBody);
+    private static HttpRequest.BodyPublisher publisherFor(SoapBody envelope) {
+        HttpRequest.BodyPublisher streaming = HttpRequest.BodyPublishers.ofInputStream(envelope::openStream);
+        // A known length lets the client send Content-Length instead of chunked encoding
+        return envelope.contentLength() >= 0
+                ? HttpRequest.BodyPublishers.fromPublisher(streaming, envelope.contentLength())
+                : streaming;
     }
 
-    private String extractResultMajor(String xml) {
-        String tag = "ResultMajor";
-        int start = xml.indexOf("<" + tag + ">");
-        if (start < 0) {
-            start = xml.indexOf("<" + tag + " ");
-            if (start >= 0)
-                start = xml.indexOf(">", start) + 1;
-        } else {
-            start += tag.length() + 2;
+    private EnvelopeTemplate envelopeTemplate() {
+        EnvelopeTemplate template = envelopeTemplate;
+        if (template == null) {
+            String prefix = """
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <soapenv:Envelope xmlns:soapenv="http://schemas.xmlsoap.org/soap/envelope/"
+                                      xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+                                      xmlns:xsi="http://www.w3.org/2001/XMLSchema-instance">
+                      <soapenv:Header>
+                        <wsse:Security soapenv:actor="http://schemas.xmlsoap.org/soap/actor/next"
+                                       soapenv:mustUnderstand="1"
+                                       xmlns:wsse="http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-wssecurity-secext-1.0.xsd">
+                          <wsse:UsernameToken>
+                            <wsse:Username>%s</wsse:Username>
+                            <wsse:Password Type="http://docs.oasis-open.org/wss/2004/01/oasis-200401-wss-username-token-profile-1.0#PasswordText">%s</wsse:Password>
+                          </wsse:UsernameToken>
+                        </wsse:Security>
+                      </soapenv:Header>
+                      <soapenv:Body>
+                    """
+                    .formatted(clientId, clientSecret);
+            String suffix = """
+
+                      </soapenv:Body>
+                    </soapenv:Envelope>
+                    """;
+            template = new EnvelopeTemplate(prefix.getBytes(StandardCharsets.UTF_8),
+                    suffix.getBytes(StandardCharsets.UTF_8));
+            envelopeTemplate = template;
         }
-        int end = xml.indexOf("</" + tag + ">");
-        if (start >= 0 && end > start) {
-            return xml.substring(start, end).trim();
-        }
-        return "UNKNOWN";
+        return template;
     }
 
     @SuppressWarnings("unused")
-    private String executeSoapFallback(String soapEndpoint, String soapBody,
-            String requestId, Throwable t) {
+    private DssResponse executeSoapFallback(String soapEndpoint, SoapBody soapBody,
+            String requestId, String payloadElement, OutputStream payloadSink, Throwable t) {
+        if (t instanceof ESealOverloadedException overloaded) {
+            throw overloaded;
+        }
         log.error("eSeal circuit breaker open: requestId={}, error={}", requestId, t.getMessage());
         throw new ESealUnavailableException("eSeal service is temporarily unavailable. Please try again later.");
     }
@@ -1,13 +1,16 @@
 package com.yoursp.uaepass.modules.eseal;
 
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import com.yoursp.uaepass.modules.eseal.dto.ESealVerifyResult;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Hex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.security.SecureRandom;
-import java.util.Base64;
 
 /**
  * Verifies PAdES and CAdES eSeal'd documents via UAE PASS SOAP Verification
@@ -28,7 +31,7 @@ public class ESealVerificationService {
     /**
      * Verify a PAdES-sealed PDF document.
      */
-    public ESealVerifyResult verifyPadesESeal(byte[] sealedPdf) {
+    public ESealVerifyResult verifyPadesESeal(SpooledUpload sealedPdf) throws IOException {
         if (soapEndpoint == null || soapEndpoint.isBlank()) {
             return ESealVerifyResult.builder()
                     .valid(false)
@@ -38,19 +41,24 @@ public class ESealVerificationService {
         }
 
         String requestId = generateRequestId();
-        String base64Pdf = Base64.getEncoder().encodeToString(sealedPdf);
-
-        String verifyBody = """
-                <VerifyRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
-                               Profile="urn:safelayer:tws:dss:1.0:profiles:pdf:1.0:verify"
-                               RequestID="%s">
-                  <InputDocuments>
-                    <Document>
-                      <Base64Data MimeType="application/pdf">%s</Base64Data>
-                    </Document>
-                  </InputDocuments>
-                </VerifyRequest>
-                """.formatted(requestId, base64Pdf);
+
+        SoapBody verifyBody = SoapBody.builder()
+                .text("""
+                        <VerifyRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
+                                       Profile="urn:safelayer:tws:dss:1.0:profiles:pdf:1.0:verify"
+                                       RequestID="%s">
+                          <InputDocuments>
+                            <Document>
+                              <Base64Data MimeType="application/pdf">\
+                        """.formatted(requestId))
+                .base64(sealedPdf.path())
+                .text("""
+                        </Base64Data>
+                            </Document>
+                          </InputDocuments>
+                        </VerifyRequest>
+                        """)
+                .build();
 
         return executeVerify(verifyBody, requestId);
     }
@@ -58,7 +66,7 @@ public class ESealVerificationService {
     /**
      * Verify a CAdES-sealed document with its detached PKCS#7 signature.
      */
-    public ESealVerifyResult verifyCadesESeal(byte[] document, byte[] signature) {
+    public ESealVerifyResult verifyCadesESeal(SpooledUpload document, SpooledUpload signature) throws IOException {
         if (soapEndpoint == null || soapEndpoint.isBlank()) {
             return ESealVerifyResult.builder()
                     .valid(false)
@@ -68,48 +76,53 @@ public class ESealVerificationService {
         }
 
         String requestId = generateRequestId();
-        String base64Doc = Base64.getEncoder().encodeToString(document);
-        String base64Sig = Base64.getEncoder().encodeToString(signature);
-
-        String verifyBody = """
-                <VerifyRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
-                               Profile="urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:verify"
-                               RequestID="%s">
-                  <InputDocuments>
-                    <Document>
-                      <Base64Data>%s</Base64Data>
-                    </Document>
-                  </InputDocuments>
-                  <SignatureObject>
-                    <Base64Signature>%s</Base64Signature>
-                  </SignatureObject>
-                </VerifyRequest>
-                """.formatted(requestId, base64Doc, base64Sig);
+
+        SoapBody verifyBody = SoapBody.builder()
+                .text("""
+                        <VerifyRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
+                                       Profile="urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:verify"
+                                       RequestID="%s">
+                          <InputDocuments>
+                            <Document>
+                              <Base64Data>\
+                        """.formatted(requestId))
+                .base64(document.path())
+                .text("""
+                        </Base64Data>
+                            </Document>
+                          </InputDocuments>
+                          <SignatureObject>
+                            <Base64Signature>\
+                        """)
+                .base64(signature.path())
+                .text("""
+                        </Base64Signature>
+                          </SignatureObject>
+                        </VerifyRequest>
+                        """)
+                .build();
 
         return executeVerify(verifyBody, requestId);
     }
 
-    private ESealVerifyResult executeVerify(String verifyBody, String requestId) {
+    private ESealVerifyResult executeVerify(SoapBody verifyBody, String requestId) {
         try {
-            String responseXml = soapClient.executeSoapRequest(soapEndpoint, verifyBody, requestId);
-
-            String resultMajor = extractTag(responseXml, "ResultMajor");
-            String resultMinor = extractTag(responseXml, "ResultMinor");
-            String signerName = extractTag(responseXml, "SignerIdentity");
-            String signingTime = extractTag(responseXml, "SigningTime");
+            DssResponse response = soapClient.executeSoapRequest(soapEndpoint, verifyBody, requestId,
+                    null, null);
 
-            boolean valid = resultMajor != null && resultMajor.contains("Success");
-            String message = ESealErrorCodeMapper.toMessage(resultMinor);
+            boolean valid = response.isSuccess();
+            String message = ESealErrorCodeMapper.toMessage(response.getResultMinor());
 
-            log.info("eSeal verification: requestId={}, resultMajor={}, valid={}", requestId, resultMajor, valid);
+            log.info("eSeal verification: requestId={}, resultMajor={}, valid={}",
+                    requestId, response.getResultMajor(), valid);
 
             return ESealVerifyResult.builder()
                     .valid(valid)
-                    .resultMajor(resultMajor)
-                    .resultMinor(resultMinor)
+                    .resultMajor(response.getResultMajor())
+                    .resultMinor(response.getResultMinor())
                     .resultMessage(message)
-                    .signerName(signerName)
-                    .signingTime(signingTime)
+                    .signerName(response.getSignerIdentity())
+                    .signingTime(response.getSigningTime())
                     .build();
 
         } catch (ESealUnavailableException e) {
@@ -128,47 +141,9 @@ public class ESealVerificationService {
         }
     }
 
-    private String extractTag(String xml, String tagName) {
-        String open = "<" + tagName + ">";
-        int startIdx = xml.indexOf(open);
-        if (startIdx >= 0) {
-            startIdx += open.length();
-        } else {
-            String altOpen = "<" + tagName + " ";
-            startIdx = xml.indexOf(altOpen);
-            if (startIdx >= 0)
-                startIdx = xml.indexOf(">", startIdx) + 1;
-        }
-        if (startIdx < 0) {
-            int nsIdx = xml.indexOf(":" + tagName + ">");
-            if (nsIdx >= 0)
-                startIdx = nsIdx + tagName.length() + 2;
-        }
-
-        String close = "</" + tagName + ">";
-        int endIdx = xml.indexOf(close);
-        if (endIdx < 0) {
-            String pattern = ":" + tagName + ">";
-            int lastIdx = xml.lastIndexOf(pattern);
-            if (lastIdx > startIdx) {
-                int slashIdx = xml.lastIndexOf("</", lastIdx);
-                if (slashIdx >= 0)
-                    endIdx = slashIdx;
-            }
-        }
-
-        if (startIdx >= 0 && endIdx > startIdx) {
-            return xml.substring(startIdx, endIdx).trim();
-        }
-        return null;
-    }
-
     private String generateRequestId() {
         byte[] bytes = new byte[10];
         RANDOM.nextBytes(bytes);
-        StringBuilder sb = new StringBuilder(20);
-        for (byte b : bytes)
-            sb.append(String.format("%02x", b));
-        return sb.toString();
+        return Hex.encode(bytes);
     }
 }
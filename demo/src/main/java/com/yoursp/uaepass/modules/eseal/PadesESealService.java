@@ -1,18 +1,24 @@
 package com.yoursp.uaepass.modules.eseal;
 
 import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import com.yoursp.uaepass.modules.eseal.dto.ESealResult;
 import com.yoursp.uaepass.repository.EsealJobRepository;
 import com.yoursp.uaepass.service.AuditService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Hex;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.time.OffsetDateTime;
-import java.util.Base64;
 import java.util.Map;
 import java.util.UUID;
 
@@ -43,178 +49,198 @@ public class PadesESealService {
 
     /**
      * Seal a PDF document with an organizational eSeal (PAdES).
+     * <p>
+     * The PDF is Base64-encoded from its spool file straight into the SOAP
+     * request, and the sealed PDF is decoded from the response into a temp
+     * file, so neither document is held on the heap.
+     * </p>
      *
-     * @param pdfBytes    the PDF document bytes
+     * @param pdf         the spooled PDF document
      * @param requestedBy the user who requested the seal
-     * @return result containing sealed PDF bytes and job ID
+     * @return result containing the sealed PDF storage key and job ID
      */
-    public ESealResult sealPdf(byte[] pdfBytes, UUID requestedBy) {
+    public ESealResult sealPdf(SpooledUpload pdf, UUID requestedBy) throws IOException {
+        return sealPdf(pdf, requestedBy, null);
+    }
+
+    /**
+     * As {@link #sealPdf(SpooledUpload, UUID)}, recording {@code idempotencyKey}
+     * on the job so a repeated request can reuse the result.
+     */
+    public ESealResult sealPdf(SpooledUpload pdf, UUID requestedBy, String idempotencyKey) throws IOException {
         if (soapEndpoint == null || soapEndpoint.isBlank()) {
             throw new ESealUnavailableException("ESEAL_SOAP_ENDPOINT is not configured");
         }
 
         String requestId = generateRequestId();
-        String base64Pdf = Base64.getEncoder().encodeToString(pdfBytes);
-
-        log.info("Initiating PAdES eSeal: requestId={}, pdfSize={} bytes", requestId, pdfBytes.length);
 
-        // Build SOAP body (SignRequest only — envelope is added by ESealSoapClient)
-        String signRequestBody = buildPadesSignRequest(base64Pdf, requestId);
-
-        // Execute SOAP call
-        String responseXml = soapClient.executeSoapRequest(soapEndpoint, signRequestBody, requestId);
-
-        // Parse response
-        String resultMajor = extractTag(responseXml, "ResultMajor");
-        if (resultMajor == null || !resultMajor.contains("Success")) {
-            String resultMinor = extractTag(responseXml, "ResultMinor");
-            String message = ESealErrorCodeMapper.toMessage(resultMinor);
-            log.error("PAdES eSeal failed: requestId={}, resultMajor={}, resultMinor={}",
-                    requestId, resultMajor, resultMinor);
+        log.info("Initiating PAdES eSeal: requestId={}, pdfSize={} bytes", requestId, pdf.size());
+
+        Path sealedFile = Files.createTempFile("eseal-", ".pdf");
+        try {
+            DssResponse response = executeSign(SoapBody.builder().base64(pdf.path()).build(),
+                    requestId, sealedFile);
+
+            if (!response.isSuccess()) {
+                String message = ESealErrorCodeMapper.toMessage(response.getResultMinor());
+
+                // Record failed job
+                EsealJob failedJob = EsealJob.builder()
+                        .requestedBy(requestedBy)
+                        .sealType("PADES")
+                        .status("FAILED")
+                        .requestId(requestId)
+                        .idempotencyKey(idempotencyKey)
+                        .errorMessage(message)
+                        .completedAt(OffsetDateTime.now())
+                        .build();
+                jobRepository.save(failedJob);
+
+                throw new RuntimeException("PAdES eSeal failed: " + message);
+            }
 
-            // Record failed job
-            EsealJob failedJob = EsealJob.builder()
+            // Persist
+            EsealJob job = EsealJob.builder()
                     .requestedBy(requestedBy)
                     .sealType("PADES")
-                    .status("FAILED")
+                    .status("SEALED")
                     .requestId(requestId)
-                    .errorMessage(message)
+                    .idempotencyKey(idempotencyKey)
                     .completedAt(OffsetDateTime.now())
                     .build();
-            jobRepository.save(failedJob);
+            EsealJob saved = jobRepository.save(job);
 
-            throw new RuntimeException("PAdES eSeal failed: " + message);
-        }
+            // Store input and output
+            String inputKey = "eseal/input/" + saved.getId() + ".pdf";
+            String outputKey = "eseal/" + saved.getId() + ".pdf";
+            storageService.upload(pdf.path(), inputKey, "application/pdf");
+            storageService.upload(sealedFile, outputKey, "application/pdf");
 
-        // Extract sealed PDF from response
-        byte[] sealedPdf = extractSealedPdf(responseXml);
+            saved.setInputKey(inputKey);
+            saved.setOutputKey(outputKey);
+            jobRepository.save(saved);
 
-        // Persist
-        EsealJob job = EsealJob.builder()
-                .requestedBy(requestedBy)
-                .sealType("PADES")
-                .status("SEALED")
-                .requestId(requestId)
-                .completedAt(OffsetDateTime.now())
-                .build();
-        EsealJob saved = jobRepository.save(job);
+            auditService.log(requestedBy, "ESEAL_PDF", "ESEAL_JOB",
+                    saved.getId().toString(), null,
+                    Map.of("requestId", requestId, "sealType", "PADES"));
 
-        // Store input and output
-        storageService.upload(pdfBytes, "eseal/input/" + saved.getId() + ".pdf", "application/pdf");
-        storageService.upload(sealedPdf, "eseal/" + saved.getId() + ".pdf", "application/pdf");
+            log.info("PAdES eSeal completed: jobId={}, requestId={}", saved.getId(), requestId);
 
-        saved.setInputKey("eseal/input/" + saved.getId() + ".pdf");
-        saved.setOutputKey("eseal/" + saved.getId() + ".pdf");
-        jobRepository.save(saved);
+            return ESealResult.builder()
+                    .jobId(saved.getId())
+                    .outputKey(outputKey)
+                    .sealedSize(response.getPayloadBytes())
+                    .requestId(requestId)
+                    .build();
+        } finally {
+            Files.deleteIfExists(sealedFile);
+        }
+    }
 
-        auditService.log(requestedBy, "ESEAL_PDF", "ESEAL_JOB",
-                saved.getId().toString(), null,
-                Map.of("requestId", requestId, "sealType", "PADES"));
+    /**
+     * Seal a queued bulk job whose input PDF is already in storage. The input
+     * is streamed from storage into the request; the job row is updated in
+     * place with the outcome.
+     *
+     * @param job a claimed job in PROCESSING state
+     */
+    public void sealQueuedJob(EsealJob job) throws IOException {
+        if (soapEndpoint == null || soapEndpoint.isBlank()) {
+            throw new ESealUnavailableException("ESEAL_SOAP_ENDPOINT is not configured");
+        }
 
-        log.info("PAdES eSeal completed: jobId={}, requestId={}", saved.getId(), requestId);
+        String requestId = generateRequestId();
+        String inputKey = job.getInputKey();
+
+        log.info("Initiating PAdES eSeal: jobId={}, batchId={}, requestId={}", job.getId(), job.getBatchId(), requestId);
+
+        Path sealedFile = Files.createTempFile("eseal-", ".pdf");
+        try {
+            DssResponse response = executeSign(
+                    SoapBody.builder().base64(() -> storageService.openStream(inputKey), -1).build(),
+                    requestId, sealedFile);
+
+            job.setRequestId(requestId);
+            job.setCompletedAt(OffsetDateTime.now());
+            if (!response.isSuccess()) {
+                job.setStatus("FAILED");
+                job.setErrorMessage(ESealErrorCodeMapper.toMessage(response.getResultMinor()));
+                jobRepository.save(job);
+                return;
+            }
 
-        return ESealResult.builder()
-                .jobId(saved.getId())
-                .sealedBytes(sealedPdf)
-                .requestId(requestId)
-                .build();
-    }
+            String outputKey = "eseal/" + job.getId() + ".pdf";
+            storageService.upload(sealedFile, outputKey, "application/pdf");
+            job.setOutputKey(outputKey);
+            job.setStatus("SEALED");
+            jobRepository.save(job);
 
-    private String buildPadesSignRequest(String base64Pdf, String requestId) {
-        return """
-                <SignRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
-                             Profile="urn:safelayer:tws:dss:1.0:profiles:pades:1.0:sign"
-                             RequestID="%s">
-                  <OptionalInputs>
-                    <KeySelector>
-                      <ns1:KeySelector xmlns:ns1="http://www.safelayer.com/TWS">
-                        <ns1:Name Format="urn:oasis:names:tc:SAML:1.1:nameid-format:X509SubjectName">%s</ns1:Name>
-                        <ns1:KeyUsage>nonRepudiation</ns1:KeyUsage>
-                      </ns1:KeySelector>
-                    </KeySelector>
-                  </OptionalInputs>
-                  <InputDocuments>
-                    <Document>
-                      <Base64Data MimeType="application/pdf">%s</Base64Data>
-                    </Document>
-                  </InputDocuments>
-                </SignRequest>
-                """.formatted(requestId, certSubjectName, base64Pdf);
-    }
+            auditService.log(job.getRequestedBy(), "ESEAL_PDF", "ESEAL_JOB",
+                    job.getId().toString(), null,
+                    Map.of("requestId", requestId, "sealType", "PADES", "batchId", job.getBatchId().toString()));
 
-    private byte[] extractSealedPdf(String xml) {
-        // PAdES response: DocumentWithSignature/XMLData/Base64Data
-        String base64 = extractTag(xml, "Base64Data");
-        if (base64 == null || base64.isBlank()) {
-            throw new RuntimeException("No Base64Data found in PAdES eSeal response");
+            log.info("PAdES eSeal completed: jobId={}, requestId={}", job.getId(), requestId);
+        } finally {
+            Files.deleteIfExists(sealedFile);
         }
-        // Clean whitespace from base64
-        base64 = base64.replaceAll("\\s+", "");
-        return Base64.getDecoder().decode(base64);
     }
 
-    private String extractTag(String xml, String tagName) {
-        // Try simple tag first
-        String open = "<" + tagName + ">";
-        int startIdx = xml.indexOf(open);
-        if (startIdx >= 0) {
-            startIdx += open.length();
-        } else {
-            // Try tag with attributes
-            String altOpen = "<" + tagName + " ";
-            startIdx = xml.indexOf(altOpen);
-            if (startIdx >= 0) {
-                startIdx = xml.indexOf(">", startIdx) + 1;
-            }
-        }
+    /**
+     * Send a PAdES SignRequest and decode the sealed PDF
+     * (DocumentWithSignature/XMLData/Base64Data) into {@code sealedFile} while
+     * the response streams in. Returns the response as-is on a DSS error; throws
+     * if a success response carries no document.
+     */
+    private DssResponse executeSign(SoapBody document, String requestId, Path sealedFile) throws IOException {
+        // Build SOAP body (SignRequest only — envelope is added by ESealSoapClient)
+        SoapBody signRequestBody = buildPadesSignRequest(document, requestId);
 
-        // Also try with namespace prefix (e.g., dss:ResultMajor)
-        if (startIdx < 0) {
-            int nsIdx = xml.indexOf(":" + tagName + ">");
-            if (nsIdx >= 0) {
-                startIdx = nsIdx + tagName.length() + 2;
-            } else {
-                nsIdx = xml.indexOf(":" + tagName + " ");
-                if (nsIdx >= 0) {
-                    startIdx = xml.indexOf(">", nsIdx) + 1;
-                }
-            }
+        DssResponse response;
+        try (OutputStream sealedOut = Files.newOutputStream(sealedFile)) {
+            response = soapClient.executeSoapRequest(soapEndpoint, signRequestBody, requestId,
+                    DssResponseParser.BASE64_DATA, sealedOut);
         }
 
-        String close = "</" + tagName + ">";
-        int endIdx = xml.indexOf(close);
-        if (endIdx < 0) {
-            // Try namespaced close
-            int nsClose = xml.indexOf(":" + tagName + ">");
-            if (nsClose > 0 && xml.charAt(nsClose - 1) == '/') {
-                // self-closing
-                return null;
-            }
-            // Search for closing with namespace
-            String pattern = ":" + tagName + ">";
-            int lastIdx = xml.lastIndexOf(pattern);
-            if (lastIdx > startIdx) {
-                // Walk back to find the '</'
-                int slashIdx = xml.lastIndexOf("</", lastIdx);
-                if (slashIdx >= 0) {
-                    endIdx = slashIdx;
-                }
-            }
+        if (!response.isSuccess()) {
+            log.error("PAdES eSeal failed: requestId={}, resultMajor={}, resultMinor={}",
+                    requestId, response.getResultMajor(), response.getResultMinor());
+        } else if (!response.hasPayload()) {
+            throw new RuntimeException("No Base64Data found in PAdES eSeal response");
         }
+        return response;
+    }
 
-        if (startIdx >= 0 && endIdx > startIdx) {
-            return xml.substring(startIdx, endIdx).trim();
-        }
-        return null;
+    private SoapBody buildPadesSignRequest(SoapBody document, String requestId) {
+        return SoapBody.builder()
+                .text("""
+                        <SignRequest xmlns="http://www.docs.oasis-open.org/dss/2004/06/oasis-dss-1.0-core-schema-wd-27.xsd"
+                                     Profile="urn:safelayer:tws:dss:1.0:profiles:pades:1.0:sign"
+                                     RequestID="%s">
+                          <OptionalInputs>
+                            <KeySelector>
+                              <ns1:KeySelector xmlns:ns1="http://www.safelayer.com/TWS">
+                                <ns1:Name Format="urn:oasis:names:tc:SAML:1.1:nameid-format:X509SubjectName">%s</ns1:Name>
+                                <ns1:KeyUsage>nonRepudiation</ns1:KeyUsage>
+                              </ns1:KeySelector>
+                            </KeySelector>
+                          </OptionalInputs>
+                          <InputDocuments>
+                            <Document>
+                              <Base64Data MimeType="application/pdf">\
+                        """.formatted(requestId, certSubjectName))
+                .append(document)
+                .text("""
+                        </Base64Data>
+                            </Document>
+                          </InputDocuments>
+                        </SignRequest>
+                        """)
+                .build();
     }
 
     private String generateRequestId() {
         byte[] bytes = new byte[10];
         RANDOM.nextBytes(bytes);
-        StringBuilder sb = new StringBuilder(20);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
-        }
-        return sb.toString();
+        return Hex.encode(bytes);
     }
 }
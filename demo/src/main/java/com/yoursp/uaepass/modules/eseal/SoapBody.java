@@ -0,0 +1,188 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.util.Base64Streams;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * SOAP request content assembled from XML fragments and Base64-encoded
+ * binary sources.
+ * <p>
+ * Nothing is rendered up front: {@link #openStream()} produces the bytes on
+ * demand, opening each binary source only when the HTTP client reaches it and
+ * encoding it through a fixed-size buffer. The body can be opened repeatedly
+ * (e.g. when the client retries the send).
+ * </p>
+ */
+public final class SoapBody {
+
+    /**
+     * Re-openable binary source for a Base64 part.
+     */
+    @FunctionalInterface
+    public interface StreamSource {
+        InputStream open() throws IOException;
+    }
+
+    private record Part(byte[] literal, StreamSource source, long rawLength) {
+
+        long encodedLength() {
+            if (literal != null) {
+                return literal.length;
+            }
+            return rawLength < 0 ? -1 : Base64Streams.encodedLength(rawLength);
+        }
+
+        InputStream open() throws IOException {
+            return literal != null
+                    ? new ByteArrayInputStream(literal)
+                    : Base64Streams.encoding(source.open());
+        }
+    }
+
+    private final List<Part> parts;
+    private final long contentLength;
+
+    private SoapBody(List<Part> parts) {
+        this.parts = List.copyOf(parts);
+        long total = 0;
+        for (Part part : this.parts) {
+            long length = part.encodedLength();
+            if (length < 0) {
+                total = -1;
+                break;
+            }
+            total += length;
+        }
+        this.contentLength = total;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Total size in bytes, or -1 if some source length is unknown.
+     */
+    public long contentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Open a fresh stream over the whole body. Sources are opened lazily and
+     * closed as soon as they are exhausted.
+     */
+    public InputStream openStream() {
+        return new PartsInputStream(parts.iterator());
+    }
+
+    public static final class Builder {
+
+        private final List<Part> parts = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /** Append an XML fragment verbatim (UTF-8). */
+        public Builder text(String xml) {
+            return bytes(xml.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** Append pre-encoded bytes verbatim. The array must not be modified afterwards. */
+        public Builder bytes(byte[] literal) {
+            parts.add(new Part(literal, null, literal.length));
+            return this;
+        }
+
+        /** Append the Base64 encoding of a local file. */
+        public Builder base64(Path file) throws IOException {
+            return base64(() -> Files.newInputStream(file), Files.size(file));
+        }
+
+        /**
+         * Append the Base64 encoding of an arbitrary source.
+         *
+         * @param rawLength size of the un-encoded source, or -1 if unknown
+         */
+        public Builder base64(StreamSource source, long rawLength) {
+            parts.add(new Part(null, source, rawLength));
+            return this;
+        }
+
+        /** Append all parts of another body. */
+        public Builder append(SoapBody body) {
+            parts.addAll(body.parts);
+            return this;
+        }
+
+        public SoapBody build() {
+            return new SoapBody(parts);
+        }
+    }
+
+    private static final class PartsInputStream extends InputStream {
+
+        private final Iterator<Part> remaining;
+        private InputStream current;
+
+        PartsInputStream(Iterator<Part> remaining) {
+            this.remaining = remaining;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (current != null || advance()) {
+                int b = current.read();
+                if (b >= 0) {
+                    return b;
+                }
+                closeCurrent();
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (current != null || advance()) {
+                int n = current.read(b, off, len);
+                if (n > 0) {
+                    return n;
+                }
+                closeCurrent();
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeCurrent();
+        }
+
+        private boolean advance() throws IOException {
+            if (!remaining.hasNext()) {
+                return false;
+            }
+            current = remaining.next().open();
+            return true;
+        }
+
+        private void closeCurrent() throws IOException {
+            if (current != null) {
+                InputStream done = current;
+                current = null;
+                done.close();
+            }
+        }
+    }
+}
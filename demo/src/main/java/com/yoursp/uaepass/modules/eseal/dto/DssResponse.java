@@ -0,0 +1,30 @@
+package com.yoursp.uaepass.modules.eseal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Fields extracted from an OASIS DSS SignResponse / VerifyResponse.
+ * The Base64 payload itself is streamed to a caller-supplied sink.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class DssResponse {
+    private final String resultMajor;
+    private final String resultMinor;
+    private final String resultMessage;
+    private final String signerIdentity;
+    private final String signingTime;
+    /** Decoded payload size in bytes, or -1 if the payload element was absent. */
+    private final long payloadBytes;
+
+    public boolean isSuccess() {
+        return resultMajor != null && resultMajor.contains("Success");
+    }
+
+    public boolean hasPayload() {
+        return payloadBytes > 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.yoursp.uaepass.modules.eseal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class ESealBatchResponse {
+    private final UUID batchId;
+    private final int total;
+    private final String statusUrl;
+    private final String downloadUrl;
+}
@@ -0,0 +1,32 @@
+package com.yoursp.uaepass.modules.eseal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class ESealBatchStatus {
+    private final UUID batchId;
+    private final long total;
+    private final long queued;
+    private final long processing;
+    private final long sealed;
+    private final long failed;
+    /** True once no job is QUEUED or PROCESSING. */
+    private final boolean complete;
+    private final String downloadUrl;
+    private final List<Failure> failures;
+
+    @Getter
+    @AllArgsConstructor
+    public static class Failure {
+        private final UUID jobId;
+        private final String fileName;
+        private final String errorMessage;
+    }
+}
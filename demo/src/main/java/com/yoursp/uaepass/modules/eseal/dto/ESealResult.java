@@ -7,10 +7,14 @@ import lombok.Getter;
 import java.util.UUID;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 public class ESealResult {
     private final UUID jobId;
-    private final byte[] sealedBytes;
+    /** Storage key of the sealed output (sealed PDF or PKCS#7 signature). */
+    private final String outputKey;
+    private final long sealedSize;
     private final String requestId;
+    /** True when an earlier seal of the same document was returned instead of sealing again. */
+    private final boolean reused;
 }
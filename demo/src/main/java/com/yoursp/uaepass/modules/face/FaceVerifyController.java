@@ -2,6 +2,7 @@ package com.yoursp.uaepass.modules.face;
 
 import com.yoursp.uaepass.model.entity.FaceVerification;
 import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.modules.auth.IdTokenValidator;
 import com.yoursp.uaepass.modules.auth.StateService;
 import com.yoursp.uaepass.modules.auth.dto.StatePayload;
 import com.yoursp.uaepass.modules.face.dto.FaceVerifyInitiateRequest;
@@ -42,6 +43,7 @@ public class FaceVerifyController {
     private final FaceVerificationService faceService;
     private final FaceVerificationRepository faceRepo;
     private final StateService stateService;
+    private final IdTokenValidator idTokenValidator;
 
     @Value("${app.frontend-url:http://localhost:4200}")
     private String frontendUrl;
@@ -145,9 +147,13 @@ public class FaceVerifyController {
         }
 
         try {
-            // Exchange code → access token → call userinfo
-            String accessToken = exchangeCodeForToken(code);
-            String returnedUuid = fetchUserUuid(accessToken);
+            // Exchange code → tokens; uuid from the validated id_token, else userinfo
+            Map<String, Object> tokenResponse = exchangeCodeForToken(code);
+            Map<String, Object> claims = idTokenValidator.claimsIfSufficient(
+                    (String) tokenResponse.get("id_token"), IdTokenValidator.UUID_CLAIMS);
+            String returnedUuid = claims != null
+                    ? (String) claims.get("uuid")
+                    : fetchUserUuid((String) tokenResponse.get("access_token"));
 
             // CRITICAL: UUID match check
             boolean success = faceService.complete(
@@ -205,7 +211,7 @@ public class FaceVerifyController {
         return (User) request.getAttribute("currentUser");
     }
 
-    private String exchangeCodeForToken(String code) {
+    private Map<String, Object> exchangeCodeForToken(String code) {
         try {
             String credentials = Base64.getEncoder().encodeToString(
                     (clientId + ":" + clientSecret).getBytes());
@@ -231,7 +237,7 @@ public class FaceVerifyController {
             Map<String, Object> tokenResponse = new com.fasterxml.jackson.databind.ObjectMapper()
                     .readValue(response.body(), Map.class);
 
-            return (String) tokenResponse.get("access_token");
+            return tokenResponse;
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to exchange code for token", e);
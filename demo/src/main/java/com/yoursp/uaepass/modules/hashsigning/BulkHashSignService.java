@@ -1,7 +1,7 @@
 package com.yoursp.uaepass.modules.hashsigning;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
 import com.yoursp.uaepass.modules.auth.StateService;
 import com.yoursp.uaepass.modules.hashsigning.dto.BulkDoc;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashSignJobDto;
@@ -9,16 +9,30 @@ import com.yoursp.uaepass.modules.hashsigning.dto.HashStartResult;
 import com.yoursp.uaepass.modules.signature.LtvService;
 import com.yoursp.uaepass.repository.SigningJobRepository;
 import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
 import com.yoursp.uaepass.service.storage.StorageService;
-import lombok.RequiredArgsConstructor;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Base64Streams;
+import com.yoursp.uaepass.util.Digests;
+import com.yoursp.uaepass.util.Hex;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.security.MessageDigest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Bulk hash signing — multiple documents in one user approval.
@@ -29,7 +43,6 @@ import java.util.*;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @SuppressWarnings("null")
 public class BulkHashSignService {
 
@@ -39,7 +52,9 @@ public class BulkHashSignService {
     private final StorageService storageService;
     private final LtvService ltvService;
     private final AuditService auditService;
-    private final ObjectMapper objectMapper;
+    private final SigningJobDocumentService documentService;
+    private final Executor startExecutor;
+    private final Executor completeExecutor;
 
     @Value("${uaepass.base-url:https://stg-id.uaepass.ae}")
     private String uaepassBaseUrl;
@@ -53,55 +68,70 @@ public class BulkHashSignService {
     @Value("${hashsign.scope:urn:uae:digitalid:backend_api:hash_signing urn:safelayer:eidas:sign:identity:use:server}")
     private String hashSignScope;
 
+    public BulkHashSignService(HashSignSdkClient sdkClient,
+            StateService stateService,
+            SigningJobRepository jobRepository,
+            StorageService storageService,
+            LtvService ltvService,
+            AuditService auditService,
+            SigningJobDocumentService documentService,
+            @Qualifier("hashSignExecutor") Executor startExecutor,
+            @Qualifier("hashSignCompleteExecutor") Executor completeExecutor) {
+        this.sdkClient = sdkClient;
+        this.stateService = stateService;
+        this.jobRepository = jobRepository;
+        this.storageService = storageService;
+        this.ltvService = ltvService;
+        this.auditService = auditService;
+        this.documentService = documentService;
+        this.startExecutor = startExecutor;
+        this.completeExecutor = completeExecutor;
+    }
+
     /**
      * Initiate bulk hash signing.
+     * <p>
+     * SDK /start and the unsigned-PDF upload run concurrently on
+     * {@code hashSignExecutor}; results are collected by document index, so
+     * signProp and digests_summary keep the request order. If any document
+     * fails, nothing is persisted and the work already done is compensated
+     * (see {@link #compensate}).
+     * </p>
      */
     public HashSignJobDto initiateBulk(UUID userId, List<BulkDoc> docs) {
-        List<Map<String, Object>> docEntries = new ArrayList<>();
+        List<StartedDoc> started = startAll(docs);
+
+        List<SigningJobDocument> documents = new ArrayList<>();
         StringBuilder signPropBuilder = new StringBuilder();
         List<byte[]> digestBytesList = new ArrayList<>();
 
-        // For each document: SDK /start → collect digest
-        for (int i = 0; i < docs.size(); i++) {
-            BulkDoc doc = docs.get(i);
-            byte[] pdfBytes = Base64.getDecoder().decode(doc.getFileBase64());
-
-            String signProp = doc.getPageNumber() + ":["
-                    + doc.getX() + "," + doc.getY() + ","
-                    + doc.getWidth() + "," + doc.getHeight() + "]";
-
-            HashStartResult startResult = sdkClient.startProcess(pdfBytes, signProp);
-
+        for (StartedDoc doc : started) {
             // Collect per-document info
-            Map<String, Object> entry = new LinkedHashMap<>();
-            entry.put("index", i);
-            entry.put("fileName", doc.getFileName());
-            entry.put("txId", startResult.getTxId());
-            entry.put("signIdentityId", startResult.getSignIdentityId());
-            entry.put("digest", startResult.getDigest());
-            entry.put("signProp", signProp);
-            entry.put("status", "PENDING");
-            docEntries.add(entry);
-
-            // Store unsigned PDF
-            // (jobId not yet known — use txId as temporary key)
-            storageService.upload(pdfBytes,
-                    "hashsign/unsigned/" + startResult.getTxId() + ".pdf", "application/pdf");
+            documents.add(SigningJobDocument.builder()
+                    .docIndex(doc.index())
+                    .fileName(doc.fileName())
+                    .txId(doc.result().getTxId())
+                    .signIdentityId(doc.result().getSignIdentityId())
+                    .sdkUrl(doc.result().getSdkUrl())
+                    .digest(doc.result().getDigest())
+                    .signProp(doc.signProp())
+                    .status(SigningJobDocumentService.PENDING)
+                    .build());
 
             // Build combined signProp
-            if (i > 0)
+            if (doc.index() > 0)
                 signPropBuilder.append("|");
-            signPropBuilder.append(signProp);
+            signPropBuilder.append(doc.signProp());
 
             // Convert hex digest to bytes for combined hash
-            digestBytesList.add(hexToBytes(startResult.getDigest()));
+            digestBytesList.add(Hex.decode(doc.result().getDigest()));
         }
 
         // Compute combined digests_summary
         String digestsSummary = computeDigestsSummary(digestBytesList);
 
         // Use first doc's signIdentityId (all should be same)
-        String signIdentityId = docEntries.get(0).get("signIdentityId").toString();
+        String signIdentityId = documents.get(0).getSignIdentityId();
 
         // Create signing job
         SigningJob job = SigningJob.builder()
@@ -114,16 +144,11 @@ public class BulkHashSignService {
                 .expiresAt(OffsetDateTime.now().plusHours(1))
                 .build();
 
-        try {
-            job.setDocuments(objectMapper.writeValueAsString(docEntries));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to serialize document entries", e);
-        }
-
         SigningJob saved = jobRepository.save(job);
+        documentService.createAll(saved.getId(), documents);
 
         // Generate state
-        String state = stateService.generateState("HASH_SIGN", null, userId);
+        String state = stateService.generateState("HASH_SIGN", null, userId, saved.getId());
 
         String signingUrl = UriComponentsBuilder
                 .fromUriString(uaepassBaseUrl + "/trustedx-authserver/oauth/hsign-as")
@@ -154,7 +179,15 @@ public class BulkHashSignService {
 
     /**
      * Complete bulk hash signing after callback.
+     * <p>
+     * Runs on {@code signatureExecutor} so the OAuth callback can redirect at
+     * once. Each document's SDK /sign, LTV and uploads run in parallel on
+     * {@code hashSignCompleteExecutor}, and each outcome is written to its own
+     * signing_job_documents row as it finishes, so
+     * {@code /hashsign/status/{jobId}} can report progress.
+     * </p>
      */
+    @Async("signatureExecutor")
     public void completeBulk(UUID jobId, String accessToken) {
         SigningJob job = jobRepository.findById(jobId)
                 .orElseThrow(() -> new RuntimeException("Signing job not found: " + jobId));
@@ -163,51 +196,26 @@ public class BulkHashSignService {
         jobRepository.save(job);
 
         try {
-            @SuppressWarnings("unchecked")
-            List<Map<String, Object>> docEntries = objectMapper.readValue(
-                    job.getDocuments(), List.class);
-
-            boolean allSuccess = true;
+            List<SigningJobDocument> documents = documentService.forJob(job);
 
-            for (Map<String, Object> entry : docEntries) {
-                String txId = (String) entry.get("txId");
-                String signIdentityId = (String) entry.get("signIdentityId");
-
-                try {
-                    byte[] signedPdf = sdkClient.signDocument(txId, signIdentityId, accessToken);
-
-                    storageService.upload(signedPdf,
-                            "hashsign/signed/" + txId + ".pdf", "application/pdf");
-
-                    // Apply LTV
-                    byte[] ltvPdf = ltvService.applyLtv(signedPdf, jobId);
-                    boolean ltvApplied = ltvPdf != signedPdf;
-
-                    if (ltvApplied) {
-                        storageService.upload(ltvPdf,
-                                "hashsign/signed-ltv/" + txId + ".pdf", "application/pdf");
-                    }
-
-                    entry.put("status", "SIGNED");
-                    entry.put("signedKey", "hashsign/signed/" + txId + ".pdf");
-                    entry.put("ltvKey", ltvApplied ? "hashsign/signed-ltv/" + txId + ".pdf" : null);
+            job.setStatus("COMPLETING");
+            jobRepository.save(job);
 
-                } catch (Exception e) {
-                    log.error("Bulk sign failed for txId={}: {}", txId, e.getMessage());
-                    entry.put("status", "FAILED");
-                    entry.put("error", e.getMessage());
-                    allSuccess = false;
-                }
+            List<CompletableFuture<Void>> futures = new ArrayList<>(documents.size());
+            for (SigningJobDocument document : documents) {
+                futures.add(CompletableFuture.runAsync(() -> signOne(jobId, document, accessToken), completeExecutor));
             }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+            boolean allSuccess = documentService.countSigned(jobId) == documents.size();
 
-            job.setDocuments(objectMapper.writeValueAsString(docEntries));
             job.setStatus(allSuccess ? "SIGNED" : "FAILED_DOCUMENTS");
             job.setCompletedAt(OffsetDateTime.now());
             jobRepository.save(job);
 
             auditService.log(job.getUserId(), "HASH_SIGN_BULK_COMPLETED", "SigningJob",
                     jobId.toString(), null,
-                    Map.of("allSuccess", allSuccess, "documentCount", docEntries.size()));
+                    Map.of("allSuccess", allSuccess, "documentCount", documents.size()));
 
             log.info("Bulk hash sign completed: jobId={}, allSuccess={}", jobId, allSuccess);
 
@@ -221,43 +229,150 @@ public class BulkHashSignService {
     }
 
     /**
-     * Compute combined digests_summary:
-     * SHA-256(concat(digest1_bytes, digest2_bytes, ...))
+     * SDK /sign → store → LTV → store for one document, recording the outcome
+     * on its row. Never throws.
      */
-    static String computeDigestsSummary(List<byte[]> digestBytesList) {
+    private void signOne(UUID jobId, SigningJobDocument document, String accessToken) {
+        String txId = document.getTxId();
+        Path signedFile = null;
         try {
-            // Concatenate all digest byte arrays
-            int totalLen = digestBytesList.stream().mapToInt(b -> b.length).sum();
-            byte[] combined = new byte[totalLen];
-            int offset = 0;
-            for (byte[] digestBytes : digestBytesList) {
-                System.arraycopy(digestBytes, 0, combined, offset, digestBytes.length);
-                offset += digestBytes.length;
+            signedFile = Files.createTempFile("hashsign-", ".pdf");
+            sdkClient.signDocument(document.getSdkUrl(), txId, document.getSignIdentityId(), accessToken,
+                    signedFile);
+
+            String signedKey = "hashsign/signed/" + txId + ".pdf";
+            storageService.upload(signedFile, signedKey, "application/pdf");
+
+            // Apply LTV (the LTV SOAP call takes the PDF in memory)
+            byte[] signedPdf = Files.readAllBytes(signedFile);
+            byte[] ltvPdf = ltvService.applyLtv(signedPdf, jobId);
+            boolean ltvApplied = ltvPdf != signedPdf;
+
+            String ltvKey = null;
+            if (ltvApplied) {
+                ltvKey = "hashsign/signed-ltv/" + txId + ".pdf";
+                storageService.upload(ltvPdf, ltvKey, "application/pdf");
             }
 
-            // SHA-256 of the combined bytes
-            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
-            byte[] hash = sha256.digest(combined);
+            documentService.markSigned(document.getId(), signedKey, ltvKey);
+
+        } catch (Exception e) {
+            log.error("Bulk sign failed for txId={}: {}", txId, e.getMessage());
+            documentService.markFailed(document.getId(), e.getMessage());
+        } finally {
+            deleteQuietly(signedFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** One document after SDK /start and upload of its unsigned PDF. */
+    private record StartedDoc(int index, String fileName, String signProp, HashStartResult result) {
+    }
+
+    /**
+     * Run /start + upload for every document, at most
+     * {@code hashsign.bulk.start-concurrency} at a time across the instance.
+     * On the first failure documents not yet started are skipped, in-flight
+     * ones are allowed to finish, and everything already started is
+     * compensated before the failure is rethrown.
+     */
+    private List<StartedDoc> startAll(List<BulkDoc> docs) {
+        AtomicBoolean aborted = new AtomicBoolean();
+        Queue<String> startedTxIds = new ConcurrentLinkedQueue<>();
+        Queue<String> uploadedKeys = new ConcurrentLinkedQueue<>();
+
+        List<CompletableFuture<StartedDoc>> futures = new ArrayList<>(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            int index = i;
+            BulkDoc doc = docs.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                if (aborted.get()) {
+                    return null;
+                }
+                try {
+                    return startOne(index, doc, startedTxIds, uploadedKeys);
+                } catch (RuntimeException e) {
+                    aborted.set(true);
+                    throw e;
+                }
+            }, startExecutor));
+        }
 
-            // Convert to hex string
-            StringBuilder sb = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                sb.append(String.format("%02x", b));
+        List<StartedDoc> started = new ArrayList<>(docs.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<StartedDoc> future : futures) {
+            try {
+                started.add(future.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException re ? re : e;
+                }
             }
-            return sb.toString();
+        }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to compute digests_summary", e);
+        if (failure != null) {
+            compensate(startedTxIds, uploadedKeys);
+            throw failure;
         }
+        return started;
     }
 
-    static byte[] hexToBytes(String hex) {
-        int len = hex.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
-                    + Character.digit(hex.charAt(i + 1), 16));
+    private StartedDoc startOne(int index, BulkDoc doc, Queue<String> startedTxIds, Queue<String> uploadedKeys) {
+        String signProp = doc.getPageNumber() + ":["
+                + doc.getX() + "," + doc.getY() + ","
+                + doc.getWidth() + "," + doc.getHeight() + "]";
+
+        // Decode to disk so the SDK request and the upload both stream from the file
+        try (SpooledUpload pdf = SpooledUpload.spool(Base64Streams.decoding(doc.getFileBase64()))) {
+            HashStartResult startResult = sdkClient.startProcess(pdf.path(), signProp);
+            startedTxIds.add(startResult.getTxId());
+
+            // Store unsigned PDF
+            // (jobId not yet known — use txId as temporary key)
+            String key = "hashsign/unsigned/" + startResult.getTxId() + ".pdf";
+            storageService.upload(pdf.path(), key, "application/pdf");
+            uploadedKeys.add(key);
+
+            return new StartedDoc(index, doc.getFileName(), signProp, startResult);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spool document " + doc.getFileName(), e);
         }
-        return data;
+    }
+
+    /**
+     * Undo a failed bulk initiation. The SDK has no cancel endpoint — a txId
+     * that is never signed simply expires in the sidecar — so compensation
+     * removes the unsigned PDFs and records the orphaned txIds in the log.
+     * Nothing was written to signing_jobs yet.
+     */
+    private void compensate(Collection<String> startedTxIds, Collection<String> uploadedKeys) {
+        for (String key : uploadedKeys) {
+            try {
+                storageService.delete(key);
+            } catch (Exception e) {
+                log.warn("Bulk hash sign compensation: failed to delete {}: {}", key, e.getMessage());
+            }
+        }
+        log.warn("Bulk hash sign initiation aborted: {} txId(s) abandoned {}, {} unsigned PDF(s) removed",
+                startedTxIds.size(), startedTxIds, uploadedKeys.size());
+    }
+
+    /**
+     * Compute combined digests_summary:
+     * SHA-256(concat(digest1_bytes, digest2_bytes, ...))
+     */
+    static String computeDigestsSummary(List<byte[]> digestBytesList) {
+        // Fed part by part — same hash as the concatenation, without building it
+        return Hex.encode(Digests.sha256(digestBytesList));
     }
 }
@@ -4,34 +4,46 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashStartResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
- * HTTP client for the UAE PASS Hash Signing Docker SDK sidecar.
+ * HTTP client for the UAE PASS Hash Signing Docker SDK sidecars.
  * <p>
- * The SDK must be running on the configured URL (default:
- * http://localhost:8081).
+ * Requests go through {@link HashSignSdkPool}: /start is balanced across the
+ * configured instances ({@code hashsign.sdk-urls}, default
+ * http://localhost:8081) and fails over when an instance cannot be reached;
+ * /sign is sent to the instance that issued the txId.
  * </p>
  */
 @Slf4j
 @Component
 public class HashSignSdkClient {
 
-    @Value("${hashsign.sdk-url:http://localhost:8081}")
-    private String sdkUrl;
+    @Value("${hashsign.health.path:/health}")
+    private String healthPath;
 
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final HashSignSdkPool pool;
 
-    public HashSignSdkClient(ObjectMapper objectMapper) {
+    public HashSignSdkClient(ObjectMapper objectMapper, HashSignSdkPool pool) {
         this.objectMapper = objectMapper;
+        this.pool = pool;
         this.httpClient = HttpClient.newBuilder()
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
@@ -41,30 +53,47 @@ public class HashSignSdkClient {
      * Step 1 — Start the hash signing process.
      * <p>
      * Sends the PDF to the SDK which prepares it with a ByteRange reservation
-     * and returns the SHA-256 digest of the prepared document.
+     * and returns the SHA-256 digest of the prepared document. The PDF travels
+     * as a raw {@code application/pdf} multipart part — no Base64, no JSON copy.
+     * </p>
+     * <p>
+     * The least-loaded healthy instance is used. If it cannot be reached the
+     * next one is tried — the request never arrived, so no txId was issued.
      * </p>
      *
-     * @param pdfBytes the raw PDF bytes
+     * @param pdf      the PDF on disk; it is streamed from the file and re-read
+     *                 if the request fails over to another instance
      * @param signProp signature position: "{page}:[{x},{y},{width},{height}]"
-     * @return HashStartResult with txId, signIdentityId, and digest
+     * @return HashStartResult with txId, signIdentityId, digest and the issuing instance URL
      */
-    public HashStartResult startProcess(byte[] pdfBytes, String signProp) {
-        String url = sdkUrl + "/start";
-        log.info("Hash SDK /start: url={}, pdfSize={}, signProp={}", url, pdfBytes.length, signProp);
+    public HashStartResult startProcess(Path pdf, String signProp) {
+        List<HashSignSdkPool.Instance> tried = new ArrayList<>();
+        HashSignSdkPool.Instance instance;
+        while ((instance = pool.choose(tried)) != null) {
+            tried.add(instance);
+            try {
+                return start(instance, pdf, signProp);
+            } catch (SdkUnreachableException e) {
+                log.warn("Hash SDK /start: {} unreachable, trying next instance", instance.getUrl());
+            }
+        }
+        throw new HashSignSdkUnavailableException(
+                "No Hash Signing SDK instance is reachable (tried " + tried.size() + ")");
+    }
 
+    private HashStartResult start(HashSignSdkPool.Instance instance, Path pdf, String signProp) {
+        String url = instance.getUrl() + "/start";
+        boolean success = false;
+        instance.begin();
         try {
-            // Build multipart-like JSON request with base64 PDF
-            String base64Pdf = java.util.Base64.getEncoder().encodeToString(pdfBytes);
-
-            String requestBody = objectMapper.writeValueAsString(Map.of(
-                    "document", base64Pdf,
-                    "signProp", signProp));
+            log.info("Hash SDK /start: url={}, pdfSize={}, signProp={}", url, Files.size(pdf), signProp);
+            String boundary = "uaepass-" + UUID.randomUUID();
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
+                    .header("Content-Type", "multipart/form-data; boundary=" + boundary)
                     .timeout(Duration.ofSeconds(30))
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .POST(multipart(boundary, signProp, HttpRequest.BodyPublishers.ofFile(pdf)))
                     .build();
 
             HttpResponse<String> response = httpClient.send(request,
@@ -85,20 +114,24 @@ public class HashSignSdkClient {
             result.setTxId((String) body.get("txId"));
             result.setSignIdentityId((String) body.get("sign_identity_id"));
             result.setDigest((String) body.get("digest"));
+            result.setSdkUrl(instance.getUrl());
 
-            log.info("Hash SDK /start success: txId={}, signIdentityId={}",
-                    result.getTxId(), result.getSignIdentityId());
+            log.info("Hash SDK /start success: txId={}, signIdentityId={}, instance={}",
+                    result.getTxId(), result.getSignIdentityId(), instance.getUrl());
 
+            success = true;
             return result;
 
         } catch (HashSigningTxIdReusedException e) {
             throw e;
         } catch (java.net.ConnectException e) {
-            throw new HashSignSdkUnavailableException(
-                    "Hash Signing SDK is not reachable at " + sdkUrl, e);
+            instance.markDown(e.toString());
+            throw new SdkUnreachableException();
         } catch (Exception e) {
             log.error("Hash SDK /start failed: {}", e.getMessage());
             throw new HashSignSdkUnavailableException("Hash SDK /start call failed", e);
+        } finally {
+            instance.end(success);
         }
     }
 
@@ -106,18 +139,27 @@ public class HashSignSdkClient {
      * Step 3 — Sign the prepared document.
      * <p>
      * Sends the access token (obtained from UAE PASS auth) to the SDK
-     * which uses it to sign the hash and embed the PKCS#7 signature.
+     * which uses it to sign the hash and embed the PKCS#7 signature. The
+     * signed PDF is streamed into {@code target} rather than buffered.
      * </p>
      *
+     * @param sdkUrl         instance that issued the txId ({@link HashStartResult#getSdkUrl()});
+     *                       null for jobs created before the pool
      * @param txId           transaction ID from /start
      * @param signIdentityId sign identity from /start
      * @param accessToken    access token from OAuth code exchange
-     * @return final signed PDF bytes
+     * @param target         file that receives the signed PDF (overwritten)
+     * @return size of the signed PDF in bytes
      */
-    public byte[] signDocument(String txId, String signIdentityId, String accessToken) {
-        String url = sdkUrl + "/sign";
-        log.info("Hash SDK /sign: txId={}", txId);
+    public long signDocument(String sdkUrl, String txId, String signIdentityId, String accessToken,
+            Path target) {
+        // The transaction only exists on the instance that issued it — no failover
+        HashSignSdkPool.Instance instance = pool.route(sdkUrl);
+        String url = instance.getUrl() + "/sign";
+        log.info("Hash SDK /sign: txId={}, instance={}", txId, instance.getUrl());
 
+        boolean success = false;
+        instance.begin();
         try {
             String requestBody = objectMapper.writeValueAsString(Map.of(
                     "txId", txId,
@@ -131,8 +173,9 @@ public class HashSignSdkClient {
                     .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
 
-            HttpResponse<byte[]> response = httpClient.send(request,
-                    HttpResponse.BodyHandlers.ofByteArray());
+            HttpResponse<Path> response = httpClient.send(request,
+                    HttpResponse.BodyHandlers.ofFile(target, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
 
             if (response.statusCode() == 412) {
                 throw new HashSigningTxIdReusedException(txId);
@@ -142,19 +185,77 @@ public class HashSignSdkClient {
                 throw new RuntimeException("Hash SDK /sign returned HTTP " + response.statusCode());
             }
 
-            byte[] signedPdf = response.body();
-            log.info("Hash SDK /sign success: txId={}, signedSize={} bytes", txId, signedPdf.length);
+            long signedSize = Files.size(target);
+            log.info("Hash SDK /sign success: txId={}, signedSize={} bytes", txId, signedSize);
 
-            return signedPdf;
+            success = true;
+            return signedSize;
 
         } catch (HashSigningTxIdReusedException e) {
             throw e;
         } catch (java.net.ConnectException e) {
+            instance.markDown(e.toString());
             throw new HashSignSdkUnavailableException(
-                    "Hash Signing SDK is not reachable at " + sdkUrl, e);
+                    "Hash Signing SDK is not reachable at " + instance.getUrl(), e);
         } catch (Exception e) {
             log.error("Hash SDK /sign failed: txId={}, error={}", txId, e.getMessage());
             throw new HashSignSdkUnavailableException("Hash SDK /sign call failed", e);
+        } finally {
+            instance.end(success);
         }
     }
+
+    /**
+     * Probe every instance. Any HTTP answer below 500 counts as up — the
+     * probe checks the sidecar is serving, not that the path exists.
+     */
+    @Scheduled(fixedDelayString = "${hashsign.health.interval-ms:10000}")
+    public void checkHealth() {
+        for (HashSignSdkPool.Instance instance : pool.instances()) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(instance.getUrl() + healthPath))
+                        .timeout(Duration.ofSeconds(2))
+                        .GET()
+                        .build();
+                int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                if (status < 500) {
+                    instance.markUp();
+                } else {
+                    instance.markDown("health probe returned HTTP " + status);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                instance.markDown("health probe failed: " + e);
+            }
+        }
+    }
+
+    /** Connection refused by one instance; the caller may try another. */
+    private static final class SdkUnreachableException extends RuntimeException {
+        SdkUnreachableException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * multipart/form-data body: a {@code signProp} field and the PDF as a
+     * binary {@code document} part. The PDF publisher is concatenated, not copied.
+     */
+    static HttpRequest.BodyPublisher multipart(String boundary, String signProp,
+            HttpRequest.BodyPublisher document) {
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"signProp\"\r\n\r\n"
+                + signProp + "\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"document\"; filename=\"document.pdf\"\r\n"
+                + "Content-Type: application/pdf\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+        return HttpRequest.BodyPublishers.concat(
+                HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+                document,
+                HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8));
+    }
 }
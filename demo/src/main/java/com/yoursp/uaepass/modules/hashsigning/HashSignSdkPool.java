@@ -0,0 +1,189 @@
+package com.yoursp.uaepass.modules.hashsigning;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side pool of Hash Signing SDK sidecars.
+ * <ul>
+ * <li>/start goes to the healthy instance with the fewest outstanding
+ * requests; if none is healthy, every instance is a candidate</li>
+ * <li>/sign must reach the instance that issued the txId — callers keep the
+ * instance URL with the job and route by it ({@link #route(String)}). Only
+ * configured or explicitly retired instances are routed to: /sign carries the
+ * user's access token</li>
+ * <li>An instance is marked down when a connection to it fails and back up
+ * when a health probe answers</li>
+ * </ul>
+ * Per-instance meters: {@code hashsign.sdk.outstanding}, {@code hashsign.sdk.healthy}
+ * and {@code hashsign.sdk.requests} (tagged by outcome), all tagged {@code instance}.
+ */
+@Slf4j
+public final class HashSignSdkPool implements MeterBinder {
+
+    private final Map<String, Instance> instances = new LinkedHashMap<>();
+    /** Removed from the pool but still finishing their transactions — /sign only. */
+    private final Map<String, Instance> retired = new LinkedHashMap<>();
+
+    public HashSignSdkPool(Collection<String> urls) {
+        this(urls, List.of());
+    }
+
+    public HashSignSdkPool(Collection<String> urls, Collection<String> retiredUrls) {
+        for (String url : urls) {
+            String normalized = normalize(url);
+            if (!normalized.isEmpty()) {
+                instances.putIfAbsent(normalized, new Instance(normalized));
+            }
+        }
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("At least one Hash SDK URL is required");
+        }
+        for (String url : retiredUrls) {
+            String normalized = normalize(url);
+            if (!normalized.isEmpty() && !instances.containsKey(normalized)) {
+                retired.putIfAbsent(normalized, new Instance(normalized));
+            }
+        }
+    }
+
+    /**
+     * Pick the instance for a new transaction, skipping {@code exclude}
+     * (instances already tried for this call).
+     *
+     * @return the chosen instance, or {@code null} if every instance is excluded
+     */
+    public Instance choose(Collection<Instance> exclude) {
+        List<Instance> candidates = new ArrayList<>(instances.values());
+        candidates.removeAll(exclude);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        List<Instance> healthy = candidates.stream().filter(Instance::isHealthy).toList();
+        return (healthy.isEmpty() ? candidates : healthy).stream()
+                .min(Comparator.comparingInt(Instance::getOutstanding))
+                .orElseThrow();
+    }
+
+    /**
+     * The instance that owns a txId. Jobs created before the pool existed carry
+     * no URL and go to the first instance; a URL dropped from the pool is
+     * honoured only if listed as retired.
+     *
+     * @throws HashSignSdkUnavailableException if the URL is neither configured
+     *                                         nor retired — the access token is
+     *                                         never sent to an unknown host
+     */
+    public Instance route(String url) {
+        if (url == null || url.isBlank()) {
+            return instances.values().iterator().next();
+        }
+        String normalized = normalize(url);
+        Instance known = instances.get(normalized);
+        if (known == null) {
+            known = retired.get(normalized);
+        }
+        if (known == null) {
+            throw new HashSignSdkUnavailableException("Hash SDK instance " + normalized
+                    + " is not configured (hashsign.sdk-urls / hashsign.retired-sdk-urls)");
+        }
+        return known;
+    }
+
+    public Collection<Instance> instances() {
+        return Collections.unmodifiableCollection(instances.values());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Instance instance : instances.values()) {
+            Gauge.builder("hashsign.sdk.outstanding", instance, Instance::getOutstanding)
+                    .tag("instance", instance.url)
+                    .description("Hash SDK requests in flight")
+                    .register(registry);
+            Gauge.builder("hashsign.sdk.healthy", instance, i -> i.isHealthy() ? 1 : 0)
+                    .tag("instance", instance.url)
+                    .description("1 if the Hash SDK instance is considered up")
+                    .register(registry);
+            FunctionCounter.builder("hashsign.sdk.requests", instance.succeeded, AtomicLong::get)
+                    .tag("instance", instance.url)
+                    .tag("outcome", "success")
+                    .register(registry);
+            FunctionCounter.builder("hashsign.sdk.requests", instance.failed, AtomicLong::get)
+                    .tag("instance", instance.url)
+                    .tag("outcome", "failure")
+                    .register(registry);
+        }
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url == null ? "" : url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /**
+     * One SDK sidecar. Wrap each call in {@link #begin()} / {@link #end(boolean)}.
+     */
+    public static final class Instance {
+
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile boolean healthy = true;
+
+        private Instance(String url) {
+            this.url = url;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public void begin() {
+            outstanding.incrementAndGet();
+        }
+
+        public void end(boolean success) {
+            outstanding.decrementAndGet();
+            (success ? succeeded : failed).incrementAndGet();
+        }
+
+        /** A connection could not be established, or a health probe failed. */
+        public void markDown(String reason) {
+            if (healthy) {
+                log.warn("Hash SDK instance {} marked down: {}", url, reason);
+            }
+            healthy = false;
+        }
+
+        /** A health probe answered. */
+        public void markUp() {
+            if (!healthy) {
+                log.info("Hash SDK instance {} is back up", url);
+            }
+            healthy = true;
+        }
+    }
+}
@@ -7,17 +7,22 @@ import com.yoursp.uaepass.modules.auth.dto.StatePayload;
 import com.yoursp.uaepass.modules.hashsigning.dto.*;
 import com.yoursp.uaepass.modules.signature.dto.SigningJobStatusResponse;
 import com.yoursp.uaepass.repository.SigningJobRepository;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Base64Streams;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -28,8 +33,8 @@ import java.util.UUID;
  * <ul>
  * <li>POST /hashsign/initiate — Start single-doc hash signing</li>
  * <li>POST /hashsign/bulk/initiate — Start bulk hash signing</li>
- * <li>GET /hashsign/callback — OAuth callback (exchange code → sign)</li>
- * <li>GET /hashsign/status/{jobId} — Poll job status</li>
+ * <li>GET /hashsign/callback — OAuth callback (exchange code → sign in background)</li>
+ * <li>GET /hashsign/status/{jobId} — Poll job status and bulk progress</li>
  * </ul>
  */
 @Slf4j
@@ -39,10 +44,13 @@ import java.util.UUID;
 @SuppressWarnings("null")
 public class HashSigningController {
 
+    private static final List<String> HASH_SIGNING_TYPES = List.of("HASH", "HASH_BULK");
+
     private final SingleHashSignService singleService;
     private final BulkHashSignService bulkService;
     private final SigningJobRepository jobRepository;
     private final StateService stateService;
+    private final SigningJobDocumentService documentService;
 
     @Value("${app.frontend-url:http://localhost:4200}")
     private String frontendUrl;
@@ -79,18 +87,19 @@ public class HashSigningController {
         }
 
         try {
-            byte[] pdfBytes = Base64.getDecoder().decode(request.getFileBase64());
-
-            // Validate PDF
-            if (pdfBytes.length < 5 || pdfBytes[0] != '%' || pdfBytes[1] != 'P'
-                    || pdfBytes[2] != 'D' || pdfBytes[3] != 'F') {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "INVALID_PDF", "message", "File is not a valid PDF"));
+            try (SpooledUpload pdf = SpooledUpload.spool(Base64Streams.decoding(request.getFileBase64()))) {
+                // Validate PDF
+                byte[] head = pdf.head(5);
+                if (head.length < 5 || head[0] != '%' || head[1] != 'P'
+                        || head[2] != 'D' || head[3] != 'F') {
+                    return ResponseEntity.badRequest()
+                            .body(Map.of("error", "INVALID_PDF", "message", "File is not a valid PDF"));
+                }
+
+                HashSignJobDto result = singleService.initiate(user.getId(), pdf, request);
+                return ResponseEntity.ok(result);
             }
 
-            HashSignJobDto result = singleService.initiate(user.getId(), pdfBytes, request);
-            return ResponseEntity.ok(result);
-
         } catch (HashSignSdkUnavailableException e) {
             return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
                     .body(Map.of("error", "SDK_UNAVAILABLE", "message", e.getMessage()));
@@ -176,28 +185,58 @@ public class HashSigningController {
             return;
         }
 
-        SigningJob job = jobRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .filter(j -> "AWAITING_USER".equals(j.getStatus())
-                        && ("HASH".equals(j.getSigningType()) || "HASH_BULK".equals(j.getSigningType())))
-                .findFirst()
-                .orElse(null);
-
+        SigningJob job = resolveJob(statePayload);
         if (job == null) {
             response.sendRedirect(frontendUrl + "/hashsign/result?error=no_job");
             return;
         }
 
-        // Complete signing (based on type)
-        if ("HASH_BULK".equals(job.getSigningType())) {
-            bulkService.completeBulk(job.getId(), accessToken);
-        } else {
-            singleService.complete(job.getId(), accessToken);
+        // Conditional AWAITING_USER → CALLBACK_RECEIVED: of two concurrent or
+        // repeated callbacks only one wins and starts a completion
+        if (jobRepository.transitionStatus(job.getId(), "AWAITING_USER", "CALLBACK_RECEIVED") == 0) {
+            log.warn("Hash sign callback for job {} already handled", job.getId());
+            response.sendRedirect(frontendUrl + "/hashsign/result?jobId=" + job.getId());
+            return;
+        }
+
+        // Complete signing in the background (based on type); the result page polls status
+        try {
+            if ("HASH_BULK".equals(job.getSigningType())) {
+                bulkService.completeBulk(job.getId(), accessToken);
+            } else {
+                singleService.complete(job.getId(), accessToken);
+            }
+        } catch (TaskRejectedException e) {
+            // The authorization code is spent — fail the job so the user can start over
+            log.error("Signing executor full, failing hash sign job {}", job.getId());
+            job.setStatus("FAILED");
+            job.setErrorMessage("Signing service busy — please try again");
+            jobRepository.save(job);
+            response.sendRedirect(frontendUrl + "/hashsign/result?jobId=" + job.getId() + "&error=busy");
+            return;
         }
 
         response.sendRedirect(frontendUrl + "/hashsign/result?jobId=" + job.getId());
     }
 
+    /**
+     * The job a callback completes. States carry the job id and resolve by
+     * primary key; states issued without one fall back to the user's latest
+     * AWAITING_USER hash job (one indexed row).
+     */
+    private SigningJob resolveJob(StatePayload statePayload) {
+        UUID userId = statePayload.userId();
+        if (statePayload.jobId() == null) {
+            return jobRepository.findFirstByUserIdAndStatusAndSigningTypeInOrderByCreatedAtDesc(
+                    userId, "AWAITING_USER", HASH_SIGNING_TYPES).orElse(null);
+        }
+        return jobRepository.findById(statePayload.jobId())
+                .filter(j -> userId.equals(j.getUserId())
+                        && "AWAITING_USER".equals(j.getStatus())
+                        && HASH_SIGNING_TYPES.contains(j.getSigningType()))
+                .orElse(null);
+    }
+
     // ================================================================
     // GET /hashsign/status/{jobId}
     // ================================================================
@@ -219,11 +258,16 @@ public class HashSigningController {
                 ? "/signature/download/" + jobId
                 : null;
 
+        boolean bulk = "HASH_BULK".equals(job.getSigningType());
+
         return ResponseEntity.ok(SigningJobStatusResponse.builder()
+                .jobId(job.getId())
                 .status(job.getStatus())
                 .downloadUrl(downloadUrl)
                 .errorMessage(job.getErrorMessage())
-                .ltvApplied(job.getLtvApplied())
+                .ltvApplied(Boolean.TRUE.equals(job.getLtvApplied()))
+                .documentCount(job.getDocumentCount())
+                .documentsCompleted(bulk ? (int) documentService.countFinished(jobId) : null)
                 .build());
     }
 
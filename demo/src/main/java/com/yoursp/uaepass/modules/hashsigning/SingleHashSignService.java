@@ -1,6 +1,7 @@
 package com.yoursp.uaepass.modules.hashsigning;
 
 import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
 import com.yoursp.uaepass.modules.auth.StateService;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashSignInitiateRequest;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashSignJobDto;
@@ -8,14 +9,20 @@ import com.yoursp.uaepass.modules.hashsigning.dto.HashStartResult;
 import com.yoursp.uaepass.modules.signature.LtvService;
 import com.yoursp.uaepass.repository.SigningJobRepository;
 import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -39,6 +46,7 @@ public class SingleHashSignService {
         private final StorageService storageService;
         private final LtvService ltvService;
         private final AuditService auditService;
+        private final SigningJobDocumentService documentService;
 
         @Value("${uaepass.base-url:https://stg-id.uaepass.ae}")
         private String uaepassBaseUrl;
@@ -55,14 +63,14 @@ public class SingleHashSignService {
         /**
          * Initiate a single-document hash signing process.
          */
-        public HashSignJobDto initiate(UUID userId, byte[] pdfBytes, HashSignInitiateRequest params) {
+        public HashSignJobDto initiate(UUID userId, SpooledUpload pdf, HashSignInitiateRequest params) {
                 // Build signProp: "{page}:[{x},{y},{width},{height}]"
                 String signProp = params.getPageNumber() + ":["
                                 + params.getX() + "," + params.getY() + ","
                                 + params.getWidth() + "," + params.getHeight() + "]";
 
                 // Step 1: Call SDK /start
-                HashStartResult startResult = sdkClient.startProcess(pdfBytes, signProp);
+                HashStartResult startResult = sdkClient.startProcess(pdf.path(), signProp);
 
                 // Create signing job
                 SigningJob job = SigningJob.builder()
@@ -77,17 +85,22 @@ public class SingleHashSignService {
                 SigningJob saved = jobRepository.save(job);
 
                 // Store unsigned PDF
-                storageService.upload(pdfBytes,
+                storageService.upload(pdf.path(),
                                 "hashsign/unsigned/" + saved.getId() + ".pdf", "application/pdf");
 
-                // Store txId + digest in documents JSONB for later retrieval
-                saved.setDocuments(
-                                "{\"txId\":\"" + startResult.getTxId()
-                                                + "\",\"digest\":\"" + startResult.getDigest()
-                                                + "\",\"signProp\":\"" + signProp + "\"}");
+                // Store txId + digest + issuing SDK instance for later retrieval
+                documentService.createAll(saved.getId(), List.of(SigningJobDocument.builder()
+                                .docIndex(0)
+                                .txId(startResult.getTxId())
+                                .signIdentityId(startResult.getSignIdentityId())
+                                .sdkUrl(startResult.getSdkUrl())
+                                .digest(startResult.getDigest())
+                                .signProp(signProp)
+                                .status(SigningJobDocumentService.PENDING)
+                                .build()));
 
                 // Step 2: Generate state and build auth URL
-                String state = stateService.generateState("HASH_SIGN", null, userId);
+                String state = stateService.generateState("HASH_SIGN", null, userId, saved.getId());
 
                 String signingUrl = UriComponentsBuilder
                                 .fromUriString(uaepassBaseUrl + "/trustedx-authserver/oauth/hsign-as")
@@ -118,7 +131,9 @@ public class SingleHashSignService {
 
         /**
          * Complete single-document hash signing after callback.
+         * Runs on {@code signatureExecutor} — the callback redirects without waiting.
          */
+        @Async("signatureExecutor")
         public void complete(UUID jobId, String accessToken) {
                 SigningJob job = jobRepository.findById(jobId)
                                 .orElseThrow(() -> new RuntimeException("Signing job not found: " + jobId));
@@ -126,31 +141,45 @@ public class SingleHashSignService {
                 job.setStatus("CALLBACK_RECEIVED");
                 jobRepository.save(job);
 
+                SigningJobDocument document = null;
                 try {
-                        // Parse txId and signIdentityId from documents JSONB
-                        String docs = job.getDocuments();
-                        String txId = extractJsonField(docs, "txId");
+                        List<SigningJobDocument> documents = documentService.forJob(job);
+                        if (documents.isEmpty()) {
+                                throw new IllegalStateException("No document recorded for hash signing job " + jobId);
+                        }
+                        document = documents.get(0);
+                        String txId = document.getTxId();
                         String signIdentityId = job.getSignIdentityId();
 
-                        // Step 3: Call SDK /sign with access token
-                        byte[] signedPdf = sdkClient.signDocument(txId, signIdentityId, accessToken);
-
-                        // Store signed PDF
-                        storageService.upload(signedPdf,
-                                        "hashsign/signed/" + jobId + ".pdf", "application/pdf");
-
-                        job.setStatus("COMPLETING");
-                        jobRepository.save(job);
-
-                        // Apply LTV (mandatory)
-                        byte[] ltvPdf = ltvService.applyLtv(signedPdf, jobId);
-                        boolean ltvApplied = ltvPdf != signedPdf;
-
-                        if (ltvApplied) {
-                                storageService.upload(ltvPdf,
-                                                "hashsign/signed-ltv/" + jobId + ".pdf", "application/pdf");
+                        // Step 3: Call SDK /sign with access token, streaming the signed PDF to disk
+                        Path signedFile = Files.createTempFile("hashsign-", ".pdf");
+                        String signedKey = "hashsign/signed/" + jobId + ".pdf";
+                        String ltvKey = null;
+                        boolean ltvApplied;
+                        try {
+                                sdkClient.signDocument(document.getSdkUrl(), txId, signIdentityId, accessToken,
+                                                signedFile);
+
+                                // Store signed PDF
+                                storageService.upload(signedFile, signedKey, "application/pdf");
+
+                                job.setStatus("COMPLETING");
+                                jobRepository.save(job);
+
+                                // Apply LTV (mandatory; the LTV SOAP call takes the PDF in memory)
+                                byte[] signedPdf = Files.readAllBytes(signedFile);
+                                byte[] ltvPdf = ltvService.applyLtv(signedPdf, jobId);
+                                ltvApplied = ltvPdf != signedPdf;
+
+                                if (ltvApplied) {
+                                        ltvKey = "hashsign/signed-ltv/" + jobId + ".pdf";
+                                        storageService.upload(ltvPdf, ltvKey, "application/pdf");
+                                }
+                        } finally {
+                                Files.deleteIfExists(signedFile);
                         }
 
+                        documentService.markSigned(document.getId(), signedKey, ltvKey);
                         job.setStatus("SIGNED");
                         job.setLtvApplied(ltvApplied);
                         job.setCompletedAt(OffsetDateTime.now());
@@ -164,20 +193,13 @@ public class SingleHashSignService {
 
                 } catch (Exception e) {
                         log.error("Hash sign completion failed: jobId={}, error={}", jobId, e.getMessage());
+                        if (document != null) {
+                                documentService.markFailed(document.getId(), e.getMessage());
+                        }
                         job.setStatus("FAILED");
                         job.setErrorMessage(e.getMessage());
                         job.setCompletedAt(OffsetDateTime.now());
                         jobRepository.save(job);
                 }
         }
-
-        private String extractJsonField(String json, String field) {
-                String key = "\"" + field + "\":\"";
-                int start = json.indexOf(key);
-                if (start < 0)
-                        return null;
-                start += key.length();
-                int end = json.indexOf("\"", start);
-                return end > start ? json.substring(start, end) : null;
-        }
 }
@@ -19,4 +19,10 @@ public class HashStartResult {
     private String signIdentityId;
     /** SHA-256 hex digest of the prepared PDF (with ByteRange reservation). */
     private String digest;
+    /** SDK instance that issued the txId — /sign must go back to it. */
+    private String sdkUrl;
+
+    public HashStartResult(String txId, String signIdentityId, String digest) {
+        this(txId, signIdentityId, digest, null);
+    }
 }
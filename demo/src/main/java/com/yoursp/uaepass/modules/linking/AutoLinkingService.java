@@ -1,12 +1,10 @@
 package com.yoursp.uaepass.modules.linking;
 
 import com.yoursp.uaepass.model.entity.User;
-import com.yoursp.uaepass.modules.auth.CryptoUtil;
 import com.yoursp.uaepass.repository.UserRepository;
 import com.yoursp.uaepass.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,7 +20,7 @@ import java.util.Optional;
  * <h3>Strategy:</h3>
  * <ol>
  * <li>Look up by uaepass_uuid — if found, user is already linked</li>
- * <li>For SOP2/SOP3: encrypt incoming idn → look up by encrypted idn →
+ * <li>For SOP2/SOP3: look up by the idn blind index ({@link IdnBlindIndex}) →
  * auto-link</li>
  * <li>SOP1 visitors: ONLY uuid-based lookup (no idn available)</li>
  * <li>If nothing matches → return null (caller creates new user)</li>
@@ -35,9 +33,7 @@ public class AutoLinkingService {
 
     private final UserRepository userRepository;
     private final AuditService auditService;
-
-    @Value("${idn.encryption-key}")
-    private String idnEncryptionKey;
+    private final IdnBlindIndex idnBlindIndex;
 
     /**
      * Attempt to find an existing SP user for the incoming UAE PASS identity.
@@ -61,8 +57,10 @@ public class AutoLinkingService {
         if (incomingIdn != null && !incomingIdn.isBlank()
                 && ("SOP2".equals(userType) || "SOP3".equals(userType))) {
 
-            String encryptedIdn = CryptoUtil.encryptAES256(incomingIdn, idnEncryptionKey);
-            Optional<User> byIdn = userRepository.findByIdn(encryptedIdn);
+            String idnBidx = idnBlindIndex.compute(incomingIdn);
+            Optional<User> byIdn = idnBidx != null
+                    ? userRepository.findByIdnBidx(idnBidx)
+                    : Optional.empty();
 
             if (byIdn.isPresent()) {
                 User user = byIdn.get();
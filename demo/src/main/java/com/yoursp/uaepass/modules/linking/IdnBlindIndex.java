@@ -0,0 +1,70 @@
+package com.yoursp.uaepass.modules.linking;
+
+import com.yoursp.uaepass.util.Hex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+/**
+ * Blind index for Emirates IDs: {@code hex(HMAC-SHA256(key, digits(idn)))}.
+ * <ul>
+ * <li>Deterministic, so {@code users.idn_bidx} can carry a unique index and
+ * auto-linking is a single index lookup — the encrypted {@code idn} column
+ * uses a random IV and can never be matched</li>
+ * <li>Only digits are kept, so {@code 784-1990-1234567-1} and
+ * {@code 784199012345671} give the same value</li>
+ * <li>The key ({@code idn.blind-index-key}) is separate from the encryption
+ * key; changing it requires recomputing the column</li>
+ * </ul>
+ */
+@Component
+public class IdnBlindIndex {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    public IdnBlindIndex(@Value("${idn.blind-index-key}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        newMac(); // fail at startup on a bad key, not on first login
+    }
+
+    /**
+     * @return the 64-char hex index, or null if {@code idn} has no digits
+     */
+    public String compute(String idn) {
+        if (idn == null) {
+            return null;
+        }
+        byte[] digits = new byte[idn.length()];
+        int n = 0;
+        for (int i = 0; i < idn.length(); i++) {
+            char c = idn.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits[n++] = (byte) c;
+            }
+        }
+        if (n == 0) {
+            return null;
+        }
+        Mac m = mac.get();
+        m.update(digits, 0, n);
+        return Hex.encode(m.doFinal());
+    }
+
+    private Mac newMac() {
+        try {
+            Mac m = Mac.getInstance(ALGORITHM);
+            m.init(key);
+            return m;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.yoursp.uaepass.modules.linking;
+
+import com.yoursp.uaepass.modules.auth.AesGcmCrypto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fills {@code users.idn_bidx} for rows written before the blind index existed.
+ * <ul>
+ * <li>Walks rows with an idn but no index in id order, one batch of
+ * {@code idn.blind-index.backfill-batch-size} at a time</li>
+ * <li>Each batch is decrypted in memory and written as one JDBC batch; the
+ * UPDATE only touches rows still unindexed, so instances can run it
+ * concurrently</li>
+ * <li>Rows that cannot be decrypted, or whose idn is already indexed for
+ * another user, are logged and skipped</li>
+ * <li>Stops running once a pass finds nothing to do</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class IdnBlindIndexBackfill {
+
+    private static final String SELECT_SQL = "SELECT id, idn FROM users "
+            + "WHERE idn IS NOT NULL AND idn_bidx IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE users SET idn_bidx = ? WHERE id = ? AND idn_bidx IS NULL";
+    /** Lowest uuid in PostgreSQL's (unsigned, byte-wise) ordering. */
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AesGcmCrypto idnCrypto;
+    private final IdnBlindIndex idnBlindIndex;
+    private final int batchSize;
+
+    private volatile boolean complete;
+
+    public IdnBlindIndexBackfill(JdbcTemplate jdbcTemplate,
+            @Qualifier("idnCrypto") AesGcmCrypto idnCrypto,
+            IdnBlindIndex idnBlindIndex,
+            @Value("${idn.blind-index.backfill-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idnCrypto = idnCrypto;
+        this.idnBlindIndex = idnBlindIndex;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * One pass over all unindexed rows.
+     *
+     * @return number of rows indexed
+     */
+    @Scheduled(initialDelay = 30_000, fixedDelay = 3_600_000)
+    public int backfill() {
+        if (complete) {
+            return 0;
+        }
+        int indexed = 0;
+        boolean found = false;
+        UUID after = FIRST_ID;
+        try {
+            List<Map<String, Object>> rows;
+            do {
+                rows = jdbcTemplate.queryForList(SELECT_SQL, after, batchSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                found = true;
+                after = (UUID) rows.get(rows.size() - 1).get("id");
+                indexed += writeBatch(rows);
+            } while (rows.size() == batchSize);
+        } catch (Exception e) {
+            log.warn("idn blind index backfill interrupted after {} row(s): {}", indexed, e.getMessage());
+            return indexed;
+        }
+        if (found) {
+            log.info("idn blind index backfill indexed {} user(s)", indexed);
+        } else {
+            complete = true;
+        }
+        return indexed;
+    }
+
+    private int writeBatch(List<Map<String, Object>> rows) {
+        List<Object[]> batch = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            UUID id = (UUID) row.get("id");
+            try {
+                String bidx = idnBlindIndex.compute(idnCrypto.decrypt((String) row.get("idn")));
+                if (bidx != null) {
+                    batch.add(new Object[] { bidx, id });
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping user {} in idn blind index backfill: {}", id, e.getMessage());
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            return sum(jdbcTemplate.batchUpdate(UPDATE_SQL, batch));
+        } catch (DataIntegrityViolationException e) {
+            // Two users share an idn — retry row by row so the rest still get indexed
+            int indexed = 0;
+            for (Object[] args : batch) {
+                try {
+                    indexed += jdbcTemplate.update(UPDATE_SQL, args);
+                } catch (DataIntegrityViolationException dup) {
+                    log.warn("idn of user {} is already indexed for another user; not indexing", args[1]);
+                }
+            }
+            return indexed;
+        }
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
@@ -1,6 +1,8 @@
 package com.yoursp.uaepass.modules.linking;
 
 import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.modules.auth.SessionCache;
+import com.yoursp.uaepass.modules.auth.SessionRevocationList;
 import com.yoursp.uaepass.modules.linking.exception.LinkConflictException;
 import com.yoursp.uaepass.repository.UserRepository;
 import com.yoursp.uaepass.repository.UserSessionRepository;
@@ -32,6 +34,8 @@ public class ManualLinkingService {
         private final UserRepository userRepository;
         private final UserSessionRepository sessionRepository;
         private final AuditService auditService;
+        private final SessionCache sessionCache;
+        private final SessionRevocationList revocationList;
 
         /**
          * Manually link a UAE PASS identity to an SP user.
@@ -68,6 +72,7 @@ public class ManualLinkingService {
                 spUser.setUaepassUuid(uaepassUuid);
                 spUser.setLinkedAt(OffsetDateTime.now());
                 userRepository.save(spUser);
+                sessionCache.evictUser(spUserId);
 
                 log.info("Manually linked user {} to uaepass_uuid {}", spUserId, uaepassUuid);
 
@@ -111,6 +116,8 @@ public class ManualLinkingService {
 
                 // Invalidate ALL sessions for this user
                 sessionRepository.deleteByUserId(spUserId);
+                sessionCache.revokeUser(spUserId);
+                revocationList.revokeUser(spUserId);
 
                 log.info("Unlinked user {} (previous uaepass_uuid={})", spUserId, previousUuid);
 
@@ -2,8 +2,10 @@ package com.yoursp.uaepass.modules.linking;
 
 import com.yoursp.uaepass.config.UaePassProperties;
 import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.modules.auth.IdTokenValidator;
 import com.yoursp.uaepass.modules.auth.StateService;
 import com.yoursp.uaepass.modules.auth.dto.StatePayload;
+import com.yoursp.uaepass.modules.auth.exception.InvalidIdTokenException;
 import com.yoursp.uaepass.modules.auth.exception.InvalidStateException;
 import com.yoursp.uaepass.modules.linking.dto.LinkConflictResponse;
 import com.yoursp.uaepass.modules.linking.dto.LinkStatusResponse;
@@ -44,6 +46,7 @@ public class UserLinkingController {
 
     private final UaePassProperties uaePassProperties;
     private final StateService stateService;
+    private final IdTokenValidator idTokenValidator;
     private final ManualLinkingService manualLinkingService;
     private final UserRepository userRepository;
     private final RestTemplate restTemplate;
@@ -130,8 +133,19 @@ public class UserLinkingController {
             return;
         }
 
-        // Fetch user info from UAE PASS
-        Map<String, Object> userInfo = fetchUserInfo(accessToken);
+        // Only the uuid is needed — take it from the validated id_token if present
+        Map<String, Object> userInfo;
+        try {
+            userInfo = idTokenValidator.claimsIfSufficient(
+                    (String) tokenResponse.get("id_token"), IdTokenValidator.UUID_CLAIMS);
+        } catch (InvalidIdTokenException ex) {
+            log.warn("Invalid id_token during link callback: {}", ex.getMessage());
+            response.sendRedirect(frontendUrl + "/settings?link_error=invalid_id_token");
+            return;
+        }
+        if (userInfo == null) {
+            userInfo = fetchUserInfo(accessToken);
+        }
         String uaepassUuid = (String) userInfo.get("uuid");
 
         if (uaepassUuid == null || uaepassUuid.isBlank()) {
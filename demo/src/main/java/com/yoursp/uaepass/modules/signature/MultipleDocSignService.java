@@ -1,13 +1,14 @@
 package com.yoursp.uaepass.modules.signature;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
 import com.yoursp.uaepass.modules.signature.dto.MultiDocRequest;
 import com.yoursp.uaepass.modules.signature.dto.SignInitiateResponse;
 import com.yoursp.uaepass.repository.SigningJobRepository;
 import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
 import com.yoursp.uaepass.service.storage.StorageService;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
@@ -27,8 +28,8 @@ import java.util.*;
 /**
  * Multi-document signing flow with UAE PASS eSign SP v2 API.
  * <p>
- * Uploads multiple PDFs in a single signer_process and handles per-document
- * status tracking in the signing_jobs.documents JSONB column.
+ * Uploads multiple PDFs in a single signer_process and tracks per-document
+ * status in signing_job_documents.
  * </p>
  */
 @SuppressWarnings({ "null", "rawtypes" })
@@ -44,6 +45,7 @@ public class MultipleDocSignService {
     private final AuditService auditService;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final SigningJobDocumentService documentService;
 
     @Value("${signature.sign-api-base}")
     private String signApiBase;
@@ -112,7 +114,6 @@ public class MultipleDocSignService {
 
         String signerProcessId = (String) respBody.get("id");
         String signingUrl = extractSigningUrl(respBody);
-        String documentsJson = serializeDocuments(respBody);
 
         SigningJob job = SigningJob.builder()
                 .userId(userId)
@@ -120,13 +121,13 @@ public class MultipleDocSignService {
                 .signingType("MULTIPLE")
                 .status("INITIATED")
                 .documentCount(docs.size())
-                .documents(documentsJson)
                 .finishCallbackUrl(appBaseUrl + "/signature/callback")
                 .initiatedAt(OffsetDateTime.now())
                 .expiresAt(OffsetDateTime.now().plusMinutes(60))
                 .build();
 
         SigningJob saved = jobRepository.save(job);
+        documentService.createAll(saved.getId(), toDocuments(respBody, docs));
 
         // Store unsigned PDFs
         for (int i = 0; i < docs.size(); i++) {
@@ -171,17 +172,15 @@ public class MultipleDocSignService {
 
         try {
             String spToken = spTokenService.getSpAccessToken();
-            List<Map<String, Object>> docs = objectMapper.readValue(job.getDocuments(),
-                    new TypeReference<List<Map<String, Object>>>() {
-                    });
+            List<SigningJobDocument> docs = documentService.forJob(job);
 
             job.setStatus("COMPLETING");
             jobRepository.save(job);
 
             int successCount = 0;
-            for (int i = 0; i < docs.size(); i++) {
-                Map<String, Object> doc = docs.get(i);
-                String docUrl = (String) doc.get("url");
+            for (SigningJobDocument doc : docs) {
+                int i = doc.getDocIndex();
+                String docUrl = doc.getDocumentUrl();
                 try {
                     // Download signed doc
                     HttpHeaders headers = new HttpHeaders();
@@ -192,38 +191,37 @@ public class MultipleDocSignService {
 
                     byte[] signedPdf = docResponse.getBody();
                     if (signedPdf != null && signedPdf.length > 0) {
-                        storageService.upload(signedPdf,
-                                "signed/" + job.getId() + "_" + i + ".pdf", "application/pdf");
+                        String signedKey = "signed/" + job.getId() + "_" + i + ".pdf";
+                        storageService.upload(signedPdf, signedKey, "application/pdf");
 
                         // Apply LTV
                         byte[] ltvPdf = ltvService.applyLtv(signedPdf, job.getId());
+                        String ltvKey = null;
                         if (ltvPdf != signedPdf) {
-                            storageService.upload(ltvPdf,
-                                    "signed-ltv/" + job.getId() + "_" + i + ".pdf", "application/pdf");
+                            ltvKey = "signed-ltv/" + job.getId() + "_" + i + ".pdf";
+                            storageService.upload(ltvPdf, ltvKey, "application/pdf");
                         }
-                        doc.put("status", "SIGNED");
+                        documentService.markSigned(doc.getId(), signedKey, ltvKey);
                         successCount++;
                     } else {
-                        doc.put("status", "FAILED");
+                        documentService.markFailed(doc.getId(), "Empty signed document");
                     }
                 } catch (Exception e) {
                     log.error("Failed to download/process doc {} for job {}: {}",
                             i, job.getId(), e.getMessage());
-                    doc.put("status", "FAILED");
+                    documentService.markFailed(doc.getId(), e.getMessage());
                 }
             }
 
-            // Update documents JSON with per-doc status
-            job.setDocuments(objectMapper.writeValueAsString(docs));
             job.setStatus(successCount == docs.size() ? "SIGNED" : "FAILED_DOCUMENTS");
             job.setLtvApplied(successCount > 0);
             job.setCompletedAt(OffsetDateTime.now());
             jobRepository.save(job);
 
             // Cleanup
-            for (Map<String, Object> doc : docs) {
+            for (SigningJobDocument doc : docs) {
                 try {
-                    String docUrl = (String) doc.get("url");
+                    String docUrl = doc.getDocumentUrl();
                     if (docUrl != null) {
                         HttpHeaders h = new HttpHeaders();
                         h.setBearerAuth(spToken);
@@ -275,12 +273,26 @@ public class MultipleDocSignService {
         return signApiBase.replace("/v2", "/v2/ui") + "?signerProcessId=" + respBody.get("id");
     }
 
-    private String serializeDocuments(Map<String, Object> resp) {
-        try {
-            return objectMapper.writeValueAsString(resp.get("documents"));
-        } catch (JsonProcessingException e) {
-            return "[]";
+    /**
+     * One row per uploaded document, with its URL in the signer process. The
+     * response lists documents in upload order; the request supplies the names.
+     */
+    @SuppressWarnings("unchecked")
+    private List<SigningJobDocument> toDocuments(Map<String, Object> resp, List<MultiDocRequest> docs) {
+        List<Map<String, Object>> respDocs = resp.get("documents") instanceof List<?> list
+                ? (List<Map<String, Object>>) list
+                : List.of();
+        List<SigningJobDocument> documents = new ArrayList<>(docs.size());
+        for (int i = 0; i < docs.size(); i++) {
+            Map<String, Object> respDoc = i < respDocs.size() ? respDocs.get(i) : Map.of();
+            documents.add(SigningJobDocument.builder()
+                    .docIndex(i)
+                    .fileName(docs.get(i).getFileName())
+                    .documentUrl((String) respDoc.get("url"))
+                    .status(SigningJobDocumentService.PENDING)
+                    .build());
         }
+        return documents;
     }
 
     @SuppressWarnings("unused")
@@ -5,10 +5,13 @@ import com.yoursp.uaepass.model.entity.SigningJob;
 import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.modules.signature.dto.SignInitiateRequest;
 import com.yoursp.uaepass.modules.signature.dto.SignInitiateResponse;
+import com.yoursp.uaepass.modules.signature.dto.SigningJobDocumentResponse;
 import com.yoursp.uaepass.modules.signature.dto.SigningJobStatusResponse;
 import com.yoursp.uaepass.modules.signature.dto.VerificationResult;
 import com.yoursp.uaepass.repository.SigningJobRepository;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -20,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -31,6 +35,7 @@ import java.util.UUID;
  * <li>POST /signature/initiate — Start single-doc signing</li>
  * <li>GET /signature/callback — UAE PASS callback (async processing)</li>
  * <li>GET /signature/status/{jobId} — Poll job status</li>
+ * <li>GET /signature/status/{jobId}/documents — Per-document status (multi-document and hash jobs)</li>
  * <li>GET /signature/download/{jobId} — Download signed PDF</li>
  * <li>POST /signature/verify — Verify a signed PDF</li>
  * </ul>
@@ -47,6 +52,7 @@ public class SignatureController {
     private final SignatureVerificationService verificationService;
     private final SigningJobRepository jobRepository;
     private final StorageService storageService;
+    private final SigningJobDocumentService documentService;
 
     @Value("${app.frontend-url:http://localhost:4200}")
     private String frontendUrl;
@@ -151,6 +157,34 @@ public class SignatureController {
                 .build());
     }
 
+    // ================================================================
+    // GET /signature/status/{jobId}/documents
+    // ================================================================
+
+    @GetMapping("/status/{jobId}/documents")
+    public ResponseEntity<List<SigningJobDocumentResponse>> documents(@PathVariable UUID jobId,
+            HttpServletRequest httpRequest) {
+        User user = getCurrentUser(httpRequest);
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        SigningJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || !job.getUserId().equals(user.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(documentService.forJob(job).stream()
+                .map(d -> SigningJobDocumentResponse.builder()
+                        .index(d.getDocIndex())
+                        .fileName(d.getFileName())
+                        .status(d.getStatus())
+                        .ltvApplied(d.getLtvKey() != null)
+                        .errorMessage(d.getErrorMessage())
+                        .build())
+                .toList());
+    }
+
     // ================================================================
     // GET /signature/download/{jobId}
     // ================================================================
@@ -194,9 +228,8 @@ public class SignatureController {
 
     @PostMapping("/verify")
     public ResponseEntity<VerificationResult> verify(@RequestParam("file") MultipartFile file) {
-        try {
-            byte[] pdfBytes = file.getBytes();
-            VerificationResult result = verificationService.verifySignature(pdfBytes);
+        try (SpooledUpload pdf = SpooledUpload.spool(file)) {
+            VerificationResult result = verificationService.verifySignature(pdf);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Verification failed: {}", e.getMessage());
@@ -1,13 +1,12 @@
 package com.yoursp.uaepass.modules.signature;
 
 import com.yoursp.uaepass.modules.signature.dto.VerificationResult;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
-
 /**
  * Verifies digital signatures on signed PDFs via UAE PASS SOAP Verification
  * API.
@@ -32,11 +31,11 @@ public class SignatureVerificationService {
     /**
      * Verify signatures in a signed PDF.
      *
-     * @param signedPdf the signed PDF bytes
+     * @param signedPdf the spooled signed PDF
      * @return verification result with signer identity and validity
      */
     @CircuitBreaker(name = "signVerify", fallbackMethod = "verifyFallback")
-    public VerificationResult verifySignature(byte[] signedPdf) {
+    public VerificationResult verifySignature(SpooledUpload signedPdf) {
         if (verifySoapEndpoint == null || verifySoapEndpoint.isBlank()) {
             log.warn("Verification SOAP endpoint not configured — returning unverified result");
             return VerificationResult.builder()
@@ -49,7 +48,7 @@ public class SignatureVerificationService {
         log.info("Verifying signature via {}", verifySoapEndpoint);
 
         try {
-            String base64Pdf = Base64.getEncoder().encodeToString(signedPdf);
+            String base64Pdf = signedPdf.toBase64();
             String soapEnvelope = buildVerifySoapEnvelope(base64Pdf);
 
             java.net.http.HttpClient httpClient = java.net.http.HttpClient.newHttpClient();
@@ -148,7 +147,7 @@ public class SignatureVerificationService {
     }
 
     @SuppressWarnings("unused")
-    private VerificationResult verifyFallback(byte[] signedPdf, Throwable t) {
+    private VerificationResult verifyFallback(SpooledUpload signedPdf, Throwable t) {
         log.warn("Verification circuit breaker open: {}", t.getMessage());
         return VerificationResult.builder()
                 .valid(false)
@@ -2,23 +2,41 @@ package com.yoursp.uaepass.modules.signature;
 
 import com.yoursp.uaepass.config.UaePassProperties;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Manages the SP-level access token (client_credentials grant).
  * <ul>
  * <li>Used for signing API calls (NOT user-level token)</li>
- * <li>Cached in Redis with key {@code sp_sign_token}</li>
- * <li>TTL = expires_in - 60 seconds (buffer before actual expiry)</li>
+ * <li>Held in memory with its absolute expiry — a cache hit is a volatile
+ * read — and shared through Redis key {@code sp_sign_token}</li>
+ * <li>Refreshed in the background once {@code signature.sp-token.refresh-ahead-fraction}
+ * of its lifetime has passed; callers keep the current token meanwhile</li>
+ * <li>One refresh per instance at a time, and one fetch across instances
+ * through the Redis lock {@code sp_sign_token_lock}; the others pick the new
+ * token up from Redis</li>
+ * <li>A token is not handed out within 60 seconds of its expiry</li>
  * <li>Circuit breaker: opens after 3 failures, half-open after 30s</li>
  * </ul>
  */
@@ -28,11 +46,27 @@ import java.util.concurrent.TimeUnit;
 public class SpTokenService {
 
     private static final String REDIS_KEY = "sp_sign_token";
-    private static final long TTL_BUFFER_SECONDS = 60;
+    private static final String LOCK_KEY = "sp_sign_token_lock";
+    private static final long EXPIRY_BUFFER_MS = 60_000;
+    private static final long LOCK_POLL_MS = 100;
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0",
+            Long.class);
 
     private final WebClient webClient;
     private final StringRedisTemplate redisTemplate;
     private final UaePassProperties uaePassProperties;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicReference<CompletableFuture<SpToken>> inFlight = new AtomicReference<>();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "sp-token-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile SpToken current;
 
     @Value("${signature.sp-token-url}")
     private String spTokenUrl;
@@ -40,6 +74,13 @@ public class SpTokenService {
     @Value("${signature.sign-scope}")
     private String signScope;
 
+    @Value("${signature.sp-token.refresh-ahead-fraction:0.75}")
+    private double refreshAheadFraction = 0.75;
+
+    /** How long a fetch may hold the cross-instance lock, and how long others wait on it. */
+    @Value("${signature.sp-token.lock-timeout-ms:10000}")
+    private long lockTimeoutMs = 10_000;
+
     public SpTokenService(WebClient.Builder webClientBuilder,
             StringRedisTemplate redisTemplate,
             UaePassProperties uaePassProperties) {
@@ -49,19 +90,122 @@ public class SpTokenService {
     }
 
     /**
-     * Get a valid SP access token. Returns cached token if available.
+     * Get a valid SP access token, from memory when possible.
      */
     @CircuitBreaker(name = "spToken", fallbackMethod = "getSpTokenFallback")
     public String getSpAccessToken() {
-        // Check Redis cache first
-        String cached = redisTemplate.opsForValue().get(REDIS_KEY);
-        if (cached != null) {
-            log.debug("Using cached SP token (first 8 chars: {}...)",
-                    cached.substring(0, Math.min(8, cached.length())));
-            return cached;
+        SpToken token = current;
+        long now = System.currentTimeMillis();
+        if (token != null && now < token.refreshAt()) {
+            return token.value();
+        }
+        if (token != null && token.isUsable(now)) {
+            refresh(true);
+            return token.value();
+        }
+        return await(refresh(false)).value();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    @SuppressWarnings("unused")
+    private String getSpTokenFallback(Throwable t) {
+        log.error("Circuit breaker open — SP token fetch failed: {}", t.getMessage());
+        long now = System.currentTimeMillis();
+        SpToken token = current;
+        if (token == null || !token.isUsable(now)) {
+            token = readShared();
+        }
+        if (token != null && token.isUsable(now)) {
+            log.warn("Returning cached SP token (expires in {}s)", (token.expiresAt() - now) / 1000);
+            return token.value();
+        }
+        throw new RuntimeException("SP token unavailable — circuit breaker open", t);
+    }
+
+    /**
+     * Start a refresh unless one is already running on this instance.
+     *
+     * @param background run on the refresher thread instead of the caller's
+     */
+    private CompletableFuture<SpToken> refresh(boolean background) {
+        CompletableFuture<SpToken> mine = new CompletableFuture<>();
+        CompletableFuture<SpToken> leader = inFlight.compareAndExchange(null, mine);
+        if (leader != null) {
+            return leader;
+        }
+        Runnable task = () -> {
+            try {
+                SpToken token = loadOrFetch();
+                current = token;
+                mine.complete(token);
+            } catch (Throwable e) {
+                log.warn("SP token refresh failed: {}", e.getMessage());
+                mine.completeExceptionally(e);
+            } finally {
+                inFlight.compareAndSet(mine, null);
+            }
+        };
+        if (!background) {
+            task.run();
+            return mine;
+        }
+        try {
+            refresher.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.compareAndSet(mine, null);
+        }
+        return mine;
+    }
+
+    /**
+     * Take a fresher token from Redis if another instance fetched one,
+     * otherwise fetch under the cross-instance lock.
+     */
+    private SpToken loadOrFetch() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + lockTimeoutMs;
+        while (true) {
+            SpToken shared = readShared();
+            if (shared != null && isNewer(shared)) {
+                return shared;
+            }
+            Boolean locked = tryLock();
+            if (locked == null || locked) {
+                try {
+                    // Re-check: the previous holder may have finished just now
+                    shared = locked == null ? null : readShared();
+                    if (shared != null && isNewer(shared)) {
+                        return shared;
+                    }
+                    SpToken fetched = fetch();
+                    writeShared(fetched);
+                    return fetched;
+                } finally {
+                    if (locked != null) {
+                        releaseLock();
+                    }
+                }
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                // Holder is stuck or gone — do not keep signing waiting on it
+                log.warn("SP token lock held for over {}ms, fetching without it", lockTimeoutMs);
+                return fetch();
+            }
+            TimeUnit.MILLISECONDS.sleep(LOCK_POLL_MS);
         }
+    }
+
+    /** True if {@code shared} is usable and would not itself be refreshed yet. */
+    private boolean isNewer(SpToken shared) {
+        long now = System.currentTimeMillis();
+        SpToken local = current;
+        return now < shared.refreshAt() && (local == null || shared.expiresAt() > local.expiresAt());
+    }
 
-        // Fetch new token via client_credentials grant
+    private SpToken fetch() {
         log.info("Fetching new SP access token from {}", spTokenUrl);
 
         @SuppressWarnings("unchecked")
@@ -86,25 +230,99 @@ public class SpTokenService {
                 ? ((Number) response.get("expires_in")).intValue()
                 : 3600;
 
-        // Cache with buffer
-        long ttl = Math.max(expiresIn - TTL_BUFFER_SECONDS, 60);
-        redisTemplate.opsForValue().set(REDIS_KEY, token, ttl, TimeUnit.SECONDS);
+        long issuedAt = System.currentTimeMillis();
+        long lifetimeMs = TimeUnit.SECONDS.toMillis(expiresIn);
+        long expiresAt = issuedAt + lifetimeMs;
+        // Never later than the point the token stops being handed out
+        long refreshAt = Math.min(issuedAt + (long) (lifetimeMs * refreshAheadFraction),
+                expiresAt - EXPIRY_BUFFER_MS);
+        SpToken fetched = new SpToken(token, refreshAt, expiresAt);
 
-        log.info("SP token cached for {}s (first 8 chars: {}...)", ttl,
+        log.info("SP token obtained, valid for {}s (first 8 chars: {}...)", expiresIn,
                 token.substring(0, Math.min(8, token.length())));
+        return fetched;
+    }
 
-        return token;
+    // ---------------------------------------------------------------- Redis
+
+    /** Stored as {@code refreshAtMillis:expiresAtMillis:token}. */
+    private SpToken readShared() {
+        try {
+            String raw = redisTemplate.opsForValue().get(REDIS_KEY);
+            if (raw == null) {
+                return null;
+            }
+            int first = raw.indexOf(':');
+            int second = raw.indexOf(':', first + 1);
+            if (first < 0 || second < 0) {
+                return null;
+            }
+            SpToken token = new SpToken(raw.substring(second + 1),
+                    Long.parseLong(raw.substring(0, first)),
+                    Long.parseLong(raw.substring(first + 1, second)));
+            return token.isUsable(System.currentTimeMillis()) ? token : null;
+        } catch (NumberFormatException e) {
+            return null; // value from an older release
+        } catch (Exception e) {
+            log.warn("SP token read from Redis failed: {}", e.getMessage());
+            return null;
+        }
     }
 
-    @SuppressWarnings("unused")
-    private String getSpTokenFallback(Throwable t) {
-        log.error("Circuit breaker open — SP token fetch failed: {}", t.getMessage());
-        // Try returning cached even if technically expired
-        String cached = redisTemplate.opsForValue().get(REDIS_KEY);
-        if (cached != null) {
-            log.warn("Returning possibly stale cached SP token");
-            return cached;
+    private void writeShared(SpToken token) {
+        long ttlMs = token.expiresAt() - EXPIRY_BUFFER_MS - System.currentTimeMillis();
+        if (ttlMs <= 0) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY,
+                    token.refreshAt() + ":" + token.expiresAt() + ":" + token.value(), Duration.ofMillis(ttlMs));
+        } catch (Exception e) {
+            log.warn("SP token write to Redis failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return true if acquired, false if another instance holds it, null if
+     *         Redis is unavailable (the caller fetches without a lock)
+     */
+    private Boolean tryLock() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(LOCK_KEY, instanceId, Duration.ofMillis(lockTimeoutMs)));
+        } catch (Exception e) {
+            log.warn("SP token lock unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(LOCK_KEY), instanceId);
+        } catch (Exception e) {
+            log.debug("SP token lock release failed: {}", e.getMessage());
+        }
+    }
+
+    private static SpToken await(CompletableFuture<SpToken> refresh) {
+        try {
+            return refresh.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new RuntimeException("SP token refresh failed", e.getCause());
+        }
+    }
+
+    /**
+     * @param refreshAt epoch millis after which a refresh is started
+     * @param expiresAt epoch millis the token expires at
+     */
+    record SpToken(String value, long refreshAt, long expiresAt) {
+
+        boolean isUsable(long now) {
+            return now < expiresAt - EXPIRY_BUFFER_MS;
         }
-        throw new RuntimeException("SP token unavailable — circuit breaker open", t);
     }
 }
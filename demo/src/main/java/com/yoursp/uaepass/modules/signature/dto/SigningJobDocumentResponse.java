@@ -0,0 +1,18 @@
+package com.yoursp.uaepass.modules.signature.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * One entry of GET /signature/status/{jobId}/documents.
+ */
+@Getter
+@Builder
+public class SigningJobDocumentResponse {
+
+    private int index;
+    private String fileName;
+    private String status;
+    private boolean ltvApplied;
+    private String errorMessage;
+}
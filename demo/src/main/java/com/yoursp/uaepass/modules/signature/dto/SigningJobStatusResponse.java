@@ -18,4 +18,8 @@ public class SigningJobStatusResponse {
     private String downloadUrl;
     private String errorMessage;
     private boolean ltvApplied;
+
+    /** Bulk hash signing only: documents in the job, and how many are finished. */
+    private Integer documentCount;
+    private Integer documentsCompleted;
 }
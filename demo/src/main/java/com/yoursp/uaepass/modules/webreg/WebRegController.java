@@ -3,11 +3,14 @@ package com.yoursp.uaepass.modules.webreg;
 import com.yoursp.uaepass.config.UaePassProperties;
 import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.model.entity.UserSession;
-import com.yoursp.uaepass.modules.auth.CryptoUtil;
+import com.yoursp.uaepass.modules.auth.AesGcmCrypto;
+import com.yoursp.uaepass.modules.auth.IdTokenValidator;
 import com.yoursp.uaepass.modules.auth.SessionAuthFilter;
 import com.yoursp.uaepass.modules.auth.StateService;
+import com.yoursp.uaepass.modules.auth.StatelessSessionCodec;
 import com.yoursp.uaepass.modules.auth.UserSyncService;
 import com.yoursp.uaepass.modules.auth.dto.StatePayload;
+import com.yoursp.uaepass.modules.auth.exception.InvalidIdTokenException;
 import com.yoursp.uaepass.modules.auth.exception.InvalidStateException;
 import com.yoursp.uaepass.repository.UserSessionRepository;
 import com.yoursp.uaepass.service.AuditService;
@@ -16,6 +19,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.*;
@@ -56,6 +60,10 @@ public class WebRegController {
     private final UserSyncService userSyncService;
     private final UserSessionRepository sessionRepository;
     private final StringRedisTemplate redisTemplate;
+    @Qualifier("tokenCrypto")
+    private final AesGcmCrypto tokenCrypto;
+    private final StatelessSessionCodec statelessSessions;
+    private final IdTokenValidator idTokenValidator;
     private final RestTemplate restTemplate;
     private final AuditService auditService;
 
@@ -65,9 +73,6 @@ public class WebRegController {
     @Value("${app.base-url:http://localhost:8080}")
     private String appBaseUrl;
 
-    @Value("${token.encryption-key}")
-    private String tokenEncryptionKey;
-
     @Value("${sp.type:PRIVATE}")
     private String spType;
 
@@ -146,8 +151,19 @@ public class WebRegController {
             return;
         }
 
-        // Fetch user info
-        Map<String, Object> userInfo = fetchUserInfo(accessToken);
+        // User info — from the validated id_token when sufficient, else /userinfo
+        Map<String, Object> userInfo;
+        try {
+            userInfo = idTokenValidator.profileClaimsIfSufficient(
+                    (String) tokenResponse.get("id_token"));
+        } catch (InvalidIdTokenException ex) {
+            log.warn("Invalid id_token in register callback: {}", ex.getMessage());
+            response.sendRedirect(frontendUrl + "/auth/error?error=invalid_id_token");
+            return;
+        }
+        if (userInfo == null) {
+            userInfo = fetchUserInfo(accessToken);
+        }
 
         // Sync user — this is a brand-new UAE PASS user
         User user = userSyncService.syncUser(userInfo);
@@ -159,7 +175,7 @@ public class WebRegController {
                         user.getUserType() != null ? user.getUserType() : "unknown"));
 
         // Store encrypted access token in Redis
-        String encryptedToken = CryptoUtil.encryptAES256(accessToken, tokenEncryptionKey);
+        String encryptedToken = tokenCrypto.encrypt(accessToken);
         redisTemplate.opsForValue().set(
                 TOKEN_KEY_PREFIX + user.getId(),
                 encryptedToken,
@@ -176,10 +192,10 @@ public class WebRegController {
                 .ipAddress(getClientIp(request))
                 .userAgent(request.getHeader("User-Agent"))
                 .build();
-        sessionRepository.save(session);
+        session = sessionRepository.save(session);
 
         // Set httpOnly session cookie
-        Cookie cookie = new Cookie(SESSION_COOKIE_NAME, sessionToken);
+        Cookie cookie = new Cookie(SESSION_COOKIE_NAME, statelessSessions.cookieValue(session));
         cookie.setHttpOnly(true);
         cookie.setSecure(true);
         cookie.setPath("/");
@@ -1,14 +1,69 @@
 package com.yoursp.uaepass.repository;
 
 import com.yoursp.uaepass.model.entity.EsealJob;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface EsealJobRepository extends JpaRepository<EsealJob, UUID> {
 
     List<EsealJob> findByRequestedByOrderByCreatedAtDesc(UUID requestedBy);
+
+    /** Most recent job with this idempotency key and status created after {@code since}. */
+    Optional<EsealJob> findFirstByIdempotencyKeyAndStatusAndCreatedAtAfterOrderByCreatedAtDesc(
+            String idempotencyKey, String status, OffsetDateTime since);
+
+    // ---- Bulk eSeal batches ----
+
+    List<EsealJob> findByBatchIdOrderByCreatedAtAsc(UUID batchId);
+
+    List<EsealJob> findByBatchIdAndStatus(UUID batchId, String status);
+
+    boolean existsByBatchIdAndRequestedBy(UUID batchId, UUID requestedBy);
+
+    /** Rows of [status, count] for one batch. */
+    @Query("SELECT j.status, COUNT(j) FROM EsealJob j WHERE j.batchId = :batchId GROUP BY j.status")
+    List<Object[]> countStatusesByBatchId(UUID batchId);
+
+    @Query("SELECT j.id FROM EsealJob j WHERE j.status = 'QUEUED' ORDER BY j.createdAt")
+    List<UUID> findQueuedIds(Pageable page);
+
+    /**
+     * Claim a queued job for this worker. Returns 0 if another instance got it first.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EsealJob j SET j.status = 'PROCESSING', j.startedAt = :now, j.attempts = j.attempts + 1 " +
+            "WHERE j.id = :id AND j.status = 'QUEUED'")
+    int claim(UUID id, OffsetDateTime now);
+
+    /** Hand a claimed job back to the queue (e.g. while the eSeal service is unavailable). */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EsealJob j SET j.status = 'QUEUED', j.startedAt = NULL " +
+            "WHERE j.id = :id AND j.status = 'PROCESSING'")
+    int release(UUID id);
+
+    /** Hand a claimed job back without counting the attempt (the call never reached the eSeal service). */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EsealJob j SET j.status = 'QUEUED', j.startedAt = NULL, j.attempts = j.attempts - 1 " +
+            "WHERE j.id = :id AND j.status = 'PROCESSING'")
+    int unclaim(UUID id);
+
+    /** Requeue jobs whose worker died mid-seal (instance restart, crash). */
+    @Modifying
+    @Transactional
+    @Query("UPDATE EsealJob j SET j.status = 'QUEUED', j.startedAt = NULL " +
+            "WHERE j.status = 'PROCESSING' AND j.startedAt < :cutoff")
+    int requeueStuckJobs(OffsetDateTime cutoff);
 }
@@ -0,0 +1,36 @@
+package com.yoursp.uaepass.repository;
+
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SigningJobDocumentRepository extends JpaRepository<SigningJobDocument, UUID> {
+
+    List<SigningJobDocument> findByJobIdOrderByDocIndexAsc(UUID jobId);
+
+    long countByJobId(UUID jobId);
+
+    long countByJobIdAndStatusNot(UUID jobId, String status);
+
+    long countByJobIdAndStatus(UUID jobId, String status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SigningJobDocument d SET d.status = 'SIGNED', d.signedKey = :signedKey, d.ltvKey = :ltvKey, " +
+            "d.errorMessage = NULL, d.updatedAt = :now WHERE d.id = :id")
+    int markSigned(UUID id, String signedKey, String ltvKey, OffsetDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SigningJobDocument d SET d.status = 'FAILED', d.errorMessage = :errorMessage, " +
+            "d.updatedAt = :now WHERE d.id = :id")
+    int markFailed(UUID id, String errorMessage, OffsetDateTime now);
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,6 +20,13 @@ public interface SigningJobRepository extends JpaRepository<SigningJob, UUID> {
 
     List<SigningJob> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
+    /**
+     * Most recent job of the given types in the given status — a single-row
+     * read on idx_signing_jobs_user_status_type.
+     */
+    Optional<SigningJob> findFirstByUserIdAndStatusAndSigningTypeInOrderByCreatedAtDesc(UUID userId,
+            String status, Collection<String> signingTypes);
+
     List<SigningJob> findAllByUserId(UUID userId);
 
     @Modifying
@@ -30,6 +38,15 @@ public interface SigningJobRepository extends JpaRepository<SigningJob, UUID> {
 
     long countByStatusAndLtvApplied(String status, boolean ltvApplied);
 
+    /**
+     * Conditional status change — 0 if the job was no longer in {@code from}
+     * (another request got there first).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE SigningJob j SET j.status = :to WHERE j.id = :id AND j.status = :from")
+    int transitionStatus(UUID id, String from, String to);
+
     @Modifying
     @Transactional
     @Query("UPDATE SigningJob j SET j.status = 'EXPIRED' " +
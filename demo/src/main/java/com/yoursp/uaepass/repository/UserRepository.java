@@ -12,7 +12,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
 
     Optional<User> findByUaepassUuid(String uaepassUuid);
 
-    Optional<User> findByIdn(String idn);
+    Optional<User> findByIdnBidx(String idnBidx);
 
     long countByUaepassUuidIsNotNull();
 
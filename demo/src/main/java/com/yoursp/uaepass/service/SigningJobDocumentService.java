@@ -0,0 +1,132 @@
+package com.yoursp.uaepass.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
+import com.yoursp.uaepass.repository.SigningJobDocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Per-document state of MULTIPLE, HASH and HASH_BULK signing jobs, one row per
+ * document in signing_job_documents.
+ * <p>
+ * A document's outcome is a single-row UPDATE, so completing one document of
+ * a large job no longer rewrites the others. Jobs created before the table
+ * existed carry their documents in the signing_jobs.documents JSON; those are
+ * imported the first time they are read.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class SigningJobDocumentService {
+
+    public static final String PENDING = "PENDING";
+    public static final String SIGNED = "SIGNED";
+    public static final String FAILED = "FAILED";
+
+    private final SigningJobDocumentRepository documentRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Insert the documents of a new job.
+     */
+    public List<SigningJobDocument> createAll(UUID jobId, List<SigningJobDocument> documents) {
+        documents.forEach(d -> d.setJobId(jobId));
+        return documentRepository.saveAll(documents);
+    }
+
+    /**
+     * Documents of a job in index order.
+     */
+    public List<SigningJobDocument> forJob(SigningJob job) {
+        List<SigningJobDocument> documents = documentRepository.findByJobIdOrderByDocIndexAsc(job.getId());
+        if (!documents.isEmpty() || job.getDocuments() == null || job.getDocuments().isBlank()) {
+            return documents;
+        }
+        return importLegacy(job);
+    }
+
+    public void markSigned(UUID documentId, String signedKey, String ltvKey) {
+        documentRepository.markSigned(documentId, signedKey, ltvKey, OffsetDateTime.now());
+    }
+
+    public void markFailed(UUID documentId, String errorMessage) {
+        documentRepository.markFailed(documentId, errorMessage, OffsetDateTime.now());
+    }
+
+    /**
+     * Documents that are no longer PENDING — a COUNT, not a JSON parse.
+     */
+    public long countFinished(UUID jobId) {
+        return documentRepository.countByJobIdAndStatusNot(jobId, PENDING);
+    }
+
+    public long countSigned(UUID jobId) {
+        return documentRepository.countByJobIdAndStatus(jobId, SIGNED);
+    }
+
+    /**
+     * Copy a pre-table documents JSON (array of entries, or the single-object
+     * form used by HASH jobs) into rows.
+     */
+    private List<SigningJobDocument> importLegacy(SigningJob job) {
+        List<SigningJobDocument> documents = new ArrayList<>();
+        try {
+            JsonNode root = objectMapper.readTree(job.getDocuments());
+            List<JsonNode> entries = new ArrayList<>();
+            if (root.isArray()) {
+                root.forEach(entries::add);
+            } else if (root.isObject()) {
+                entries.add(root);
+            }
+            for (int i = 0; i < entries.size(); i++) {
+                JsonNode e = entries.get(i);
+                String status = text(e, "status");
+                documents.add(SigningJobDocument.builder()
+                        .jobId(job.getId())
+                        .docIndex(e.has("index") ? e.get("index").asInt(i) : i)
+                        .fileName(text(e, "fileName") != null ? text(e, "fileName") : text(e, "name"))
+                        .txId(text(e, "txId"))
+                        .signIdentityId(text(e, "signIdentityId") != null ? text(e, "signIdentityId")
+                                : job.getSignIdentityId())
+                        .sdkUrl(text(e, "sdkUrl"))
+                        .digest(text(e, "digest"))
+                        .signProp(text(e, "signProp"))
+                        .documentUrl(text(e, "url"))
+                        .status(SIGNED.equals(status) || FAILED.equals(status) ? status : PENDING)
+                        .signedKey(text(e, "signedKey"))
+                        .ltvKey(text(e, "ltvKey"))
+                        .errorMessage(text(e, "error"))
+                        .build());
+            }
+        } catch (Exception e) {
+            log.warn("Unreadable documents JSON on signing job {}: {}", job.getId(), e.getMessage());
+            return List.of();
+        }
+
+        try {
+            List<SigningJobDocument> saved = documentRepository.saveAll(documents);
+            log.info("Imported {} legacy document(s) for signing job {}", saved.size(), job.getId());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            // Imported concurrently by another reader
+            return documentRepository.findByJobIdOrderByDocIndexAsc(job.getId());
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
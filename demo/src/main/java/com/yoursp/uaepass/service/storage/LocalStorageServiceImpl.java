@@ -5,9 +5,11 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 
 /**
  * Local filesystem implementation of {@link StorageService}.
@@ -43,6 +45,19 @@ public class LocalStorageServiceImpl implements StorageService {
         }
     }
 
+    @Override
+    public String upload(Path source, String key, String contentType) {
+        try {
+            Path filePath = resolve(key);
+            Files.createDirectories(filePath.getParent());
+            Files.copy(source, filePath, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Uploaded {} ({} bytes, type={})", key, Files.size(filePath), contentType);
+            return key;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to upload file: " + key, e);
+        }
+    }
+
     @Override
     public byte[] download(String key) {
         try {
@@ -57,6 +72,20 @@ public class LocalStorageServiceImpl implements StorageService {
         }
     }
 
+    @Override
+    public InputStream openStream(String key) {
+        try {
+            Path filePath = resolve(key);
+            if (!Files.exists(filePath)) {
+                throw new RuntimeException("File not found: " + key);
+            }
+            log.debug("Streaming {}", key);
+            return Files.newInputStream(filePath);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open file: " + key, e);
+        }
+    }
+
     @Override
     public void delete(String key) {
         try {
@@ -1,5 +1,8 @@
 package com.yoursp.uaepass.service.storage;
 
+import java.io.InputStream;
+import java.nio.file.Path;
+
 /**
  * Abstraction for file/object storage.
  * Implementations can target local FS, S3, Azure Blob, etc.
@@ -16,6 +19,16 @@ public interface StorageService {
      */
     String upload(byte[] data, String key, String contentType);
 
+    /**
+     * Upload the contents of a local file without loading it onto the heap.
+     *
+     * @param source      local file to copy from (left in place)
+     * @param key         identifier / path for the object
+     * @param contentType MIME type (e.g. "application/pdf")
+     * @return the key or URL where the object was stored
+     */
+    String upload(Path source, String key, String contentType);
+
     /**
      * Download data by key.
      *
@@ -24,6 +37,15 @@ public interface StorageService {
      */
     byte[] download(String key);
 
+    /**
+     * Open a stream over a stored object without loading it onto the heap.
+     * Callers must close the stream.
+     *
+     * @param key storage key / path
+     * @return stream over the object's content
+     */
+    InputStream openStream(String key);
+
     /**
      * Delete an object by key.
      *
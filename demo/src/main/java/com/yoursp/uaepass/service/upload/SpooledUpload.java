@@ -0,0 +1,148 @@
+package com.yoursp.uaepass.service.upload;
+
+import com.yoursp.uaepass.util.Base64Streams;
+import com.yoursp.uaepass.util.Digests;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An uploaded document spooled to a temporary file instead of the heap.
+ * <ul>
+ * <li>Multipart parts are moved (not copied) into the spool directory</li>
+ * <li>Validation reads only the first bytes via {@link #head(int)}</li>
+ * <li>Consumers read the content as a stream or a read-only mapped buffer</li>
+ * <li>{@link #sha256()} is computed once and shared by every consumer</li>
+ * <li>{@link #close()} deletes the temp file — use try-with-resources</li>
+ * </ul>
+ */
+public final class SpooledUpload implements Closeable {
+
+    private static final Path SPOOL_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "uaepass-uploads");
+
+    private final Path path;
+    private final long size;
+    private final String originalFilename;
+    private byte[] sha256;
+
+    private SpooledUpload(Path path, String originalFilename) throws IOException {
+        this.path = path;
+        this.size = Files.size(path);
+        this.originalFilename = originalFilename;
+    }
+
+    /**
+     * Spool a multipart file to disk. Servlet containers that already buffered the
+     * part on disk move it into place without copying.
+     */
+    public static SpooledUpload spool(MultipartFile file) throws IOException {
+        Path target = newSpoolFile();
+        try {
+            // transferTo(File) lets the container rename its own temp file into place
+            file.transferTo(target.toFile());
+            return new SpooledUpload(target, file.getOriginalFilename());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    /**
+     * Spool an arbitrary stream to disk. The stream is not closed.
+     */
+    public static SpooledUpload spool(InputStream in) throws IOException {
+        Path target = newSpoolFile();
+        try {
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            return new SpooledUpload(target, null);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public String originalFilename() {
+        return originalFilename;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Read up to {@code n} leading bytes (e.g. for magic-number checks).
+     */
+    public byte[] head(int n) throws IOException {
+        try (InputStream in = openStream()) {
+            return in.readNBytes(n);
+        }
+    }
+
+    /**
+     * Open a new stream over the spooled content. Callers must close it.
+     */
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Map the spooled content read-only. The mapping stays valid after the
+     * channel is closed and is released by the GC.
+     */
+    public MappedByteBuffer map() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * SHA-256 of the content, computed over the mapped file on first call and
+     * cached for later callers handling the same upload.
+     */
+    public byte[] sha256() throws IOException {
+        if (sha256 == null) {
+            sha256 = Digests.sha256(map());
+        }
+        return sha256.clone();
+    }
+
+    /**
+     * Base64-encode the content by streaming it through the encoder, so the raw
+     * bytes are never held on the heap alongside their encoding.
+     */
+    public String toBase64() throws IOException {
+        try (InputStream in = openStream()) {
+            return Base64Streams.encodeToString(in, size);
+        }
+    }
+
+    /**
+     * Delete the spooled temp file.
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private static Path newSpoolFile() throws IOException {
+        Files.createDirectories(SPOOL_DIR);
+        return Files.createTempFile(SPOOL_DIR, "upload-", ".tmp");
+    }
+}
@@ -0,0 +1,77 @@
+package com.yoursp.uaepass.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Pull-side Base64 encoder: reads raw bytes from a source stream and yields
+ * their (unwrapped) Base64 encoding, one fixed-size chunk at a time.
+ * Obtained through {@link Base64Streams#encoding(InputStream)}.
+ */
+final class Base64EncodingInputStream extends InputStream {
+
+    /** Raw bytes per refill; a multiple of 3 so padding only appears at EOF. */
+    private static final int CHUNK = 3 * 4096;
+
+    private final InputStream source;
+    private final Base64.Encoder encoder = Base64.getEncoder();
+    private final byte[] raw = new byte[CHUNK];
+    private final byte[] encoded = new byte[CHUNK / 3 * 4];
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    Base64EncodingInputStream(InputStream source) {
+        this.source = source;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return encoded[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(encoded, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return limit - pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int n = source.readNBytes(raw, 0, CHUNK);
+        if (n < CHUNK) {
+            eof = true;
+        }
+        if (n == 0) {
+            return false;
+        }
+        limit = encoder.encode(n == CHUNK ? raw : Arrays.copyOf(raw, n), encoded);
+        pos = 0;
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package com.yoursp.uaepass.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Base64 over streams, for payloads that should not be held raw and encoded
+ * on the heap at the same time.
+ */
+public final class Base64Streams {
+
+    private Base64Streams() {
+    }
+
+    /**
+     * Encoded (unwrapped, padded) length of {@code rawLength} bytes.
+     */
+    public static long encodedLength(long rawLength) {
+        return 4 * ((rawLength + 2) / 3);
+    }
+
+    /**
+     * A stream yielding the Base64 encoding of {@code source}, encoded a chunk
+     * at a time as it is read. Closing it closes {@code source}.
+     */
+    public static InputStream encoding(InputStream source) {
+        return new Base64EncodingInputStream(source);
+    }
+
+    /**
+     * A stream yielding the decoded bytes of {@code base64}. Characters are read
+     * straight from the sequence, so neither an ASCII copy nor the decoded
+     * content is materialised on the heap.
+     */
+    public static InputStream decoding(CharSequence base64) {
+        return Base64.getDecoder().wrap(new CharSequenceInputStream(base64));
+    }
+
+    /**
+     * Base64-encode a stream of known length straight into the String's
+     * backing bytes; only one chunk of raw input is buffered at a time. The
+     * stream is not closed.
+     *
+     * @throws IOException if the stream does not encode to the length of {@code rawLength} bytes
+     */
+    public static String encodeToString(InputStream in, long rawLength) throws IOException {
+        long encodedLength = encodedLength(rawLength);
+        if (encodedLength > Integer.MAX_VALUE - 8) {
+            throw new IOException("Too large to Base64-encode in memory: " + rawLength + " bytes");
+        }
+        byte[] encoded = new byte[(int) encodedLength];
+        InputStream base64 = new Base64EncodingInputStream(in);
+        int n = base64.readNBytes(encoded, 0, encoded.length);
+        if (n != encoded.length || base64.read() != -1) {
+            throw new IOException("Stream length does not match the expected " + rawLength + " bytes");
+        }
+        return new String(encoded, StandardCharsets.US_ASCII);
+    }
+
+    /** Low byte of each char — lossless for the Base64 alphabet. */
+    private static final class CharSequenceInputStream extends InputStream {
+
+        private final CharSequence chars;
+        private int pos;
+
+        CharSequenceInputStream(CharSequence chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int read() {
+            return pos < chars.length() ? chars.charAt(pos++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int n = Math.min(len, chars.length() - pos);
+            if (n <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) chars.charAt(pos++);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.yoursp.uaepass.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 helpers over a per-thread {@link MessageDigest}.
+ * <p>
+ * {@code MessageDigest.getInstance} walks the provider list on every call;
+ * each thread here keeps one instance and resets it before use. Inputs made
+ * of several parts are fed with incremental {@code update} calls rather than
+ * being concatenated first.
+ * </p>
+ */
+public final class Digests {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private Digests() {
+    }
+
+    public static byte[] sha256(byte[] data) {
+        return sha256().digest(data);
+    }
+
+    /**
+     * SHA-256 of the parts in order — equal to hashing their concatenation.
+     */
+    public static byte[] sha256(Iterable<byte[]> parts) {
+        MessageDigest digest = sha256();
+        for (byte[] part : parts) {
+            digest.update(part);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * SHA-256 of the buffer's remaining bytes (e.g. a mapped file). The
+     * buffer's position is advanced to its limit.
+     */
+    public static byte[] sha256(ByteBuffer data) {
+        MessageDigest digest = sha256();
+        digest.update(data);
+        return digest.digest();
+    }
+
+    /**
+     * SHA-256 of a stream read to its end. The stream is not closed.
+     */
+    public static byte[] sha256(InputStream in) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            digest.update(buffer, 0, n);
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256() {
+        MessageDigest digest = SHA256.get();
+        // digest() resets too; this covers a previous caller that threw mid-update
+        digest.reset();
+        return digest;
+    }
+}
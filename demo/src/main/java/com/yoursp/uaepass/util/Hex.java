@@ -0,0 +1,74 @@
+package com.yoursp.uaepass.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Lower-case hex codec backed by lookup tables.
+ * <p>
+ * Encoding writes straight into the result's backing bytes — no per-byte
+ * {@code String.format}, no intermediate {@code StringBuilder}. Decoding
+ * accepts either case and rejects odd lengths and non-hex characters.
+ * </p>
+ */
+public final class Hex {
+
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /** Nibble value per ASCII code, -1 for characters that are not hex digits. */
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private Hex() {
+    }
+
+    public static String encode(byte[] bytes) {
+        return encode(bytes, 0, bytes.length);
+    }
+
+    public static String encode(byte[] bytes, int offset, int length) {
+        byte[] out = new byte[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i];
+            out[2 * i] = DIGITS[(b >> 4) & 0x0F];
+            out[2 * i + 1] = DIGITS[b & 0x0F];
+        }
+        // Latin-1 bytes become the String's compact backing array as-is
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code hex} has an odd length or a
+     *                                  character that is not a hex digit
+     */
+    public static byte[] decode(CharSequence hex) {
+        int length = hex.length();
+        if ((length & 1) != 0) {
+            throw new IllegalArgumentException("Hex string has odd length: " + length);
+        }
+        byte[] out = new byte[length / 2];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = (byte) ((nibble(hex, 2 * i) << 4) | nibble(hex, 2 * i + 1));
+        }
+        return out;
+    }
+
+    private static int nibble(CharSequence hex, int index) {
+        char c = hex.charAt(index);
+        int value = c < 128 ? VALUES[c] : -1;
+        if (value < 0) {
+            throw new IllegalArgumentException("Invalid hex character '" + c + "' at index " + index);
+        }
+        return value;
+    }
+}
@@ -10,6 +10,7 @@ CREATE TABLE IF NOT EXISTS users (
     uaepass_uuid VARCHAR(255) UNIQUE NOT NULL,
     spuuid VARCHAR(255),
     idn TEXT,
+    idn_bidx VARCHAR(64),
     email VARCHAR(255),
     mobile VARCHAR(30),
     full_name_en VARCHAR(500),
@@ -26,6 +27,9 @@ CREATE TABLE IF NOT EXISTS users (
     updated_at TIMESTAMPTZ DEFAULT NOW()
 );
 
+-- idn blind index for databases created before it existed (see IdnBlindIndexBackfill)
+ALTER TABLE users ADD COLUMN IF NOT EXISTS idn_bidx VARCHAR(64);
+
 CREATE TABLE IF NOT EXISTS oauth_states (
     state VARCHAR(256) PRIMARY KEY,
     flow_type VARCHAR(50),
@@ -67,6 +71,25 @@ CREATE TABLE IF NOT EXISTS signing_jobs (
     expires_at TIMESTAMPTZ
 );
 
+CREATE TABLE IF NOT EXISTS signing_job_documents (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    job_id UUID NOT NULL REFERENCES signing_jobs(id) ON DELETE CASCADE,
+    doc_index INT NOT NULL,
+    file_name VARCHAR(255),
+    status VARCHAR(20),
+    tx_id VARCHAR(255),
+    sign_identity_id VARCHAR(255),
+    sdk_url VARCHAR(255),
+    digest VARCHAR(128),
+    sign_prop VARCHAR(100),
+    document_url TEXT,
+    signed_key TEXT,
+    ltv_key TEXT,
+    error_message TEXT,
+    updated_at TIMESTAMPTZ DEFAULT NOW(),
+    UNIQUE (job_id, doc_index)
+);
+
 CREATE TABLE IF NOT EXISTS eseal_jobs (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     requested_by UUID REFERENCES users(id),
@@ -76,10 +99,22 @@ CREATE TABLE IF NOT EXISTS eseal_jobs (
     output_key TEXT,
     request_id VARCHAR(255),
     error_message TEXT,
+    batch_id UUID,
+    file_name VARCHAR(255),
+    attempts INT NOT NULL DEFAULT 0,
+    idempotency_key VARCHAR(64),
     created_at TIMESTAMPTZ DEFAULT NOW(),
+    started_at TIMESTAMPTZ,
     completed_at TIMESTAMPTZ
 );
 
+-- Bulk eSeal columns for databases created before batches existed
+ALTER TABLE eseal_jobs ADD COLUMN IF NOT EXISTS batch_id UUID;
+ALTER TABLE eseal_jobs ADD COLUMN IF NOT EXISTS file_name VARCHAR(255);
+ALTER TABLE eseal_jobs ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE eseal_jobs ADD COLUMN IF NOT EXISTS started_at TIMESTAMPTZ;
+ALTER TABLE eseal_jobs ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(64);
+
 CREATE TABLE IF NOT EXISTS face_verifications (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
     user_id UUID REFERENCES users(id),
@@ -105,8 +140,19 @@ CREATE TABLE IF NOT EXISTS audit_log (
 );
 
 CREATE INDEX IF NOT EXISTS idx_users_uaepass_uuid ON users(uaepass_uuid);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_idn_bidx ON users(idn_bidx);
+CREATE INDEX IF NOT EXISTS idx_users_idn_bidx_missing ON users(id)
+    WHERE idn IS NOT NULL AND idn_bidx IS NULL;
+CREATE INDEX IF NOT EXISTS idx_user_sessions_token_expires ON user_sessions(token_expires);
+CREATE INDEX IF NOT EXISTS idx_user_sessions_created ON user_sessions(created_at);
 CREATE INDEX IF NOT EXISTS idx_signing_jobs_user ON signing_jobs(user_id);
 CREATE INDEX IF NOT EXISTS idx_signing_jobs_status ON signing_jobs(status);
+CREATE INDEX IF NOT EXISTS idx_signing_jobs_user_status_type
+    ON signing_jobs(user_id, status, signing_type, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_eseal_jobs_batch ON eseal_jobs(batch_id);
+CREATE INDEX IF NOT EXISTS idx_eseal_jobs_queued ON eseal_jobs(created_at) WHERE status = 'QUEUED';
+CREATE INDEX IF NOT EXISTS idx_eseal_jobs_idempotency ON eseal_jobs(idempotency_key, created_at)
+    WHERE idempotency_key IS NOT NULL;
 CREATE INDEX IF NOT EXISTS idx_face_verifications_user ON face_verifications(user_id);
 CREATE INDEX IF NOT EXISTS idx_audit_log_user ON audit_log(user_id);
 CREATE INDEX IF NOT EXISTS idx_audit_log_created ON audit_log(created_at DESC);
@@ -0,0 +1,22 @@
+-- Generic cell rate algorithm: requests are spaced window / limit apart, with
+-- a burst of up to limit. One string per limiter: the theoretical arrival
+-- time (TAT) of the next request.
+-- KEYS[1] = limiter key
+-- ARGV    = now (ms), window (ms), limit
+-- Returns {allowed (1/0), retry after (ms)}
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local limit = tonumber(ARGV[3])
+local interval = window / limit
+
+local tat = tonumber(redis.call('GET', KEYS[1])) or now
+if tat < now then
+    tat = now
+end
+local newTat = tat + interval
+local allowAt = newTat - window
+if allowAt > now then
+    return {0, math.max(1, math.ceil(allowAt - now))}
+end
+redis.call('SET', KEYS[1], string.format('%.0f', newTat), 'PX', math.ceil(newTat - now))
+return {1, 0}
@@ -0,0 +1,16 @@
+-- Exact sliding window: one sorted-set member per accepted request.
+-- KEYS[1] = limiter key
+-- ARGV    = now (ms), window (ms), limit, unique member
+-- Returns {allowed (1/0), retry after (ms)}
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local limit = tonumber(ARGV[3])
+
+redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window)
+if redis.call('ZCARD', KEYS[1]) >= limit then
+    local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+    return {0, math.max(1, math.ceil(tonumber(oldest[2]) + window - now))}
+end
+redis.call('ZADD', KEYS[1], now, ARGV[4])
+redis.call('PEXPIRE', KEYS[1], window)
+return {1, 0}
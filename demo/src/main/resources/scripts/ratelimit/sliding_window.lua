@@ -0,0 +1,39 @@
+-- Sliding window counter: the previous fixed window's count, weighted by how
+-- much of it still overlaps the sliding window, plus the current count.
+-- One hash per limiter: w = current window index, c = its count, p = previous count.
+-- KEYS[1] = limiter key
+-- ARGV    = now (ms), window (ms), limit
+-- Returns {allowed (1/0), retry after (ms)}
+local now = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local limit = tonumber(ARGV[3])
+
+local index = math.floor(now / window)
+local state = redis.call('HMGET', KEYS[1], 'w', 'c', 'p')
+local w = tonumber(state[1])
+local current = tonumber(state[2]) or 0
+local previous = tonumber(state[3]) or 0
+if w == index - 1 then
+    previous, current = current, 0
+elseif w ~= index then
+    previous, current = 0, 0
+end
+
+local elapsed = now - index * window
+local estimate = previous * (window - elapsed) / window + current
+local allowed = estimate + 1 <= limit
+if allowed then
+    current = current + 1
+end
+redis.call('HSET', KEYS[1], 'w', index, 'c', current, 'p', previous)
+redis.call('PEXPIRE', KEYS[1], 2 * window)
+if allowed then
+    return {1, 0}
+end
+
+-- Earliest time the weighted previous count has decayed enough
+local retry = window - elapsed
+if previous > 0 and current + 1 <= limit then
+    retry = window * (1 - (limit - current - 1) / previous) - elapsed
+end
+return {0, math.max(1, math.ceil(retry))}
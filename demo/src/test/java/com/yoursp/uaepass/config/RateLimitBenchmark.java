@@ -0,0 +1,119 @@
+package com.yoursp.uaepass.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one {@link RateLimitFilter} check: the four-command sequence it
+ * used to send (ZREMRANGEBYSCORE, ZCARD, ZADD, EXPIRE) against each Lua
+ * script. Sample-time mode, so the output includes p99.
+ * <p>
+ * Needs a Redis at {@code -Dredis.host} / {@code -Dredis.port} (default
+ * localhost:6379); keys are prefixed {@code bench:}. Run with
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=RateLimitBenchmark}
+ * or via {@link #main(String[])}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class RateLimitBenchmark {
+
+    /** Distinct limiter keys (users / IPs) the load is spread over. */
+    @Param({ "1", "1000" })
+    public int keys;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RateLimitFilter filter;
+    private RateLimitFilter.RateLimitConfig logConfig;
+    private RateLimitFilter.RateLimitConfig windowConfig;
+    private RateLimitFilter.RateLimitConfig gcraConfig;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"),
+                Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        filter = new RateLimitFilter(redisTemplate, new ObjectMapper());
+        // High limits: measure the allowed path, which is what most requests take
+        logConfig = new RateLimitFilter.RateLimitConfig("bench", 1_000_000, 60, true,
+                RateLimitFilter.Algorithm.SLIDING_LOG);
+        windowConfig = new RateLimitFilter.RateLimitConfig("bench", 1_000_000, 60, true,
+                RateLimitFilter.Algorithm.SLIDING_WINDOW);
+        gcraConfig = new RateLimitFilter.RateLimitConfig("bench", 1_000_000, 60, true,
+                RateLimitFilter.Algorithm.GCRA);
+    }
+
+    @TearDown
+    public void tearDown() {
+        redisTemplate.delete(redisTemplate.keys("bench:*"));
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean legacyFourCommands() {
+        String key = "bench:legacy:" + key();
+        double now = Instant.now().toEpochMilli();
+        redisTemplate.opsForZSet().removeRangeByScore(key, 0, now - 60_000);
+        Long count = redisTemplate.opsForZSet().zCard(key);
+        if (count != null && count >= 1_000_000) {
+            return true;
+        }
+        redisTemplate.opsForZSet().add(key, String.valueOf(now), now);
+        redisTemplate.expire(key, Duration.ofSeconds(70));
+        return false;
+    }
+
+    @Benchmark
+    public long slidingLogScript() {
+        return filter.checkRateLimit("bench:log:" + key(), logConfig);
+    }
+
+    @Benchmark
+    public long slidingWindowScript() {
+        return filter.checkRateLimit("bench:sw:" + key(), windowConfig);
+    }
+
+    @Benchmark
+    public long gcraScript() {
+        return filter.checkRateLimit("bench:gcra:" + key(), gcraConfig);
+    }
+
+    private int key() {
+        return keys == 1 ? 0 : ThreadLocalRandom.current().nextInt(keys);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimitBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.yoursp.uaepass.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class RateLimitFilterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(redisTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+    }
+
+    @Test
+    @DisplayName("allowed request should cost one script call and pass through")
+    void allowedRequestSingleRoundTrip() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(1L, 0L));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(loginRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+        verify(redisTemplate, times(1)).execute(eq(RateLimitFilter.Algorithm.SLIDING_WINDOW.script),
+                eq(List.of("ratelimit:sw:auth_login:10.0.0.1")), any(Object[].class));
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    @DisplayName("rejected request should get 429 with Retry-After from the script")
+    void rejectedRequest() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 1500L));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(loginRequest(), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"retryAfterSeconds\":2"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Redis failure should let the request through")
+    void failOpen() throws Exception {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(loginRequest(), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("endpoints should map to their configured algorithm")
+    void algorithmPerEndpoint() {
+        assertEquals(RateLimitFilter.Algorithm.SLIDING_LOG, filter.resolveConfig("/auth/register").algorithm());
+        assertEquals(RateLimitFilter.Algorithm.GCRA, filter.resolveConfig("/eseal/pades").algorithm());
+        assertNull(filter.resolveConfig("/auth/me"));
+    }
+
+    @Test
+    @DisplayName("bulk eSeal submission should have its own budget, separate from single seals and polling")
+    void bulkSubmissionOwnBucket() {
+        assertEquals("eseal_bulk", filter.resolveConfig("/eseal/bulk").endpointKey());
+        assertEquals("eseal_bulk_status", filter.resolveConfig("/eseal/bulk/123").endpointKey());
+        assertEquals("eseal", filter.resolveConfig("/eseal/pades").endpointKey());
+    }
+
+    private MockHttpServletRequest loginRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/login");
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+}
@@ -0,0 +1,86 @@
+package com.yoursp.uaepass.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockPart;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadSizeLimitFilterTest {
+
+    private UploadSizeLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MultipartProperties properties = new MultipartProperties();
+        properties.setMaxRequestSize(DataSize.ofBytes(100));
+        filter = new UploadSizeLimitFilter(properties, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Multipart request over the global limit → 413 before the chain runs")
+    void oversizedRequestRejected() throws Exception {
+        MockHttpServletRequest request = multipart("POST", "/eseal/pades", 101);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(413, response.getStatus());
+        assertTrue(response.getContentAsString().contains("PAYLOAD_TOO_LARGE"));
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("POST /eseal/bulk is exempt from the global limit")
+    void bulkSubmissionExempt() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(multipart("POST", "/eseal/bulk", 10_000), new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Bulk exemption holds under a context path and with a trailing slash")
+    void bulkSubmissionExemptUnderContextPath() throws Exception {
+        MockHttpServletRequest request = multipart("POST", "/api/eseal/bulk/", 10_000);
+        request.setContextPath("/api");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertNotNull(chain.getRequest());
+    }
+
+    @Test
+    @DisplayName("Chunked multipart request is checked once its parts are parsed")
+    void chunkedRequestCheckedOnParts() throws Exception {
+        MockHttpServletRequest request = multipart("POST", "/eseal/pades", -1);
+        request.addPart(new MockPart("file", new byte[101]));
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> ((HttpServletRequest) chain.getRequest()).getParts());
+        assertTrue(e.getMessage().contains("exceeds"));
+    }
+
+    private static MockHttpServletRequest multipart(String method, String uri, int contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setContentType("multipart/form-data; boundary=x");
+        if (contentLength >= 0) {
+            request.setContent(new byte[contentLength]);
+        }
+        return request;
+    }
+}
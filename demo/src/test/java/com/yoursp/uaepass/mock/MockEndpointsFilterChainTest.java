@@ -0,0 +1,86 @@
+package com.yoursp.uaepass.mock;
+
+import com.yoursp.uaepass.config.SecurityConfig;
+import com.yoursp.uaepass.modules.auth.LastActiveTracker;
+import com.yoursp.uaepass.modules.auth.SessionCache;
+import com.yoursp.uaepass.modules.auth.SessionRevocationList;
+import com.yoursp.uaepass.modules.auth.StatelessSessionCodec;
+import com.yoursp.uaepass.modules.face.FaceVerificationService;
+import com.yoursp.uaepass.repository.UserRepository;
+import com.yoursp.uaepass.repository.UserSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The mocks are called server-to-server without a session cookie, so they must
+ * be reachable through the real security and servlet filter chain.
+ */
+@WebMvcTest(controllers = MockHashSdkController.class, properties = {
+        "mock.hashsdk.start.latency-median-ms=0", "mock.hashsdk.start.latency-p99-ms=0",
+        "mock.hashsdk.sign.latency-median-ms=0", "mock.hashsdk.sign.latency-p99-ms=0",
+        "rate-limit.enabled=false" })
+@Import(SecurityConfig.class)
+@ImportAutoConfiguration(MultipartAutoConfiguration.class)
+@ActiveProfiles("mock")
+class MockEndpointsFilterChainTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MockHashSdkController controller;
+
+    @MockBean
+    private UserSessionRepository sessionRepository;
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private SessionCache sessionCache;
+    @MockBean
+    private LastActiveTracker lastActiveTracker;
+    @MockBean
+    private StatelessSessionCodec statelessSessions;
+    @MockBean
+    private SessionRevocationList revocationList;
+    @MockBean
+    private StringRedisTemplate redisTemplate;
+    @MockBean
+    private FaceVerificationService faceVerificationService;
+
+    @AfterEach
+    void tearDown() {
+        controller.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Mock Hash SDK answers without a session cookie; app routes still require one")
+    void mockReachableWithoutSession() throws Exception {
+        mockMvc.perform(get("/mock/hashsdk/health"))
+                .andExpect(status().isOk());
+
+        MockMultipartFile document = new MockMultipartFile("document", "document.pdf", "application/pdf",
+                "%PDF-1.4 smoke".getBytes());
+        mockMvc.perform(multipart("/mock/hashsdk/start").file(document).param("signProp", "1:[0,0,1,1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.txId").exists());
+
+        mockMvc.perform(get("/auth/me"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,107 @@
+package com.yoursp.uaepass.mock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("unchecked")
+class MockHashSdkControllerTest {
+
+    private MockHashSdkController controller;
+
+    @BeforeEach
+    void setUp() {
+        // No latency, no injected errors
+        controller = new MockHashSdkController(0, 0, 0, 0, 0, 0, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        controller.deleteAll();
+    }
+
+    @Test
+    @DisplayName("/start returns txId, sign_identity_id and the digest of the prepared document")
+    void startReturnsContractFields() throws Exception {
+        byte[] pdf = "%PDF-1.4 mock input".getBytes();
+
+        ResponseEntity<?> response = controller.start(pdfPart(pdf), "1:[10,10,100,50]");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertNotNull(body.get("txId"));
+        assertNotNull(body.get("sign_identity_id"));
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        sha256.update(pdf);
+        sha256.update(MockHashSdkController.reservation());
+        assertEquals(HexFormat.of().formatHex(sha256.digest()), body.get("digest"));
+    }
+
+    @Test
+    @DisplayName("/sign returns an input-sized signed PDF once; reusing the txId → 412")
+    void signOnceThenPreconditionFailed() throws Exception {
+        byte[] pdf = new byte[50_000];
+        Map<String, Object> started = (Map<String, Object>) controller.start(pdfPart(pdf), "1:[10,10,100,50]")
+                .getBody();
+        Map<String, Object> signRequest = Map.of(
+                "txId", started.get("txId"), "sign_identity_id", started.get("sign_identity_id"));
+
+        ResponseEntity<?> signed = controller.sign(signRequest, "access-token");
+        assertEquals(HttpStatus.OK, signed.getStatusCode());
+        byte[] signedPdf = ((Resource) signed.getBody()).getContentAsByteArray();
+        assertEquals(pdf.length + MockHashSdkController.reservation().length, signedPdf.length);
+        assertFalse(new String(signedPdf, StandardCharsets.US_ASCII).contains("0".repeat(100) + ">"));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, controller.sign(signRequest, "access-token").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("/sign without access token → 401; unknown txId → 404")
+    void signRejectsBadRequests() throws Exception {
+        assertEquals(HttpStatus.UNAUTHORIZED,
+                controller.sign(Map.of("txId", "x", "sign_identity_id", "y"), null).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND,
+                controller.sign(Map.of("txId", "x", "sign_identity_id", "y"), "token").getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Past max-transactions the oldest transaction and its file are dropped")
+    void evictsOldestTransaction() throws Exception {
+        MockHashSdkController small = new MockHashSdkController(0, 0, 0, 0, 0, 0, 1);
+        try {
+            Map<String, Object> first = (Map<String, Object>) small.start(pdfPart(new byte[] { 1 }), "1:[0,0,1,1]")
+                    .getBody();
+            small.start(pdfPart(new byte[] { 2 }), "1:[0,0,1,1]");
+
+            assertEquals(HttpStatus.NOT_FOUND, small.sign(Map.of("txId", first.get("txId"),
+                    "sign_identity_id", first.get("sign_identity_id")), "token").getStatusCode());
+        } finally {
+            small.deleteAll();
+        }
+    }
+
+    @Test
+    @DisplayName("Error rate 1.0 → every call answers 503")
+    void injectedErrors() throws Exception {
+        MockHashSdkController failing = new MockHashSdkController(0, 0, 1.0, 0, 0, 1.0, 10);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE,
+                failing.start(pdfPart(new byte[] { 1 }), "1:[0,0,1,1]").getStatusCode());
+    }
+
+    private static MockMultipartFile pdfPart(byte[] pdf) {
+        return new MockMultipartFile("document", "document.pdf", "application/pdf", pdf);
+    }
+}
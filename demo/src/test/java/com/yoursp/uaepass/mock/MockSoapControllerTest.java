@@ -0,0 +1,81 @@
+package com.yoursp.uaepass.mock;
+
+import com.yoursp.uaepass.modules.eseal.DssResponseParser;
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MockSoapControllerTest {
+
+    private final MockSoapController controller = new MockSoapController(0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+    @Test
+    @DisplayName("PAdES sign → sealed PDF in Base64Data, sized from the input")
+    void padesEchoesInputSize() {
+        byte[] pdf = new byte[100_000];
+        String request = "<SignRequest Profile=\"urn:safelayer:tws:dss:1.0:profiles:pades:1.0:sign\" RequestID=\"r1\">"
+                + "<Base64Data MimeType=\"application/pdf\">" + Base64.getEncoder().encodeToString(pdf)
+                + "</Base64Data></SignRequest>";
+
+        ByteArrayOutputStream sealed = new ByteArrayOutputStream();
+        DssResponse response = parse(controller.mockEseal(request), DssResponseParser.BASE64_DATA, sealed);
+
+        assertTrue(response.isSuccess());
+        assertEquals(MockSoapController.sealed(pdf, "eSeal").length, sealed.size());
+    }
+
+    @Test
+    @DisplayName("CAdES sign → enveloping signature in Base64Signature; DocumentHash → constant-size detached one")
+    void cadesSignatures() {
+        byte[] doc = new byte[20_000];
+        String enveloping = "<SignRequest Profile=\"urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:sign\">"
+                + "<Base64Data>" + Base64.getEncoder().encodeToString(doc) + "</Base64Data></SignRequest>";
+        String detached = "<SignRequest Profile=\"urn:safelayer:tws:dss:1.0:profiles:cmspkcs7sig:1.0:sign\">"
+                + "<DocumentHash><ds:DigestValue>AAAA</ds:DigestValue></DocumentHash></SignRequest>";
+
+        ByteArrayOutputStream sig = new ByteArrayOutputStream();
+        assertTrue(parse(controller.mockEseal(enveloping), DssResponseParser.BASE64_SIGNATURE, sig).isSuccess());
+        assertEquals(doc.length + MockSoapController.CMS_OVERHEAD_BYTES, sig.size());
+
+        sig.reset();
+        assertTrue(parse(controller.mockEseal(detached), DssResponseParser.BASE64_SIGNATURE, sig).isSuccess());
+        assertEquals(MockSoapController.CMS_OVERHEAD_BYTES, sig.size());
+    }
+
+    @Test
+    @DisplayName("Error rate 1.0 → HTTP 503 SOAP fault")
+    void injectedFault() {
+        MockSoapController failing = new MockSoapController(0, 0, 1.0, 0, 0, 0, 0, 0, 0);
+
+        ResponseEntity<String> response = failing.mockEseal("<SignRequest/>");
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertTrue(response.getBody().contains("soap:Fault"));
+    }
+
+    @Test
+    @DisplayName("Log-normal latency model honours the configured median")
+    void latencyMedian() {
+        SimulatedBackend backend = new SimulatedBackend("test", 100, 1000, 0);
+        long[] samples = new long[5001];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = backend.sampleLatencyMs();
+        }
+        Arrays.sort(samples);
+        long median = samples[samples.length / 2];
+        assertTrue(median > 80 && median < 125, "median " + median);
+        assertEquals(0, new SimulatedBackend("off", 0, 0, 0).sampleLatencyMs());
+    }
+
+    private static DssResponse parse(ResponseEntity<String> response, String element, ByteArrayOutputStream sink) {
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return DssResponseParser.parse(response.getBody(), element, sink);
+    }
+}
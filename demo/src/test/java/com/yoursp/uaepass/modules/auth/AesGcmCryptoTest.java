@@ -0,0 +1,96 @@
+package com.yoursp.uaepass.modules.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AesGcmCryptoTest {
+
+    private static final String LEGACY_KEY = "my-super-secret-test-key-32bytes!!!";
+
+    @Test
+    @DisplayName("legacy key ring should read and write the CryptoUtil format")
+    void legacyFormatCompatible() {
+        AesGcmCrypto crypto = new AesGcmCrypto(LEGACY_KEY);
+
+        String fromUtil = CryptoUtil.encryptAES256("784-1234-5678901-2", LEGACY_KEY);
+        String fromCrypto = crypto.encrypt("784-1234-5678901-2");
+
+        assertEquals("784-1234-5678901-2", crypto.decrypt(fromUtil));
+        assertEquals("784-1234-5678901-2", CryptoUtil.decryptAES256(fromCrypto, LEGACY_KEY));
+        assertFalse(fromCrypto.contains("$"));
+    }
+
+    @Test
+    @DisplayName("rotated ring should prefix the key id and still read legacy data")
+    void rotationKeepsOldDataReadable() {
+        String legacyCiphertext = new AesGcmCrypto(LEGACY_KEY).encrypt("old-token");
+        AesGcmCrypto rotated = new AesGcmCrypto(LEGACY_KEY, Map.of("k2", "second-secret"), "k2");
+
+        String fresh = rotated.encrypt("new-token");
+
+        assertTrue(fresh.startsWith("k2$"));
+        assertEquals("new-token", rotated.decrypt(fresh));
+        assertEquals("old-token", rotated.decrypt(legacyCiphertext));
+    }
+
+    @Test
+    @DisplayName("ciphertext under an unknown key id should be rejected")
+    void unknownKeyIdRejected() {
+        String ciphertext = new AesGcmCrypto(LEGACY_KEY, Map.of("k2", "second-secret"), "k2").encrypt("x");
+
+        assertThrows(RuntimeException.class, () -> new AesGcmCrypto(LEGACY_KEY).decrypt(ciphertext));
+    }
+
+    @Test
+    @DisplayName("active key id must exist in the ring")
+    void activeKeyMustExist() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AesGcmCrypto(LEGACY_KEY, Map.of(), "missing"));
+    }
+
+    @Test
+    @DisplayName("byte[] API should round-trip and carry the key id")
+    void byteArrayRoundTrip() {
+        AesGcmCrypto crypto = new AesGcmCrypto(LEGACY_KEY, Map.of("k2", "second-secret"), "k2");
+        byte[] plaintext = "binary payload".getBytes(StandardCharsets.UTF_8);
+
+        byte[] ciphertext = crypto.encrypt(plaintext);
+
+        assertEquals(crypto.encryptedLength(plaintext.length), ciphertext.length);
+        assertArrayEquals(plaintext, crypto.decrypt(ciphertext));
+    }
+
+    @Test
+    @DisplayName("ByteBuffer API should work on direct buffers")
+    void byteBufferRoundTrip() {
+        AesGcmCrypto crypto = new AesGcmCrypto(LEGACY_KEY);
+        byte[] plaintext = new byte[4096];
+        ByteBuffer src = ByteBuffer.allocateDirect(plaintext.length).put(plaintext).flip();
+        ByteBuffer sealed = ByteBuffer.allocateDirect(crypto.encryptedLength(plaintext.length));
+
+        int written = crypto.encrypt(src, sealed);
+        sealed.flip();
+        ByteBuffer opened = ByteBuffer.allocate(plaintext.length);
+        int read = crypto.decrypt(sealed, opened);
+
+        assertEquals(crypto.encryptedLength(plaintext.length), written);
+        assertEquals(plaintext.length, read);
+        assertArrayEquals(plaintext, opened.array());
+    }
+
+    @Test
+    @DisplayName("tampered binary ciphertext should be rejected")
+    void tamperedBytesRejected() {
+        AesGcmCrypto crypto = new AesGcmCrypto(LEGACY_KEY);
+        byte[] ciphertext = crypto.encrypt("do-not-tamper".getBytes(StandardCharsets.UTF_8));
+        ciphertext[ciphertext.length - 1] ^= 1;
+
+        assertThrows(RuntimeException.class, () -> crypto.decrypt(ciphertext));
+    }
+}
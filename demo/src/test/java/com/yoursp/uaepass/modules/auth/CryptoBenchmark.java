@@ -0,0 +1,122 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.yoursp.uaepass.util.Digests;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link AesGcmCrypto} with the per-call code CryptoUtil used to
+ * run (derive the key with SHA-256 and {@code Cipher.getInstance} on every
+ * call), on an access-token-sized value.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=CryptoBenchmark}
+ * or via {@link #main(String[])}. Add {@code -prof gc} for allocation per
+ * operation.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+
+    private static final String KEY = "default-dev-token-key-change-me!!";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private AesGcmCrypto crypto;
+    private String token;
+    private String tokenCiphertext;
+    private byte[] tokenBytes;
+    private ByteBuffer src;
+    private ByteBuffer dst;
+
+    @Setup
+    public void setUp() {
+        crypto = new AesGcmCrypto(KEY);
+        byte[] raw = new byte[900];
+        RANDOM.nextBytes(raw);
+        token = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        tokenCiphertext = crypto.encrypt(token);
+        tokenBytes = token.getBytes(StandardCharsets.UTF_8);
+        src = ByteBuffer.allocateDirect(tokenBytes.length);
+        dst = ByteBuffer.allocateDirect(crypto.encryptedLength(tokenBytes.length));
+    }
+
+    @Benchmark
+    public String legacyEncrypt() throws Exception {
+        byte[] iv = new byte[12];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, legacyKey(), new GCMParameterSpec(128, iv));
+        byte[] ciphertext = cipher.doFinal(token.getBytes(StandardCharsets.UTF_8));
+        byte[] combined = new byte[12 + ciphertext.length];
+        System.arraycopy(iv, 0, combined, 0, 12);
+        System.arraycopy(ciphertext, 0, combined, 12, ciphertext.length);
+        return Base64.getEncoder().encodeToString(combined);
+    }
+
+    @Benchmark
+    public String legacyDecrypt() throws Exception {
+        byte[] combined = Base64.getDecoder().decode(tokenCiphertext);
+        byte[] iv = Arrays.copyOfRange(combined, 0, 12);
+        byte[] encrypted = Arrays.copyOfRange(combined, 12, combined.length);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, legacyKey(), new GCMParameterSpec(128, iv));
+        return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String encryptString() {
+        return crypto.encrypt(token);
+    }
+
+    @Benchmark
+    public String decryptString() {
+        return crypto.decrypt(tokenCiphertext);
+    }
+
+    @Benchmark
+    public byte[] encryptBytes() {
+        return crypto.encrypt(tokenBytes);
+    }
+
+    @Benchmark
+    public int encryptByteBuffer() {
+        src.clear();
+        src.put(tokenBytes).flip();
+        dst.clear();
+        return crypto.encrypt(src, dst);
+    }
+
+    private static SecretKey legacyKey() {
+        return new SecretKeySpec(Digests.sha256(KEY.getBytes(StandardCharsets.UTF_8)), "AES");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CryptoBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,129 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.yoursp.uaepass.modules.auth.exception.InvalidIdTokenException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdTokenValidatorTest {
+
+    private static final String CLIENT_ID = "test-client";
+    private static final String ISSUER = "https://stg-id.uaepass.ae/idshub";
+
+    private RSAKey signingKey;
+    private IdTokenValidator validator;
+
+    @BeforeEach
+    void setUp() throws JOSEException {
+        signingKey = new RSAKeyGenerator(2048).keyID("k1").generate();
+        validator = new IdTokenValidator(
+                new ImmutableJWKSet<SecurityContext>(new JWKSet(signingKey.toPublicJWK())),
+                CLIENT_ID, ISSUER, true);
+    }
+
+    private String idToken(RSAKey key, String audience, JWTClaimsSet.Builder extra) throws JOSEException {
+        JWTClaimsSet claims = extra
+                .subject("uaepass-uuid-1")
+                .issuer(ISSUER)
+                .audience(audience)
+                .issueTime(new Date())
+                .expirationTime(new Date(System.currentTimeMillis() + 60_000))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    @Test
+    @DisplayName("valid token with the profile claims should be used instead of /userinfo")
+    void shouldReturnClaimsWhenSufficient() throws JOSEException {
+        String token = idToken(signingKey, CLIENT_ID, new JWTClaimsSet.Builder()
+                .claim("uuid", "uaepass-uuid-1")
+                .claim("userType", "SOP3")
+                .claim("fullnameEN", "Test User"));
+
+        Map<String, Object> claims = validator.claimsIfSufficient(token, IdTokenValidator.PROFILE_CLAIMS);
+
+        assertNotNull(claims);
+        assertEquals("uaepass-uuid-1", claims.get("uuid"));
+    }
+
+    @Test
+    @DisplayName("valid token missing profile claims should fall back to /userinfo")
+    void shouldReturnNullWhenClaimsMissing() throws JOSEException {
+        String token = idToken(signingKey, CLIENT_ID, new JWTClaimsSet.Builder().claim("uuid", "uaepass-uuid-1"));
+
+        assertNull(validator.claimsIfSufficient(token, IdTokenValidator.PROFILE_CLAIMS));
+        assertNotNull(validator.claimsIfSufficient(token, IdTokenValidator.UUID_CLAIMS));
+    }
+
+    @Test
+    @DisplayName("SOP2/SOP3 token without idn should fall back to /userinfo")
+    void shouldRequireIdnForResidentsAndCitizens() throws JOSEException {
+        String withoutIdn = idToken(signingKey, CLIENT_ID, new JWTClaimsSet.Builder()
+                .claim("uuid", "uaepass-uuid-1")
+                .claim("userType", "SOP3")
+                .claim("fullnameEN", "Test User"));
+        String withIdn = idToken(signingKey, CLIENT_ID, new JWTClaimsSet.Builder()
+                .claim("uuid", "uaepass-uuid-1")
+                .claim("userType", "SOP3")
+                .claim("fullnameEN", "Test User")
+                .claim("idn", "784199012345671"));
+        String visitor = idToken(signingKey, CLIENT_ID, new JWTClaimsSet.Builder()
+                .claim("uuid", "uaepass-uuid-2")
+                .claim("userType", "SOP1")
+                .claim("fullnameEN", "Visitor"));
+
+        assertNull(validator.profileClaimsIfSufficient(withoutIdn));
+        assertNotNull(validator.profileClaimsIfSufficient(withIdn));
+        assertNotNull(validator.profileClaimsIfSufficient(visitor));
+    }
+
+    @Test
+    @DisplayName("token signed by an unknown key should be rejected")
+    void shouldRejectForeignSignature() throws JOSEException {
+        RSAKey other = new RSAKeyGenerator(2048).keyID("k1").generate();
+        String token = idToken(other, CLIENT_ID, new JWTClaimsSet.Builder().claim("uuid", "x"));
+
+        assertThrows(InvalidIdTokenException.class,
+                () -> validator.claimsIfSufficient(token, IdTokenValidator.UUID_CLAIMS));
+    }
+
+    @Test
+    @DisplayName("token for another client should be rejected")
+    void shouldRejectWrongAudience() throws JOSEException {
+        String token = idToken(signingKey, "other-client", new JWTClaimsSet.Builder().claim("uuid", "x"));
+
+        assertThrows(InvalidIdTokenException.class,
+                () -> validator.claimsIfSufficient(token, IdTokenValidator.UUID_CLAIMS));
+    }
+
+    @Test
+    @DisplayName("absent token or disabled validation should fall back to /userinfo")
+    void shouldReturnNullWhenAbsentOrDisabled() throws JOSEException {
+        String token = idToken(signingKey, CLIENT_ID, new JWTClaimsSet.Builder().claim("uuid", "x"));
+        IdTokenValidator disabled = new IdTokenValidator(
+                new ImmutableJWKSet<SecurityContext>(new JWKSet(signingKey.toPublicJWK())),
+                CLIENT_ID, ISSUER, false);
+
+        assertNull(validator.claimsIfSufficient(null, IdTokenValidator.UUID_CLAIMS));
+        assertNull(disabled.claimsIfSufficient(token, IdTokenValidator.UUID_CLAIMS));
+    }
+}
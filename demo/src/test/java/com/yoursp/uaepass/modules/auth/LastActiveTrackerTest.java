@@ -0,0 +1,78 @@
+package com.yoursp.uaepass.modules.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class LastActiveTrackerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LastActiveTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new LastActiveTracker(jdbcTemplate, 60, 1000);
+    }
+
+    @Test
+    @DisplayName("touch should not hit the database")
+    void touchShouldNotWrite() {
+        tracker.touch(UUID.randomUUID());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("flush should write all sessions in one batch, once per session")
+    void flushShouldBatchAndCoalesce() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        tracker.touch(a);
+        tracker.touch(a);
+        tracker.touch(b);
+
+        assertEquals(2, tracker.flush());
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+    }
+
+    @Test
+    @DisplayName("touches within the min interval should not be written again")
+    void touchWithinIntervalShouldBeDropped() {
+        UUID a = UUID.randomUUID();
+        tracker.touch(a);
+        tracker.flush();
+
+        tracker.touch(a);
+
+        assertEquals(0, tracker.flush());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("flush failure should be swallowed")
+    void flushFailureShouldNotPropagate() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("db down"));
+        tracker.touch(UUID.randomUUID());
+
+        assertDoesNotThrow(() -> tracker.flush());
+    }
+}
@@ -0,0 +1,85 @@
+package com.yoursp.uaepass.modules.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class SessionReaperTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOps;
+
+    private SessionReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        reaper = new SessionReaper(jdbcTemplate, redisTemplate, 100, 3, 240);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+    }
+
+    @Test
+    @DisplayName("should delete in chunks until a chunk comes back short")
+    void deletesInChunks() {
+        when(valueOps.setIfAbsent(eq("session_reaper_lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(100))).thenReturn(100, 40);
+
+        assertEquals(140, reaper.reap());
+        verify(jdbcTemplate, times(2)).update(anyString(), any(), any(), eq(100));
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), anyString());
+    }
+
+    @Test
+    @DisplayName("should stop after max-batches chunks per run")
+    void boundedPerRun() {
+        when(valueOps.setIfAbsent(eq("session_reaper_lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(100))).thenReturn(100);
+
+        assertEquals(300, reaper.reap());
+        verify(jdbcTemplate, times(3)).update(anyString(), any(), any(), eq(100));
+    }
+
+    @Test
+    @DisplayName("should skip the run when another instance holds the lock")
+    void skipsWithoutLock() {
+        when(valueOps.setIfAbsent(eq("session_reaper_lock"), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertEquals(-1, reaper.reap());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("deleted rows should be exported as a counter")
+    void countsDeletedRows() {
+        when(valueOps.setIfAbsent(eq("session_reaper_lock"), anyString(), any(Duration.class))).thenReturn(true);
+        when(jdbcTemplate.update(anyString(), any(), any(), eq(100))).thenReturn(7);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        reaper.bindTo(registry);
+
+        reaper.reap();
+
+        assertEquals(7.0, registry.get("session.reaper.deleted").functionCounter().count());
+        assertEquals(1.0, registry.get("session.reaper.runs").functionCounter().count());
+    }
+}
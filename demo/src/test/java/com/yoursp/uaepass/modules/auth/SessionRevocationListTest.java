@@ -0,0 +1,89 @@
+package com.yoursp.uaepass.modules.auth;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class SessionRevocationListTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private RedisMessageListenerContainer container;
+
+    private SessionRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new SessionRevocationList(redisTemplate, container);
+    }
+
+    @Test
+    @DisplayName("revokeSession should reject the session locally and broadcast it")
+    void revokeSessionShouldApplyAndPublish() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        UUID sessionId = UUID.randomUUID();
+
+        revocationList.revokeSession(sessionId, OffsetDateTime.now().plusHours(1));
+
+        assertTrue(revocationList.isRevoked(sessionId, UUID.randomUUID(), OffsetDateTime.now()));
+        verify(zSetOperations).add(eq("session_revocations"), startsWith("s:" + sessionId + "@"), anyDouble());
+        verify(redisTemplate).convertAndSend(eq("session_revocations"), startsWith("s:" + sessionId + "@"));
+    }
+
+    @Test
+    @DisplayName("user revocation should reject only tokens issued before it")
+    void revokeUserShouldRejectOlderTokens() {
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        UUID userId = UUID.randomUUID();
+        OffsetDateTime before = OffsetDateTime.now().minusMinutes(5);
+
+        revocationList.revokeUser(userId);
+
+        assertTrue(revocationList.isRevoked(UUID.randomUUID(), userId, before));
+        assertFalse(revocationList.isRevoked(UUID.randomUUID(), userId, OffsetDateTime.now().plusSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("broadcasts from other instances should be applied")
+    void onMessageShouldApplyRemoteRevocation() {
+        UUID sessionId = UUID.randomUUID();
+        long expiry = System.currentTimeMillis() + 60_000;
+        byte[] body = ("s:" + sessionId + "@" + expiry).getBytes(StandardCharsets.UTF_8);
+
+        revocationList.onMessage(new DefaultMessage("session_revocations".getBytes(StandardCharsets.UTF_8), body),
+                null);
+
+        assertTrue(revocationList.isRevoked(sessionId, UUID.randomUUID(), OffsetDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("malformed broadcasts should be ignored")
+    void onMessageShouldIgnoreGarbage() {
+        byte[] body = "garbage".getBytes(StandardCharsets.UTF_8);
+
+        assertDoesNotThrow(() -> revocationList.onMessage(
+                new DefaultMessage("session_revocations".getBytes(StandardCharsets.UTF_8), body), null));
+    }
+}
@@ -78,12 +78,43 @@ class StateServiceTest {
         assertNotNull(payload.createdAt());
     }
 
+    @Test
+    @DisplayName("generateState with jobId binds the job into the payload")
+    void generateStateWithJobIdShouldIncludeJobId() throws Exception {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        UUID jobId = UUID.randomUUID();
+
+        ArgumentCaptor<String> jsonCaptor = ArgumentCaptor.forClass(String.class);
+
+        stateService.generateState("HASH_SIGN", null, UUID.randomUUID(), jobId);
+
+        verify(valueOperations).set(anyString(), jsonCaptor.capture(), anyLong(), any());
+
+        StatePayload payload = objectMapper.readValue(jsonCaptor.getValue(), StatePayload.class);
+        assertEquals("HASH_SIGN", payload.flowType());
+        assertEquals(jobId, payload.jobId());
+    }
+
+    @Test
+    @DisplayName("consumeState reads payloads stored before jobId existed")
+    void consumeStateWithoutJobId() {
+        UUID userId = UUID.randomUUID();
+        when(redisTemplate.execute(any(DefaultRedisScript.class), anyList()))
+                .thenReturn("{\"flowType\":\"HASH_SIGN\",\"redirectAfter\":null,\"userId\":\"" + userId
+                        + "\",\"createdAt\":1700000000.000000000}");
+
+        StatePayload result = stateService.consumeState("legacy-state");
+
+        assertEquals(userId, result.userId());
+        assertNull(result.jobId());
+    }
+
     @Test
     @DisplayName("consumeState should atomically GET and DEL from Redis")
     void consumeStateShouldAtomicallyGetAndDel() throws Exception {
         UUID userId = UUID.randomUUID();
         String stateJson = objectMapper.writeValueAsString(
-                new StatePayload("AUTH", "/dashboard", userId, java.time.Instant.now()));
+                new StatePayload("AUTH", "/dashboard", userId, null, java.time.Instant.now()));
 
         when(redisTemplate.execute(any(DefaultRedisScript.class), anyList()))
                 .thenReturn(stateJson);
@@ -125,7 +156,7 @@ class StateServiceTest {
     @DisplayName("consumeState called twice should only succeed once (state is deleted)")
     void consumeStateShouldOnlySucceedOnce() throws Exception {
         String stateJson = objectMapper.writeValueAsString(
-                new StatePayload("AUTH", "/dashboard", null, java.time.Instant.now()));
+                new StatePayload("AUTH", "/dashboard", null, null, java.time.Instant.now()));
 
         // First call returns the value, second call returns null (already deleted)
         when(redisTemplate.execute(any(DefaultRedisScript.class), anyList()))
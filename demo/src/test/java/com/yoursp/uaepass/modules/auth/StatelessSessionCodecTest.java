@@ -0,0 +1,73 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.yoursp.uaepass.model.entity.UserSession;
+import com.yoursp.uaepass.modules.auth.dto.StatelessSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatelessSessionCodecTest {
+
+    private final StatelessSessionCodec codec = new StatelessSessionCodec(true, "test-secret");
+
+    private UserSession session() {
+        return UserSession.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .sessionToken("opaque-token")
+                .ipAddress("10.0.0.1")
+                .createdAt(OffsetDateTime.now())
+                .tokenExpires(OffsetDateTime.now().plusHours(1))
+                .build();
+    }
+
+    @Test
+    @DisplayName("cookieValue and decode should round-trip the session claims")
+    void shouldRoundTrip() {
+        UserSession session = session();
+
+        String token = codec.cookieValue(session);
+        StatelessSession decoded = codec.decode(token);
+
+        assertTrue(codec.isStatelessToken(token));
+        assertNotNull(decoded);
+        assertEquals(session.getId(), decoded.sessionId());
+        assertEquals(session.getUserId(), decoded.userId());
+        assertEquals("10.0.0.1", decoded.ipAddress());
+        assertEquals(session.getTokenExpires().toEpochSecond(), decoded.expiresAt().toEpochSecond());
+    }
+
+    @Test
+    @DisplayName("decode should reject a tampered token")
+    void shouldRejectTamperedToken() {
+        String token = codec.cookieValue(session());
+        char[] chars = token.toCharArray();
+        int i = token.lastIndexOf('.') - 2;
+        chars[i] = chars[i] == 'A' ? 'B' : 'A';
+
+        assertNull(codec.decode(new String(chars)));
+    }
+
+    @Test
+    @DisplayName("decode should reject a token issued under another key")
+    void shouldRejectForeignKey() {
+        String token = new StatelessSessionCodec(true, "other-secret").cookieValue(session());
+
+        assertNull(codec.decode(token));
+    }
+
+    @Test
+    @DisplayName("cookieValue should return the opaque token when disabled")
+    void shouldReturnOpaqueTokenWhenDisabled() {
+        StatelessSessionCodec disabled = new StatelessSessionCodec(false, "test-secret");
+
+        String token = disabled.cookieValue(session());
+
+        assertEquals("opaque-token", token);
+        assertFalse(disabled.isStatelessToken(token));
+    }
+}
@@ -0,0 +1,102 @@
+package com.yoursp.uaepass.modules.auth;
+
+import com.yoursp.uaepass.config.UaePassProperties;
+import com.yoursp.uaepass.modules.auth.dto.TokenIntrospectResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class TokenIntrospectionServiceTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private TokenIntrospectionService service;
+
+    @BeforeEach
+    void setUp() {
+        UaePassProperties uaePassProperties = new UaePassProperties();
+        uaePassProperties.setClientId("test-client");
+        uaePassProperties.setClientSecret("test-secret");
+        uaePassProperties.setBaseUrl("https://idp");
+        service = new TokenIntrospectionService(uaePassProperties, restTemplate, 300, 60, 30, 1000);
+    }
+
+    private static TokenIntrospectResponse response(boolean active, String clientId, long exp) {
+        TokenIntrospectResponse r = new TokenIntrospectResponse();
+        r.setActive(active);
+        r.setClientId(clientId);
+        r.setExp(exp);
+        return r;
+    }
+
+    private void stubIntrospect(TokenIntrospectResponse body) {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(), eq(TokenIntrospectResponse.class)))
+                .thenReturn(ResponseEntity.ok(body));
+    }
+
+    @Test
+    @DisplayName("active result should be served from cache on repeat calls")
+    void shouldCacheActiveResult() {
+        stubIntrospect(response(true, "test-client", System.currentTimeMillis() / 1000 + 3600));
+
+        assertTrue(service.introspect("token-a").isActive());
+        assertTrue(service.introspect("token-a").isActive());
+
+        verify(restTemplate, times(1)).exchange(anyString(), any(), any(), eq(TokenIntrospectResponse.class));
+    }
+
+    @Test
+    @DisplayName("inactive result should be cached too")
+    void shouldCacheInactiveResult() {
+        stubIntrospect(response(false, null, 0));
+
+        assertFalse(service.introspect("token-b").isActive());
+        assertFalse(service.introspect("token-b").isActive());
+
+        verify(restTemplate, times(1)).exchange(anyString(), any(), any(), eq(TokenIntrospectResponse.class));
+    }
+
+    @Test
+    @DisplayName("result for a token about to expire should not be cached")
+    void shouldNotCacheNearlyExpiredToken() {
+        stubIntrospect(response(true, "test-client", System.currentTimeMillis() / 1000 + 10));
+
+        service.introspect("token-c");
+        service.introspect("token-c");
+
+        verify(restTemplate, times(2)).exchange(anyString(), any(), any(), eq(TokenIntrospectResponse.class));
+    }
+
+    @Test
+    @DisplayName("token issued to another client should be reported inactive")
+    void shouldRejectClientMismatch() {
+        stubIntrospect(response(true, "other-client", System.currentTimeMillis() / 1000 + 3600));
+
+        assertFalse(service.introspect("token-d").isActive());
+    }
+
+    @Test
+    @DisplayName("failures should not be cached")
+    void shouldNotCacheFailures() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(), eq(TokenIntrospectResponse.class)))
+                .thenThrow(new ResourceAccessException("timeout"))
+                .thenReturn(ResponseEntity.ok(response(true, "test-client", System.currentTimeMillis() / 1000 + 3600)));
+
+        assertThrows(ResourceAccessException.class, () -> service.introspect("token-e"));
+        assertTrue(service.introspect("token-e").isActive());
+    }
+}
@@ -2,6 +2,7 @@ package com.yoursp.uaepass.modules.auth;
 
 import com.yoursp.uaepass.model.entity.User;
 import com.yoursp.uaepass.modules.linking.AutoLinkingService;
+import com.yoursp.uaepass.modules.linking.IdnBlindIndex;
 import com.yoursp.uaepass.repository.UserRepository;
 import com.yoursp.uaepass.service.AuditService;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +16,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,12 +37,18 @@ class UserSyncServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private SessionCache sessionCache;
+
     @InjectMocks
     private UserSyncService userSyncService;
 
+    private final IdnBlindIndex idnBlindIndex = new IdnBlindIndex("test-bidx-key");
+
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(userSyncService, "idnEncryptionKey", "test-encryption-key-for-idn!!");
+        ReflectionTestUtils.setField(userSyncService, "idnCrypto", new AesGcmCrypto("test-encryption-key-for-idn!!"));
+        ReflectionTestUtils.setField(userSyncService, "idnBlindIndex", idnBlindIndex);
     }
 
     @Test
@@ -84,6 +92,84 @@ class UserSyncServiceTest {
         verify(auditService).log(any(), eq("LOGIN"), eq("USER"), any(), any(), any());
     }
 
+    @Test
+    @DisplayName("idn should be stored encrypted with its blind index")
+    void syncStoresIdnBlindIndex() {
+        when(autoLinkingService.tryAutoLink(any(), any(), any())).thenReturn(null);
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> {
+            User u = inv.getArgument(0);
+            u.setId(UUID.randomUUID());
+            return u;
+        });
+
+        User result = userSyncService.syncUser(createUserInfo("SOP3"));
+
+        assertNotEquals("784-1234-5678901-2", result.getIdn());
+        assertEquals(idnBlindIndex.compute("784123456789012"), result.getIdnBidx());
+    }
+
+    @Test
+    @DisplayName("idn already indexed for another user — login succeeds without the index")
+    void syncSkipsBlindIndexOwnedByOtherUser() {
+        User other = User.builder().id(UUID.randomUUID()).build();
+        User existingUser = User.builder().id(UUID.randomUUID()).uaepassUuid("uae-uuid-123").build();
+
+        when(autoLinkingService.tryAutoLink(any(), any(), any())).thenReturn(existingUser);
+        when(userRepository.findByIdnBidx(idnBlindIndex.compute("784123456789012"))).thenReturn(Optional.of(other));
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        User result = userSyncService.syncUser(createUserInfo("SOP3"));
+
+        assertNotNull(result.getIdn());
+        assertNull(result.getIdnBidx());
+    }
+
+    @Test
+    @DisplayName("Minimal id_token claims should not wipe an existing user's profile")
+    void minimalClaimsKeepStoredFields() {
+        User existingUser = User.builder()
+                .id(UUID.randomUUID())
+                .uaepassUuid("uae-uuid-123")
+                .fullNameEn("Old Name")
+                .fullNameAr("اسم")
+                .firstNameEn("Old")
+                .lastNameEn("Name")
+                .email("old@example.com")
+                .mobile("+971500000000")
+                .nationalityEn("ARE")
+                .gender("Male")
+                .idType("CIT")
+                .acr("urn:acr:old")
+                .spuuid("sp-uuid-old")
+                .idn("stored-ciphertext")
+                .idnBidx("stored-bidx")
+                .build();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("uuid", "uae-uuid-123");
+        claims.put("sub", "sub-123");
+        claims.put("userType", "SOP1");
+        claims.put("fullnameEN", "New Name");
+
+        when(autoLinkingService.tryAutoLink(any(), any(), any())).thenReturn(existingUser);
+        when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        User result = userSyncService.syncUser(claims);
+
+        assertEquals("New Name", result.getFullNameEn());
+        assertEquals("اسم", result.getFullNameAr());
+        assertEquals("Old", result.getFirstNameEn());
+        assertEquals("Name", result.getLastNameEn());
+        assertEquals("old@example.com", result.getEmail());
+        assertEquals("+971500000000", result.getMobile());
+        assertEquals("ARE", result.getNationalityEn());
+        assertEquals("Male", result.getGender());
+        assertEquals("CIT", result.getIdType());
+        assertEquals("urn:acr:old", result.getAcr());
+        assertEquals("sp-uuid-old", result.getSpuuid());
+        assertEquals("stored-ciphertext", result.getIdn());
+        assertEquals("stored-bidx", result.getIdnBidx());
+    }
+
     @Test
     @DisplayName("Missing uuid should throw IllegalArgumentException")
     void syncWithMissingUuidShouldThrow() {
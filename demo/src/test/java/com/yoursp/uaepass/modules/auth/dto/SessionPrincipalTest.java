@@ -0,0 +1,47 @@
+package com.yoursp.uaepass.modules.auth.dto;
+
+import com.yoursp.uaepass.model.entity.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionPrincipalTest {
+
+    @Test
+    @DisplayName("every User column should survive from() → toUser(), so a save-back loses nothing")
+    void roundTripKeepsEveryColumn() throws IllegalAccessException {
+        User user = new User();
+        for (Field field : User.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            field.setAccessible(true);
+            field.set(user, sample(field));
+        }
+
+        User copy = SessionPrincipal.from(user).toUser();
+
+        for (Field field : User.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                assertEquals(field.get(user), field.get(copy), field.getName());
+            }
+        }
+    }
+
+    private static Object sample(Field field) {
+        if (field.getType() == UUID.class) {
+            return UUID.randomUUID();
+        }
+        if (field.getType() == OffsetDateTime.class) {
+            return OffsetDateTime.now();
+        }
+        return field.getName() + "-value";
+    }
+}
@@ -0,0 +1,123 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("Limit reached and no queue → rejected immediately")
+    void rejectsWhenFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0, Duration.ZERO, 2.0);
+
+        AdaptiveConcurrencyLimiter.Permit a = limiter.acquire();
+        AdaptiveConcurrencyLimiter.Permit b = limiter.acquire();
+        assertThrows(ESealOverloadedException.class, limiter::acquire);
+        assertEquals(1, limiter.getRejected());
+
+        a.close();
+        limiter.acquire().close();
+        b.close();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Queued caller gets the slot when it is released")
+    void queuedCallerProceeds() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 1, Duration.ofSeconds(5), 2.0);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        CompletableFuture<AdaptiveConcurrencyLimiter.Permit> waiter = CompletableFuture.supplyAsync(limiter::acquire);
+        while (limiter.getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        // Queue of one is now full
+        assertThrows(ESealOverloadedException.class, limiter::acquire);
+
+        held.close();
+        waiter.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    @DisplayName("Queued caller is rejected once the wait expires")
+    void waitTimesOut() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 10, 4, Duration.ofMillis(50), 2.0);
+        AdaptiveConcurrencyLimiter.Permit held = limiter.acquire();
+
+        assertThrows(ESealOverloadedException.class, limiter::acquire);
+        assertEquals(0, limiter.getQueued());
+        held.close();
+    }
+
+    @Test
+    @DisplayName("Drops cut the limit multiplicatively, down to the floor")
+    void dropsDecrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 20, 5, 50, 0, Duration.ZERO, 2.0);
+
+        limiter.acquire().dropped();
+        assertEquals(18, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire().dropped();
+        }
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Fast successes at full utilisation grow the limit; idle successes do not")
+    void successesIncrease() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10, 0, Duration.ZERO, 1000.0);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().success();
+        }
+        assertEquals(2, limiter.getLimit());
+
+        for (int round = 0; round < 20; round++) {
+            int n = limiter.getLimit();
+            AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[n];
+            for (int i = 0; i < n; i++) {
+                permits[i] = limiter.acquire();
+            }
+            for (AdaptiveConcurrencyLimiter.Permit p : permits) {
+                p.success();
+            }
+        }
+        assertTrue(limiter.getLimit() > 2, "limit " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 10);
+    }
+
+    @Test
+    @DisplayName("Permit releases its slot only once")
+    void permitIdempotent() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 10, 0, Duration.ZERO, 2.0);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        limiter.acquire();
+
+        permit.dropped();
+        permit.close();
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Limit, in-flight, queue and rejection meters are registered")
+    void bindsMeters() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("eseal.soap", 3, 1, 10, 0, Duration.ZERO, 2.0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+
+        limiter.acquire();
+        assertEquals(3.0, registry.get("eseal.soap.concurrency.limit").gauge().value());
+        assertEquals(1.0, registry.get("eseal.soap.concurrency.inflight").gauge().value());
+        assertEquals(0.0, registry.get("eseal.soap.concurrency.queued").gauge().value());
+        assertEquals(0.0, registry.get("eseal.soap.concurrency.rejected").functionCounter().count());
+    }
+}
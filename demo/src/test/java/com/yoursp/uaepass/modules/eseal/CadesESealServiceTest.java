@@ -1,10 +1,13 @@
 package com.yoursp.uaepass.modules.eseal;
 
 import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import com.yoursp.uaepass.modules.eseal.dto.ESealResult;
 import com.yoursp.uaepass.repository.EsealJobRepository;
 import com.yoursp.uaepass.service.AuditService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import com.yoursp.uaepass.util.Digests;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,9 +15,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,7 +62,7 @@ class CadesESealServiceTest {
 
     @Test
     @DisplayName("Successful CAdES seal → returns PKCS#7 signature bytes")
-    void successfulCadesSeal() {
+    void successfulCadesSeal() throws Exception {
         byte[] docBytes = "binary document content".getBytes();
         UUID userId = UUID.randomUUID();
         UUID jobId = UUID.randomUUID();
@@ -63,8 +78,13 @@ class CadesESealServiceTest {
                 </SignResponse>
                 """.formatted(b64Sig);
 
-        when(soapClient.executeSoapRequest(anyString(), anyString(), anyString()))
-                .thenReturn(soapResponse);
+        when(soapClient.executeSoapRequest(anyString(), any(SoapBody.class), anyString(), any(), any()))
+                .thenAnswer(respondWith(soapResponse));
+        Map<String, byte[]> stored = new HashMap<>();
+        when(storageService.upload(any(Path.class), anyString(), anyString())).thenAnswer(inv -> {
+            stored.put(inv.getArgument(1), Files.readAllBytes(inv.getArgument(0)));
+            return inv.getArgument(1);
+        });
         when(jobRepository.save(any(EsealJob.class))).thenAnswer(inv -> {
             EsealJob j = inv.getArgument(0);
             if (j.getId() == null)
@@ -72,22 +92,26 @@ class CadesESealServiceTest {
             return j;
         });
 
-        ESealResult result = cadesService.sealDocument(docBytes, userId);
+        ESealResult result;
+        try (SpooledUpload document = spool(docBytes)) {
+            result = cadesService.sealDocument(document, userId);
+            // CAdES stores both .bin (copied from the spool file) and .p7s
+            verify(storageService).upload(eq(document.path()), contains(".bin"), eq("application/octet-stream"));
+        }
 
         assertNotNull(result);
         assertEquals(jobId, result.getJobId());
-        assertArrayEquals(signatureBytes, result.getSealedBytes());
+        assertEquals("eseal/" + jobId + ".p7s", result.getOutputKey());
 
-        // CAdES stores both .bin and .p7s
-        verify(storageService).upload(eq(docBytes), contains(".bin"), eq("application/octet-stream"));
-        verify(storageService).upload(eq(signatureBytes), contains(".p7s"), eq("application/pkcs7-signature"));
+        verify(storageService).upload(any(Path.class), contains(".p7s"), eq("application/pkcs7-signature"));
+        assertArrayEquals(signatureBytes, stored.get(result.getOutputKey()));
         verify(auditService).log(eq(userId), eq("ESEAL_DOCUMENT"), eq("ESEAL_JOB"),
                 anyString(), isNull(), anyMap());
     }
 
     @Test
     @DisplayName("CAdES request contains correct profile and SignatureType")
-    void cadesRequestContainsCorrectProfile() {
+    void cadesRequestContainsCorrectProfile() throws Exception {
         byte[] docBytes = "test".getBytes();
         UUID userId = UUID.randomUUID();
 
@@ -100,11 +124,16 @@ class CadesESealServiceTest {
                 </SignResponse>
                 """.formatted(b64);
 
-        when(soapClient.executeSoapRequest(anyString(), argThat(body -> body.contains("cmspkcs7sig:1.0:sign") &&
-                body.contains("urn:etsi:ts:101733") &&
-                body.contains("EnvelopingSignature")),
-                anyString()))
-                .thenReturn(response);
+        String base64Doc = "<Base64Data>" + Base64.getEncoder().encodeToString(docBytes) + "</Base64Data>";
+        when(soapClient.executeSoapRequest(anyString(), argThat(body -> {
+            String xml = render(body);
+            return xml.contains("cmspkcs7sig:1.0:sign") &&
+                    xml.contains("urn:etsi:ts:101733") &&
+                    xml.contains("EnvelopingSignature") &&
+                    xml.contains(base64Doc);
+        }),
+                anyString(), any(), any()))
+                .thenAnswer(respondWith(response));
         when(jobRepository.save(any(EsealJob.class))).thenAnswer(inv -> {
             EsealJob j = inv.getArgument(0);
             if (j.getId() == null)
@@ -112,16 +141,122 @@ class CadesESealServiceTest {
             return j;
         });
 
-        ESealResult result = cadesService.sealDocument(docBytes, userId);
-        assertNotNull(result);
+        try (SpooledUpload document = spool(docBytes)) {
+            ESealResult result = cadesService.sealDocument(document, userId);
+            assertNotNull(result);
+        }
+    }
+
+    @Test
+    @DisplayName("Hash mode sends only the SHA-256 DocumentHash and requests a detached signature")
+    void hashModeSendsDigestOnly() throws Exception {
+        byte[] docBytes = new byte[200_000];
+        for (int i = 0; i < docBytes.length; i++) {
+            docBytes[i] = (byte) (i * 31);
+        }
+        UUID userId = UUID.randomUUID();
+        String expectedDigest = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(docBytes));
+
+        String response = """
+                <SignResponse>
+                  <Result><ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</ResultMajor></Result>
+                  <SignatureObject><Base64Signature>%s</Base64Signature></SignatureObject>
+                </SignResponse>
+                """.formatted(Base64.getEncoder().encodeToString("detached-sig".getBytes()));
+
+        when(soapClient.executeSoapRequest(anyString(), argThat(body -> {
+            String xml = render(body);
+            return xml.contains("<DocumentHash>") &&
+                    xml.contains("<ds:DigestValue>" + expectedDigest + "</ds:DigestValue>") &&
+                    xml.contains("xmlenc#sha256") &&
+                    !xml.contains("EnvelopingSignature") &&
+                    !xml.contains("Base64Data") &&
+                    body.contentLength() < 4096;
+        }),
+                anyString(), any(), any()))
+                .thenAnswer(respondWith(response));
+        when(jobRepository.save(any(EsealJob.class))).thenAnswer(inv -> {
+            EsealJob j = inv.getArgument(0);
+            if (j.getId() == null)
+                j.setId(UUID.randomUUID());
+            return j;
+        });
+
+        try (SpooledUpload document = spool(docBytes)) {
+            ESealResult result = cadesService.sealDocumentHash(document, userId);
+            assertNotNull(result);
+            // The document itself is kept by the SP alongside the detached signature
+            verify(storageService).upload(eq(document.path()), contains(".bin"), eq("application/octet-stream"));
+        }
+        verify(jobRepository, atLeastOnce()).save(argThat(j -> "CADES_HASH".equals(j.getSealType())));
+        verify(auditService).log(eq(userId), eq("ESEAL_DOCUMENT"), eq("ESEAL_JOB"), anyString(), isNull(),
+                argThat(m -> "CADES_HASH".equals(m.get("sealType")) && m.containsKey("sha256")));
+    }
+
+    @Test
+    @DisplayName("Queued CADES_HASH job digests the stored input instead of embedding it")
+    void queuedHashJob() throws Exception {
+        byte[] docBytes = "stored document".getBytes();
+        String expectedDigest = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(docBytes));
+        EsealJob job = EsealJob.builder().id(UUID.randomUUID()).batchId(UUID.randomUUID())
+                .requestedBy(UUID.randomUUID()).sealType("CADES_HASH").status("PROCESSING")
+                .inputKey("eseal/input/x/0.bin").build();
+
+        when(storageService.openStream("eseal/input/x/0.bin")).thenReturn(new ByteArrayInputStream(docBytes));
+        when(soapClient.executeSoapRequest(anyString(),
+                argThat(body -> render(body).contains("<ds:DigestValue>" + expectedDigest + "</ds:DigestValue>")),
+                anyString(), any(), any()))
+                .thenAnswer(respondWith("""
+                        <SignResponse>
+                          <Result><ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</ResultMajor></Result>
+                          <SignatureObject><Base64Signature>c2ln</Base64Signature></SignatureObject>
+                        </SignResponse>
+                        """));
+
+        cadesService.sealQueuedJob(job);
+
+        assertEquals("SEALED", job.getStatus());
+        assertEquals("eseal/" + job.getId() + ".p7s", job.getOutputKey());
+    }
+
+    @Test
+    @DisplayName("SHA-256 of the spooled upload matches the streamed digest")
+    void digestVariantsAgree() throws Exception {
+        byte[] docBytes = new byte[150_001];
+        new Random(7).nextBytes(docBytes);
+        try (SpooledUpload document = spool(docBytes)) {
+            assertArrayEquals(document.sha256(),
+                    Digests.sha256(new ByteArrayInputStream(docBytes)));
+        }
     }
 
     @Test
     @DisplayName("Unconfigured endpoint → throws ESealUnavailableException")
-    void unconfiguredEndpoint() {
+    void unconfiguredEndpoint() throws Exception {
         ReflectionTestUtils.setField(cadesService, "soapEndpoint", "");
 
-        assertThrows(ESealUnavailableException.class,
-                () -> cadesService.sealDocument("test".getBytes(), UUID.randomUUID()));
+        try (SpooledUpload document = spool("test".getBytes())) {
+            assertThrows(ESealUnavailableException.class,
+                    () -> cadesService.sealDocument(document, UUID.randomUUID()));
+        }
+    }
+
+    private static SpooledUpload spool(byte[] bytes) throws Exception {
+        return SpooledUpload.spool(new ByteArrayInputStream(bytes));
+    }
+
+    /** Run the real parser over a canned response, as ESealSoapClient would. */
+    private static Answer<DssResponse> respondWith(String responseXml) {
+        return inv -> DssResponseParser.parse(responseXml, inv.getArgument(3), inv.getArgument(4));
+    }
+
+    private static String render(SoapBody body) {
+        try (InputStream in = body.openStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,160 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DssResponseParser} with the indexOf/replaceAll scanning the
+ * eSeal services used before, on a PAdES SignResponse carrying a line-wrapped
+ * sealed PDF.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=DssResponseParser}
+ * or via {@link #main(String[])} from the IDE. Add {@code -prof gc} to see
+ * allocation per operation.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DssResponseParserBenchmark {
+
+    @Param({ "100000", "5000000" })
+    public int pdfSize;
+
+    private String responseXml;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setUp() {
+        byte[] pdf = new byte[pdfSize];
+        new Random(42).nextBytes(pdf);
+        responseXml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+                  <soap:Body>
+                    <dss:SignResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema">
+                      <dss:Result>
+                        <dss:ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</dss:ResultMajor>
+                      </dss:Result>
+                      <dss:OptionalOutputs>
+                        <dss:DocumentWithSignature>
+                          <dss:XMLData><dss:Base64Data MimeType="application/pdf">%s</dss:Base64Data></dss:XMLData>
+                        </dss:DocumentWithSignature>
+                      </dss:OptionalOutputs>
+                    </dss:SignResponse>
+                  </soap:Body>
+                </soap:Envelope>
+                """.formatted(Base64.getMimeEncoder().encodeToString(pdf));
+        responseBytes = responseXml.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Previous approach: response held as a String, scanned per tag, payload copied twice. */
+    @Benchmark
+    public void legacyStringScan(Blackhole bh) {
+        bh.consume(LegacyScanner.extractTag(responseXml, "ResultMajor"));
+        String base64 = LegacyScanner.extractTag(responseXml, "Base64Data");
+        bh.consume(Base64.getDecoder().decode(base64.replaceAll("\\s+", "")));
+    }
+
+    /** Parser fed from the raw response bytes, as ESealSoapClient does. */
+    @Benchmark
+    public void streamingParser(Blackhole bh) {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream(pdfSize);
+        DssResponse response = DssResponseParser.parse(new ByteArrayInputStream(responseBytes),
+                DssResponseParser.BASE64_DATA, sink);
+        bh.consume(response);
+        bh.consume(sink);
+    }
+
+    /** Parser with a discarding sink — isolates parse/decode cost from buffering the result. */
+    @Benchmark
+    public void streamingParserNullSink(Blackhole bh) {
+        bh.consume(DssResponseParser.parse(new ByteArrayInputStream(responseBytes),
+                DssResponseParser.BASE64_DATA, OutputStream.nullOutputStream()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DssResponseParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /** Verbatim copy of the tag scanning formerly in PadesESealService. */
+    static final class LegacyScanner {
+
+        private LegacyScanner() {
+        }
+
+        static String extractTag(String xml, String tagName) {
+            String open = "<" + tagName + ">";
+            int startIdx = xml.indexOf(open);
+            if (startIdx >= 0) {
+                startIdx += open.length();
+            } else {
+                String altOpen = "<" + tagName + " ";
+                startIdx = xml.indexOf(altOpen);
+                if (startIdx >= 0) {
+                    startIdx = xml.indexOf(">", startIdx) + 1;
+                }
+            }
+            if (startIdx < 0) {
+                int nsIdx = xml.indexOf(":" + tagName + ">");
+                if (nsIdx >= 0) {
+                    startIdx = nsIdx + tagName.length() + 2;
+                } else {
+                    nsIdx = xml.indexOf(":" + tagName + " ");
+                    if (nsIdx >= 0) {
+                        startIdx = xml.indexOf(">", nsIdx) + 1;
+                    }
+                }
+            }
+
+            String close = "</" + tagName + ">";
+            int endIdx = xml.indexOf(close);
+            if (endIdx < 0) {
+                int nsClose = xml.indexOf(":" + tagName + ">");
+                if (nsClose > 0 && xml.charAt(nsClose - 1) == '/') {
+                    return null;
+                }
+                String pattern = ":" + tagName + ">";
+                int lastIdx = xml.lastIndexOf(pattern);
+                if (lastIdx > startIdx) {
+                    int slashIdx = xml.lastIndexOf("</", lastIdx);
+                    if (slashIdx >= 0) {
+                        endIdx = slashIdx;
+                    }
+                }
+            }
+
+            if (startIdx >= 0 && endIdx > startIdx) {
+                return xml.substring(startIdx, endIdx).trim();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DssResponseParserTest {
+
+    private static final String SUCCESS = "urn:oasis:names:tc:dss:1.0:resultmajor:Success";
+
+    @Test
+    @DisplayName("Namespaced SOAP response → line-wrapped Base64Data is decoded to the sink")
+    void decodesWrappedNamespacedPayload() {
+        byte[] document = new byte[50_000];
+        for (int i = 0; i < document.length; i++) {
+            document[i] = (byte) (i * 7);
+        }
+        String wrapped = Base64.getMimeEncoder().encodeToString(document);
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <soap:Envelope xmlns:soap="http://schemas.xmlsoap.org/soap/envelope/">
+                  <soap:Body>
+                    <dss:SignResponse xmlns:dss="urn:oasis:names:tc:dss:1.0:core:schema">
+                      <dss:Result><dss:ResultMajor> %s </dss:ResultMajor></dss:Result>
+                      <dss:OptionalOutputs>
+                        <dss:DocumentWithSignature>
+                          <dss:XMLData><dss:Base64Data MimeType="application/pdf">
+                %s
+                          </dss:Base64Data></dss:XMLData>
+                        </dss:DocumentWithSignature>
+                      </dss:OptionalOutputs>
+                    </dss:SignResponse>
+                  </soap:Body>
+                </soap:Envelope>
+                """.formatted(SUCCESS, wrapped);
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        DssResponse response = DssResponseParser.parse(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), DssResponseParser.BASE64_DATA, sink);
+
+        assertTrue(response.isSuccess());
+        assertEquals(SUCCESS, response.getResultMajor());
+        assertEquals(document.length, response.getPayloadBytes());
+        assertArrayEquals(document, sink.toByteArray());
+    }
+
+    @Test
+    @DisplayName("Error response → ResultMajor/Minor/Message extracted, no payload")
+    void extractsErrorFields() {
+        String xml = """
+                <SignResponse>
+                  <Result>
+                    <ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:RequesterError</ResultMajor>
+                    <ResultMinor>urn:oasis:names:tc:dss:1.0:resultminor:KeyLookupFailed</ResultMinor>
+                    <ResultMessage xml:lang="en">Key not found</ResultMessage>
+                  </Result>
+                </SignResponse>
+                """;
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        DssResponse response = DssResponseParser.parse(xml, DssResponseParser.BASE64_DATA, sink);
+
+        assertFalse(response.isSuccess());
+        assertEquals("urn:oasis:names:tc:dss:1.0:resultminor:KeyLookupFailed", response.getResultMinor());
+        assertEquals("Key not found", response.getResultMessage());
+        assertFalse(response.hasPayload());
+        assertEquals(-1, response.getPayloadBytes());
+        assertEquals(0, sink.size());
+    }
+
+    @Test
+    @DisplayName("CAdES → Base64Signature is decoded, preceding Base64Data is skipped")
+    void selectsRequestedPayloadElement() {
+        byte[] signature = "pkcs7".getBytes();
+        String xml = """
+                <SignResponse>
+                  <Result><ResultMajor>%s</ResultMajor></Result>
+                  <Document><Base64Data>%s</Base64Data></Document>
+                  <SignatureObject><Base64Signature>%s</Base64Signature></SignatureObject>
+                </SignResponse>
+                """.formatted(SUCCESS,
+                Base64.getEncoder().encodeToString("original".getBytes()),
+                Base64.getEncoder().encodeToString(signature));
+
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        DssResponse response = DssResponseParser.parse(xml, DssResponseParser.BASE64_SIGNATURE, sink);
+
+        assertArrayEquals(signature, sink.toByteArray());
+        assertEquals(signature.length, response.getPayloadBytes());
+    }
+
+    @Test
+    @DisplayName("Verify response → signer identity (nested markup flattened) and signing time")
+    void extractsVerifyFields() {
+        String xml = """
+                <VerifyResponse>
+                  <Result><ResultMajor>%s</ResultMajor></Result>
+                  <OptionalOutputs>
+                    <SignerIdentity><saml:NameIdentifier xmlns:saml="urn:saml">CN=Org eSeal</saml:NameIdentifier></SignerIdentity>
+                    <SigningTime>2024-01-01T10:00:00Z</SigningTime>
+                  </OptionalOutputs>
+                </VerifyResponse>
+                """.formatted(SUCCESS);
+
+        DssResponse response = DssResponseParser.parse(xml, null, null);
+
+        assertTrue(response.isSuccess());
+        assertEquals("CN=Org eSeal", response.getSignerIdentity());
+        assertEquals("2024-01-01T10:00:00Z", response.getSigningTime());
+    }
+
+    @Test
+    @DisplayName("All Base64 padding variants decode correctly")
+    void decodesPaddingVariants() {
+        for (int length = 0; length < 8; length++) {
+            byte[] data = new byte[length];
+            for (int i = 0; i < length; i++) {
+                data[i] = (byte) (0xF0 + i);
+            }
+            String xml = "<R><ResultMajor>" + SUCCESS + "</ResultMajor><Base64Data>"
+                    + Base64.getEncoder().encodeToString(data) + "</Base64Data></R>";
+
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            DssResponseParser.parse(xml, DssResponseParser.BASE64_DATA, sink);
+
+            assertArrayEquals(data, sink.toByteArray(), "length " + length);
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid Base64 payload → IllegalArgumentException")
+    void rejectsInvalidBase64() {
+        String xml = "<R><Base64Data>AB*D</Base64Data></R>";
+
+        assertThrows(IllegalArgumentException.class,
+                () -> DssResponseParser.parse(xml, DssResponseParser.BASE64_DATA, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @DisplayName("DOCTYPE / external entities are rejected")
+    void rejectsDoctype() {
+        String xml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE r [<!ENTITY xxe SYSTEM "file:///etc/passwd">]>
+                <R><ResultMajor>&xxe;</ResultMajor></R>
+                """;
+
+        assertThrows(IllegalStateException.class, () -> DssResponseParser.parse(xml, null, null));
+    }
+}
@@ -0,0 +1,138 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.ESealBatchResponse;
+import com.yoursp.uaepass.modules.eseal.dto.ESealBatchStatus;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.storage.StorageService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class ESealBatchServiceTest {
+
+    @Mock
+    private EsealJobRepository jobRepository;
+    @Mock
+    private StorageService storageService;
+    @Mock
+    private AuditService auditService;
+
+    @InjectMocks
+    private ESealBatchService batchService;
+
+    @Test
+    @DisplayName("Submit stores every input and queues one job per document")
+    void submitQueuesJobs() throws Exception {
+        UUID userId = UUID.randomUUID();
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.pdf", "application/pdf", "%PDF-1.4 a".getBytes()),
+                new MockMultipartFile("files", "../../b.pdf", "application/pdf", "%PDF-1.4 b".getBytes()));
+
+        ESealBatchResponse response = batchService.submit(files, "PADES", userId);
+
+        assertEquals(2, response.getTotal());
+        assertEquals("/eseal/bulk/" + response.getBatchId(), response.getStatusUrl());
+        verify(storageService, times(2)).upload(any(Path.class), startsWith("eseal/input/" + response.getBatchId()),
+                eq("application/pdf"));
+
+        ArgumentCaptor<List<EsealJob>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jobRepository).saveAll(captor.capture());
+        List<EsealJob> jobs = captor.getValue();
+        assertEquals(2, jobs.size());
+        assertTrue(jobs.stream().allMatch(j -> "QUEUED".equals(j.getStatus())
+                && response.getBatchId().equals(j.getBatchId())
+                && userId.equals(j.getRequestedBy())
+                && j.getInputKey() != null));
+        assertEquals("b.pdf", jobs.get(1).getFileName());
+    }
+
+    @Test
+    @DisplayName("Status aggregates job counts and lists failures")
+    void statusCounts() {
+        UUID batchId = UUID.randomUUID();
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { "SEALED", 3L });
+        rows.add(new Object[] { "FAILED", 1L });
+        when(jobRepository.countStatusesByBatchId(batchId)).thenReturn(rows);
+        when(jobRepository.findByBatchIdAndStatus(batchId, "FAILED")).thenReturn(List.of(
+                EsealJob.builder().id(UUID.randomUUID()).fileName("x.pdf").errorMessage("Invalid document").build()));
+
+        ESealBatchStatus status = batchService.getStatus(batchId);
+
+        assertEquals(4, status.getTotal());
+        assertEquals(3, status.getSealed());
+        assertTrue(status.isComplete());
+        assertEquals("x.pdf", status.getFailures().get(0).getFileName());
+    }
+
+    @Test
+    @DisplayName("Status is incomplete while jobs are queued or processing")
+    void statusInProgress() {
+        UUID batchId = UUID.randomUUID();
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { "QUEUED", 2L });
+        rows.add(new Object[] { "SEALED", 1L });
+        when(jobRepository.countStatusesByBatchId(batchId)).thenReturn(rows);
+
+        ESealBatchStatus status = batchService.getStatus(batchId);
+
+        assertFalse(status.isComplete());
+        assertTrue(status.getFailures().isEmpty());
+        verify(jobRepository, never()).findByBatchIdAndStatus(any(), any());
+    }
+
+    @Test
+    @DisplayName("ZIP contains each sealed output under its original name")
+    void writesZip() throws Exception {
+        UUID batchId = UUID.randomUUID();
+        when(jobRepository.findByBatchIdAndStatus(batchId, "SEALED")).thenReturn(List.of(
+                EsealJob.builder().id(UUID.randomUUID()).sealType("PADES").fileName("a.pdf").outputKey("k1").build(),
+                EsealJob.builder().id(UUID.randomUUID()).sealType("CADES").fileName("b.xml").outputKey("k2").build()));
+        when(storageService.openStream("k1")).thenReturn(new ByteArrayInputStream("sealed-a".getBytes()));
+        when(storageService.openStream("k2")).thenReturn(new ByteArrayInputStream("sig-b".getBytes()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchService.writeZip(batchId, out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName() + "=" + new String(zip.readAllBytes()));
+            }
+        }
+        assertEquals(List.of("a.pdf=sealed-a", "b.xml.p7s=sig-b"), names);
+    }
+
+    @Test
+    @DisplayName("File names are reduced to their last path segment")
+    void safeFileName() {
+        assertEquals("doc.pdf", ESealBatchService.safeFileName("C:\\tmp\\doc.pdf", 0));
+        assertEquals("doc.pdf", ESealBatchService.safeFileName("../../etc/doc.pdf", 0));
+        assertEquals("document-3", ESealBatchService.safeFileName("..", 3));
+        assertEquals("document-4", ESealBatchService.safeFileName(null, 4));
+    }
+}
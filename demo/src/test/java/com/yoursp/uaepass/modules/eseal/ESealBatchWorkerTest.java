@@ -0,0 +1,129 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ESealBatchWorkerTest {
+
+    @Mock
+    private EsealJobRepository jobRepository;
+    @Mock
+    private PadesESealService padesService;
+    @Mock
+    private CadesESealService cadesService;
+
+    private ThreadPoolTaskExecutor executor;
+    private ESealBatchWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(2);
+        executor.initialize();
+        worker = new ESealBatchWorker(jobRepository, padesService, cadesService, executor);
+        ReflectionTestUtils.setField(worker, "maxAttempts", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Dispatch claims only as many jobs as the pool can take and skips lost claims")
+    void dispatchClaims() {
+        UUID won = UUID.randomUUID();
+        UUID lost = UUID.randomUUID();
+        when(jobRepository.findQueuedIds(any(Pageable.class))).thenReturn(List.of(won, lost));
+        when(jobRepository.claim(eq(won), any(OffsetDateTime.class))).thenReturn(1);
+        when(jobRepository.claim(eq(lost), any(OffsetDateTime.class))).thenReturn(0);
+
+        worker.dispatch();
+
+        verify(jobRepository).findQueuedIds(argThat(p -> p.getPageSize() == 4));
+        verify(jobRepository, timeout(2000)).findById(won);
+        verify(jobRepository, never()).findById(lost);
+    }
+
+    @Test
+    @DisplayName("Processing routes CADES jobs to the CAdES service")
+    void routesBySealType() throws Exception {
+        EsealJob job = EsealJob.builder().id(UUID.randomUUID()).sealType("CADES").status("PROCESSING").build();
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        worker.process(job.getId());
+
+        verify(cadesService).sealQueuedJob(job);
+        verifyNoInteractions(padesService);
+    }
+
+    @Test
+    @DisplayName("eSeal unavailable → job released back to the queue and dispatching pauses")
+    void releasesWhenUnavailable() throws Exception {
+        EsealJob job = EsealJob.builder().id(UUID.randomUUID()).sealType("PADES").status("PROCESSING")
+                .attempts(1).build();
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        doThrow(new ESealUnavailableException("down")).when(padesService).sealQueuedJob(job);
+
+        worker.process(job.getId());
+        worker.dispatch();
+
+        verify(jobRepository).release(job.getId());
+        verify(jobRepository, never()).save(any());
+        verify(jobRepository, never()).findQueuedIds(any());
+    }
+
+    @Test
+    @DisplayName("Call shed by the limiter → job handed back without using an attempt")
+    void unclaimsWhenOverloaded() throws Exception {
+        EsealJob job = EsealJob.builder().id(UUID.randomUUID()).sealType("PADES").status("PROCESSING")
+                .attempts(3).build();
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        doThrow(new ESealOverloadedException("busy")).when(padesService).sealQueuedJob(job);
+
+        worker.process(job.getId());
+
+        verify(jobRepository).unclaim(job.getId());
+        verify(jobRepository, never()).save(any());
+        verify(jobRepository, never()).release(any());
+    }
+
+    @Test
+    @DisplayName("eSeal unavailable on the last attempt → job marked FAILED")
+    void failsAfterMaxAttempts() throws Exception {
+        EsealJob job = EsealJob.builder().id(UUID.randomUUID()).sealType("PADES").status("PROCESSING")
+                .attempts(3).build();
+        when(jobRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        doThrow(new ESealUnavailableException("down")).when(padesService).sealQueuedJob(job);
+
+        worker.process(job.getId());
+
+        assertEquals("FAILED", job.getStatus());
+        assertNotNull(job.getCompletedAt());
+        verify(jobRepository).save(job);
+        verify(jobRepository, never()).release(any());
+    }
+}
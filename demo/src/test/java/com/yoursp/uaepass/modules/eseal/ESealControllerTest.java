@@ -0,0 +1,73 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.modules.face.FaceVerificationService;
+import com.yoursp.uaepass.modules.face.FaceVerifiedInterceptor;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import com.yoursp.uaepass.service.storage.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ESealControllerTest {
+
+    @Mock
+    private PadesESealService padesService;
+    @Mock
+    private CadesESealService cadesService;
+    @Mock
+    private ESealVerificationService verificationService;
+    @Mock
+    private ESealBatchService batchService;
+    @Mock
+    private EsealJobRepository jobRepository;
+    @Mock
+    private StorageService storageService;
+    @Mock
+    private FaceVerificationService faceVerificationService;
+
+    @InjectMocks
+    private ESealController controller;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addInterceptors(new FaceVerifiedInterceptor(faceVerificationService, new ObjectMapper()))
+                .build();
+    }
+
+    @Test
+    @DisplayName("POST /eseal/bulk without a recent face verification → 403, nothing queued")
+    void bulkRequiresFaceVerification() throws Exception {
+        User user = User.builder().id(UUID.randomUUID()).build();
+        when(faceVerificationService.hasRecentVerification(user.getId())).thenReturn(false);
+        MockMultipartFile pdf = new MockMultipartFile("files", "a.pdf", "application/pdf",
+                "%PDF-1.4 test".getBytes());
+
+        mockMvc.perform(multipart("/eseal/bulk").file(pdf).requestAttr("currentUser", user))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.error").value("FACE_VERIFICATION_REQUIRED"));
+
+        verify(batchService, never()).submit(any(), any(), any());
+    }
+}
@@ -0,0 +1,172 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.ESealResult;
+import com.yoursp.uaepass.repository.EsealJobRepository;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class ESealIdempotencyServiceTest {
+
+    @Mock
+    private EsealJobRepository jobRepository;
+
+    @InjectMocks
+    private ESealIdempotencyService idempotencyService;
+
+    private SpooledUpload document;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(idempotencyService, "windowMinutes", 30L);
+        document = SpooledUpload.spool(new ByteArrayInputStream("%PDF-1.4 same document".getBytes()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        document.close();
+    }
+
+    @Test
+    @DisplayName("Sealed job with the same key inside the window → reused without sealing")
+    void reusesSealedJob() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        when(jobRepository.findFirstByIdempotencyKeyAndStatusAndCreatedAtAfterOrderByCreatedAtDesc(
+                anyString(), eq("SEALED"), any(OffsetDateTime.class)))
+                .thenReturn(Optional.of(EsealJob.builder().id(jobId).outputKey("eseal/" + jobId + ".pdf")
+                        .requestId("r1").build()));
+
+        ESealResult result = idempotencyService.sealOnce(document, "PADES", userId, null,
+                key -> fail("must not seal again"));
+
+        assertTrue(result.isReused());
+        assertEquals(jobId, result.getJobId());
+        assertEquals("eseal/" + jobId + ".pdf", result.getOutputKey());
+    }
+
+    @Test
+    @DisplayName("No previous seal → seal runs with the computed key")
+    void sealsWhenNew() throws Exception {
+        String expectedKey = ESealIdempotencyService.idempotencyKey(userId, "PADES", document.sha256(), null);
+        UUID jobId = UUID.randomUUID();
+
+        ESealResult result = idempotencyService.sealOnce(document, "PADES", userId, null, key -> {
+            assertEquals(expectedKey, key);
+            return ESealResult.builder().jobId(jobId).build();
+        });
+
+        assertFalse(result.isReused());
+        assertEquals(jobId, result.getJobId());
+        verify(jobRepository, times(2)).findFirstByIdempotencyKeyAndStatusAndCreatedAtAfterOrderByCreatedAtDesc(
+                eq(expectedKey), eq("SEALED"), any(OffsetDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Concurrent duplicates collapse onto one seal")
+    void singleFlight() throws Exception {
+        CountDownLatch sealing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger seals = new AtomicInteger();
+        AtomicBoolean persisted = new AtomicBoolean();
+        UUID jobId = UUID.randomUUID();
+        // Once the first seal is stored, a late duplicate finds it in the database instead
+        when(jobRepository.findFirstByIdempotencyKeyAndStatusAndCreatedAtAfterOrderByCreatedAtDesc(
+                anyString(), eq("SEALED"), any(OffsetDateTime.class)))
+                .thenAnswer(inv -> persisted.get()
+                        ? Optional.of(EsealJob.builder().id(jobId).build())
+                        : Optional.empty());
+
+        CompletableFuture<ESealResult> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return idempotencyService.sealOnce(document, "PADES", userId, null, key -> {
+                    seals.incrementAndGet();
+                    sealing.countDown();
+                    awaitQuietly(release);
+                    persisted.set(true);
+                    return ESealResult.builder().jobId(jobId).build();
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(sealing.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<ESealResult> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return idempotencyService.sealOnce(document, "PADES", userId, null, key -> {
+                    seals.incrementAndGet();
+                    return ESealResult.builder().jobId(UUID.randomUUID()).build();
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        release.countDown();
+
+        assertEquals(jobId, first.get(5, TimeUnit.SECONDS).getJobId());
+        ESealResult duplicate = second.get(5, TimeUnit.SECONDS);
+        assertEquals(1, seals.get());
+        assertEquals(jobId, duplicate.getJobId());
+        assertTrue(duplicate.isReused());
+    }
+
+    @Test
+    @DisplayName("Failed seal is not cached — the next request seals again")
+    void failureNotReused() throws Exception {
+        assertThrows(ESealUnavailableException.class, () -> idempotencyService.sealOnce(document, "PADES",
+                userId, null, key -> {
+                    throw new ESealUnavailableException("down");
+                }));
+
+        ESealResult result = idempotencyService.sealOnce(document, "PADES", userId, null,
+                key -> ESealResult.builder().jobId(UUID.randomUUID()).build());
+        assertFalse(result.isReused());
+    }
+
+    @Test
+    @DisplayName("Key depends on requester, seal type, document and client key")
+    void keyScope() {
+        byte[] digest = new byte[32];
+        String base = ESealIdempotencyService.idempotencyKey(userId, "PADES", digest, null);
+
+        assertEquals(64, base.length());
+        assertEquals(base, ESealIdempotencyService.idempotencyKey(userId, "PADES", digest, null));
+        assertNotEquals(base, ESealIdempotencyService.idempotencyKey(UUID.randomUUID(), "PADES", digest, null));
+        assertNotEquals(base, ESealIdempotencyService.idempotencyKey(userId, "CADES", digest, null));
+        assertNotEquals(base, ESealIdempotencyService.idempotencyKey(userId, "PADES", new byte[] { 1 }, null));
+        assertNotEquals(base, ESealIdempotencyService.idempotencyKey(userId, "PADES", digest, "client-1"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.yoursp.uaepass.modules.eseal;
 
+import com.sun.net.httpserver.HttpServer;
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -7,6 +9,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -17,7 +28,8 @@ class ESealSoapClientTest {
 
     @BeforeEach
     void setUp() {
-        soapClient = new ESealSoapClient();
+        soapClient = new ESealSoapClient(
+                new AdaptiveConcurrencyLimiter("test", 4, 1, 16, 0, Duration.ZERO, 2.0));
         ReflectionTestUtils.setField(soapClient, "clientId", "test-client");
         ReflectionTestUtils.setField(soapClient, "clientSecret", "test-secret");
     }
@@ -28,8 +40,75 @@ class ESealSoapClientTest {
         assertThrows(RuntimeException.class,
                 () -> soapClient.executeSoapRequest(
                         "http://invalid-host-that-does-not-exist.local/soap",
-                        "<SignRequest/>",
-                        "req-001"));
+                        SoapBody.builder().text("<SignRequest/>").build(),
+                        "req-001",
+                        null,
+                        null));
+    }
+
+    @Test
+    @DisplayName("Streamed envelope is sent with Content-Length and the response payload is decoded")
+    void streamsEnvelopeAndDecodesResponse() throws Exception {
+        byte[] sealed = "%PDF sealed".getBytes(StandardCharsets.UTF_8);
+        AtomicReference<String> received = new AtomicReference<>();
+        AtomicReference<String> contentLength = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/soap", exchange -> {
+            contentLength.set(exchange.getRequestHeaders().getFirst("Content-Length"));
+            received.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] response = ("<SignResponse><Result><ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success"
+                    + "</ResultMajor></Result><Base64Data>" + Base64.getEncoder().encodeToString(sealed)
+                    + "</Base64Data></SignResponse>").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        try {
+            SoapBody body = SoapBody.builder()
+                    .text("<SignRequest><Base64Data>")
+                    .base64(() -> new ByteArrayInputStream("doc".getBytes()), 3)
+                    .text("</Base64Data></SignRequest>")
+                    .build();
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+            DssResponse response = soapClient.executeSoapRequest(
+                    "http://127.0.0.1:" + server.getAddress().getPort() + "/soap",
+                    body, "req-002", DssResponseParser.BASE64_DATA, sink);
+
+            assertTrue(response.isSuccess());
+            assertArrayEquals(sealed, sink.toByteArray());
+            assertTrue(received.get().contains("<wsse:Username>test-client</wsse:Username>"));
+            assertTrue(received.get().contains("<SignRequest><Base64Data>ZG9j</Base64Data></SignRequest>"));
+            assertEquals(String.valueOf(received.get().getBytes(StandardCharsets.UTF_8).length), contentLength.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("HTTP 503 from the service lowers the concurrency limit")
+    void serviceUnavailableLowersLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 16, 0, Duration.ZERO, 2.0);
+        soapClient = new ESealSoapClient(limiter);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/soap", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            assertThrows(RuntimeException.class, () -> soapClient.executeSoapRequest(
+                    "http://127.0.0.1:" + server.getAddress().getPort() + "/soap",
+                    SoapBody.builder().text("<SignRequest/>").build(), "req-003", null, null));
+
+            assertEquals(9, limiter.getLimit());
+            assertEquals(0, limiter.getInFlight());
+        } finally {
+            server.stop(0);
+        }
     }
 
     @Test
@@ -1,10 +1,12 @@
 package com.yoursp.uaepass.modules.eseal;
 
 import com.yoursp.uaepass.model.entity.EsealJob;
+import com.yoursp.uaepass.modules.eseal.dto.DssResponse;
 import com.yoursp.uaepass.modules.eseal.dto.ESealResult;
 import com.yoursp.uaepass.repository.EsealJobRepository;
 import com.yoursp.uaepass.service.AuditService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,9 +14,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,7 +59,7 @@ class PadesESealServiceTest {
 
         @Test
         @DisplayName("Successful PAdES seal → returns sealed PDF bytes")
-        void successfulPadesSeal() {
+        void successfulPadesSeal() throws Exception {
                 byte[] pdfBytes = "%PDF-1.4 test content".getBytes();
                 UUID userId = UUID.randomUUID();
                 UUID jobId = UUID.randomUUID();
@@ -67,8 +79,9 @@ class PadesESealServiceTest {
                                 """
                                 .formatted(b64Sealed);
 
-                when(soapClient.executeSoapRequest(anyString(), anyString(), anyString()))
-                                .thenReturn(soapResponse);
+                when(soapClient.executeSoapRequest(anyString(), any(SoapBody.class), anyString(), any(), any()))
+                                .thenAnswer(respondWith(soapResponse));
+                Map<String, byte[]> stored = captureUploads();
                 when(jobRepository.save(any(EsealJob.class))).thenAnswer(inv -> {
                         EsealJob j = inv.getArgument(0);
                         if (j.getId() == null)
@@ -76,22 +89,60 @@ class PadesESealServiceTest {
                         return j;
                 });
 
-                ESealResult result = padesService.sealPdf(pdfBytes, userId);
+                ESealResult result;
+                try (SpooledUpload pdf = spool(pdfBytes)) {
+                        result = padesService.sealPdf(pdf, userId);
+                        // Input is copied from the spool file
+                        verify(storageService).upload(eq(pdf.path()), contains("eseal/input/"), eq("application/pdf"));
+                }
 
                 assertNotNull(result);
                 assertEquals(jobId, result.getJobId());
-                assertArrayEquals(sealedPdf, result.getSealedBytes());
+                assertEquals("eseal/" + jobId + ".pdf", result.getOutputKey());
+                assertEquals(sealedPdf.length, result.getSealedSize());
                 assertNotNull(result.getRequestId());
 
-                // Verify storage was called
-                verify(storageService, times(2)).upload(any(byte[].class), anyString(), anyString());
+                // Sealed PDF decoded from the response reaches storage intact
+                assertArrayEquals(sealedPdf, stored.get(result.getOutputKey()));
+                assertArrayEquals(pdfBytes, stored.get("eseal/input/" + jobId + ".pdf"));
                 verify(auditService).log(eq(userId), eq("ESEAL_PDF"), eq("ESEAL_JOB"),
                                 anyString(), isNull(), anyMap());
         }
 
+        @Test
+        @DisplayName("SignRequest body carries the PDF Base64-encoded from the spool file")
+        void signRequestEmbedsBase64Pdf() throws Exception {
+                byte[] pdfBytes = "%PDF-1.4 streamed into the request".getBytes();
+                String b64Sealed = Base64.getEncoder().encodeToString("%PDF sealed".getBytes());
+                String soapResponse = """
+                                <SignResponse>
+                                  <Result><ResultMajor>urn:oasis:names:tc:dss:1.0:resultmajor:Success</ResultMajor></Result>
+                                  <Base64Data>%s</Base64Data>
+                                </SignResponse>
+                                """.formatted(b64Sealed);
+
+                String expected = "<Base64Data MimeType=\"application/pdf\">"
+                                + Base64.getEncoder().encodeToString(pdfBytes) + "</Base64Data>";
+                when(soapClient.executeSoapRequest(anyString(),
+                                argThat(body -> render(body).contains(expected)
+                                                && render(body).contains("pades:1.0:sign")),
+                                anyString(), any(), any()))
+                                .thenAnswer(respondWith(soapResponse));
+                when(jobRepository.save(any(EsealJob.class))).thenAnswer(inv -> {
+                        EsealJob j = inv.getArgument(0);
+                        if (j.getId() == null)
+                                j.setId(UUID.randomUUID());
+                        return j;
+                });
+
+                try (SpooledUpload pdf = spool(pdfBytes)) {
+                        assertNotNull(padesService.sealPdf(pdf, UUID.randomUUID()));
+                }
+        }
+
         @Test
         @DisplayName("Failed SOAP response → throws + records failed job")
-        void failedSoapResponse() {
+        void failedSoapResponse() throws Exception {
                 byte[] pdfBytes = "%PDF-1.4 test".getBytes();
                 UUID userId = UUID.randomUUID();
 
@@ -104,12 +155,15 @@ class PadesESealServiceTest {
                                 </SignResponse>
                                 """;
 
-                when(soapClient.executeSoapRequest(anyString(), anyString(), anyString()))
-                                .thenReturn(failResponse);
+                when(soapClient.executeSoapRequest(anyString(), any(SoapBody.class), anyString(), any(), any()))
+                                .thenAnswer(respondWith(failResponse));
                 when(jobRepository.save(any(EsealJob.class))).thenAnswer(inv -> inv.getArgument(0));
 
-                RuntimeException ex = assertThrows(RuntimeException.class,
-                                () -> padesService.sealPdf(pdfBytes, userId));
+                RuntimeException ex;
+                try (SpooledUpload pdf = spool(pdfBytes)) {
+                        ex = assertThrows(RuntimeException.class,
+                                        () -> padesService.sealPdf(pdf, userId));
+                }
 
                 assertTrue(ex.getMessage().contains("PAdES eSeal failed"));
                 verify(jobRepository).save(argThat(job -> "FAILED".equals(job.getStatus())));
@@ -117,10 +171,39 @@ class PadesESealServiceTest {
 
         @Test
         @DisplayName("Unconfigured endpoint → throws ESealUnavailableException")
-        void unconfiguredEndpoint() {
+        void unconfiguredEndpoint() throws Exception {
                 ReflectionTestUtils.setField(padesService, "soapEndpoint", "");
 
-                assertThrows(ESealUnavailableException.class,
-                                () -> padesService.sealPdf("%PDF".getBytes(), UUID.randomUUID()));
+                try (SpooledUpload pdf = spool("%PDF".getBytes())) {
+                        assertThrows(ESealUnavailableException.class,
+                                        () -> padesService.sealPdf(pdf, UUID.randomUUID()));
+                }
+        }
+
+        private static SpooledUpload spool(byte[] bytes) throws Exception {
+                return SpooledUpload.spool(new ByteArrayInputStream(bytes));
+        }
+
+        /** Run the real parser over a canned response, as ESealSoapClient would. */
+        private static Answer<DssResponse> respondWith(String responseXml) {
+                return inv -> DssResponseParser.parse(responseXml, inv.getArgument(3), inv.getArgument(4));
+        }
+
+        /** Record the bytes of every Path upload before the service deletes its temp file. */
+        private Map<String, byte[]> captureUploads() {
+                Map<String, byte[]> stored = new HashMap<>();
+                when(storageService.upload(any(Path.class), anyString(), anyString())).thenAnswer(inv -> {
+                        stored.put(inv.getArgument(1), Files.readAllBytes(inv.getArgument(0)));
+                        return inv.getArgument(1);
+                });
+                return stored;
+        }
+
+        private static String render(SoapBody body) {
+                try (InputStream in = body.openStream()) {
+                        return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                }
         }
 }
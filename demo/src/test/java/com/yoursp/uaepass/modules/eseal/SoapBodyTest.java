@@ -0,0 +1,83 @@
+package com.yoursp.uaepass.modules.eseal;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoapBodyTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Text and Base64 file parts render in order with exact content length")
+    void rendersPartsInOrder() throws Exception {
+        for (int size : new int[] { 0, 1, 2, 3, 12_287, 12_288, 12_289, 100_000 }) {
+            byte[] content = new byte[size];
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte) (i * 13);
+            }
+            Path file = Files.write(tempDir.resolve("doc-" + size), content);
+
+            SoapBody body = SoapBody.builder()
+                    .text("<Base64Data>")
+                    .base64(file)
+                    .text("</Base64Data>")
+                    .build();
+
+            String expected = "<Base64Data>" + Base64.getEncoder().encodeToString(content) + "</Base64Data>";
+            byte[] rendered;
+            try (InputStream in = body.openStream()) {
+                rendered = in.readAllBytes();
+            }
+            assertEquals(expected, new String(rendered, StandardCharsets.US_ASCII), "size " + size);
+            assertEquals(rendered.length, body.contentLength(), "size " + size);
+        }
+    }
+
+    @Test
+    @DisplayName("Body can be reopened, and sources are opened only when reached")
+    void reopensLazily() throws Exception {
+        AtomicInteger opens = new AtomicInteger();
+        SoapBody body = SoapBody.builder()
+                .text("<a>")
+                .base64(() -> {
+                    opens.incrementAndGet();
+                    return new ByteArrayInputStream("xyz".getBytes());
+                }, 3)
+                .text("</a>")
+                .build();
+
+        InputStream first = body.openStream();
+        assertEquals('<', first.read());
+        assertEquals(0, opens.get());
+        assertEquals("a>eHl6</a>", new String(first.readAllBytes(), StandardCharsets.US_ASCII));
+        first.close();
+
+        try (InputStream second = body.openStream()) {
+            assertEquals("<a>eHl6</a>", new String(second.readAllBytes(), StandardCharsets.US_ASCII));
+        }
+        assertEquals(2, opens.get());
+    }
+
+    @Test
+    @DisplayName("Unknown source length → content length is -1")
+    void unknownLength() {
+        SoapBody body = SoapBody.builder()
+                .text("<a>")
+                .base64(() -> new ByteArrayInputStream(new byte[0]), -1)
+                .build();
+
+        assertEquals(-1, body.contentLength());
+    }
+}
@@ -1,22 +1,232 @@
 package com.yoursp.uaepass.modules.hashsigning;
 
+import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
+import com.yoursp.uaepass.modules.auth.StateService;
+import com.yoursp.uaepass.modules.hashsigning.dto.BulkDoc;
+import com.yoursp.uaepass.modules.hashsigning.dto.HashSignJobDto;
+import com.yoursp.uaepass.modules.hashsigning.dto.HashStartResult;
+import com.yoursp.uaepass.modules.signature.LtvService;
+import com.yoursp.uaepass.repository.SigningJobRepository;
+import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
+import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.util.Hex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.MessageDigest;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
 class BulkHashSignServiceTest {
 
+    @Mock
+    private HashSignSdkClient sdkClient;
+    @Mock
+    private StateService stateService;
+    @Mock
+    private SigningJobRepository jobRepository;
+    @Mock
+    private StorageService storageService;
+    @Mock
+    private LtvService ltvService;
+    @Mock
+    private AuditService auditService;
+    @Mock
+    private SigningJobDocumentService documentService;
+
+    private ExecutorService startExecutor;
+    private ExecutorService completeExecutor;
+    private BulkHashSignService service;
+
+    @BeforeEach
+    void setUp() {
+        startExecutor = Executors.newFixedThreadPool(4);
+        completeExecutor = Executors.newFixedThreadPool(4);
+        service = new BulkHashSignService(sdkClient, stateService, jobRepository, storageService,
+                ltvService, auditService, documentService, startExecutor, completeExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        startExecutor.shutdownNow();
+        completeExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("initiateBulk: parallel /start keeps signProp and digests_summary in document order")
+    void initiateBulkKeepsDocumentOrder() {
+        List<BulkDoc> docs = List.of(doc("a.pdf", 1), doc("b.pdf", 2), doc("c.pdf", 3));
+        String[] digests = { "aa".repeat(32), "bb".repeat(32), "cc".repeat(32) };
+        when(sdkClient.startProcess(any(), anyString())).thenAnswer(inv -> {
+            int page = Integer.parseInt(((String) inv.getArgument(1)).substring(0, 1));
+            // Earlier documents answer last
+            Thread.sleep((4 - page) * 50L);
+            return startResult("tx-" + page, digests[page - 1]);
+        });
+        when(jobRepository.save(any(SigningJob.class))).thenAnswer(inv -> {
+            SigningJob job = inv.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            return job;
+        });
+        when(stateService.generateState(eq("HASH_SIGN"), isNull(), any(), any(UUID.class))).thenReturn("state");
+
+        HashSignJobDto result = service.initiateBulk(UUID.randomUUID(), docs);
+
+        String expectedSummary = BulkHashSignService.computeDigestsSummary(List.of(
+                Hex.decode(digests[0]),
+                Hex.decode(digests[1]),
+                Hex.decode(digests[2])));
+        assertTrue(result.getSigningUrl().contains("digests_summary=" + expectedSummary));
+        assertTrue(result.getSigningUrl().contains("signProp=1:[10,20,100,50]|2:[10,20,100,50]|3:[10,20,100,50]"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SigningJobDocument>> rows = ArgumentCaptor.forClass(List.class);
+        verify(documentService).createAll(any(UUID.class), rows.capture());
+        assertEquals(List.of("a.pdf", "b.pdf", "c.pdf"),
+                rows.getValue().stream().map(SigningJobDocument::getFileName).toList());
+        assertEquals(List.of(0, 1, 2), rows.getValue().stream().map(SigningJobDocument::getDocIndex).toList());
+        assertEquals("tx-2", rows.getValue().get(1).getTxId());
+        assertEquals("http://sdk-a:8081", rows.getValue().get(0).getSdkUrl());
+        verify(storageService).upload(any(Path.class), eq("hashsign/unsigned/tx-1.pdf"), eq("application/pdf"));
+    }
+
+    @Test
+    @DisplayName("initiateBulk: a failed /start aborts and removes unsigned PDFs already stored")
+    void initiateBulkCompensatesOnFailure() {
+        List<BulkDoc> docs = List.of(doc("a.pdf", 1), doc("b.pdf", 2));
+        when(sdkClient.startProcess(any(), startsWith("1:"))).thenReturn(startResult("tx-1", "aa".repeat(32)));
+        when(sdkClient.startProcess(any(), startsWith("2:"))).thenAnswer(inv -> {
+            Thread.sleep(50);
+            throw new HashSignSdkUnavailableException("Hash SDK /start call failed");
+        });
+
+        assertThrows(HashSignSdkUnavailableException.class,
+                () -> service.initiateBulk(UUID.randomUUID(), docs));
+
+        verify(storageService).upload(any(Path.class), eq("hashsign/unsigned/tx-1.pdf"), eq("application/pdf"));
+        verify(storageService).delete("hashsign/unsigned/tx-1.pdf");
+        verifyNoInteractions(jobRepository, stateService, auditService);
+    }
+
+    @Test
+    @DisplayName("completeBulk: documents are signed in parallel and one failure marks FAILED_DOCUMENTS")
+    void completeBulkSignsInParallel() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        SigningJob job = SigningJob.builder()
+                .id(jobId)
+                .userId(UUID.randomUUID())
+                .signingType("HASH_BULK")
+                .status("AWAITING_USER")
+                .documentCount(3)
+                .build();
+        List<SigningJobDocument> documents = List.of(
+                row(jobId, 0, "tx-1", "http://sdk-b:8081"),
+                row(jobId, 1, "tx-2", null),
+                row(jobId, 2, "tx-3", null));
+        when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(documentService.forJob(job)).thenReturn(documents);
+        when(documentService.countSigned(jobId)).thenReturn(2L);
+
+        CountDownLatch allSigning = new CountDownLatch(2);
+        when(sdkClient.signDocument(any(), anyString(), eq("id"), eq("token"), any(Path.class))).thenAnswer(inv -> {
+            String txId = inv.getArgument(1);
+            if ("tx-3".equals(txId)) {
+                throw new HashSignSdkUnavailableException("Hash SDK /sign call failed");
+            }
+            // tx-1 and tx-2 only proceed once both are in /sign at the same time
+            allSigning.countDown();
+            assertTrue(allSigning.await(5, TimeUnit.SECONDS), "documents were signed serially");
+            byte[] signed = ("signed " + txId).getBytes(StandardCharsets.US_ASCII);
+            Files.write(inv.getArgument(4), signed);
+            return (long) signed.length;
+        });
+        when(ltvService.applyLtv(any(), eq(jobId))).thenAnswer(inv -> inv.getArgument(0));
+
+        List<String> progress = new CopyOnWriteArrayList<>();
+        when(jobRepository.save(any(SigningJob.class))).thenAnswer(inv -> {
+            progress.add(((SigningJob) inv.getArgument(0)).getStatus());
+            return inv.getArgument(0);
+        });
+
+        service.completeBulk(jobId, "token");
+
+        assertEquals("FAILED_DOCUMENTS", job.getStatus());
+        assertNotNull(job.getCompletedAt());
+        // Outcomes are row updates; the job itself is saved only on status changes
+        verify(documentService).markSigned(documents.get(0).getId(), "hashsign/signed/tx-1.pdf", null);
+        verify(documentService).markSigned(documents.get(1).getId(), "hashsign/signed/tx-2.pdf", null);
+        verify(documentService).markFailed(documents.get(2).getId(), "Hash SDK /sign call failed");
+        assertEquals(List.of("CALLBACK_RECEIVED", "COMPLETING", "FAILED_DOCUMENTS"), progress);
+        verify(storageService, times(2)).upload(any(Path.class), startsWith("hashsign/signed/"), eq("application/pdf"));
+        // /sign goes back to the instance that issued the txId
+        verify(sdkClient).signDocument(eq("http://sdk-b:8081"), eq("tx-1"), eq("id"), eq("token"), any(Path.class));
+    }
+
+    private static BulkDoc doc(String fileName, int page) {
+        BulkDoc doc = new BulkDoc();
+        doc.setFileName(fileName);
+        doc.setFileBase64(Base64.getEncoder().encodeToString(("%PDF-1.4 " + fileName).getBytes(StandardCharsets.US_ASCII)));
+        doc.setPageNumber(page);
+        doc.setX(10);
+        doc.setY(20);
+        doc.setWidth(100);
+        doc.setHeight(50);
+        return doc;
+    }
+
+    private static SigningJobDocument row(UUID jobId, int index, String txId, String sdkUrl) {
+        return SigningJobDocument.builder()
+                .id(UUID.randomUUID())
+                .jobId(jobId)
+                .docIndex(index)
+                .txId(txId)
+                .signIdentityId("id")
+                .sdkUrl(sdkUrl)
+                .status("PENDING")
+                .build();
+    }
+
+    private static HashStartResult startResult(String txId, String digest) {
+        HashStartResult result = new HashStartResult();
+        result.setTxId(txId);
+        result.setSignIdentityId("identity");
+        result.setDigest(digest);
+        result.setSdkUrl("http://sdk-a:8081");
+        return result;
+    }
+
     @Test
     @DisplayName("computeDigestsSummary: SHA-256 of concatenated digest byte arrays")
     void computeDigestsSummarySingle() {
         // Single digest → SHA-256(digest_bytes) should equal
         // SHA-256(hex_to_bytes(digest))
-        byte[] digest1 = BulkHashSignService
-                .hexToBytes("abcdef0123456789abcdef0123456789abcdef0123456789abcdef0123456789");
+        byte[] digest1 = Hex.decode("abcdef0123456789abcdef0123456789abcdef0123456789abcdef0123456789");
         String summary = BulkHashSignService.computeDigestsSummary(List.of(digest1));
 
         assertNotNull(summary);
@@ -26,8 +236,8 @@ class BulkHashSignServiceTest {
     @Test
     @DisplayName("computeDigestsSummary: two digests concatenated then hashed")
     void computeDigestsSummaryMultiple() throws Exception {
-        byte[] digest1 = BulkHashSignService.hexToBytes("aaaa");
-        byte[] digest2 = BulkHashSignService.hexToBytes("bbbb");
+        byte[] digest1 = Hex.decode("aaaa");
+        byte[] digest2 = Hex.decode("bbbb");
 
         String summary = BulkHashSignService.computeDigestsSummary(List.of(digest1, digest2));
 
@@ -47,23 +257,12 @@ class BulkHashSignServiceTest {
     @Test
     @DisplayName("computeDigestsSummary: order matters")
     void digestsSummaryOrderMatters() {
-        byte[] d1 = BulkHashSignService.hexToBytes("aabb");
-        byte[] d2 = BulkHashSignService.hexToBytes("ccdd");
+        byte[] d1 = Hex.decode("aabb");
+        byte[] d2 = Hex.decode("ccdd");
 
         String summary12 = BulkHashSignService.computeDigestsSummary(List.of(d1, d2));
         String summary21 = BulkHashSignService.computeDigestsSummary(List.of(d2, d1));
 
         assertNotEquals(summary12, summary21, "Order of digests must affect the summary");
     }
-
-    @Test
-    @DisplayName("hexToBytes correctly converts hex strings")
-    void hexToBytesCorrect() {
-        byte[] result = BulkHashSignService.hexToBytes("deadbeef");
-        assertEquals(4, result.length);
-        assertEquals((byte) 0xDE, result[0]);
-        assertEquals((byte) 0xAD, result[1]);
-        assertEquals((byte) 0xBE, result[2]);
-        assertEquals((byte) 0xEF, result[3]);
-    }
 }
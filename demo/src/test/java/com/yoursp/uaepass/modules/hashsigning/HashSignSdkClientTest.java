@@ -1,12 +1,21 @@
 package com.yoursp.uaepass.modules.hashsigning;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashStartResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HashSignSdkClientTest {
@@ -15,22 +24,113 @@ class HashSignSdkClientTest {
 
     @BeforeEach
     void setUp() {
-        sdkClient = new HashSignSdkClient(new ObjectMapper());
-        ReflectionTestUtils.setField(sdkClient, "sdkUrl", "http://localhost:9999");
+        sdkClient = new HashSignSdkClient(new ObjectMapper(), new HashSignSdkPool(List.of("http://localhost:9999")));
     }
 
     @Test
     @DisplayName("SDK unavailable → throws HashSignSdkUnavailableException")
-    void sdkUnavailableThrows() {
-        assertThrows(HashSignSdkUnavailableException.class,
-                () -> sdkClient.startProcess("test".getBytes(), "1:[0,0,100,50]"));
+    void sdkUnavailableThrows() throws Exception {
+        Path pdf = Files.write(Files.createTempFile("hashsign-test-", ".pdf"), "test".getBytes());
+        try {
+            assertThrows(HashSignSdkUnavailableException.class,
+                    () -> sdkClient.startProcess(pdf, "1:[0,0,100,50]"));
+        } finally {
+            Files.deleteIfExists(pdf);
+        }
     }
 
     @Test
     @DisplayName("signDocument with unavailable SDK → throws")
     void signDocumentUnavailable() {
         assertThrows(HashSignSdkUnavailableException.class,
-                () -> sdkClient.signDocument("txId-1", "sign-id-1", "access-token"));
+                () -> sdkClient.signDocument(null, "txId-1", "sign-id-1", "access-token", Path.of("unused.pdf")));
+    }
+
+    @Test
+    @DisplayName("/start sends the PDF as a raw multipart part; /sign streams the PDF into the target file")
+    void binaryTransport() throws Exception {
+        byte[] pdf = new byte[] { '%', 'P', 'D', 'F', 0, (byte) 0xFF, 0x10, '\n' };
+        byte[] signed = "%PDF-1.4 signed".getBytes(StandardCharsets.US_ASCII);
+        AtomicReference<byte[]> startBody = new AtomicReference<>();
+        AtomicReference<String> contentType = new AtomicReference<>();
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/start", exchange -> {
+            contentType.set(exchange.getRequestHeaders().getFirst("Content-Type"));
+            startBody.set(exchange.getRequestBody().readAllBytes());
+            byte[] response = "{\"txId\":\"tx-1\",\"sign_identity_id\":\"sid-1\",\"digest\":\"ab\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.createContext("/sign", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(200, signed.length);
+            exchange.getResponseBody().write(signed);
+            exchange.close();
+        });
+        server.start();
+        Path source = Files.write(Files.createTempFile("hashsign-test-", ".pdf"), pdf);
+        Path target = Files.createTempFile("hashsign-test-", ".pdf");
+        try {
+            String url = "http://127.0.0.1:" + server.getAddress().getPort();
+            sdkClient = new HashSignSdkClient(new ObjectMapper(), new HashSignSdkPool(List.of(url)));
+
+            HashStartResult result = sdkClient.startProcess(source, "1:[0,0,100,50]");
+
+            assertEquals("tx-1", result.getTxId());
+            assertEquals(url, result.getSdkUrl());
+            assertTrue(contentType.get().startsWith("multipart/form-data; boundary="));
+            String boundary = contentType.get().substring(contentType.get().indexOf('=') + 1);
+            String body = new String(startBody.get(), StandardCharsets.ISO_8859_1);
+            assertTrue(body.contains("name=\"signProp\"\r\n\r\n1:[0,0,100,50]\r\n"));
+            assertTrue(body.contains("Content-Type: application/pdf\r\n\r\n"
+                    + new String(pdf, StandardCharsets.ISO_8859_1) + "\r\n--" + boundary + "--"));
+
+            assertEquals(signed.length, sdkClient.signDocument(url, "tx-1", "sid-1", "token", target));
+            assertArrayEquals(signed, Files.readAllBytes(target));
+        } finally {
+            server.stop(0);
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(target);
+        }
+    }
+
+    @Test
+    @DisplayName("/start fails over past an unreachable instance and marks it down")
+    void startFailsOver() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/start", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] response = "{\"txId\":\"tx-2\",\"sign_identity_id\":\"sid\",\"digest\":\"ab\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        Path pdf = Files.write(Files.createTempFile("hashsign-test-", ".pdf"), "%PDF".getBytes());
+        try {
+            String live = "http://127.0.0.1:" + server.getAddress().getPort();
+            HashSignSdkPool pool = new HashSignSdkPool(List.of("http://127.0.0.1:1", live));
+            sdkClient = new HashSignSdkClient(new ObjectMapper(), pool);
+
+            HashStartResult result = sdkClient.startProcess(pdf, "1:[0,0,1,1]");
+
+            assertEquals(live, result.getSdkUrl());
+            assertFalse(pool.route("http://127.0.0.1:1").isHealthy());
+            assertTrue(pool.route(live).isHealthy());
+
+            // Health probe: the dead instance stays down, the live one answers (404 counts as up)
+            ReflectionTestUtils.setField(sdkClient, "healthPath", "/health");
+            sdkClient.checkHealth();
+            assertFalse(pool.route("http://127.0.0.1:1").isHealthy());
+            assertTrue(pool.route(live).isHealthy());
+        } finally {
+            server.stop(0);
+            Files.deleteIfExists(pdf);
+        }
     }
 
     @Test
@@ -0,0 +1,74 @@
+package com.yoursp.uaepass.modules.hashsigning;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashSignSdkPoolTest {
+
+    private final HashSignSdkPool pool = new HashSignSdkPool(
+            List.of("http://sdk-a:8081/", " http://sdk-b:8081", "http://sdk-c:8081"));
+
+    @Test
+    @DisplayName("choose picks the healthy instance with the fewest outstanding requests")
+    void leastOutstanding() {
+        HashSignSdkPool.Instance a = pool.route("http://sdk-a:8081");
+        HashSignSdkPool.Instance b = pool.route("http://sdk-b:8081");
+        HashSignSdkPool.Instance c = pool.route("http://sdk-c:8081");
+        a.begin();
+        a.begin();
+        b.begin();
+        c.begin();
+        c.begin();
+        c.begin();
+
+        assertSame(b, pool.choose(List.of()));
+
+        b.markDown("test");
+        assertSame(a, pool.choose(List.of()));
+        assertSame(c, pool.choose(List.of(a)));
+        assertNull(pool.choose(List.of(a, b, c)));
+    }
+
+    @Test
+    @DisplayName("choose falls back to all instances when none is healthy")
+    void allDown() {
+        pool.instances().forEach(i -> i.markDown("test"));
+
+        assertNotNull(pool.choose(List.of()));
+    }
+
+    @Test
+    @DisplayName("route: known URL → pooled instance; missing URL → first; retired URL → honoured; unknown → refused")
+    void route() {
+        HashSignSdkPool withRetired = new HashSignSdkPool(List.of("http://sdk-a:8081"),
+                List.of("http://retired:8081/"));
+
+        assertSame(pool.route("http://sdk-b:8081/"), pool.route("http://sdk-b:8081"));
+        assertEquals("http://sdk-a:8081", pool.route(null).getUrl());
+        assertEquals("http://retired:8081", withRetired.route("http://retired:8081").getUrl());
+        assertEquals(1, withRetired.instances().size());
+        assertThrows(HashSignSdkUnavailableException.class, () -> pool.route("http://retired:8081"));
+        assertThrows(HashSignSdkUnavailableException.class, () -> pool.route("http://attacker.example"));
+    }
+
+    @Test
+    @DisplayName("Per-instance meters are tagged by instance")
+    void meters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pool.bindTo(registry);
+        HashSignSdkPool.Instance a = pool.route("http://sdk-a:8081");
+        a.begin();
+        a.end(true);
+        a.begin();
+
+        assertEquals(1.0, registry.get("hashsign.sdk.outstanding").tag("instance", "http://sdk-a:8081").gauge().value());
+        assertEquals(1.0, registry.get("hashsign.sdk.requests").tag("instance", "http://sdk-a:8081")
+                .tag("outcome", "success").functionCounter().count());
+        assertEquals(1.0, registry.get("hashsign.sdk.healthy").tag("instance", "http://sdk-c:8081").gauge().value());
+    }
+}
@@ -1,6 +1,7 @@
 package com.yoursp.uaepass.modules.hashsigning;
 
 import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
 import com.yoursp.uaepass.modules.auth.StateService;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashSignInitiateRequest;
 import com.yoursp.uaepass.modules.hashsigning.dto.HashSignJobDto;
@@ -8,7 +9,9 @@ import com.yoursp.uaepass.modules.hashsigning.dto.HashStartResult;
 import com.yoursp.uaepass.modules.signature.LtvService;
 import com.yoursp.uaepass.repository.SigningJobRepository;
 import com.yoursp.uaepass.service.AuditService;
+import com.yoursp.uaepass.service.SigningJobDocumentService;
 import com.yoursp.uaepass.service.storage.StorageService;
+import com.yoursp.uaepass.service.upload.SpooledUpload;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,10 +21,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -41,6 +49,8 @@ class SingleHashSignServiceTest {
         private LtvService ltvService;
         @Mock
         private AuditService auditService;
+        @Mock
+        private SigningJobDocumentService documentService;
 
         @InjectMocks
         private SingleHashSignService service;
@@ -56,7 +66,7 @@ class SingleHashSignServiceTest {
 
         @Test
         @DisplayName("Initiate creates job, calls SDK, returns signingUrl with correct params")
-        void initiateSuccess() {
+        void initiateSuccess() throws Exception {
                 UUID userId = UUID.randomUUID();
                 UUID jobId = UUID.randomUUID();
 
@@ -70,7 +80,7 @@ class SingleHashSignServiceTest {
                 request.setHeight(50);
 
                 HashStartResult startResult = new HashStartResult("tx-123", "sid-abc", "deadbeef");
-                when(sdkClient.startProcess(any(byte[].class), eq("1:[100,200,150,50]")))
+                when(sdkClient.startProcess(any(Path.class), eq("1:[100,200,150,50]")))
                                 .thenReturn(startResult);
 
                 when(jobRepository.save(any(SigningJob.class))).thenAnswer(inv -> {
@@ -80,10 +90,13 @@ class SingleHashSignServiceTest {
                         return j;
                 });
 
-                when(stateService.generateState(eq("HASH_SIGN"), isNull(), eq(userId)))
+                when(stateService.generateState(eq("HASH_SIGN"), isNull(), eq(userId), eq(jobId)))
                                 .thenReturn("test-state-123");
 
-                HashSignJobDto result = service.initiate(userId, "test".getBytes(), request);
+                HashSignJobDto result;
+                try (SpooledUpload pdf = SpooledUpload.spool(new ByteArrayInputStream("test".getBytes()))) {
+                        result = service.initiate(userId, pdf, request);
+                }
 
                 assertNotNull(result);
                 assertEquals(jobId, result.getJobId());
@@ -92,10 +105,13 @@ class SingleHashSignServiceTest {
                 assertTrue(result.getSigningUrl().contains("sign_identity_id=sid-abc"));
                 assertTrue(result.getSigningUrl().contains("state=test-state-123"));
 
-                verify(storageService).upload(any(byte[].class),
+                verify(storageService).upload(any(Path.class),
                                 contains("hashsign/unsigned/"), eq("application/pdf"));
                 verify(auditService).log(eq(userId), eq("HASH_SIGN_INITIATED"),
                                 eq("SigningJob"), anyString(), isNull(), anyMap());
+                verify(documentService).createAll(eq(jobId), argThat(docs -> docs.size() == 1
+                                && "tx-123".equals(docs.get(0).getTxId())
+                                && "1:[100,200,150,50]".equals(docs.get(0).getSignProp())));
         }
 
         @Test
@@ -110,18 +126,23 @@ class SingleHashSignServiceTest {
                                 .signingType("HASH")
                                 .status("AWAITING_USER")
                                 .signIdentityId("sid-abc")
-                                .documents("{\"txId\":\"tx-123\",\"digest\":\"deadbeef\",\"signProp\":\"1:[0,0,100,50]\"}")
                                 .build();
+                SigningJobDocument document = SigningJobDocument.builder()
+                                .id(UUID.randomUUID()).jobId(jobId).txId("tx-123").status("PENDING").build();
 
                 when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+                when(documentService.forJob(job)).thenReturn(List.of(document));
                 when(jobRepository.save(any(SigningJob.class))).thenAnswer(inv -> inv.getArgument(0));
 
                 byte[] signedPdf = "%PDF-1.4 signed".getBytes();
                 byte[] ltvPdf = "%PDF-1.4 signed+ltv".getBytes();
 
-                when(sdkClient.signDocument("tx-123", "sid-abc", "access-token"))
-                                .thenReturn(signedPdf);
-                when(ltvService.applyLtv(eq(signedPdf), eq(jobId)))
+                when(sdkClient.signDocument(isNull(), eq("tx-123"), eq("sid-abc"), eq("access-token"), any(Path.class)))
+                                .thenAnswer(inv -> {
+                                        Files.write(inv.getArgument(4), signedPdf);
+                                        return (long) signedPdf.length;
+                                });
+                when(ltvService.applyLtv(aryEq(signedPdf), eq(jobId)))
                                 .thenReturn(ltvPdf);
 
                 service.complete(jobId, "access-token");
@@ -130,10 +151,12 @@ class SingleHashSignServiceTest {
                 assertTrue(job.getLtvApplied());
                 assertNotNull(job.getCompletedAt());
 
-                verify(storageService).upload(eq(signedPdf),
+                verify(storageService).upload(any(Path.class),
                                 contains("hashsign/signed/"), eq("application/pdf"));
                 verify(storageService).upload(eq(ltvPdf),
                                 contains("hashsign/signed-ltv/"), eq("application/pdf"));
+                verify(documentService).markSigned(document.getId(), "hashsign/signed/" + jobId + ".pdf",
+                                "hashsign/signed-ltv/" + jobId + ".pdf");
         }
 
         @Test
@@ -147,17 +170,20 @@ class SingleHashSignServiceTest {
                                 .signingType("HASH")
                                 .status("AWAITING_USER")
                                 .signIdentityId("sid-abc")
-                                .documents("{\"txId\":\"tx-fail\"}")
                                 .build();
+                SigningJobDocument document = SigningJobDocument.builder()
+                                .id(UUID.randomUUID()).jobId(jobId).txId("tx-fail").status("PENDING").build();
 
                 when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+                when(documentService.forJob(job)).thenReturn(List.of(document));
                 when(jobRepository.save(any(SigningJob.class))).thenAnswer(inv -> inv.getArgument(0));
-                when(sdkClient.signDocument(anyString(), anyString(), anyString()))
+                when(sdkClient.signDocument(any(), anyString(), anyString(), anyString(), any(Path.class)))
                                 .thenThrow(new HashSignSdkUnavailableException("SDK down"));
 
                 service.complete(jobId, "token");
 
                 assertEquals("FAILED", job.getStatus());
                 assertNotNull(job.getErrorMessage());
+                verify(documentService).markFailed(eq(document.getId()), anyString());
         }
 }
@@ -33,9 +33,11 @@ class AutoLinkingServiceTest {
     @InjectMocks
     private AutoLinkingService autoLinkingService;
 
+    private final IdnBlindIndex idnBlindIndex = new IdnBlindIndex("test-key-for-auto-link!!");
+
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(autoLinkingService, "idnEncryptionKey", "test-key-for-auto-link!!");
+        ReflectionTestUtils.setField(autoLinkingService, "idnBlindIndex", idnBlindIndex);
     }
 
     @Test
@@ -65,7 +67,7 @@ class AutoLinkingServiceTest {
 
         assertNull(result);
         // Should never attempt idn lookup for SOP1
-        verify(userRepository, never()).findByIdn(anyString());
+        verify(userRepository, never()).findByIdnBidx(anyString());
     }
 
     @Test
@@ -76,7 +78,7 @@ class AutoLinkingServiceTest {
         User result = autoLinkingService.tryAutoLink("visitor-uuid-2", "some-idn", "SOP1");
 
         assertNull(result);
-        verify(userRepository, never()).findByIdn(anyString());
+        verify(userRepository, never()).findByIdnBidx(anyString());
     }
 
     @Test
@@ -87,7 +89,9 @@ class AutoLinkingServiceTest {
                 .build();
 
         when(userRepository.findByUaepassUuid("new-uuid")).thenReturn(Optional.empty());
-        when(userRepository.findByIdn(anyString())).thenReturn(Optional.of(existingByIdn));
+        // Formatting of the incoming idn does not change the index
+        when(userRepository.findByIdnBidx(idnBlindIndex.compute("784123456789012")))
+                .thenReturn(Optional.of(existingByIdn));
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
         User result = autoLinkingService.tryAutoLink("new-uuid", "784-1234-5678901-2", "SOP2");
@@ -106,7 +110,7 @@ class AutoLinkingServiceTest {
                 .build();
 
         when(userRepository.findByUaepassUuid("citizen-uuid")).thenReturn(Optional.empty());
-        when(userRepository.findByIdn(anyString())).thenReturn(Optional.of(existingByIdn));
+        when(userRepository.findByIdnBidx(anyString())).thenReturn(Optional.of(existingByIdn));
         when(userRepository.save(any(User.class))).thenAnswer(inv -> inv.getArgument(0));
 
         User result = autoLinkingService.tryAutoLink("citizen-uuid", "784-9876-5432109-8", "SOP3");
@@ -124,14 +128,14 @@ class AutoLinkingServiceTest {
         User result = autoLinkingService.tryAutoLink("uuid-no-idn", "", "SOP2");
 
         assertNull(result);
-        verify(userRepository, never()).findByIdn(anyString());
+        verify(userRepository, never()).findByIdnBidx(anyString());
     }
 
     @Test
     @DisplayName("SOP2 with idn but no idn match — should return null (new user)")
     void sop2IdnNoMatch() {
         when(userRepository.findByUaepassUuid("uuid-nomatch")).thenReturn(Optional.empty());
-        when(userRepository.findByIdn(anyString())).thenReturn(Optional.empty());
+        when(userRepository.findByIdnBidx(anyString())).thenReturn(Optional.empty());
 
         User result = autoLinkingService.tryAutoLink("uuid-nomatch", "784-0000-0000000-0", "SOP2");
 
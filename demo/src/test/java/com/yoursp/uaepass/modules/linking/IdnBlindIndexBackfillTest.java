@@ -0,0 +1,98 @@
+package com.yoursp.uaepass.modules.linking;
+
+import com.yoursp.uaepass.modules.auth.AesGcmCrypto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class IdnBlindIndexBackfillTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final AesGcmCrypto idnCrypto = new AesGcmCrypto("test-encryption-key-for-idn!!");
+    private final IdnBlindIndex idnBlindIndex = new IdnBlindIndex("test-bidx-key");
+    private IdnBlindIndexBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new IdnBlindIndexBackfill(jdbcTemplate, idnCrypto, idnBlindIndex, 2);
+    }
+
+    @Test
+    @DisplayName("should index every page in one batch per page, then stop running")
+    void indexesAllPagesThenCompletes() {
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        UUID c = new UUID(0, 3);
+        when(jdbcTemplate.queryForList(anyString(), any(UUID.class), eq(2)))
+                .thenReturn(List.of(row(a, "784000000000001"), row(b, "784000000000002")))
+                .thenReturn(List.of(row(c, "784000000000003")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(inv -> {
+            List<Object[]> batch = inv.getArgument(1);
+            return new int[batch.size()];
+        });
+
+        backfill.backfill();
+
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture());
+        Object[] first = batches.getAllValues().get(0).get(0);
+        assertEquals(idnBlindIndex.compute("784000000000001"), first[0]);
+        assertEquals(a, first[1]);
+        // Second page starts after the last id of the first
+        verify(jdbcTemplate).queryForList(anyString(), eq(b), eq(2));
+
+        // Nothing left: the next pass marks the job complete, later passes skip the query
+        backfill.backfill();
+        backfill.backfill();
+        verify(jdbcTemplate, times(3)).queryForList(anyString(), any(UUID.class), eq(2));
+    }
+
+    @Test
+    @DisplayName("duplicate idn should only skip the conflicting row")
+    void duplicateFallsBackToSingleRows() {
+        UUID a = new UUID(0, 1);
+        UUID b = new UUID(0, 2);
+        when(jdbcTemplate.queryForList(anyString(), any(UUID.class), eq(2)))
+                .thenReturn(List.of(row(a, "784000000000001"), row(b, "784000000000001")))
+                .thenReturn(List.of());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DuplicateKeyException("dup"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("dup"));
+
+        assertEquals(1, backfill.backfill());
+    }
+
+    @Test
+    @DisplayName("undecryptable idn should be skipped")
+    void skipsUndecryptableRows() {
+        when(jdbcTemplate.queryForList(anyString(), any(UUID.class), eq(2)))
+                .thenReturn(List.of(Map.of("id", new UUID(0, 1), "idn", "not-a-ciphertext")));
+
+        assertEquals(0, backfill.backfill());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    private Map<String, Object> row(UUID id, String idn) {
+        return Map.of("id", id, "idn", idnCrypto.encrypt(idn));
+    }
+}
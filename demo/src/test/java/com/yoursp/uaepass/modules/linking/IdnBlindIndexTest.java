@@ -0,0 +1,43 @@
+package com.yoursp.uaepass.modules.linking;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdnBlindIndexTest {
+
+    private final IdnBlindIndex index = new IdnBlindIndex("test-bidx-key");
+
+    @Test
+    @DisplayName("same idn should always give the same 64-char hex index")
+    void deterministic() {
+        String first = index.compute("784199012345671");
+
+        assertEquals(first, index.compute("784199012345671"));
+        assertEquals(64, first.length());
+        assertTrue(first.matches("[0-9a-f]+"));
+    }
+
+    @Test
+    @DisplayName("dashes and spaces should not change the index")
+    void normalisesFormatting() {
+        assertEquals(index.compute("784199012345671"), index.compute("784-1990-1234567-1"));
+        assertEquals(index.compute("784199012345671"), index.compute(" 784 1990 1234567 1 "));
+    }
+
+    @Test
+    @DisplayName("different idns or keys should give different indexes")
+    void distinct() {
+        assertNotEquals(index.compute("784199012345671"), index.compute("784199012345672"));
+        assertNotEquals(index.compute("784199012345671"),
+                new IdnBlindIndex("other-key").compute("784199012345671"));
+    }
+
+    @Test
+    @DisplayName("null or digit-free input should give null")
+    void nothingToIndex() {
+        assertNull(index.compute(null));
+        assertNull(index.compute("--"));
+    }
+}
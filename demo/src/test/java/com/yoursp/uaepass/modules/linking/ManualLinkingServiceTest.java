@@ -1,6 +1,8 @@
 package com.yoursp.uaepass.modules.linking;
 
 import com.yoursp.uaepass.model.entity.User;
+import com.yoursp.uaepass.modules.auth.SessionCache;
+import com.yoursp.uaepass.modules.auth.SessionRevocationList;
 import com.yoursp.uaepass.modules.linking.exception.LinkConflictException;
 import com.yoursp.uaepass.repository.UserRepository;
 import com.yoursp.uaepass.repository.UserSessionRepository;
@@ -34,6 +36,12 @@ class ManualLinkingServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private SessionCache sessionCache;
+
+    @Mock
+    private SessionRevocationList revocationList;
+
     @InjectMocks
     private ManualLinkingService manualLinkingService;
 
@@ -125,6 +133,8 @@ class ManualLinkingServiceTest {
         assertNull(user.getUaepassUuid());
         assertNull(user.getLinkedAt());
         verify(sessionRepository).deleteByUserId(userId);
+        verify(sessionCache).revokeUser(userId);
+        verify(revocationList).revokeUser(userId);
         verify(auditService).log(eq(userId), eq("UNLINK"), eq("USER"), any(), any(), any());
     }
 
@@ -140,6 +150,7 @@ class ManualLinkingServiceTest {
 
         // Should NOT invalidate sessions or log audit
         verify(sessionRepository, never()).deleteByUserId(any());
+        verifyNoInteractions(sessionCache, revocationList);
         verify(auditService, never()).log(any(), any(), any(), any(), any(), any());
     }
 }
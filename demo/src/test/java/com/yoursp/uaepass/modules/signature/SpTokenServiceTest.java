@@ -9,14 +9,18 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
-@SuppressWarnings("null")
+@SuppressWarnings({ "null", "unchecked" })
 class SpTokenServiceTest {
 
     @Mock
@@ -42,26 +46,61 @@ class SpTokenServiceTest {
     }
 
     @Test
-    @DisplayName("Returns cached token if available in Redis")
+    @DisplayName("Returns cached token from Redis, then from memory")
     void returnsCachedToken() {
+        long now = System.currentTimeMillis();
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(valueOps.get("sp_sign_token"))
+                .thenReturn((now + 600_000) + ":" + (now + 3_600_000) + ":cached-sp-token-12345678");
+
+        assertEquals("cached-sp-token-12345678", spTokenService.getSpAccessToken());
+        assertEquals("cached-sp-token-12345678", spTokenService.getSpAccessToken());
+
+        verify(valueOps, times(1)).get("sp_sign_token");
+    }
+
+    @Test
+    @DisplayName("Token due for refresh is still returned while a newer one is loaded")
+    void refreshAheadKeepsServingCurrentToken() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        ReflectionTestUtils.setField(spTokenService, "current",
+                new SpTokenService.SpToken("old-token", now - 1, now + 600_000));
         when(redisTemplate.opsForValue()).thenReturn(valueOps);
-        when(valueOps.get("sp_sign_token")).thenReturn("cached-sp-token-12345678");
+        when(valueOps.get("sp_sign_token"))
+                .thenReturn((now + 2_400_000) + ":" + (now + 3_600_000) + ":new-token");
+
+        assertEquals("old-token", spTokenService.getSpAccessToken());
+
+        for (int i = 0; i < 50 && "old-token".equals(spTokenService.getSpAccessToken()); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals("new-token", spTokenService.getSpAccessToken());
+    }
 
-        String token = spTokenService.getSpAccessToken();
+    @Test
+    @DisplayName("Fallback never returns a token past its expiry")
+    void fallbackRejectsExpiredToken() {
+        long now = System.currentTimeMillis();
+        ReflectionTestUtils.setField(spTokenService, "current",
+                new SpTokenService.SpToken("expired-token", now - 120_000, now - 1));
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
 
-        assertEquals("cached-sp-token-12345678", token);
+        assertThrows(RuntimeException.class, () -> ReflectionTestUtils.invokeMethod(
+                spTokenService, "getSpTokenFallback", new RuntimeException("down")));
     }
 
     @Test
-    @DisplayName("Cache miss → attempts HTTP call (will fail without real server)")
+    @DisplayName("Cache miss → attempts HTTP call under the Redis lock (will fail without real server)")
     void noCachedToken_attemptsHttpCall() {
         when(redisTemplate.opsForValue()).thenReturn(valueOps);
         when(valueOps.get("sp_sign_token")).thenReturn(null);
+        when(valueOps.setIfAbsent(eq("sp_sign_token_lock"), anyString(), any(Duration.class))).thenReturn(true);
         when(uaePassProperties.getClientId()).thenReturn("test-client");
         when(uaePassProperties.getClientSecret()).thenReturn("test-secret");
 
         // WebClient will fail since there's no real server — validates cache-first
         // logic
         assertThrows(Exception.class, () -> spTokenService.getSpAccessToken());
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), anyString());
     }
 }
@@ -1,6 +1,7 @@
 package com.yoursp.uaepass.modules.webreg;
 
 import com.yoursp.uaepass.config.UaePassProperties;
+import com.yoursp.uaepass.modules.auth.AesGcmCrypto;
 import com.yoursp.uaepass.modules.auth.StateService;
 import com.yoursp.uaepass.modules.auth.UserSyncService;
 import com.yoursp.uaepass.repository.UserSessionRepository;
@@ -51,7 +52,7 @@ class WebRegControllerTest {
     void setUp() {
         ReflectionTestUtils.setField(controller, "frontendUrl", "http://localhost:4200");
         ReflectionTestUtils.setField(controller, "appBaseUrl", "http://localhost:8080");
-        ReflectionTestUtils.setField(controller, "tokenEncryptionKey", "test-key-32-chars-for-encryption!");
+        ReflectionTestUtils.setField(controller, "tokenCrypto", new AesGcmCrypto("test-key-32-chars-for-encryption!"));
     }
 
     @Test
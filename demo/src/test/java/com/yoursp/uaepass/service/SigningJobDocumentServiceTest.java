@@ -0,0 +1,109 @@
+package com.yoursp.uaepass.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoursp.uaepass.model.entity.SigningJob;
+import com.yoursp.uaepass.model.entity.SigningJobDocument;
+import com.yoursp.uaepass.repository.SigningJobDocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({ "null", "unchecked" })
+class SigningJobDocumentServiceTest {
+
+    @Mock
+    private SigningJobDocumentRepository documentRepository;
+
+    private SigningJobDocumentService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SigningJobDocumentService(documentRepository, new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("forJob: existing rows are returned without touching the legacy JSON")
+    void forJobReturnsRows() {
+        UUID jobId = UUID.randomUUID();
+        SigningJob job = SigningJob.builder().id(jobId).documents("[{\"txId\":\"ignored\"}]").build();
+        List<SigningJobDocument> rows = List.of(SigningJobDocument.builder().jobId(jobId).docIndex(0).build());
+        when(documentRepository.findByJobIdOrderByDocIndexAsc(jobId)).thenReturn(rows);
+
+        assertSame(rows, service.forJob(job));
+        verify(documentRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("forJob: a legacy documents array is imported in order, keeping finished outcomes")
+    void forJobImportsLegacyArray() {
+        UUID jobId = UUID.randomUUID();
+        SigningJob job = SigningJob.builder()
+                .id(jobId)
+                .signIdentityId("job-identity")
+                .documents("[{\"index\":0,\"fileName\":\"a.pdf\",\"txId\":\"tx-1\",\"sdkUrl\":\"http://sdk-b:8081\","
+                        + "\"status\":\"SIGNED\",\"signedKey\":\"hashsign/signed/tx-1.pdf\"},"
+                        + "{\"index\":1,\"name\":\"b.pdf\",\"url\":\"https://docs/b\",\"status\":\"AWAITING\"}]")
+                .build();
+        when(documentRepository.findByJobIdOrderByDocIndexAsc(jobId)).thenReturn(List.of());
+        when(documentRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<SigningJobDocument> rows = service.forJob(job);
+
+        assertEquals(2, rows.size());
+        assertEquals("a.pdf", rows.get(0).getFileName());
+        assertEquals("SIGNED", rows.get(0).getStatus());
+        assertEquals("hashsign/signed/tx-1.pdf", rows.get(0).getSignedKey());
+        assertEquals("http://sdk-b:8081", rows.get(0).getSdkUrl());
+        assertEquals("job-identity", rows.get(0).getSignIdentityId());
+        assertEquals(1, rows.get(1).getDocIndex());
+        assertEquals("b.pdf", rows.get(1).getFileName());
+        assertEquals("https://docs/b", rows.get(1).getDocumentUrl());
+        assertEquals("PENDING", rows.get(1).getStatus());
+    }
+
+    @Test
+    @DisplayName("forJob: the single-object JSON of HASH jobs becomes one row")
+    void forJobImportsSingleObject() {
+        UUID jobId = UUID.randomUUID();
+        SigningJob job = SigningJob.builder()
+                .id(jobId)
+                .documents("{\"txId\":\"tx-123\",\"digest\":\"deadbeef\",\"signProp\":\"1:[0,0,100,50]\"}")
+                .build();
+        when(documentRepository.findByJobIdOrderByDocIndexAsc(jobId)).thenReturn(List.of());
+        when(documentRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<SigningJobDocument> rows = service.forJob(job);
+
+        assertEquals(1, rows.size());
+        assertEquals(0, rows.get(0).getDocIndex());
+        assertEquals("tx-123", rows.get(0).getTxId());
+        assertEquals("deadbeef", rows.get(0).getDigest());
+        assertEquals("1:[0,0,100,50]", rows.get(0).getSignProp());
+    }
+
+    @Test
+    @DisplayName("createAll: rows are attached to the job before insert")
+    void createAllSetsJobId() {
+        UUID jobId = UUID.randomUUID();
+        when(documentRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        service.createAll(jobId, List.of(SigningJobDocument.builder().docIndex(0).build(),
+                SigningJobDocument.builder().docIndex(1).build()));
+
+        ArgumentCaptor<List<SigningJobDocument>> saved = ArgumentCaptor.forClass(List.class);
+        verify(documentRepository).saveAll(saved.capture());
+        assertTrue(saved.getValue().stream().allMatch(d -> jobId.equals(d.getJobId())));
+    }
+}
@@ -0,0 +1,91 @@
+package com.yoursp.uaepass.service.upload;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpooledUploadTest {
+
+    @Test
+    @DisplayName("Multipart file is spooled to disk with size and filename preserved")
+    void spoolMultipartFile() throws Exception {
+        byte[] content = "%PDF-1.4 spooled".getBytes();
+        MockMultipartFile file = new MockMultipartFile("file", "doc.pdf", "application/pdf", content);
+
+        try (SpooledUpload upload = SpooledUpload.spool(file)) {
+            assertTrue(Files.exists(upload.path()));
+            assertEquals(content.length, upload.size());
+            assertEquals("doc.pdf", upload.originalFilename());
+            assertArrayEquals(content, Files.readAllBytes(upload.path()));
+        }
+    }
+
+    @Test
+    @DisplayName("head(n) reads only the leading bytes")
+    void headReadsLeadingBytes() throws Exception {
+        try (SpooledUpload upload = SpooledUpload.spool(new ByteArrayInputStream("%PDF-1.7 body".getBytes()))) {
+            assertArrayEquals("%PDF-".getBytes(), upload.head(5));
+        }
+        try (SpooledUpload upload = SpooledUpload.spool(new ByteArrayInputStream("ab".getBytes()))) {
+            assertArrayEquals("ab".getBytes(), upload.head(5));
+        }
+    }
+
+    @Test
+    @DisplayName("Stream, mapped buffer and Base64 views match the original content")
+    void viewsMatchContent() throws Exception {
+        byte[] content = new byte[70_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+
+        try (SpooledUpload upload = SpooledUpload.spool(new ByteArrayInputStream(content))) {
+            try (InputStream in = upload.openStream()) {
+                assertArrayEquals(content, in.readAllBytes());
+            }
+
+            MappedByteBuffer mapped = upload.map();
+            byte[] fromMap = new byte[mapped.remaining()];
+            mapped.get(fromMap);
+            assertArrayEquals(content, fromMap);
+
+            assertEquals(Base64.getEncoder().encodeToString(content), upload.toBase64());
+        }
+    }
+
+    @Test
+    @DisplayName("sha256() matches a digest of the original content")
+    void sha256MatchesContent() throws Exception {
+        byte[] content = new byte[70_001];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 7);
+        }
+        try (SpooledUpload upload = SpooledUpload.spool(new ByteArrayInputStream(content))) {
+            byte[] expected = MessageDigest.getInstance("SHA-256").digest(content);
+            assertArrayEquals(expected, upload.sha256());
+            assertArrayEquals(expected, upload.sha256());
+        }
+    }
+
+    @Test
+    @DisplayName("close() deletes the spooled temp file")
+    void closeDeletesFile() throws Exception {
+        SpooledUpload upload = SpooledUpload.spool(new ByteArrayInputStream(new byte[] { 1, 2, 3 }));
+        Path path = upload.path();
+        assertTrue(Files.exists(path));
+
+        upload.close();
+
+        assertFalse(Files.exists(path));
+    }
+}
@@ -0,0 +1,60 @@
+package com.yoursp.uaepass.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base64StreamsTest {
+
+    @Test
+    @DisplayName("Encoding stream matches Base64.getEncoder() across chunk boundaries")
+    void encodingStreamMatchesEncoder() throws Exception {
+        for (int size : new int[] { 0, 1, 2, 3, 12_288, 12_289, 40_000 }) {
+            byte[] data = new byte[size];
+            new Random(size).nextBytes(data);
+            try (InputStream in = Base64Streams.encoding(new ByteArrayInputStream(data))) {
+                assertEquals(Base64.getEncoder().encodeToString(data), new String(in.readAllBytes()));
+            }
+            assertEquals(Base64.getEncoder().encodeToString(data).length(), Base64Streams.encodedLength(size));
+        }
+    }
+
+    @Test
+    @DisplayName("encodeToString produces the Base64 of a stream of known length")
+    void encodeToString() throws Exception {
+        byte[] data = new byte[30_001];
+        new Random(5).nextBytes(data);
+
+        assertEquals(Base64.getEncoder().encodeToString(data),
+                Base64Streams.encodeToString(new ByteArrayInputStream(data), data.length));
+    }
+
+    @Test
+    @DisplayName("encodeToString rejects a stream whose length differs from the declared one")
+    void encodeToStringLengthMismatch() {
+        assertThrows(IOException.class,
+                () -> Base64Streams.encodeToString(new ByteArrayInputStream(new byte[10]), 9));
+        assertThrows(IOException.class,
+                () -> Base64Streams.encodeToString(new ByteArrayInputStream(new byte[10]), 13));
+    }
+
+    @Test
+    @DisplayName("Decoding stream matches Base64.getDecoder() and rejects invalid input")
+    void decodingStreamMatchesDecoder() throws Exception {
+        for (int size : new int[] { 0, 1, 2, 3, 8_193, 40_000 }) {
+            byte[] data = new byte[size];
+            new Random(size).nextBytes(data);
+            try (InputStream in = Base64Streams.decoding(Base64.getEncoder().encodeToString(data))) {
+                assertArrayEquals(data, in.readAllBytes());
+            }
+        }
+        assertThrows(IOException.class, () -> Base64Streams.decoding("not*base64").readAllBytes());
+    }
+}
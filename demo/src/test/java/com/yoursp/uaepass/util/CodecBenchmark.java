@@ -0,0 +1,139 @@
+package com.yoursp.uaepass.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Hex} and {@link Digests} with the hand-rolled code they
+ * replaced: the bulk hash-sign digests_summary (hex-decode each SDK digest,
+ * concatenate, hash, {@code String.format} per byte) and the eSeal request id.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark=CodecBenchmark}
+ * or via {@link #main(String[])}. Add {@code -prof gc} for
+ * {@code gc.alloc.rate.norm} (bytes allocated per operation), which is the
+ * figure this change targets.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    /** Documents in a bulk job. */
+    @Param({ "1", "10", "50" })
+    public int documents;
+
+    private List<String> sdkDigests;
+    private byte[] requestIdBytes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        sdkDigests = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            byte[] digest = new byte[32];
+            random.nextBytes(digest);
+            sdkDigests.add(Hex.encode(digest));
+        }
+        requestIdBytes = new byte[10];
+        random.nextBytes(requestIdBytes);
+    }
+
+    @Benchmark
+    public String legacyDigestsSummary() throws Exception {
+        List<byte[]> parts = new ArrayList<>(sdkDigests.size());
+        for (String digest : sdkDigests) {
+            parts.add(Legacy.hexToBytes(digest));
+        }
+        return Legacy.computeDigestsSummary(parts);
+    }
+
+    @Benchmark
+    public String digestsSummary() {
+        List<byte[]> parts = new ArrayList<>(sdkDigests.size());
+        for (String digest : sdkDigests) {
+            parts.add(Hex.decode(digest));
+        }
+        return Hex.encode(Digests.sha256(parts));
+    }
+
+    @Benchmark
+    public String legacyRequestId() {
+        return Legacy.requestId(requestIdBytes);
+    }
+
+    @Benchmark
+    public String requestId() {
+        return Hex.encode(requestIdBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CodecBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+
+    /** Verbatim copies of the code formerly in BulkHashSignService and the eSeal services. */
+    static final class Legacy {
+
+        private Legacy() {
+        }
+
+        static String computeDigestsSummary(List<byte[]> digestBytesList) throws Exception {
+            int totalLen = digestBytesList.stream().mapToInt(b -> b.length).sum();
+            byte[] combined = new byte[totalLen];
+            int offset = 0;
+            for (byte[] digestBytes : digestBytesList) {
+                System.arraycopy(digestBytes, 0, combined, offset, digestBytes.length);
+                offset += digestBytes.length;
+            }
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(combined);
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        }
+
+        static byte[] hexToBytes(String hex) {
+            int len = hex.length();
+            byte[] data = new byte[len / 2];
+            for (int i = 0; i < len; i += 2) {
+                data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
+                        + Character.digit(hex.charAt(i + 1), 16));
+            }
+            return data;
+        }
+
+        static String requestId(byte[] bytes) {
+            StringBuilder sb = new StringBuilder(20);
+            for (byte b : bytes) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.yoursp.uaepass.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DigestsTest {
+
+    @Test
+    @DisplayName("byte[], ByteBuffer and InputStream variants agree with MessageDigest")
+    void variantsAgree() throws Exception {
+        byte[] data = new byte[200_003];
+        new Random(11).nextBytes(data);
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+
+        assertArrayEquals(expected, Digests.sha256(data));
+        assertArrayEquals(expected, Digests.sha256(ByteBuffer.wrap(data)));
+        assertArrayEquals(expected, Digests.sha256(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    @DisplayName("Parts are hashed as their concatenation")
+    void partsEqualConcatenation() throws Exception {
+        byte[] a = { 1, 2, 3 };
+        byte[] b = { 4, 5 };
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(new byte[] { 1, 2, 3, 4, 5 });
+
+        assertArrayEquals(expected, Digests.sha256(List.of(a, b)));
+    }
+
+    @Test
+    @DisplayName("Concurrent callers each get a correct digest")
+    void concurrentCallers() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                byte[] data = ("payload-" + i).getBytes();
+                results.add(pool.submit(() -> {
+                    byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+                    for (int n = 0; n < 100; n++) {
+                        if (!MessageDigest.isEqual(expected, Digests.sha256(data))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
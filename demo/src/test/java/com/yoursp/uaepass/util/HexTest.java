@@ -0,0 +1,51 @@
+package com.yoursp.uaepass.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexTest {
+
+    @Test
+    @DisplayName("encode matches HexFormat for every byte value")
+    void encodeMatchesHexFormat() {
+        byte[] all = new byte[256];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = (byte) i;
+        }
+        assertEquals(HexFormat.of().formatHex(all), Hex.encode(all));
+        assertEquals("", Hex.encode(new byte[0]));
+        assertEquals("0102", Hex.encode(all, 1, 2));
+    }
+
+    @Test
+    @DisplayName("decode correctly converts hex strings, either case")
+    void decodeCorrect() {
+        byte[] result = Hex.decode("deadBEEF");
+        assertEquals(4, result.length);
+        assertEquals((byte) 0xDE, result[0]);
+        assertEquals((byte) 0xAD, result[1]);
+        assertEquals((byte) 0xBE, result[2]);
+        assertEquals((byte) 0xEF, result[3]);
+    }
+
+    @Test
+    @DisplayName("decode(encode(x)) round-trips")
+    void roundTrip() {
+        byte[] data = new byte[1000];
+        new Random(3).nextBytes(data);
+        assertArrayEquals(data, Hex.decode(Hex.encode(data)));
+    }
+
+    @Test
+    @DisplayName("decode rejects odd lengths and non-hex characters")
+    void decodeRejectsMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("zz"));
+        assertThrows(IllegalArgumentException.class, () -> Hex.decode("a\u0660"));
+    }
+}